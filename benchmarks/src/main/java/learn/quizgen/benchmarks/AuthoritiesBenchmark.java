@@ -0,0 +1,31 @@
+package learn.quizgen.benchmarks;
+
+import learn.quizgen.models.AppUser;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Runs for every AppUser built from a database row, i.e. on every login.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class AuthoritiesBenchmark {
+
+    List<String> studentRoles = List.of("Student");
+    List<String> teacherRoles = List.of("Teacher", "Student");
+
+    @Benchmark
+    public List<GrantedAuthority> convertStudentRoles() {
+        return AppUser.convertRolesToAuthorities(studentRoles);
+    }
+
+    @Benchmark
+    public List<GrantedAuthority> convertTeacherRoles() {
+        return AppUser.convertRolesToAuthorities(teacherRoles);
+    }
+}
@@ -0,0 +1,84 @@
+package learn.quizgen.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Compares two JMH JSON result files, e.g. from the commit before and after a change:
+//   java -cp target/benchmarks.jar learn.quizgen.benchmarks.BenchmarkCompare base.json new.json [threshold%]
+// Exits with 1 when any benchmark got slower by more than the threshold (default 10%) and the
+// difference is larger than the two error margins combined.
+public class BenchmarkCompare {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BenchmarkCompare <base.json> <candidate.json> [threshold percent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+
+        Map<String, JsonNode> base = read(new File(args[0]));
+        Map<String, JsonNode> candidate = read(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-75s %14s %14s %9s%n", "benchmark", "base", "candidate", "change");
+        for (Map.Entry<String, JsonNode> entry : candidate.entrySet()) {
+            JsonNode before = base.get(entry.getKey());
+            if (before == null) {
+                continue;
+            }
+            JsonNode after = entry.getValue();
+
+            double beforeScore = before.path("primaryMetric").path("score").asDouble();
+            double afterScore = after.path("primaryMetric").path("score").asDouble();
+            double margin = error(before) + error(after);
+            String unit = after.path("primaryMetric").path("scoreUnit").asText();
+
+            // Lower is better for time per op, higher for ops per time
+            boolean lowerIsBetter = !unit.startsWith("ops/");
+            double change = (afterScore - beforeScore) / beforeScore * 100;
+            double worse = lowerIsBetter ? change : -change;
+            boolean regressed = worse > threshold && Math.abs(afterScore - beforeScore) > margin;
+            if (regressed) {
+                regressions++;
+            }
+
+            System.out.printf("%-75s %14.3f %14.3f %+8.1f%% %s%s%n", entry.getKey(), beforeScore, afterScore,
+                    change, unit, regressed ? "  REGRESSION" : "");
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%s benchmark(s) regressed by more than %s%%%n", regressions, threshold);
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            results.put(key(result), result);
+        }
+        return results;
+    }
+
+    // Benchmark method plus its @Param values, e.g. "...SerializationBenchmark.quiz numberOfQuestions=50"
+    private static String key(JsonNode result) {
+        StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+        Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+        while (params.hasNext()) {
+            Map.Entry<String, JsonNode> param = params.next();
+            key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+        }
+        return key.toString();
+    }
+
+    private static double error(JsonNode result) {
+        double error = result.path("primaryMetric").path("scoreError").asDouble();
+        return Double.isNaN(error) ? 0 : error;
+    }
+}
@@ -0,0 +1,136 @@
+package learn.quizgen.benchmarks;
+
+import learn.quizgen.models.Option;
+import learn.quizgen.models.Question;
+import learn.quizgen.models.Quiz;
+import learn.quizgen.models.QuizResult;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Payloads sized like real quizzes: questions and options the length the AI prompt produces and a
+// quiz_json column that holds the whole quiz.
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    // A ResultSet positioned on a single row. Only the getters the mappers use are answered; the
+    // lookup is a HashMap hit, so the mapper benchmarks measure the mapper and not a JDBC driver.
+    static ResultSet resultSet(Map<String, Object> row) {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getString":
+                            return (String) row.get((String) args[0]);
+                        case "getInt":
+                            Object value = row.get((String) args[0]);
+                            return value == null ? 0 : (Integer) value;
+                        case "getBoolean":
+                            return Boolean.TRUE.equals(row.get((String) args[0]));
+                        case "wasNull":
+                            return false;
+                        case "next":
+                            return false;
+                        case "close":
+                            return null;
+                        default:
+                            throw new SQLFeatureNotSupportedException(method.getName());
+                    }
+                });
+    }
+
+    static Map<String, Object> quizRow(int quizId, int numberOfQuestions, int numberOfOptions) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("quiz_id", quizId);
+        row.put("teacher_id", 7);
+        row.put("last_name", "Hamdan");
+        row.put("title", "Unit " + quizId + " Review");
+        row.put("description", "Covers the main ideas from the unit, answer every question before the bell.");
+        row.put("number_of_questions", numberOfQuestions);
+        row.put("number_of_options", numberOfOptions);
+        row.put("topic", "Ecosystems and biodiversity");
+        row.put("prompt", "Create a multiple choice quiz about ecosystems and biodiversity with "
+                + numberOfQuestions + " questions and " + numberOfOptions + " options per question.");
+        row.put("quiz_json", quizJson(numberOfQuestions, numberOfOptions));
+        return row;
+    }
+
+    static Map<String, Object> questionRow(int questionId, int quizId) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("question_id", questionId);
+        row.put("quiz_id", quizId);
+        row.put("question_text", questionText(questionId));
+        return row;
+    }
+
+    static Quiz quiz(int quizId, int numberOfQuestions, int numberOfOptions) {
+        Map<String, Object> row = quizRow(quizId, numberOfQuestions, numberOfOptions);
+        return new Quiz(quizId, 7, (String) row.get("last_name"), (String) row.get("title"),
+                (String) row.get("description"), numberOfQuestions, numberOfOptions, (String) row.get("topic"),
+                (String) row.get("prompt"), (String) row.get("quiz_json"));
+    }
+
+    static List<Question> questions(int quizId, int numberOfQuestions, int numberOfOptions) {
+        List<Question> questions = new ArrayList<>(numberOfQuestions);
+        int optionId = 1;
+        for (int q = 1; q <= numberOfQuestions; q++) {
+            Question question = new Question(q, quizId, questionText(q));
+            for (int o = 0; o < numberOfOptions; o++) {
+                question.getOptionList().add(new Option(optionId++, q, optionText(q, o), o == q % numberOfOptions));
+            }
+            questions.add(question);
+        }
+        return questions;
+    }
+
+    static List<QuizResult> quizResults(int count, int numberOfQuestions, int numberOfOptions) {
+        List<Question> questions = questions(1, numberOfQuestions, numberOfOptions);
+        List<QuizResult> results = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            int correct = (i * 7) % (numberOfQuestions + 1);
+            QuizResult result = new QuizResult(i, 100 + i, 1, correct, numberOfQuestions,
+                    correct * 100f / numberOfQuestions, "student" + i + "@school.org", "Unit 1 Review",
+                    "Ecosystems and biodiversity");
+            result.setQuestionList(questions);
+            List<Option> chosen = new ArrayList<>(numberOfQuestions);
+            for (Question question : questions) {
+                chosen.add(question.getOptionList().get((i + question.getQuestionId()) % numberOfOptions));
+            }
+            result.setOptionList(chosen);
+            results.add(result);
+        }
+        return results;
+    }
+
+    static String quizJson(int numberOfQuestions, int numberOfOptions) {
+        StringBuilder json = new StringBuilder("{\"questions\":[");
+        for (int q = 1; q <= numberOfQuestions; q++) {
+            if (q > 1) {
+                json.append(',');
+            }
+            json.append("{\"question\":\"").append(questionText(q)).append("\",\"options\":[");
+            for (int o = 0; o < numberOfOptions; o++) {
+                if (o > 0) {
+                    json.append(',');
+                }
+                json.append('"').append(optionText(q, o)).append('"');
+            }
+            json.append("],\"correct_answer\":\"").append(optionText(q, q % numberOfOptions)).append("\"}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private static String questionText(int q) {
+        return "Question " + q + ": Which of the following best describes the role of a keystone species in its ecosystem?";
+    }
+
+    private static String optionText(int q, int o) {
+        return "Answer " + (char) ('A' + o) + " for question " + q + ", a plausible sounding ecological statement";
+    }
+}
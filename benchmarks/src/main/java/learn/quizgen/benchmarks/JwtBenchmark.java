@@ -0,0 +1,41 @@
+package learn.quizgen.benchmarks;
+
+import learn.quizgen.models.AppUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import learn.quizgen.security.JwtConverter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JwtRequestFilter runs getUserFromToken on every authenticated request (timer included).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    JwtConverter converter = new JwtConverter(new SimpleMeterRegistry());
+    AppUser user;
+    String bearerToken;
+
+    @Setup
+    public void setup() {
+        user = new AppUser(1, "Tyler", "Smith", "tyler.smith@school.org", "$2a$10$hash",
+                false, List.of("Teacher", "Student"));
+        bearerToken = "Bearer " + converter.getTokenFromUser(user);
+    }
+
+    @Benchmark
+    public User getUserFromToken() {
+        return converter.getUserFromToken(bearerToken);
+    }
+
+    @Benchmark
+    public String getTokenFromUser() {
+        return converter.getTokenFromUser(user);
+    }
+}
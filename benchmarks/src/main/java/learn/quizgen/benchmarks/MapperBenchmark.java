@@ -0,0 +1,64 @@
+package learn.quizgen.benchmarks;
+
+import learn.quizgen.data.mapper.QuestionMapper;
+import learn.quizgen.data.mapper.QuizMapper;
+import learn.quizgen.models.Question;
+import learn.quizgen.models.Quiz;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+// Row mapping cost for the two mappers on the quiz read path. readColumnsOnly is the floor: the
+// same getter calls against the stub ResultSet without building a model.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    @Param({"10", "50"})
+    int numberOfQuestions;
+
+    @Param({"4"})
+    int numberOfOptions;
+
+    QuizMapper quizMapper = new QuizMapper();
+    QuestionMapper questionMapper = new QuestionMapper();
+    ResultSet quizRow;
+    ResultSet questionRow;
+
+    @Setup
+    public void setup() {
+        quizRow = Fixtures.resultSet(Fixtures.quizRow(1, numberOfQuestions, numberOfOptions));
+        questionRow = Fixtures.resultSet(Fixtures.questionRow(1, 1));
+    }
+
+    @Benchmark
+    public Quiz mapQuiz() throws SQLException {
+        return quizMapper.mapRow(quizRow, 0);
+    }
+
+    @Benchmark
+    public Question mapQuestion() throws SQLException {
+        return questionMapper.mapRow(questionRow, 0);
+    }
+
+    @Benchmark
+    public void readColumnsOnly(Blackhole blackhole) throws SQLException {
+        blackhole.consume(quizRow.getInt("quiz_id"));
+        blackhole.consume(quizRow.getInt("teacher_id"));
+        blackhole.consume(quizRow.getString("last_name"));
+        blackhole.consume(quizRow.getString("title"));
+        blackhole.consume(quizRow.getString("description"));
+        blackhole.consume(quizRow.getInt("number_of_questions"));
+        blackhole.consume(quizRow.getInt("number_of_options"));
+        blackhole.consume(quizRow.getString("topic"));
+        blackhole.consume(quizRow.getString("prompt"));
+        blackhole.consume(quizRow.getString("quiz_json"));
+    }
+}
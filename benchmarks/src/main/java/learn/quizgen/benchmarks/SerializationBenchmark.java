@@ -0,0 +1,60 @@
+package learn.quizgen.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import learn.quizgen.models.Question;
+import learn.quizgen.models.Quiz;
+import learn.quizgen.models.QuizResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Response bodies of the quiz, question and result endpoints, serialized the way Spring MVC does
+// it (one shared ObjectMapper, UTF-8 bytes).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"10", "50"})
+    int numberOfQuestions;
+
+    @Param({"4"})
+    int numberOfOptions;
+
+    // Rows returned by /api/quiz_result for a class that took the quiz
+    @Param({"30"})
+    int numberOfResults;
+
+    ObjectWriter writer = new ObjectMapper().writer();
+    Quiz quiz;
+    List<Question> questions;
+    List<QuizResult> quizResults;
+
+    @Setup
+    public void setup() {
+        quiz = Fixtures.quiz(1, numberOfQuestions, numberOfOptions);
+        questions = Fixtures.questions(1, numberOfQuestions, numberOfOptions);
+        quizResults = Fixtures.quizResults(numberOfResults, numberOfQuestions, numberOfOptions);
+    }
+
+    @Benchmark
+    public byte[] quiz() throws JsonProcessingException {
+        return writer.writeValueAsBytes(quiz);
+    }
+
+    @Benchmark
+    public byte[] questionsWithOptions() throws JsonProcessingException {
+        return writer.writeValueAsBytes(questions);
+    }
+
+    @Benchmark
+    public byte[] quizResults() throws JsonProcessingException {
+        return writer.writeValueAsBytes(quizResults);
+    }
+}
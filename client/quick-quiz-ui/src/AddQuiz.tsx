@@ -28,30 +28,6 @@ const defaultQuizOptions: QUIZ_FORM_OPTIONS = {
   quizJSON: "",
 };
 
-interface QUESTION_OPTIONS {
-  [key: string]: number | string | string[];
-  quizId: number;
-  questionText: string;
-}
-
-const defaultQuestionOptions: QUESTION_OPTIONS = {
-  quizId: -1,
-  questionText: "",
-};
-
-interface OPTION_OPTIONS {
-  [key: string]: number | string | boolean;
-  questionId: number;
-  optionText: string;
-  isCorrect: boolean;
-}
-
-const defaultOptionOptions: OPTION_OPTIONS = {
-  questionId: -1,
-  optionText: "",
-  isCorrect: false,
-};
-
 // === Helpers ===
 
 const API_BASE = "https://quick-quiz-257248753584.us-central1.run.app";
@@ -61,91 +37,53 @@ function getFromStorage(key: string): string | null {
   return localStorage.getItem(key);
 }
 
-// Normalize quiz JSON: enforce exactly `numberOfOptions` per question
-function normalizeQuizJson(rawJson: string, numberOfOptions: number): string {
-  type Question = {
-    question: string;
-    options?: string[];
-    correct_answer: string;
-    [key: string]: any;
-  };
-
-  type QuizShape = {
-    questions: Question[];
-    [key: string]: any;
-  };
-
-  let parsed: QuizShape;
-
-  try {
-    parsed = JSON.parse(rawJson);
-  } catch (e) {
-    console.error("Failed to parse OpenAI JSON in normalizeQuizJson:", e);
-    console.error("Raw JSON that failed:", rawJson);
-    throw e;
-  }
+type GENERATED_QUESTION = {
+  question: string;
+  options: string[];
+  correct_answer: string;
+};
 
-  if (!Array.isArray(parsed.questions)) {
-    console.error("Parsed JSON has no 'questions' array.");
-    throw new Error("Parsed JSON has no 'questions' array.");
+// Read the text/event-stream body and hand every complete event to onEvent
+async function readEventStream(
+  res: Response,
+  onEvent: (name: string, data: string) => void
+): Promise<void> {
+  if (!res.body) {
+    throw new Error("Streaming is not supported by this browser.");
   }
 
-  parsed.questions = parsed.questions.map((q, index) => {
-    if (!Array.isArray(q.options)) {
-      q.options = [];
-    }
-
-    // Clean out bad values
-    q.options = q.options
-      .filter((o) => typeof o === "string")
-      .map((o) => o.trim())
-      .filter((o) => o.length > 0);
-
-    // If correct_answer isn't in the options, force it in
-    if (typeof q.correct_answer === "string") {
-      if (!q.options.includes(q.correct_answer)) {
-        q.options.unshift(q.correct_answer);
-      }
-    }
-
-    // Remove duplicates while preserving order
-    const seen = new Set<string>();
-    q.options = q.options.filter((o) => {
-      if (seen.has(o)) return false;
-      seen.add(o);
-      return true;
-    });
-
-    // If more than N options, truncate
-    if (q.options.length > numberOfOptions) {
-      q.options = q.options.slice(0, numberOfOptions);
+  const reader = res.body.getReader();
+  const decoder = new TextDecoder();
+  let buffer = "";
+
+  while (true) {
+    const { done, value } = await reader.read();
+    if (done) break;
+    buffer += decoder.decode(value, { stream: true });
+
+    let boundary = buffer.indexOf("\n\n");
+    while (boundary >= 0) {
+      const rawEvent = buffer.slice(0, boundary);
+      buffer = buffer.slice(boundary + 2);
+
+      let name = "message";
+      const data: string[] = [];
+      rawEvent.split("\n").forEach((line) => {
+        if (line.startsWith("event:")) name = line.slice(6).trim();
+        else if (line.startsWith("data:")) data.push(line.slice(5));
+      });
+      onEvent(name, data.join("\n"));
+
+      boundary = buffer.indexOf("\n\n");
     }
-
-    // If fewer than N options, pad with dummy distractors
-    while (q.options.length < numberOfOptions) {
-      const label = String.fromCharCode(65 + q.options.length); // A, B, C, ...
-      q.options.push(`Placeholder option ${label} for question ${index + 1}`);
-    }
-
-    // Make sure correct_answer is still one of them
-    if (
-      typeof q.correct_answer === "string" &&
-      !q.options.includes(q.correct_answer)
-    ) {
-      // Force the first option to be correct if needed
-      q.options[0] = q.correct_answer;
-    }
-
-    return q;
-  });
-
-  return JSON.stringify(parsed);
+  }
 }
 
-// Call your backend AI endpoint (no direct OpenAI call from browser)
+// Call your backend AI endpoint (no direct OpenAI call from browser).
+// Questions are streamed back one by one so the author sees them while the rest generates.
 async function getOpenAiJSONResponse(
   input: string,
-  numberOfOptions: number
+  onQuestion: (question: GENERATED_QUESTION) => void
 ): Promise<string> {
   const storedToken = getFromStorage("token");
   if (!storedToken) {
@@ -156,15 +94,15 @@ async function getOpenAiJSONResponse(
   const rawToken = storedToken.trim().replace(/^Bearer\s+/i, "");
   const authHeader = `Bearer ${rawToken}`;
 
-  const res = await fetch(`${API_BASE}/api/ai/generate-quiz`, {
+  const res = await fetch(`${API_BASE}/api/ai/generate-quiz/stream`, {
     method: "POST",
     headers: {
       "Content-Type": "application/json",
+      Accept: "text/event-stream",
       Authorization: authHeader,
     },
     body: JSON.stringify({
       prompt: input,
-      numberOfOptions,
     }),
   });
 
@@ -174,19 +112,21 @@ async function getOpenAiJSONResponse(
     throw new Error(`Backend AI endpoint failed: ${res.status}`);
   }
 
-  const data = (await res.json()) as { quizJson: string };
-
-  // Clean/normalize here
-  try {
-    const normalized = normalizeQuizJson(data.quizJson, numberOfOptions);
-    console.log("Normalized quiz JSON:", JSON.parse(normalized));
-    return normalized;
-  } catch (e) {
-    console.error("Error during JSON normalization:", e);
-    console.error("Cleaned content that failed to normalize:", data.quizJson);
-    // Fallback: return original string (might still be usable / debuggable)
-    return data.quizJson;
+  let quizJson = "";
+  await readEventStream(res, (name, data) => {
+    if (name === "question") {
+      onQuestion(JSON.parse(data) as GENERATED_QUESTION);
+    } else if (name === "done") {
+      quizJson = (JSON.parse(data) as { quizJson: string }).quizJson;
+    }
+  });
+
+  if (!quizJson) {
+    throw new Error("The AI stream ended before the quiz was complete.");
   }
+
+  // Normalization (option count, correct answer, duplicates) happens on the server when the quiz is saved
+  return quizJson;
 }
 
 // Build the prompt sent to the AI
@@ -226,16 +166,19 @@ function AddQuiz() {
   const [quizForm, setQuizForm] =
     useState<QUIZ_FORM_OPTIONS>(defaultQuizOptions);
 
-  const [quizId, setQuizId] = useState<number>(-1);
-
   const [errors, setErrors] = useState<Array<string>>([]);
 
+  const [previewQuestions, setPreviewQuestions] = useState<
+    Array<GENERATED_QUESTION>
+  >([]);
+
   const navigate = useNavigate();
 
   // Submit handler
   async function onSubmit(e: React.FormEvent<HTMLFormElement>) {
     e.preventDefault();
     setErrors([]);
+    setPreviewQuestions([]);
 
     try {
       await addQuiz();
@@ -253,7 +196,7 @@ function AddQuiz() {
     // 1) Get quiz JSON from backend AI endpoint
     const quizJsonFromAi = await getOpenAiJSONResponse(
       prompt,
-      Number(quizForm.numberOfOptions)
+      (question) => setPreviewQuestions((prev) => [...prev, question])
     );
     quizForm.quizJSON = quizJsonFromAi;
 
@@ -300,10 +243,8 @@ function AddQuiz() {
         return;
       }
 
-      // 201 Created
-      if (data.quizId && data.quizJSON) {
-        setQuizId(data.quizId);
-        await addQuestionsAndOptions(data.quizJSON, data.quizId);
+      // 201 Created (questions and options are saved with the quiz)
+      if (data.quizId) {
         window.alert("Quiz created! Thank you for your patience.");
         navigate("/quizzes");
       } else {
@@ -317,111 +258,6 @@ function AddQuiz() {
     }
   }
 
-  async function addQuestionsAndOptions(inJSON: string, quizId: number) {
-    let jsonData: any;
-
-    try {
-      jsonData = JSON.parse(inJSON);
-    } catch (e) {
-      console.error("Failed to parse quiz JSON returned from backend:", e);
-      setErrors(["Failed to parse quiz JSON returned from server."]);
-      return;
-    }
-
-    if (!Array.isArray(jsonData.questions)) {
-      console.error("No 'questions' array in quiz JSON.");
-      setErrors(["Quiz JSON from server did not contain questions."]);
-      return;
-    }
-
-    const storedToken = getFromStorage("token");
-    if (!storedToken) {
-      throw new Error("No auth token found. Please log in again.");
-    }
-    const rawToken = storedToken.trim().replace(/^Bearer\s+/i, "");
-    const authHeader = `Bearer ${rawToken}`;
-
-    const initHeaders: Headers = new Headers();
-    initHeaders.append("Content-Type", "application/json");
-    initHeaders.append("Authorization", authHeader);
-
-    for (let i = 0; i < jsonData.questions.length; i++) {
-      const q = jsonData.questions[i];
-
-      const options = q.options;
-      if (!Array.isArray(options) || options.length === 0) {
-        console.warn(`Question ${i + 1} has no options.`);
-        continue;
-      }
-
-      const newQuestionForm: QUESTION_OPTIONS = {
-        ...defaultQuestionOptions,
-      };
-      newQuestionForm.quizId = quizId;
-      newQuestionForm.questionText = q.question;
-
-      let correctAnswer: string = q.correct_answer;
-
-      const questionInit: INIT = {
-        method: "POST",
-        headers: initHeaders,
-        body: JSON.stringify(newQuestionForm),
-      };
-
-      // POST the question to the server
-      const questionRes = await fetch(`${API_BASE}/api/questions`, questionInit);
-      if (questionRes.status !== 201 && questionRes.status !== 400) {
-        console.error(
-          `Unexpected Status Code when creating question: ${questionRes.status}`
-        );
-        continue;
-      }
-
-      const questionData = await questionRes.json();
-      console.log(
-        "Added question w/ quiz ID " +
-          newQuestionForm.quizId +
-          " with text " +
-          newQuestionForm.questionText
-      );
-
-      if (!questionData.questionId) {
-        setErrors(["Failed to create a question on the server."]);
-        continue;
-      }
-
-      // Now add options
-      for (let j = 0; j < options.length; j++) {
-        const newOptionForm: OPTION_OPTIONS = {
-          ...defaultOptionOptions,
-        };
-
-        newOptionForm.questionId = questionData.questionId;
-        newOptionForm.optionText = options[j];
-        newOptionForm.isCorrect = options[j] === correctAnswer;
-
-        const optionInit: INIT = {
-          method: "POST",
-          headers: initHeaders,
-          body: JSON.stringify(newOptionForm),
-        };
-
-        const optionRes = await fetch(`${API_BASE}/api/options`, optionInit);
-        if (optionRes.status !== 201 && optionRes.status !== 400) {
-          console.error(
-            `Unexpected Status Code when creating option: ${optionRes.status}`
-          );
-          continue;
-        }
-
-        const optionData = await optionRes.json();
-        if (!optionData.optionId) {
-          setErrors(["Failed to create an option on the server."]);
-        }
-      }
-    }
-  }
-
   function handleChange(input: React.FormEvent<HTMLInputElement>) {
     const { name, value } = input.currentTarget;
     const newQuizForm: QUIZ_FORM_OPTIONS = { ...quizForm };
@@ -545,6 +381,20 @@ function AddQuiz() {
             </Link>
           </div>
         </form>
+
+        {previewQuestions.length > 0 && (
+          <div className="mt-4">
+            <h4>
+              Generated {previewQuestions.length} of {quizForm.numberOfQuestions}{" "}
+              questions
+            </h4>
+            <ol>
+              {previewQuestions.map((q, index) => (
+                <li key={index}>{q.question}</li>
+              ))}
+            </ol>
+          </div>
+        )}
       </section>
     </>
   );
@@ -83,6 +83,30 @@ function QuizResultsList() {
         }
     }
 
+    // The server streams the CSV (gzipped on the wire, the browser inflates it)
+    function handleExport(withAnswers: boolean) {
+        fetch(`https://quick-quiz-257248753584.us-central1.run.app/api/exports/gradebook?answers=${withAnswers}`, {
+            headers: {
+                "Authorization": "Bearer " + localStorage.getItem('token')
+            }
+        })
+            .then(response => {
+                if (response.status === 200) {
+                    return response.blob();
+                } else {
+                    return Promise.reject(`Unexpected Status Code: ${response.status}`);
+                }
+            })
+            .then(blob => {
+                const link = document.createElement("a");
+                link.href = URL.createObjectURL(blob);
+                link.download = withAnswers ? "gradebook-answers.csv" : "gradebook.csv";
+                link.click();
+                URL.revokeObjectURL(link.href);
+            })
+            .catch(console.log)
+    }
+
     /*
     For reference:
     interface SCORES_OPTIONS {
@@ -97,6 +121,10 @@ function QuizResultsList() {
         return (<>
             <section className="container">
                 <h2 className="mb-4">Quiz Grades</h2>
+                <div className="mb-4">
+                    <button className="btn btn-outline-success mr-4" onClick={() => handleExport(false)}>Export CSV</button>
+                    <button className="btn btn-outline-success" onClick={() => handleExport(true)}>Export CSV with Answers</button>
+                </div>
                 <table className="table table-striped table-hover">
                     <thead className="thead-dark">
                         <tr>
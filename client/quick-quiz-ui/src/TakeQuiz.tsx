@@ -1,4 +1,4 @@
-import React, { useEffect, useState } from "react";
+import React, { useEffect, useRef, useState } from "react";
 import { useNavigate, useParams, Link } from "react-router-dom";
 
 interface INIT {
@@ -24,33 +24,18 @@ interface OPTION {
   correct: boolean;
 }
 
-// Result Options
-interface QUIZ_RESULT_OPTIONS {
-  quizResultId?: number; // Optional since it's auto-generated
-  userId: number;
+// The server keeps the attempt: its answers (question id to option id) survive a refresh,
+// and a timed attempt is submitted by the server when its deadline passes
+interface ATTEMPT {
+  attemptId: number;
   quizId: number;
-  correctAnswers: number;
-  totalQuestions: number;
-  score: number;
-  optionList: Array<OPTION>;
-  questionList: Array<TAKE_QUIZ_OPTIONS>;
-  username: string;
-  title: string;
-  topic: string;
+  answers: { [questionId: number]: number };
+  deadline: string | null;
 }
 
-let userAnswersTemplate: QUIZ_RESULT_OPTIONS = {
-  userId: 0,
-  quizId: 0,
-  correctAnswers: 0,
-  totalQuestions: 0,
-  score: 0.0,
-  optionList: [],
-  questionList: [],
-  username: "",
-  title: "",
-  topic: "",
-};
+const API: string = "https://quick-quiz-257248753584.us-central1.run.app/api";
+// Changed answers are sent at most this often, however fast the clicking
+const AUTOSAVE_MILLIS: number = 2000;
 
 function TakeQuiz() {
   // STATE
@@ -58,12 +43,13 @@ function TakeQuiz() {
     []
   );
   const [quizName, setQuizName] = useState<string>("");
-  const [userAnswers, setUserAnswers] = useState<{ [key: number]: string }>({}); // Using object to store answers
-  const [quizResult, setQuizResult] =
-    useState<QUIZ_RESULT_OPTIONS>(userAnswersTemplate);
+  const [userAnswers, setUserAnswers] = useState<{ [key: number]: number }>({}); // questionId -> optionId
+  const [attempt, setAttempt] = useState<ATTEMPT | null>(null);
+  const [secondsLeft, setSecondsLeft] = useState<number | null>(null);
   const [errors, setErrors] = useState<Array<string>>([]);
-  const [userId, setUserId] = useState<number>(0);
-  const url: string = "https://quick-quiz-257248753584.us-central1.run.app/api/quiz-results";
+  // Answers changed since the last autosave
+  const unsaved = useRef<{ [key: number]: number }>({});
+  const submitted = useRef<boolean>(false);
 
   const navigate = useNavigate();
   const { id } = useParams();
@@ -73,7 +59,7 @@ function TakeQuiz() {
     console.log("Quiz ID:", id); // Debug: Check the ID
 
     if (id) {
-      fetch(`https://quick-quiz-257248753584.us-central1.run.app/api/quizzes/${id}`, {
+      fetch(`${API}/quizzes/${id}`, {
         headers: {
           Authorization: "Bearer " + localStorage.getItem("token"),
         },
@@ -90,16 +76,9 @@ function TakeQuiz() {
         .then((data) => {
           console.log("Quiz Data: ", data);
           setQuizName(data.title);
-          setQuizResult({
-            ...quizResult,
-            totalQuestions: data.numberOfQuestions,
-            title: data.title,
-            topic: data.topic,
-            quizId: Number(id),
-          });
         })
         .catch((error) => console.log("Error fetching quiz data:", error));
-      fetch(`https://quick-quiz-257248753584.us-central1.run.app/api/questions/${id}`, {
+      fetch(`${API}/questions/${id}`, {
         headers: {
           Authorization: "Bearer " + localStorage.getItem("token"),
         },
@@ -119,122 +98,146 @@ function TakeQuiz() {
         })
         .catch((error) => console.log("Error fetching question data:", error));
 
-      // fetch to get userId
-      fetch(`https://quick-quiz-257248753584.us-central1.run.app/api/user/${localStorage.getItem('username')}`, {
+      // Starts the attempt, or resumes the open one with its saved answers
+      fetch(`${API}/attempts?quizId=${id}`, {
+        method: "POST",
         headers: {
           Authorization: "Bearer " + localStorage.getItem("token"),
         },
       })
         .then((response) => {
-          console.log("Response status:", response.status); // Debug: Log response status
-          if (response.status === 200) {
+          if (response.status === 201) {
             return response.json();
           } else {
-            console.error(`Unexpected Status Code: ${response.status}`);
             return Promise.reject(`Unexpected Status Code: ${response.status}`);
           }
         })
-        .then((data) => {
-          console.log("userId fetch data: ", data);
-          setUserId(data.appUserId);
+        .then((data: ATTEMPT) => {
+          console.log("Attempt: ", data);
+          setAttempt(data);
+          setUserAnswers({ ...data.answers, ...unsaved.current });
         })
-        .catch((error) => console.log("Error fetching question data:", error));
+        .catch((error) => console.log("Error starting attempt:", error));
     } else {
       setQuizQuestions([]);
       setQuizName("Pizza Quiz");
-      setQuizResult(userAnswersTemplate);
     }
   }, [id]); // Call on ID change
 
 
+  // Autosave: one request per interval with only the answers that changed
+  useEffect(() => {
+    if (!attempt) {
+      return;
+    }
+    const timer = setInterval(() => saveAnswers(attempt.attemptId), AUTOSAVE_MILLIS);
+    return () => {
+      clearInterval(timer);
+      // Leaving the page (Exit Quiz) still sends the last changes
+      saveAnswers(attempt.attemptId);
+    };
+  }, [attempt]);
+
+
+  // Countdown for timed quizzes; the server submits at the deadline, this only shows it
+  useEffect(() => {
+    if (!attempt || !attempt.deadline) {
+      return;
+    }
+    const deadline: number = Date.parse(attempt.deadline);
+    const timer = setInterval(() => {
+      const left: number = Math.max(0, Math.round((deadline - Date.now()) / 1000));
+      setSecondsLeft(left);
+      if (left === 0) {
+        clearInterval(timer);
+        submitAttempt();
+      }
+    }, 1000);
+    return () => clearInterval(timer);
+  }, [attempt]);
+
+
+  function saveAnswers(attemptId: number) {
+    const changes = unsaved.current;
+    if (submitted.current || Object.keys(changes).length === 0) {
+      return;
+    }
+    unsaved.current = {};
+
+    const init: INIT = {
+      method: "PUT",
+      headers: authHeaders(),
+      body: JSON.stringify(changes),
+    };
+    fetch(`${API}/attempts/${attemptId}/answers`, init)
+      .then((response) => {
+        if (response.status !== 204) {
+          return Promise.reject(`Unexpected Status Code: ${response.status}`);
+        }
+      })
+      .catch((error) => {
+        // Sent again with the next autosave, unless changed again since
+        unsaved.current = { ...changes, ...unsaved.current };
+        console.log("Error saving answers:", error);
+      });
+  }
+
+
   function handleSubmit(input: React.FormEvent<HTMLFormElement>) {
     input.preventDefault();
-    calculateScore();
-    addQuizResult();
-    navigate('/quizResults');
+    submitAttempt();
   }
 
 
-  function handleChange(
-    event: React.ChangeEvent<HTMLInputElement>,
-    questionId: number
-  ) {
-    const { value } = event.target;
-    setUserAnswers({ ...userAnswers, [questionId]: value });
+  function handleChange(questionId: number, optionId: number) {
+    setUserAnswers({ ...userAnswers, [questionId]: optionId });
+    unsaved.current = { ...unsaved.current, [questionId]: optionId };
   }
 
 
-  function addQuizResult() {
-    const token = localStorage.getItem("token") || "DEFAULT";
-    const initHeaders = new Headers();
-    initHeaders.append("Content-Type", "application/json");
-    initHeaders.append("Authorization", "Bearer " + token);
-
-    const calculatedScore = calculateScore();
-    const updatedQuizResult = {
-      ...quizResult,
-      score: calculatedScore,
-      userId: userId,
-      questionList: quizQuestions,
-      optionList: Object.entries(userAnswers).map(([questionId, answer]) => ({
-        questionId: Number(questionId),
-        optionText: answer,
-      })),
-      username: localStorage.getItem('username')
-    };
+  // The server grades the attempt and records the quiz result
+  function submitAttempt() {
+    if (!attempt || submitted.current) {
+      return;
+    }
+    submitted.current = true;
 
     const init: INIT = {
       method: "POST",
-      headers: initHeaders,
-      body: JSON.stringify(updatedQuizResult),
+      headers: authHeaders(),
+      body: JSON.stringify(unsaved.current),
     };
 
-    console.log("Payload being sent:", JSON.stringify(updatedQuizResult));
-
-    fetch(url, init)
+    fetch(`${API}/attempts/${attempt.attemptId}/submit`, init)
       .then((response) => {
-        if (response.status === 201 || response.status === 400) {
+        if (response.status === 200 || response.status === 400) {
           return response.json();
         } else {
           return Promise.reject(`Unexpected Status Code: ${response.status}`);
         }
       })
       .then((data) => {
-        if (data.quizResultId) {
-          navigate("/");
+        if (data.attemptId) {
+          unsaved.current = {};
+          navigate("/quizResults");
         } else {
+          submitted.current = false;
           setErrors(data);
         }
       })
-      .catch(console.log);
+      .catch((error) => {
+        submitted.current = false;
+        console.log(error);
+      });
   }
 
 
-  function calculateScore() {
-    let correctCount: number = 0;
-
-    quizQuestions.forEach((question) => {
-
-      const userAnswer: string = userAnswers[question.questionId];
-
-      const correctOption = question.optionList.find(
-        (option) => option.correct
-      );
-
-      if (correctOption && userAnswer === correctOption.optionText) {
-        correctCount++;
-      }
-    });
-
-    const scorePercentage: number = (correctCount / quizQuestions.length) * 100;
-
-    setUserAnswers((prevState) => ({
-      ...prevState,
-      correctAnswers: correctCount,
-      score: scorePercentage,
-    }));
-
-    return scorePercentage;
+  function authHeaders(): Headers {
+    const token = localStorage.getItem("token") || "DEFAULT";
+    const initHeaders = new Headers();
+    initHeaders.append("Content-Type", "application/json");
+    initHeaders.append("Authorization", "Bearer " + token);
+    return initHeaders;
   }
 
   // Render component
@@ -242,6 +245,11 @@ function TakeQuiz() {
     <>
       <section className="container">
         <h2 className="mb-4">{quizName}</h2>
+        {secondsLeft !== null && (
+          <p className="noBackground">
+            Time left: {Math.floor(secondsLeft / 60)}:{String(secondsLeft % 60).padStart(2, "0")}
+          </p>
+        )}
         {errors.length > 0 && (
           <div className="alert alert-danger">
             <p className="noBackground">The Following Errors Were Found:</p>
@@ -272,9 +280,10 @@ function TakeQuiz() {
                           id={option.optionText}
                           name={`question-${index}`}
                           value={option.optionText}
-                          onChange={(event) =>
-                            handleChange(event, quizQuestion.questionId)
-                          } // Pass questionId to handleChange
+                          checked={userAnswers[quizQuestion.questionId] === option.optionId}
+                          onChange={() =>
+                            handleChange(quizQuestion.questionId, option.optionId)
+                          }
                         />
                         <label htmlFor={option.optionText}>
                           {option.optionText}
@@ -10,7 +10,9 @@ CREATE TABLE app_user (
     last_name VARCHAR(25) NOT NULL,
     username VARCHAR(50) NOT NULL UNIQUE,
     password VARCHAR(2048) NOT NULL,
-    disabled BOOLEAN NOT NULL DEFAULT 0
+    disabled BOOLEAN NOT NULL DEFAULT 0,
+    -- Tenant the user belongs to (see TenantProperties)
+    school VARCHAR(50) NOT NULL DEFAULT 'default'
 );
 
 -- Create teacher table with a reference to app_user
@@ -34,6 +36,11 @@ CREATE TABLE quiz (
     topic VARCHAR(25) NOT NULL,
     prompt VARCHAR(250) NOT NULL,
     quiz_json TEXT NOT NULL,
+    time_limit_seconds INT NULL,
+    school VARCHAR(50) NOT NULL DEFAULT 'default',
+    -- Set when the quiz is deleted; QuizPurger removes it and its rows later
+    deleted_at TIMESTAMP NULL,
+    INDEX idx_quiz_deleted_at (deleted_at),
     CONSTRAINT fk_quiz_teacher_id
         FOREIGN KEY (teacher_id)
         REFERENCES teacher(teacher_id)
@@ -86,6 +93,7 @@ CREATE TABLE result (
     quiz_id INT NOT NULL,
     question_id INT NOT NULL,
     option_id INT NOT NULL,
+    INDEX idx_result_user_quiz (user_id, quiz_id, question_id),
     CONSTRAINT fk_result_user_id
         FOREIGN KEY (user_id)
         REFERENCES app_user(user_id)
@@ -129,6 +137,11 @@ CREATE TABLE quiz_result (
     correct_answers INT NOT NULL,
     total_questions INT NOT NULL,
     percent_correct DECIMAL(10, 2) NOT NULL,
+    submitted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    -- The attempt_answer row holding this result's answers; NULL for results graded before answers
+    -- were packed, whose answers are still result rows
+    attempt INT NULL,
+    INDEX idx_quiz_result_submitted_at (submitted_at),
     CONSTRAINT fk_quiz_result_user_id
         FOREIGN KEY (user_id)
         REFERENCES app_user(user_id)
@@ -139,6 +152,119 @@ CREATE TABLE quiz_result (
         ON DELETE CASCADE
 );
 
+-- One row per graded attempt, every answer of the attempt packed into answers (see
+-- PackedAnswersCodec), instead of a result row per question. attempt counts from 1 per user and quiz.
+CREATE TABLE attempt_answer (
+    user_id INT NOT NULL,
+    quiz_id INT NOT NULL,
+    attempt INT NOT NULL,
+    answers VARBINARY(2048) NOT NULL,
+    submitted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_attempt_answer PRIMARY KEY (user_id, quiz_id, attempt),
+    INDEX idx_attempt_answer_quiz_id (quiz_id),
+    CONSTRAINT fk_attempt_answer_user_id
+        FOREIGN KEY (user_id)
+        REFERENCES app_user(user_id)
+        ON DELETE CASCADE,
+    CONSTRAINT fk_attempt_answer_quiz_id
+        FOREIGN KEY (quiz_id)
+        REFERENCES quiz(quiz_id)
+        ON DELETE CASCADE
+);
+
+-- Per quiz bitmap index of which students picked which option (see AnswerIndex), kept up to date by
+-- AnswerIndexFolder from answer_index_delta. bitmaps is NULL until the index is first read, which builds
+-- it from attempt_answer.
+CREATE TABLE answer_index (
+    quiz_id INT PRIMARY KEY,
+    bitmaps MEDIUMBLOB NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    CONSTRAINT fk_answer_index_quiz_id
+        FOREIGN KEY (quiz_id)
+        REFERENCES quiz(quiz_id)
+        ON DELETE CASCADE
+);
+
+-- Attempts submitted since their quiz's answer_index was last folded. Submissions only append here, so
+-- they never wait on the index row; queries apply the pending rows on top of the stored bitmaps.
+CREATE TABLE answer_index_delta (
+    delta_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    quiz_id INT NOT NULL,
+    user_id INT NOT NULL,
+    attempt INT NOT NULL,
+    INDEX idx_answer_index_delta_quiz (quiz_id, delta_id)
+);
+
+-- Results of past terms, moved out of quiz_result and result by ResultArchiver. Same columns, no
+-- foreign keys (nothing writes here but the archiver and QuizPurger) and compressed pages: rows are
+-- read rarely, only when a request asks for archived results.
+CREATE TABLE quiz_result_archive (
+    quiz_result_id INT PRIMARY KEY,
+    user_id INT NOT NULL,
+    quiz_id INT NOT NULL,
+    correct_answers INT NOT NULL,
+    total_questions INT NOT NULL,
+    percent_correct DECIMAL(10, 2) NOT NULL,
+    submitted_at TIMESTAMP NOT NULL,
+    attempt INT NULL,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_quiz_result_archive_quiz_id (quiz_id),
+    INDEX idx_quiz_result_archive_user_id (user_id, quiz_id)
+) ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8;
+
+CREATE TABLE attempt_answer_archive (
+    user_id INT NOT NULL,
+    quiz_id INT NOT NULL,
+    attempt INT NOT NULL,
+    answers VARBINARY(2048) NOT NULL,
+    submitted_at TIMESTAMP NOT NULL,
+    CONSTRAINT pk_attempt_answer_archive PRIMARY KEY (user_id, quiz_id, attempt),
+    INDEX idx_attempt_answer_archive_quiz_id (quiz_id)
+) ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8;
+
+CREATE TABLE result_archive (
+    result_id INT PRIMARY KEY,
+    user_id INT NOT NULL,
+    quiz_id INT NOT NULL,
+    question_id INT NOT NULL,
+    option_id INT NOT NULL,
+    INDEX idx_result_archive_user_quiz (user_id, quiz_id),
+    INDEX idx_result_archive_quiz_id (quiz_id)
+) ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8;
+
+-- One row per quiz/question/option change, written in the same transaction. Every instance
+-- tails it by change_id to evict its local cache (see ChangeLogPoller).
+CREATE TABLE change_log (
+    change_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    entity VARCHAR(25) NOT NULL,
+    entity_id INT NOT NULL,
+    school VARCHAR(50) NOT NULL DEFAULT 'default',
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_change_log_changed_at (changed_at)
+);
+
+-- One row per attempt at a quiz. Open attempts (submitted_at IS NULL) of timed quizzes are
+-- auto-submitted at started_at + time_limit_seconds (see AttemptDeadlines).
+CREATE TABLE quiz_attempt (
+    attempt_id INT PRIMARY KEY AUTO_INCREMENT,
+    user_id INT NOT NULL,
+    quiz_id INT NOT NULL,
+    school VARCHAR(50) NOT NULL DEFAULT 'default',
+    started_at TIMESTAMP(3) NOT NULL,
+    time_limit_seconds INT NULL,
+    answers VARCHAR(4000) NOT NULL DEFAULT '',
+    submitted_at TIMESTAMP(3) NULL,
+    INDEX idx_quiz_attempt_open (submitted_at, user_id, quiz_id),
+    CONSTRAINT fk_quiz_attempt_user_id
+        FOREIGN KEY (user_id)
+        REFERENCES app_user(user_id)
+        ON DELETE CASCADE,
+    CONSTRAINT fk_quiz_attempt_quiz_id
+        FOREIGN KEY (quiz_id)
+        REFERENCES quiz(quiz_id)
+        ON DELETE CASCADE
+);
+
 -- Insert data into app_user table
 INSERT INTO app_user(user_id, first_name, last_name, username, password, disabled) VALUES
     (1, "Teacher", "Person", "teacherUsername", "password", 0),
@@ -183,7 +309,8 @@ INSERT INTO result(result_id, user_id, quiz_id, question_id, option_id) VALUES
 -- Insert data into role table
 INSERT INTO role(role_id, `name`) VALUES
     (1, "Student"),
-    (2, "Teacher");
+    (2, "Teacher"),
+    (3, "Admin");
 
 -- Insert data into user_role table
 INSERT INTO user_role(user_id, role_id) VALUES
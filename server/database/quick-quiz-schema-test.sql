@@ -9,7 +9,8 @@ create table app_user (
     last_name varchar(25) not null,
     username varchar(50) not null unique,
     password varchar(2048) not null,
-    disabled boolean not null default(0)
+    disabled boolean not null default(0),
+    school varchar(50) not null default 'default'
 );
 
 create table teacher (
@@ -30,6 +31,10 @@ create table quiz (
     topic varchar(25) not null,
     prompt varchar(250) not null,
     quiz_json text not null,
+    time_limit_seconds int null,
+    school varchar(50) not null default 'default',
+    deleted_at timestamp null,
+    index idx_quiz_deleted_at (deleted_at),
     constraint fk_quiz_teacher_id
         foreign key (teacher_id)
         references teacher(teacher_id)
@@ -73,6 +78,7 @@ create table result (
     quiz_id int not null,
     question_id int not null,
     option_id int not null,
+    index idx_result_user_quiz (user_id, quiz_id, question_id),
     constraint fk_result_user_id
         foreign key (user_id)
         references app_user(user_id),
@@ -112,6 +118,9 @@ create table quiz_result (
     correct_answers int not null,
     total_questions int not null,
     percent_correct decimal(10, 2) not null,
+    submitted_at timestamp not null default current_timestamp,
+    attempt int null,
+    index idx_quiz_result_submitted_at (submitted_at),
     constraint fk_quiz_result_user_id
         foreign key (user_id)
         references app_user(user_id),
@@ -120,10 +129,112 @@ create table quiz_result (
         references quiz(quiz_id)
 );
 
+create table attempt_answer (
+    user_id int not null,
+    quiz_id int not null,
+    attempt int not null,
+    answers varbinary(2048) not null,
+    submitted_at timestamp not null default current_timestamp,
+    constraint pk_attempt_answer primary key (user_id, quiz_id, attempt),
+    index idx_attempt_answer_quiz_id (quiz_id),
+    constraint fk_attempt_answer_user_id
+        foreign key (user_id)
+        references app_user(user_id),
+    constraint fk_attempt_answer_quiz_id
+        foreign key (quiz_id)
+        references quiz(quiz_id)
+);
+
+create table answer_index (
+    quiz_id int primary key,
+    bitmaps mediumblob null,
+    updated_at timestamp not null default current_timestamp on update current_timestamp,
+    constraint fk_answer_index_quiz_id
+        foreign key (quiz_id)
+        references quiz(quiz_id)
+);
+
+create table answer_index_delta (
+    delta_id bigint primary key auto_increment,
+    quiz_id int not null,
+    user_id int not null,
+    attempt int not null,
+    index idx_answer_index_delta_quiz (quiz_id, delta_id)
+);
+
+create table quiz_result_archive (
+    quiz_result_id int primary key,
+    user_id int not null,
+    quiz_id int not null,
+    correct_answers int not null,
+    total_questions int not null,
+    percent_correct decimal(10, 2) not null,
+    submitted_at timestamp not null,
+    attempt int null,
+    archived_at timestamp not null default current_timestamp,
+    index idx_quiz_result_archive_quiz_id (quiz_id),
+    index idx_quiz_result_archive_user_id (user_id, quiz_id)
+) row_format=compressed key_block_size=8;
+
+create table attempt_answer_archive (
+    user_id int not null,
+    quiz_id int not null,
+    attempt int not null,
+    answers varbinary(2048) not null,
+    submitted_at timestamp not null,
+    constraint pk_attempt_answer_archive primary key (user_id, quiz_id, attempt),
+    index idx_attempt_answer_archive_quiz_id (quiz_id)
+) row_format=compressed key_block_size=8;
+
+create table result_archive (
+    result_id int primary key,
+    user_id int not null,
+    quiz_id int not null,
+    question_id int not null,
+    option_id int not null,
+    index idx_result_archive_user_quiz (user_id, quiz_id),
+    index idx_result_archive_quiz_id (quiz_id)
+) row_format=compressed key_block_size=8;
+
+create table change_log (
+    change_id bigint primary key auto_increment,
+    entity varchar(25) not null,
+    entity_id int not null,
+    school varchar(50) not null default 'default',
+    changed_at timestamp not null default current_timestamp,
+    index idx_change_log_changed_at (changed_at)
+);
+
+create table quiz_attempt (
+    attempt_id int primary key auto_increment,
+    user_id int not null,
+    quiz_id int not null,
+    school varchar(50) not null default 'default',
+    started_at timestamp(3) not null,
+    time_limit_seconds int null,
+    answers varchar(4000) not null default '',
+    submitted_at timestamp(3) null,
+    index idx_quiz_attempt_open (submitted_at, user_id, quiz_id),
+    constraint fk_quiz_attempt_user_id
+        foreign key (user_id)
+        references app_user(user_id),
+    constraint fk_quiz_attempt_quiz_id
+        foreign key (quiz_id)
+        references quiz(quiz_id)
+);
+
 delimiter //
 create procedure set_known_good_state()
 begin
 
+	delete from quiz_attempt;
+    alter table quiz_attempt auto_increment = 1;
+    delete from attempt_answer;
+    delete from attempt_answer_archive;
+    delete from answer_index;
+    delete from answer_index_delta;
+    delete from quiz_result_archive;
+    delete from result_archive;
 	delete from quiz_result;
     alter table quiz_result auto_increment = 1;
     delete from result;
@@ -136,6 +247,12 @@ begin
     alter table score auto_increment = 1;
     delete from quiz;
     alter table quiz auto_increment = 1;
+    -- accounts added by tests; the seeded ones below the procedure stay
+    delete from user_role where user_id > 2;
+    delete from teacher where teacher_id > 1;
+    alter table teacher auto_increment = 2;
+    delete from app_user where user_id > 2;
+    alter table app_user auto_increment = 3;
 
 
 
@@ -167,8 +284,12 @@ begin
 		(2, 1, 1, 2, 2),
 		(3, 1, 1, 3, 1);
 
-    insert into quiz_result(quiz_result_id, user_id, quiz_id, correct_answers, total_questions, percent_correct) values
-        (1, 2, 1, 2, 3, 66.66);
+    insert into quiz_result(quiz_result_id, user_id, quiz_id, correct_answers, total_questions, percent_correct, attempt) values
+        (1, 2, 1, 2, 3, 66.66, 1);
+
+    -- {1: 1, 2: 2, 3: 1} packed
+    insert into attempt_answer(user_id, quiz_id, attempt, answers) values
+        (2, 1, 1, X'01010201020101');
 
 end //
 delimiter ;
@@ -182,7 +303,8 @@ insert into teacher(teacher_id, user_id) values
 
 insert into role(role_id, `name`) values
     (1, "Student"),
-    (2, "Teacher");
+    (2, "Teacher"),
+    (3, "Admin");
 
 insert into user_role(user_id, role_id) values
     (1, 2),
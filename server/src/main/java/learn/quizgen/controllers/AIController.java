@@ -0,0 +1,114 @@
+package learn.quizgen.controllers;
+
+import learn.quizgen.domain.AIApiService;
+import learn.quizgen.domain.QuizStreamParser;
+import learn.quizgen.outbound.OutboundCallException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/api/ai")
+public class AIController {
+
+    private static final Logger log = LoggerFactory.getLogger(AIController.class);
+
+    private static final long STREAM_TIMEOUT_MILLIS = 5 * 60 * 1000;
+
+    private final AIApiService aiApiService;
+    private final ExecutorService streamExecutor;
+
+    public AIController(AIApiService aiApiService,
+                        @Value("${ai.stream.max-concurrent:16}") int maxConcurrentStreams) {
+        this.aiApiService = aiApiService;
+        // No queue: once every slot is streaming, new requests are turned away instead of waiting
+        this.streamExecutor = new ThreadPoolExecutor(0, maxConcurrentStreams,
+                60, TimeUnit.SECONDS, new SynchronousQueue<>());
+    }
+
+    @PostMapping("/generate-quiz")
+    public ResponseEntity<?> generateQuiz(@RequestBody Map<String, Object> request) {
+        String prompt = (String) request.get("prompt");
+        if (prompt == null || prompt.isBlank()) {
+            return new ResponseEntity<>(List.of("prompt is required"), HttpStatus.BAD_REQUEST);
+        }
+
+        String quizJson;
+        try {
+            quizJson = aiApiService.generateQuizJson(prompt);
+        } catch (OutboundCallException e) {
+            // Open circuit, missed deadline or no free slot: we didn't get an answer
+            return new ResponseEntity<>(List.of(e.getMessage()), HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (RestClientException e) {
+            // The provider answered with an error or the connection to it failed
+            log.warn("AI quiz generation failed upstream: {}", e.getMessage());
+            return new ResponseEntity<>(List.of("The AI service failed, try again shortly."), HttpStatus.BAD_GATEWAY);
+        }
+
+        if (quizJson == null) {
+            return new ResponseEntity<>(List.of("The AI service returned no quiz."), HttpStatus.BAD_GATEWAY);
+        }
+
+        return new ResponseEntity<>(Map.of("quizJson", quizJson), HttpStatus.OK);
+    }
+
+    // Same request as /generate-quiz, but every question is pushed as a "question" event as soon
+    // as it has been parsed. A final "done" event carries the full quiz JSON for saving.
+    @PostMapping("/generate-quiz/stream")
+    public ResponseEntity<?> streamQuiz(@RequestBody Map<String, Object> request) {
+        String prompt = (String) request.get("prompt");
+        if (prompt == null || prompt.isBlank()) {
+            return new ResponseEntity<>(List.of("prompt is required"), HttpStatus.BAD_REQUEST);
+        }
+
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MILLIS);
+
+        try {
+            streamExecutor.execute(() -> {
+                try {
+                    QuizStreamParser parser = aiApiService.streamQuiz(prompt, question -> {
+                        try {
+                            emitter.send(SseEmitter.event().name("question").data(question, MediaType.APPLICATION_JSON));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+
+                    emitter.send(SseEmitter.event().name("done").data(Map.of(
+                            "questionCount", parser.getQuestionCount(),
+                            "quizJson", parser.getRawJson()), MediaType.APPLICATION_JSON));
+                    emitter.complete();
+                } catch (Exception e) {
+                    emitter.completeWithError(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return new ResponseEntity<>(List.of("Too many quizzes are being generated, try again shortly."),
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        return new ResponseEntity<>(emitter, HttpStatus.OK);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streamExecutor.shutdownNow();
+    }
+}
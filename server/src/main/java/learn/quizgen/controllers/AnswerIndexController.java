@@ -0,0 +1,39 @@
+package learn.quizgen.controllers;
+
+import learn.quizgen.domain.AnswerIndexService;
+import learn.quizgen.domain.Result;
+import learn.quizgen.models.AnswerSet;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.List;
+
+// GET /api/quizzes/{quizId}/answer-sets?missed=3,7 : students who missed questions 3 and 7.
+// picked=12,18 asks for students who picked those options, and both can be combined; match=any
+// matches students meeting any one condition instead of all of them.
+@RestController
+@RequestMapping("/api/quizzes/{quizId}/answer-sets")
+public class AnswerIndexController {
+
+    private final AnswerIndexService answerIndexService;
+
+    public AnswerIndexController(AnswerIndexService answerIndexService) {
+        this.answerIndexService = answerIndexService;
+    }
+
+    @GetMapping
+    public ResponseEntity<Object> query(@PathVariable int quizId,
+                                        @RequestParam(defaultValue = "") List<Integer> missed,
+                                        @RequestParam(defaultValue = "") List<Integer> picked,
+                                        @RequestParam(defaultValue = "all") String match,
+                                        Principal principal) {
+        Result<AnswerSet> result = answerIndexService.query(quizId, missed, picked, !match.equals("any"),
+                principal.getName());
+        if (!result.isSuccess()) {
+            return ErrorResponse.build(result);
+        }
+        return new ResponseEntity<>(result.getPayload(), HttpStatus.OK);
+    }
+}
@@ -6,6 +6,8 @@ import learn.quizgen.models.AppUser;
 import learn.quizgen.models.Teacher;
 import learn.quizgen.security.AppUserService;
 import learn.quizgen.security.JwtConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -26,6 +28,8 @@ import java.util.Map;
 @RequestMapping("/api/user")
 public class AuthController {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
     private final AuthenticationManager authenticationManager;
     private final JwtConverter converter;
     private final AppUserService appUserService;
@@ -68,7 +72,7 @@ public class AuthController {
             }
 
         } catch (AuthenticationException ex) {
-            System.out.println(ex.getMessage());
+            log.info("Failed login: {}", ex.getMessage());
         }
 
         return new ResponseEntity<>(HttpStatus.FORBIDDEN);
@@ -0,0 +1,68 @@
+package learn.quizgen.controllers;
+
+import learn.quizgen.data.routing.TenantContext;
+import learn.quizgen.domain.GradebookExporter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.zip.GZIPOutputStream;
+
+// GET /api/exports/gradebook[?answers=true][&archived=true]: the teacher's results (archived=true adds
+// past terms) as CSV, streamed with chunked transfer (no Content-Length) and gzipped when the client
+// accepts it. The body is written on an async thread, so the school is carried over to it.
+@RestController
+@RequestMapping("/api/exports")
+public class GradebookExportController {
+
+    private static final MediaType CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private final GradebookExporter gradebookExporter;
+
+    public GradebookExportController(GradebookExporter gradebookExporter) {
+        this.gradebookExporter = gradebookExporter;
+    }
+
+    @GetMapping("/gradebook")
+    public ResponseEntity<StreamingResponseBody> gradebook(@RequestParam(defaultValue = "false") boolean answers,
+                                                           @RequestParam(defaultValue = "false") boolean archived,
+                                                           @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                           Principal principal) {
+        String school = TenantContext.getSchool();
+        String teacher = principal.getName();
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        StreamingResponseBody body = out -> {
+            TenantContext.setSchool(school);
+            try {
+                if (gzip) {
+                    // syncFlush, so each flush of the CSV goes out as a chunk instead of waiting in the deflater
+                    GZIPOutputStream compressed = new GZIPOutputStream(out, 8192, true);
+                    gradebookExporter.writeCsv(teacher, answers, archived, compressed);
+                    compressed.finish();
+                } else {
+                    gradebookExporter.writeCsv(teacher, answers, archived, out);
+                }
+            } finally {
+                TenantContext.clear();
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"gradebook.csv\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+}
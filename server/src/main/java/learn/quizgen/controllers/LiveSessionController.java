@@ -0,0 +1,38 @@
+package learn.quizgen.controllers;
+
+import learn.quizgen.domain.Result;
+import learn.quizgen.live.LiveSession;
+import learn.quizgen.live.LiveSessionService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Teachers start a live session here, then drive it (and students join it) over /ws/live?code=
+@RestController
+@RequestMapping("/api/live-sessions")
+public class LiveSessionController {
+
+    private final LiveSessionService liveSessionService;
+
+    public LiveSessionController(LiveSessionService liveSessionService) {
+        this.liveSessionService = liveSessionService;
+    }
+
+    @PostMapping
+    public ResponseEntity<Object> start(@RequestParam int quizId, Principal principal) {
+        Result<LiveSession> result = liveSessionService.start(quizId, principal.getName());
+        if (!result.isSuccess()) {
+            return ErrorResponse.build(result);
+        }
+        LiveSession session = result.getPayload();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("code", session.getCode());
+        body.put("quizId", session.getQuizId());
+        body.put("questions", session.getQuestions().size());
+        return new ResponseEntity<>(body, HttpStatus.CREATED);
+    }
+}
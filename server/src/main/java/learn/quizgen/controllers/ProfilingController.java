@@ -0,0 +1,53 @@
+package learn.quizgen.controllers;
+
+import learn.quizgen.domain.Result;
+import learn.quizgen.profiling.JfrRecordingService;
+import learn.quizgen.profiling.JfrRecordingStatus;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Admin only (see SecurityConfig). Start a recording, reproduce the slowness, then dump or stop it;
+// the response says where on this instance's disk the .jfr file was written.
+@RestController
+@RequestMapping("/api/admin/jfr")
+public class ProfilingController {
+
+    private final JfrRecordingService recordingService;
+
+    public ProfilingController(JfrRecordingService recordingService) {
+        this.recordingService = recordingService;
+    }
+
+    @GetMapping
+    public ResponseEntity<JfrRecordingStatus> status() {
+        return new ResponseEntity<>(recordingService.status(), HttpStatus.OK);
+    }
+
+    @PostMapping("/start")
+    public ResponseEntity<Object> start(@RequestParam(defaultValue = "profile") String settings) {
+        Result<JfrRecordingStatus> result = recordingService.start(settings);
+        if (result.isSuccess()) {
+            return new ResponseEntity<>(result.getPayload(), HttpStatus.CREATED);
+        }
+        return ErrorResponse.build(result);
+    }
+
+    @PostMapping("/dump")
+    public ResponseEntity<Object> dump() {
+        Result<JfrRecordingStatus> result = recordingService.dump();
+        if (result.isSuccess()) {
+            return new ResponseEntity<>(result.getPayload(), HttpStatus.OK);
+        }
+        return ErrorResponse.build(result);
+    }
+
+    @PostMapping("/stop")
+    public ResponseEntity<Object> stop() {
+        Result<JfrRecordingStatus> result = recordingService.stop();
+        if (result.isSuccess()) {
+            return new ResponseEntity<>(result.getPayload(), HttpStatus.OK);
+        }
+        return ErrorResponse.build(result);
+    }
+}
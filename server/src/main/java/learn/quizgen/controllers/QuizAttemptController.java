@@ -0,0 +1,62 @@
+package learn.quizgen.controllers;
+
+import learn.quizgen.domain.QuizAttemptService;
+import learn.quizgen.domain.Result;
+import learn.quizgen.models.QuizAttempt;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.Map;
+
+// Answers are {"<questionId>": <optionId>, ...}. PUT .../answers and POST .../submit take only the
+// answers changed since the last save; GET (or POST ?quizId= again) returns all of them.
+@RestController
+@RequestMapping("/api/attempts")
+public class QuizAttemptController {
+
+    private final QuizAttemptService quizAttemptService;
+
+    public QuizAttemptController(QuizAttemptService quizAttemptService) {
+        this.quizAttemptService = quizAttemptService;
+    }
+
+    @PostMapping
+    public ResponseEntity<Object> start(@RequestParam int quizId, Principal principal) {
+        Result<QuizAttempt> result = quizAttemptService.start(quizId, principal.getName());
+        if (!result.isSuccess()) {
+            return ErrorResponse.build(result);
+        }
+        return new ResponseEntity<>(result.getPayload(), HttpStatus.CREATED);
+    }
+
+    @GetMapping("/{attemptId}")
+    public ResponseEntity<Object> findById(@PathVariable int attemptId, Principal principal) {
+        Result<QuizAttempt> result = quizAttemptService.findById(attemptId, principal.getName());
+        if (!result.isSuccess()) {
+            return ErrorResponse.build(result);
+        }
+        return new ResponseEntity<>(result.getPayload(), HttpStatus.OK);
+    }
+
+    @PutMapping("/{attemptId}/answers")
+    public ResponseEntity<Object> saveAnswers(@PathVariable int attemptId, @RequestBody Map<Integer, Integer> answers,
+                                              Principal principal) {
+        Result<QuizAttempt> result = quizAttemptService.saveAnswers(attemptId, principal.getName(), answers);
+        if (!result.isSuccess()) {
+            return ErrorResponse.build(result);
+        }
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    @PostMapping("/{attemptId}/submit")
+    public ResponseEntity<Object> submit(@PathVariable int attemptId, @RequestBody Map<Integer, Integer> answers,
+                                         Principal principal) {
+        Result<QuizAttempt> result = quizAttemptService.submit(attemptId, principal.getName(), answers);
+        if (!result.isSuccess()) {
+            return ErrorResponse.build(result);
+        }
+        return new ResponseEntity<>(result.getPayload(), HttpStatus.OK);
+    }
+}
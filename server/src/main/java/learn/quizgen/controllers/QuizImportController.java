@@ -0,0 +1,73 @@
+package learn.quizgen.controllers;
+
+import learn.quizgen.domain.QuizImportJob;
+import learn.quizgen.domain.QuizImportService;
+import learn.quizgen.domain.Result;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+
+// POST /api/imports?quizId= with the file as the raw body (text/csv or application/json, or
+// ?format=csv|json) starts an import and answers 202 with the job; GET /api/imports/{jobId} reports
+// its progress and GET /api/imports/{jobId}/errors the rejected rows as CSV. The file format is
+// described in QuestionBankReader.
+@RestController
+@RequestMapping("/api/imports")
+public class QuizImportController {
+
+    private static final MediaType CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private final QuizImportService quizImportService;
+
+    public QuizImportController(QuizImportService quizImportService) {
+        this.quizImportService = quizImportService;
+    }
+
+    @PostMapping
+    public ResponseEntity<Object> start(@RequestParam int quizId, @RequestParam(required = false) String format,
+                                        HttpServletRequest request, Principal principal) throws IOException {
+        if (format == null) {
+            format = request.getContentType() != null && request.getContentType().contains("json") ? "json" : "csv";
+        }
+        // Read straight from the request, the file never has to fit in memory
+        Result<QuizImportJob> result = quizImportService.start(quizId, format, request.getInputStream(),
+                principal.getName());
+        if (!result.isSuccess()) {
+            return ErrorResponse.build(result);
+        }
+        return ResponseEntity.accepted()
+                .header(HttpHeaders.LOCATION, "/api/imports/" + result.getPayload().getJobId())
+                .body(result.getPayload());
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<Object> findById(@PathVariable String jobId, Principal principal) {
+        Result<QuizImportJob> result = quizImportService.findById(jobId, principal.getName());
+        if (!result.isSuccess()) {
+            return ErrorResponse.build(result);
+        }
+        return new ResponseEntity<>(result.getPayload(), HttpStatus.OK);
+    }
+
+    @GetMapping("/{jobId}/errors")
+    public ResponseEntity<Object> errors(@PathVariable String jobId, Principal principal) {
+        Result<QuizImportJob> result = quizImportService.findById(jobId, principal.getName());
+        if (!result.isSuccess()) {
+            return ErrorResponse.build(result);
+        }
+        QuizImportJob job = result.getPayload();
+        StreamingResponseBody body = out -> quizImportService.writeErrors(job, out);
+        return ResponseEntity.ok()
+                .contentType(CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"import-" + jobId + "-errors.csv\"")
+                .body(body);
+    }
+}
@@ -20,8 +20,8 @@ public class QuizResultController {
     }
 
     @GetMapping
-    public ResponseEntity<?> getAllQuizResults() {
-        Result<List<QuizResult>> result = quizResultService.findAll();
+    public ResponseEntity<?> getAllQuizResults(@RequestParam(defaultValue = "false") boolean archived) {
+        Result<List<QuizResult>> result = quizResultService.findAll(archived);
 
         if (result.isSuccess()) {
             return new ResponseEntity<>(result.getPayload(), HttpStatus.OK);
@@ -0,0 +1,40 @@
+package learn.quizgen.controllers;
+
+import learn.quizgen.domain.Result;
+import learn.quizgen.models.AppUser;
+import learn.quizgen.models.RosterEntry;
+import learn.quizgen.security.RosterService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// POST /api/admin/roster with [{"firstName", "lastName", "username", "password", "roles": [...]}, ...]
+// registers every account (and a teacher row for each Teacher) or none; 201 answers username to appUserId.
+@RestController
+@RequestMapping("/api/admin/roster")
+public class RosterController {
+
+    private final RosterService rosterService;
+
+    public RosterController(RosterService rosterService) {
+        this.rosterService = rosterService;
+    }
+
+    @PostMapping
+    public ResponseEntity<Object> register(@RequestBody List<RosterEntry> roster) {
+        Result<List<AppUser>> result = rosterService.register(roster);
+        if (!result.isSuccess()) {
+            return ErrorResponse.build(result);
+        }
+
+        Map<String, Integer> ids = new LinkedHashMap<>();
+        for (AppUser user : result.getPayload()) {
+            ids.put(user.getUsername(), user.getAppUserId());
+        }
+        return new ResponseEntity<>(ids, HttpStatus.CREATED);
+    }
+}
@@ -0,0 +1,29 @@
+package learn.quizgen.data;
+
+import learn.quizgen.models.QuestionResult;
+
+import java.util.List;
+import java.util.Map;
+
+public interface AnswerIndexRepository {
+
+    // The quiz's serialized AnswerIndex, null when it hasn't been built (or was dropped to be rebuilt)
+    byte[] findByQuizId(int quizId);
+
+    // Same, but locks the quiz's answer_index row until the transaction ends, creating it (unbuilt) when
+    // missing so that folds and a rebuild always queue on the same row
+    byte[] lockByQuizId(int quizId);
+
+    void save(int quizId, byte[] bitmaps);
+
+    // Queues each user's attempt (user id -> attempt number, see QuestionResultRepository.addAttempts)
+    // to be folded into the quiz's index
+    void addDeltas(int quizId, Map<Integer, Integer> attempts);
+
+    // Queued attempts of the quiz in the order they were queued, delta id -> the attempt's answers
+    Map<Long, List<QuestionResult>> findDeltas(int quizId);
+
+    List<Integer> findQuizzesWithDeltas(int limit);
+
+    void deleteDeltas(List<Long> deltaIds);
+}
@@ -0,0 +1,91 @@
+package learn.quizgen.data;
+
+import learn.quizgen.data.mapper.PackedAnswersCodec;
+import learn.quizgen.models.QuestionResult;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class AnswerIndexRepositoryJdbcTemplate implements AnswerIndexRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AnswerIndexRepositoryJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public byte[] findByQuizId(int quizId) {
+        final String sql = "SELECT bitmaps FROM answer_index WHERE quiz_id = ?";
+        List<byte[]> bitmaps = jdbcTemplate.query(sql, (rs, i) -> rs.getBytes("bitmaps"), quizId);
+        return bitmaps.isEmpty() ? null : bitmaps.get(0);
+    }
+
+    @Override
+    public byte[] lockByQuizId(int quizId) {
+        jdbcTemplate.update("INSERT INTO answer_index (quiz_id) VALUES (?) ON DUPLICATE KEY UPDATE quiz_id = quiz_id",
+                quizId);
+        return jdbcTemplate.queryForObject("SELECT bitmaps FROM answer_index WHERE quiz_id = ? FOR UPDATE",
+                (rs, i) -> rs.getBytes("bitmaps"), quizId);
+    }
+
+    @Override
+    public void save(int quizId, byte[] bitmaps) {
+        jdbcTemplate.update("UPDATE answer_index SET bitmaps = ? WHERE quiz_id = ?", bitmaps, quizId);
+    }
+
+    @Override
+    public void addDeltas(int quizId, Map<Integer, Integer> attempts) {
+        final String sql = "INSERT INTO answer_index_delta (quiz_id, user_id, attempt) VALUES (?, ?, ?)";
+        jdbcTemplate.batchUpdate(sql, new ArrayList<>(attempts.entrySet()), BATCH_SIZE, (ps, attempt) -> {
+            ps.setInt(1, quizId);
+            ps.setInt(2, attempt.getKey());
+            ps.setInt(3, attempt.getValue());
+        });
+    }
+
+    // A delta whose attempt is gone (archived or purged since) comes back with no answers
+    @Override
+    public Map<Long, List<QuestionResult>> findDeltas(int quizId) {
+        final String sql = "SELECT delta.delta_id, delta.user_id, attempt.answers FROM answer_index_delta delta" +
+                " left join attempt_answer attempt on attempt.user_id = delta.user_id" +
+                " and attempt.quiz_id = delta.quiz_id and attempt.attempt = delta.attempt" +
+                " WHERE delta.quiz_id = ? ORDER BY delta.delta_id";
+        Map<Long, List<QuestionResult>> deltas = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            int userId = rs.getInt("user_id");
+            byte[] packed = rs.getBytes("answers");
+            List<QuestionResult> answers = new ArrayList<>();
+            if (packed != null) {
+                for (Map.Entry<Integer, Integer> answer : PackedAnswersCodec.decode(packed).entrySet()) {
+                    answers.add(new QuestionResult(0, userId, quizId, answer.getKey(), answer.getValue()));
+                }
+            }
+            deltas.put(rs.getLong("delta_id"), answers);
+        }, quizId);
+        return deltas;
+    }
+
+    @Override
+    public List<Integer> findQuizzesWithDeltas(int limit) {
+        final String sql = "SELECT DISTINCT quiz_id FROM answer_index_delta ORDER BY quiz_id LIMIT ?";
+        return jdbcTemplate.query(sql, (rs, i) -> rs.getInt("quiz_id"), limit);
+    }
+
+    @Override
+    public void deleteDeltas(List<Long> deltaIds) {
+        if (deltaIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update("DELETE FROM answer_index_delta WHERE delta_id IN (" +
+                String.join(", ", Collections.nCopies(deltaIds.size(), "?")) + ")", deltaIds.toArray());
+    }
+}
@@ -2,6 +2,9 @@ package learn.quizgen.data;
 
 import learn.quizgen.models.AppUser;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface AppUserRepository {
@@ -10,6 +13,13 @@ public interface AppUserRepository {
 
     AppUser add(AppUser user);
 
+    // Inserts the users and their user_role rows in batches and sets the generated ids; roleIds maps
+    // role name to role_id and must hold every role of every user
+    List<AppUser> addAll(List<AppUser> users, Map<String, Integer> roleIds);
+
+    // The ones that are taken
+    List<String> findExistingUsernames(Collection<String> usernames);
+
     boolean update(AppUser user);
 
     boolean deleteById(int id);
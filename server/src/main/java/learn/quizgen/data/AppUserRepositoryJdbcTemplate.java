@@ -1,7 +1,9 @@
 package learn.quizgen.data;
 
 import learn.quizgen.data.mapper.AppUserMapper;
+import learn.quizgen.data.routing.TenantContext;
 import learn.quizgen.models.AppUser;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
@@ -10,13 +12,19 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Repository
 public class AppUserRepositoryJdbcTemplate implements AppUserRepository {
 
+    private static final int BATCH_SIZE = 500;
     private final JdbcTemplate jdbcTemplate;
 
     public AppUserRepositoryJdbcTemplate(JdbcTemplate jdbcTemplate) {
@@ -28,11 +36,12 @@ public class AppUserRepositoryJdbcTemplate implements AppUserRepository {
     public Optional<AppUser> findByUsername(String username) {
         List<String> roles = getRolesByUsername(username);
 
+        // Only the current school's users, so signing in with another school's X-School finds nobody
         final String sql = "SELECT user_id, first_name, last_name, username, password, disabled "
                 + "FROM app_user "
-                + "WHERE username = ?;";
+                + "WHERE username = ? AND school = ?;";
 
-        return jdbcTemplate.query(sql, new AppUserMapper(roles), username)
+        return jdbcTemplate.query(sql, new AppUserMapper(roles), username, TenantContext.getSchool())
                 .stream()
                 .findFirst();  // This returns Optional<AppUser>
     }
@@ -40,8 +49,8 @@ public class AppUserRepositoryJdbcTemplate implements AppUserRepository {
     @Override
     @Transactional
     public AppUser add(AppUser user) {
-        final String sql = "INSERT INTO app_user (first_name, last_name, username, password, disabled) "
-                + "VALUES (?, ?, ?, ?, ?)";
+        final String sql = "INSERT INTO app_user (first_name, last_name, username, password, disabled, school) "
+                + "VALUES (?, ?, ?, ?, ?, ?)";
 
         KeyHolder keyHolder = new GeneratedKeyHolder();
 
@@ -52,6 +61,7 @@ public class AppUserRepositoryJdbcTemplate implements AppUserRepository {
             ps.setString(3, user.getUsername());
             ps.setString(4, user.getPassword());
             ps.setBoolean(5, user.isDisabled());
+            ps.setString(6, TenantContext.getSchool());
             return ps;
         }, keyHolder);
 
@@ -63,6 +73,71 @@ public class AppUserRepositoryJdbcTemplate implements AppUserRepository {
         return user;
     }
 
+    @Override
+    @Transactional
+    public List<AppUser> addAll(List<AppUser> users, Map<String, Integer> roleIds) {
+        final String sql = "INSERT INTO app_user (first_name, last_name, username, password, disabled, school) "
+                + "VALUES (?, ?, ?, ?, ?, ?)";
+        String school = TenantContext.getSchool();
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                for (int start = 0; start < users.size(); start += BATCH_SIZE) {
+                    List<AppUser> batch = users.subList(start, Math.min(users.size(), start + BATCH_SIZE));
+                    for (AppUser user : batch) {
+                        ps.setString(1, user.getFirstName());
+                        ps.setString(2, user.getLastName());
+                        ps.setString(3, user.getUsername());
+                        ps.setString(4, user.getPassword());
+                        ps.setBoolean(5, user.isDisabled());
+                        ps.setString(6, school);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        for (int i = 0; i < batch.size() && keys.next(); i++) {
+                            batch.get(i).setAppUserId(keys.getInt(1));
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+
+        List<int[]> userRoles = new ArrayList<>();
+        for (AppUser user : users) {
+            for (String role : user.getRoles()) {
+                Integer roleId = roleIds.get(role);
+                if (roleId == null) {
+                    throw new RuntimeException("Role " + role + " does not exist.");
+                }
+                userRoles.add(new int[]{user.getAppUserId(), roleId});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO user_role (user_id, role_id) VALUES (?, ?)", userRoles, BATCH_SIZE,
+                (ps, userRole) -> {
+                    ps.setInt(1, userRole[0]);
+                    ps.setInt(2, userRole[1]);
+                });
+        return users;
+    }
+
+    @Override
+    public List<String> findExistingUsernames(Collection<String> usernames) {
+        if (usernames.isEmpty()) {
+            return List.of();
+        }
+        List<String> existing = new ArrayList<>();
+        List<String> all = new ArrayList<>(usernames);
+        for (int start = 0; start < all.size(); start += BATCH_SIZE) {
+            List<String> batch = all.subList(start, Math.min(all.size(), start + BATCH_SIZE));
+            String sql = "SELECT username FROM app_user WHERE username IN ("
+                    + String.join(", ", Collections.nCopies(batch.size(), "?")) + ")";
+            existing.addAll(jdbcTemplate.queryForList(sql, String.class, batch.toArray()));
+        }
+        return existing;
+    }
+
     @Override
     @Transactional
     public boolean update(AppUser user) {
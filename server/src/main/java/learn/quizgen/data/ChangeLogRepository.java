@@ -0,0 +1,16 @@
+package learn.quizgen.data;
+
+import learn.quizgen.models.ChangeLogEntry;
+
+import java.util.List;
+
+public interface ChangeLogRepository {
+    // Joins the caller's transaction, so the entry commits (or rolls back) with the change itself
+    void append(String entity, int entityId);
+
+    List<ChangeLogEntry> findAfter(long changeId, int limit);
+
+    long findLatestId();
+
+    int deleteOlderThan(int hours);
+}
@@ -0,0 +1,45 @@
+package learn.quizgen.data;
+
+import learn.quizgen.data.mapper.ChangeLogMapper;
+import learn.quizgen.data.routing.TenantContext;
+import learn.quizgen.models.ChangeLogEntry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class ChangeLogRepositoryJdbcTemplate implements ChangeLogRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ChangeLogRepositoryJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void append(String entity, int entityId) {
+        final String sql = "INSERT INTO change_log (entity, entity_id, school) VALUES (?, ?, ?)";
+        jdbcTemplate.update(sql, entity, entityId, TenantContext.getSchool());
+    }
+
+    // Primary key range scan, cheap enough to run every second on every instance
+    @Override
+    public List<ChangeLogEntry> findAfter(long changeId, int limit) {
+        final String sql = "SELECT change_id, entity, entity_id, school FROM change_log " +
+                "WHERE change_id > ? ORDER BY change_id LIMIT ?";
+        return jdbcTemplate.query(sql, new ChangeLogMapper(), changeId, limit);
+    }
+
+    @Override
+    public long findLatestId() {
+        final String sql = "SELECT COALESCE(MAX(change_id), 0) FROM change_log";
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    @Override
+    public int deleteOlderThan(int hours) {
+        final String sql = "DELETE FROM change_log WHERE changed_at < NOW() - INTERVAL ? HOUR";
+        return jdbcTemplate.update(sql, hours);
+    }
+}
@@ -11,6 +11,8 @@ public interface OptionRepository {
 
     Option add(Option option);
 
+    List<Option> addAll(List<Option> options);
+
     boolean update(Option option);
 
     boolean deleteById(int id);
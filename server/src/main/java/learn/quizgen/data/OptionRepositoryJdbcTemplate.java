@@ -2,18 +2,22 @@ package learn.quizgen.data;
 
 import learn.quizgen.data.mapper.OptionMapper;
 import learn.quizgen.models.Option;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.Statement;
 import java.util.List;
 
 @Repository
 public class OptionRepositoryJdbcTemplate implements OptionRepository {
 
+    private static final int BATCH_SIZE = 500;
+
     private final JdbcTemplate jdbcTemplate;
 
     public OptionRepositoryJdbcTemplate(JdbcTemplate jdbcTemplate) {
@@ -47,6 +51,32 @@ public class OptionRepositoryJdbcTemplate implements OptionRepository {
         return option;
     }
 
+    @Override
+    public List<Option> addAll(List<Option> options) {
+        final String sql = "INSERT INTO `option` (question_id, option_text, is_correct) VALUES (?, ?, ?)";
+        return jdbcTemplate.execute((ConnectionCallback<List<Option>>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                for (int start = 0; start < options.size(); start += BATCH_SIZE) {
+                    List<Option> batch = options.subList(start, Math.min(options.size(), start + BATCH_SIZE));
+                    for (Option option : batch) {
+                        ps.setInt(1, option.getQuestionId());
+                        ps.setString(2, option.getOptionText());
+                        ps.setBoolean(3, option.isCorrect());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        for (int i = 0; i < batch.size() && keys.next(); i++) {
+                            batch.get(i).setOptionId(keys.getInt(1));
+                        }
+                    }
+                }
+            }
+            return options;
+        });
+    }
+
     @Override
     public boolean update(Option option) {
         final String sql = "UPDATE `option` SET question_id = ?, option_text = ?, is_correct = ? WHERE option_id = ?";
@@ -11,6 +11,8 @@ public interface QuestionRepository {
 
     Question add(Question question);
 
+    List<Question> addAll(List<Question> questions);
+
     boolean update(Question question);
 
     boolean deleteById(int id);
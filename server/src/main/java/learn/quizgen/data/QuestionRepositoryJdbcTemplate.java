@@ -2,19 +2,28 @@ package learn.quizgen.data;
 
 import learn.quizgen.data.mapper.OptionMapper;
 import learn.quizgen.data.mapper.QuestionMapper;
+import learn.quizgen.models.Option;
 import learn.quizgen.models.Question;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Repository
 public class QuestionRepositoryJdbcTemplate implements QuestionRepository {
 
+    private static final int BATCH_SIZE = 500;
+
     private final JdbcTemplate jdbcTemplate;
 
     public QuestionRepositoryJdbcTemplate(JdbcTemplate jdbcTemplate) {
@@ -28,16 +37,25 @@ public class QuestionRepositoryJdbcTemplate implements QuestionRepository {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Question> findByQuizId(int id) {
-        final String sql = "SELECT * FROM quick_quiz.question join quiz on quiz.quiz_id = question.quiz_id" +
-                " WHERE question.quiz_id = ?";
+        final String sql = "SELECT * FROM question join quiz on quiz.quiz_id = question.quiz_id" +
+                " WHERE question.quiz_id = ? AND quiz.deleted_at IS NULL ORDER BY question.question_id";
 
         List<Question> questions = jdbcTemplate.query(sql, new QuestionMapper(), id);
+        if (questions.isEmpty()) {
+            return questions;
+        }
 
-        final String sql2 = "SELECT * FROM quick_quiz.question join quiz on quiz.quiz_id = question.quiz_id join `option` on `option`.question_id = question.question_id WHERE `option`.question_id = ?";
-
-        for (int i = 0; i < questions.size(); i++) {
-            questions.get(i).setOptionList(jdbcTemplate.query(sql2, new OptionMapper(), questions.get(i).getQuestionId()));
+        // Every option of the quiz in one query (the GET /api/questions/{id} budget is these two)
+        final String sql2 = "SELECT `option`.* FROM `option` join question on question.question_id = `option`.question_id" +
+                " WHERE question.quiz_id = ? ORDER BY `option`.option_id";
+        Map<Integer, List<Option>> options = new HashMap<>();
+        for (Option option : jdbcTemplate.query(sql2, new OptionMapper(), id)) {
+            options.computeIfAbsent(option.getQuestionId(), questionId -> new ArrayList<>()).add(option);
+        }
+        for (Question question : questions) {
+            question.setOptionList(options.getOrDefault(question.getQuestionId(), new ArrayList<>()));
         }
 
         return questions;
@@ -57,6 +75,31 @@ public class QuestionRepositoryJdbcTemplate implements QuestionRepository {
         return question;
     }
 
+    @Override
+    public List<Question> addAll(List<Question> questions) {
+        final String sql = "INSERT INTO question (quiz_id, question_text) VALUES (?, ?)";
+        return jdbcTemplate.execute((ConnectionCallback<List<Question>>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                for (int start = 0; start < questions.size(); start += BATCH_SIZE) {
+                    List<Question> batch = questions.subList(start, Math.min(questions.size(), start + BATCH_SIZE));
+                    for (Question question : batch) {
+                        ps.setInt(1, question.getQuizId());
+                        ps.setString(2, question.getQuestionText());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        for (int i = 0; i < batch.size() && keys.next(); i++) {
+                            batch.get(i).setQuestionId(keys.getInt(1));
+                        }
+                    }
+                }
+            }
+            return questions;
+        });
+    }
+
     @Override
     public boolean update(Question question) {
         final String sql = "UPDATE question SET quiz_id = ?, question_text = ? WHERE question_id = ?";
@@ -1,8 +1,11 @@
 package learn.quizgen.data;
 
 import learn.quizgen.models.QuestionResult;
+import learn.quizgen.models.QuizResult;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface QuestionResultRepository {
     List<QuestionResult> findAll();
@@ -11,6 +14,29 @@ public interface QuestionResultRepository {
 
     QuestionResult add(QuestionResult questionResult);
 
+    void addAll(List<QuestionResult> questionResults);
+
+    // Packed storage: one attempt_answer row per user in the list, numbered after their previous
+    // attempts at the quiz (see PackedAnswersCodec); returns each user's new attempt number
+    Map<Integer, Integer> addAttempts(int quizId, List<QuestionResult> questionResults);
+
+    // Decoded answers of one attempt (counted from 1), empty if there is no such attempt
+    List<QuestionResult> findAttempt(int userId, int quizId, int attempt);
+
+    List<QuestionResult> findLatestAttempt(int userId, int quizId);
+
+    // The latest attempt of every user who took the quiz, one list per user
+    void forEachLatestAttempt(int quizId, Consumer<List<QuestionResult>> consumer);
+
+    // Students' quizzes that still have result rows, after (afterUserId, afterQuizId) in user then quiz
+    // id order. Only the user and quiz ids are set.
+    List<QuizResult> findLegacyAttempts(int afterUserId, int afterQuizId, int limit);
+
+    // Converts the result rows of each student's quiz into one attempt_answer row per quiz_result and
+    // deletes them; returns how many of the students' quizzes were converted. Rows that can't be matched
+    // to their quiz_result rows one to one are left as they are.
+    int packResultRows(List<QuizResult> legacyAttempts);
+
     boolean update(QuestionResult questionResult);
 
     boolean deleteById(int id);
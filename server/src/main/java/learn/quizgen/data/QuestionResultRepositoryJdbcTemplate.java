@@ -1,15 +1,30 @@
 package learn.quizgen.data;
 
+import learn.quizgen.data.mapper.PackedAnswersCodec;
 import learn.quizgen.data.mapper.QuestionResultMapper;
 import learn.quizgen.models.QuestionResult;
+import learn.quizgen.models.QuizResult;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Repository
 public class QuestionResultRepositoryJdbcTemplate implements QuestionResultRepository {
 
+    private static final int BATCH_SIZE = 500;
+
     private final JdbcTemplate jdbcTemplate;
 
     public QuestionResultRepositoryJdbcTemplate(JdbcTemplate jdbcTemplate) {
@@ -18,13 +33,14 @@ public class QuestionResultRepositoryJdbcTemplate implements QuestionResultRepos
 
     @Override
     public List<QuestionResult> findAll() {
-        final String sql = "SELECT * FROM result";
+        final String sql = "SELECT result.* FROM result join quiz on quiz.quiz_id = result.quiz_id WHERE quiz.deleted_at IS NULL";
         return jdbcTemplate.query(sql, new QuestionResultMapper());
     }
 
     @Override
     public QuestionResult findById(int id) {
-        final String sql = "SELECT * FROM result WHERE result_id = ?";
+        final String sql = "SELECT result.* FROM result join quiz on quiz.quiz_id = result.quiz_id" +
+                " WHERE result.result_id = ? AND quiz.deleted_at IS NULL";
         return jdbcTemplate.queryForObject(sql, new QuestionResultMapper(), id);
     }
 
@@ -39,6 +55,174 @@ public class QuestionResultRepositoryJdbcTemplate implements QuestionResultRepos
         return questionResult;
     }
 
+    @Override
+    public void addAll(List<QuestionResult> questionResults) {
+        final String sql = "INSERT INTO result (user_id, quiz_id, question_id, option_id) VALUES (?, ?, ?, ?)";
+        jdbcTemplate.batchUpdate(sql, questionResults, BATCH_SIZE, (ps, questionResult) -> {
+            ps.setInt(1, questionResult.getUserId());
+            ps.setInt(2, questionResult.getQuizId());
+            ps.setInt(3, questionResult.getQuestionId());
+            ps.setInt(4, questionResult.getOptionId());
+        });
+    }
+
+    @Override
+    @Transactional
+    public Map<Integer, Integer> addAttempts(int quizId, List<QuestionResult> questionResults) {
+        Map<Integer, List<QuestionResult>> attempts = new LinkedHashMap<>();
+        for (QuestionResult questionResult : questionResults) {
+            attempts.computeIfAbsent(questionResult.getUserId(), userId -> new ArrayList<>()).add(questionResult);
+        }
+        Map<Integer, Integer> numbers = new LinkedHashMap<>();
+        if (attempts.isEmpty()) {
+            return numbers;
+        }
+
+        // Locks the users' previous attempts so a concurrent submission waits for these numbers
+        List<Object> args = new ArrayList<>(attempts.keySet());
+        args.add(0, quizId);
+        Map<Integer, Integer> latest = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT user_id, attempt FROM attempt_answer WHERE quiz_id = ? AND user_id IN (" +
+                String.join(", ", Collections.nCopies(attempts.size(), "?")) + ") FOR UPDATE", rs -> {
+            latest.merge(rs.getInt("user_id"), rs.getInt("attempt"), Math::max);
+        }, args.toArray());
+        for (int userId : attempts.keySet()) {
+            numbers.put(userId, latest.getOrDefault(userId, 0) + 1);
+        }
+
+        final String sql = "INSERT INTO attempt_answer (user_id, quiz_id, attempt, answers) VALUES (?, ?, ?, ?)";
+        jdbcTemplate.batchUpdate(sql, new ArrayList<>(attempts.entrySet()), BATCH_SIZE, (ps, attempt) -> {
+            ps.setInt(1, attempt.getKey());
+            ps.setInt(2, quizId);
+            ps.setInt(3, numbers.get(attempt.getKey()));
+            ps.setBytes(4, PackedAnswersCodec.encode(toAnswers(attempt.getValue())));
+        });
+        return numbers;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<QuestionResult> findAttempt(int userId, int quizId, int attempt) {
+        final String sql = "SELECT user_id, quiz_id, answers FROM attempt_answer WHERE user_id = ? AND quiz_id = ? AND attempt = ?";
+        List<List<QuestionResult>> attempts = jdbcTemplate.query(sql, (rs, i) -> decode(rs), userId, quizId, attempt);
+        return attempts.isEmpty() ? List.of() : attempts.get(0);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<QuestionResult> findLatestAttempt(int userId, int quizId) {
+        final String sql = "SELECT user_id, quiz_id, answers FROM attempt_answer WHERE user_id = ? AND quiz_id = ?" +
+                " ORDER BY attempt DESC LIMIT 1";
+        List<List<QuestionResult>> attempts = jdbcTemplate.query(sql, (rs, i) -> decode(rs), userId, quizId);
+        return attempts.isEmpty() ? List.of() : attempts.get(0);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachLatestAttempt(int quizId, Consumer<List<QuestionResult>> consumer) {
+        final String sql = "SELECT user_id, quiz_id, answers FROM attempt_answer latest WHERE quiz_id = ?" +
+                " AND attempt = (SELECT MAX(attempt) FROM attempt_answer WHERE user_id = latest.user_id AND quiz_id = latest.quiz_id)";
+        jdbcTemplate.query(sql, rs -> {
+            consumer.accept(decode(rs));
+        }, quizId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<QuizResult> findLegacyAttempts(int afterUserId, int afterQuizId, int limit) {
+        final String sql = "SELECT DISTINCT user_id, quiz_id FROM result" +
+                " WHERE user_id > ? OR (user_id = ? AND quiz_id > ?) ORDER BY user_id, quiz_id LIMIT ?";
+        return jdbcTemplate.query(sql, (rs, i) -> new QuizResult(0, rs.getInt("user_id"), rs.getInt("quiz_id"),
+                0, 0, 0, null, null, null), afterUserId, afterUserId, afterQuizId, limit);
+    }
+
+    @Override
+    @Transactional
+    public int packResultRows(List<QuizResult> legacyAttempts) {
+        int packed = 0;
+        for (QuizResult legacy : legacyAttempts) {
+            if (pack(legacy.getUserId(), legacy.getQuizId())) {
+                packed++;
+            }
+        }
+        return packed;
+    }
+
+    // The legacy grader wrote one result row per answer and one quiz_result per attempt, in the same
+    // order, with nothing linking them. The rows are split into attempts where a question repeats, and
+    // only packed when that gives one attempt per quiz_result whose correct answers match its grade:
+    // otherwise the split is a guess and the rows stay as they are. The packed attempts come before any
+    // attempt already in attempt_answer, whose numbers (and their quiz_result's) move up to make room.
+    private boolean pack(int userId, int quizId) {
+        // FOR UPDATE: an answer written while converting waits instead of being deleted unconverted
+        List<QuestionResult> rows = jdbcTemplate.query("SELECT * FROM result WHERE user_id = ? AND quiz_id = ?" +
+                " ORDER BY result_id FOR UPDATE", new QuestionResultMapper(), userId, quizId);
+        List<QuizResult> grades = new ArrayList<>();
+        List<Timestamp> submitted = new ArrayList<>();
+        jdbcTemplate.query("SELECT quiz_result_id, correct_answers, total_questions, submitted_at FROM quiz_result" +
+                " WHERE user_id = ? AND quiz_id = ? AND attempt IS NULL ORDER BY quiz_result_id FOR UPDATE", rs -> {
+            grades.add(new QuizResult(rs.getInt("quiz_result_id"), userId, quizId, rs.getInt("correct_answers"),
+                    rs.getInt("total_questions"), 0, null, null, null));
+            submitted.add(rs.getTimestamp("submitted_at"));
+        }, userId, quizId);
+        Set<Integer> correctOptions = new HashSet<>(jdbcTemplate.queryForList("SELECT o.option_id FROM `option` o" +
+                " join question q on q.question_id = o.question_id WHERE q.quiz_id = ? AND o.is_correct = 1",
+                Integer.class, quizId));
+
+        List<List<QuestionResult>> attempts = new ArrayList<>();
+        Set<Integer> answered = new HashSet<>();
+        for (QuestionResult row : rows) {
+            if (attempts.isEmpty() || !answered.add(row.getQuestionId())) {
+                attempts.add(new ArrayList<>());
+                answered.clear();
+                answered.add(row.getQuestionId());
+            }
+            attempts.get(attempts.size() - 1).add(row);
+        }
+        if (attempts.isEmpty() || attempts.size() != grades.size()) {
+            return false;
+        }
+        for (int i = 0; i < attempts.size(); i++) {
+            long correct = attempts.get(i).stream().filter(row -> correctOptions.contains(row.getOptionId())).count();
+            if (correct != grades.get(i).getCorrectAnswers() || attempts.get(i).size() > grades.get(i).getTotalQuestions()) {
+                return false;
+            }
+        }
+
+        int count = attempts.size();
+        // Highest first so no attempt number is taken twice along the way
+        for (String table : List.of("attempt_answer", "attempt_answer_archive")) {
+            jdbcTemplate.update("UPDATE " + table + " SET attempt = attempt + ? WHERE user_id = ? AND quiz_id = ?" +
+                    " ORDER BY attempt DESC", count, userId, quizId);
+        }
+        for (String table : List.of("quiz_result", "quiz_result_archive")) {
+            jdbcTemplate.update("UPDATE " + table + " SET attempt = attempt + ? WHERE user_id = ? AND quiz_id = ?" +
+                    " AND attempt IS NOT NULL", count, userId, quizId);
+        }
+        List<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            numbers.add(i);
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO attempt_answer (user_id, quiz_id, attempt, answers, submitted_at)" +
+                " VALUES (?, ?, ?, ?, ?)", numbers, BATCH_SIZE, (ps, i) -> {
+            ps.setInt(1, userId);
+            ps.setInt(2, quizId);
+            ps.setInt(3, i + 1);
+            ps.setBytes(4, PackedAnswersCodec.encode(toAnswers(attempts.get(i))));
+            ps.setTimestamp(5, submitted.get(i));
+        });
+        jdbcTemplate.batchUpdate("UPDATE quiz_result SET attempt = ? WHERE quiz_result_id = ?", numbers, BATCH_SIZE,
+                (ps, i) -> {
+                    ps.setInt(1, i + 1);
+                    ps.setInt(2, grades.get(i).getQuizResultId());
+                });
+        jdbcTemplate.update("DELETE FROM result WHERE user_id = ? AND quiz_id = ?", userId, quizId);
+        // The quiz's answer index never saw these attempts and any queued delta of this student now
+        // points at a moved attempt number: dropped, the next query rebuilds it from attempt_answer
+        jdbcTemplate.update("DELETE FROM answer_index WHERE quiz_id = ?", quizId);
+        return true;
+    }
+
     @Override
     public boolean update(QuestionResult questionResult) {
         final String sql = "UPDATE result SET user_id = ?, quiz_id = ?, question_id = ?, option_id = ? WHERE result_id = ?";
@@ -55,4 +239,23 @@ public class QuestionResultRepositoryJdbcTemplate implements QuestionResultRepos
         final String sql = "DELETE FROM result WHERE result_id = ?";
         return jdbcTemplate.update(sql, id) > 0;
     }
+
+    // Keeps the order attempts were listed in
+    private static Map<Integer, Integer> toAnswers(List<QuestionResult> attempt) {
+        Map<Integer, Integer> answers = new LinkedHashMap<>();
+        for (QuestionResult questionResult : attempt) {
+            answers.put(questionResult.getQuestionId(), questionResult.getOptionId());
+        }
+        return answers;
+    }
+
+    private static List<QuestionResult> decode(ResultSet rs) throws SQLException {
+        int userId = rs.getInt("user_id");
+        int quizId = rs.getInt("quiz_id");
+        List<QuestionResult> attempt = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> answer : PackedAnswersCodec.decode(rs.getBytes("answers")).entrySet()) {
+            attempt.add(new QuestionResult(0, userId, quizId, answer.getKey(), answer.getValue()));
+        }
+        return attempt;
+    }
 }
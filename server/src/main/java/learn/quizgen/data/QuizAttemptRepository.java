@@ -0,0 +1,30 @@
+package learn.quizgen.data;
+
+import learn.quizgen.models.QuizAttempt;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+public interface QuizAttemptRepository {
+    QuizAttempt add(QuizAttempt attempt);
+
+    QuizAttempt findById(int attemptId);
+
+    // The user's unsubmitted attempt at the quiz, or null
+    QuizAttempt findOpen(int userId, int quizId);
+
+    // Every unsubmitted attempt with a time limit, to rebuild deadlines after a restart
+    List<QuizAttempt> findOpenTimed();
+
+    // Unsubmitted timed attempts whose deadline was before the given time
+    List<QuizAttempt> findExpired(Instant before, int limit);
+
+    // Merges the changed answers into the saved ones under the attempt's row lock, so autosaves from
+    // several instances keep each other's answers. Returns every saved answer, or null once the
+    // attempt is submitted.
+    Map<Integer, Integer> mergeAnswers(int attemptId, Map<Integer, Integer> changes);
+
+    // Saves the final answers. False when the attempt was already submitted, so exactly one submission wins
+    boolean markSubmitted(QuizAttempt attempt, Instant submittedAt);
+}
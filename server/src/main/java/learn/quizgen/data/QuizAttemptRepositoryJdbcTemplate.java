@@ -0,0 +1,104 @@
+package learn.quizgen.data;
+
+import learn.quizgen.data.mapper.AnswersCodec;
+import learn.quizgen.data.mapper.QuizAttemptMapper;
+import learn.quizgen.models.QuizAttempt;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class QuizAttemptRepositoryJdbcTemplate implements QuizAttemptRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public QuizAttemptRepositoryJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public QuizAttempt add(QuizAttempt attempt) {
+        final String sql = "INSERT INTO quiz_attempt (user_id, quiz_id, school, started_at, time_limit_seconds, answers) " +
+                "VALUES (?, ?, ?, ?, ?, ?)";
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, new String[]{"attempt_id"});
+            ps.setInt(1, attempt.getUserId());
+            ps.setInt(2, attempt.getQuizId());
+            ps.setString(3, attempt.getSchool());
+            ps.setTimestamp(4, Timestamp.from(attempt.getStartedAt()));
+            ps.setObject(5, attempt.getTimeLimitSeconds(), Types.INTEGER);
+            ps.setString(6, AnswersCodec.encode(attempt.getAnswers()));
+            return ps;
+        }, keyHolder);
+
+        attempt.setAttemptId(keyHolder.getKey().intValue());
+        return attempt;
+    }
+
+    @Override
+    public QuizAttempt findById(int attemptId) {
+        final String sql = "SELECT * FROM quiz_attempt WHERE attempt_id = ?";
+        try {
+            return jdbcTemplate.queryForObject(sql, new QuizAttemptMapper(), attemptId);
+        } catch (EmptyResultDataAccessException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public QuizAttempt findOpen(int userId, int quizId) {
+        final String sql = "SELECT * FROM quiz_attempt WHERE submitted_at IS NULL AND user_id = ? AND quiz_id = ? " +
+                "ORDER BY attempt_id DESC LIMIT 1";
+        List<QuizAttempt> attempts = jdbcTemplate.query(sql, new QuizAttemptMapper(), userId, quizId);
+        return attempts.isEmpty() ? null : attempts.get(0);
+    }
+
+    @Override
+    public List<QuizAttempt> findOpenTimed() {
+        final String sql = "SELECT * FROM quiz_attempt WHERE submitted_at IS NULL AND time_limit_seconds IS NOT NULL";
+        return jdbcTemplate.query(sql, new QuizAttemptMapper());
+    }
+
+    @Override
+    public List<QuizAttempt> findExpired(Instant before, int limit) {
+        final String sql = "SELECT * FROM quiz_attempt WHERE submitted_at IS NULL AND time_limit_seconds IS NOT NULL " +
+                "AND TIMESTAMPADD(SECOND, time_limit_seconds, started_at) < ? ORDER BY attempt_id LIMIT ?";
+        return jdbcTemplate.query(sql, new QuizAttemptMapper(), Timestamp.from(before), limit);
+    }
+
+    @Override
+    @Transactional
+    public Map<Integer, Integer> mergeAnswers(int attemptId, Map<Integer, Integer> changes) {
+        final String sql = "SELECT answers FROM quiz_attempt WHERE attempt_id = ? AND submitted_at IS NULL FOR UPDATE";
+        List<String> saved = jdbcTemplate.queryForList(sql, String.class, attemptId);
+        if (saved.isEmpty()) {
+            return null;
+        }
+        Map<Integer, Integer> answers = AnswersCodec.decode(saved.get(0));
+        if (!changes.isEmpty()) {
+            answers.putAll(changes);
+            jdbcTemplate.update("UPDATE quiz_attempt SET answers = ? WHERE attempt_id = ?",
+                    AnswersCodec.encode(answers), attemptId);
+        }
+        return answers;
+    }
+
+    @Override
+    public boolean markSubmitted(QuizAttempt attempt, Instant submittedAt) {
+        final String sql = "UPDATE quiz_attempt SET submitted_at = ?, answers = ? WHERE attempt_id = ? AND submitted_at IS NULL";
+        return jdbcTemplate.update(sql, Timestamp.from(submittedAt), AnswersCodec.encode(attempt.getAnswers()),
+                attempt.getAttemptId()) > 0;
+    }
+}
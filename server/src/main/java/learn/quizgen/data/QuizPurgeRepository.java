@@ -0,0 +1,15 @@
+package learn.quizgen.data;
+
+import java.util.List;
+
+public interface QuizPurgeRepository {
+
+    // Quizzes deleted before (soft deleted, waiting to be purged), oldest first
+    List<Integer> findDeleted(int limit);
+
+    // Deletes up to limit rows that belong to the quiz, children before parents; 0 once none are left
+    int deleteDependents(int quizId, int limit);
+
+    // Only a quiz that was soft deleted
+    boolean deleteQuiz(int quizId);
+}
@@ -0,0 +1,56 @@
+package learn.quizgen.data;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+// Every statement deletes at most limit rows and commits on its own, so no statement holds locks on
+// the shared tables for long and a purge can stop and resume anywhere
+@Repository
+public class QuizPurgeRepositoryJdbcTemplate implements QuizPurgeRepository {
+
+    // Children first, the test schema has no ON DELETE CASCADE and prod shouldn't need it
+    private static final List<String> DEPENDENTS = List.of(
+            "DELETE FROM result WHERE quiz_id = ? LIMIT ?",
+            "DELETE FROM quiz_result WHERE quiz_id = ? LIMIT ?",
+            "DELETE FROM score WHERE quiz_id = ? LIMIT ?",
+            "DELETE FROM quiz_attempt WHERE quiz_id = ? LIMIT ?",
+            "DELETE FROM result_archive WHERE quiz_id = ? LIMIT ?",
+            "DELETE FROM quiz_result_archive WHERE quiz_id = ? LIMIT ?",
+            "DELETE FROM attempt_answer WHERE quiz_id = ? LIMIT ?",
+            "DELETE FROM attempt_answer_archive WHERE quiz_id = ? LIMIT ?",
+            "DELETE FROM answer_index WHERE quiz_id = ? LIMIT ?",
+            "DELETE FROM answer_index_delta WHERE quiz_id = ? LIMIT ?",
+            "DELETE FROM `option` WHERE question_id IN (SELECT question_id FROM question WHERE quiz_id = ?) LIMIT ?",
+            "DELETE FROM question WHERE quiz_id = ? LIMIT ?");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public QuizPurgeRepositoryJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Integer> findDeleted(int limit) {
+        final String sql = "SELECT quiz_id FROM quiz WHERE deleted_at IS NOT NULL ORDER BY deleted_at LIMIT ?";
+        return jdbcTemplate.queryForList(sql, Integer.class, limit);
+    }
+
+    @Override
+    public int deleteDependents(int quizId, int limit) {
+        for (String sql : DEPENDENTS) {
+            int deleted = jdbcTemplate.update(sql, quizId, limit);
+            if (deleted > 0) {
+                return deleted;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public boolean deleteQuiz(int quizId) {
+        final String sql = "DELETE FROM quiz WHERE quiz_id = ? AND deleted_at IS NOT NULL";
+        return jdbcTemplate.update(sql, quizId) > 0;
+    }
+}
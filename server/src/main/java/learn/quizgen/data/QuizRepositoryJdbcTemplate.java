@@ -1,14 +1,17 @@
 package learn.quizgen.data;
 
 import learn.quizgen.data.mapper.QuizMapper;
+import learn.quizgen.data.routing.TenantContext;
 import learn.quizgen.models.Quiz;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.dao.EmptyResultDataAccessException;
 
 import java.sql.PreparedStatement;
+import java.sql.Types;
 import java.util.List;
 
 @Repository
@@ -21,14 +24,16 @@ public class QuizRepositoryJdbcTemplate implements QuizRepository {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Quiz> findAll() {
-        final String sql = "SELECT * FROM quick_quiz.quiz join teacher on quiz.teacher_id = teacher.teacher_id join app_user on teacher.user_id = app_user.user_id";
+        final String sql = "SELECT * FROM quiz join teacher on quiz.teacher_id = teacher.teacher_id join app_user on teacher.user_id = app_user.user_id WHERE quiz.deleted_at IS NULL";
         return jdbcTemplate.query(sql, new QuizMapper());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Quiz findById(int id) {
-        final String sql = "SELECT * FROM quick_quiz.quiz join teacher on quiz.teacher_id = teacher.teacher_id join app_user on teacher.user_id = app_user.user_id WHERE quiz_id = ?";
+        final String sql = "SELECT * FROM quiz join teacher on quiz.teacher_id = teacher.teacher_id join app_user on teacher.user_id = app_user.user_id WHERE quiz_id = ? AND quiz.deleted_at IS NULL";
         try {
             return jdbcTemplate.queryForObject(sql, new QuizMapper(), id);
         } catch (EmptyResultDataAccessException e) {
@@ -43,8 +48,8 @@ public class QuizRepositoryJdbcTemplate implements QuizRepository {
             throw new IllegalArgumentException("teacherId must be set before saving a quiz.");
         }
 
-        final String sql = "INSERT INTO quiz (teacher_id, title, description, number_of_questions, number_of_options, topic, prompt, quiz_json) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        final String sql = "INSERT INTO quiz (teacher_id, title, description, number_of_questions, number_of_options, topic, prompt, quiz_json, time_limit_seconds, school) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
         KeyHolder keyHolder = new GeneratedKeyHolder();
 
@@ -58,6 +63,8 @@ public class QuizRepositoryJdbcTemplate implements QuizRepository {
             ps.setString(6, quiz.getTopic());
             ps.setString(7, quiz.getPrompt());
             ps.setString(8, quiz.getQuizJSON());
+            ps.setObject(9, quiz.getTimeLimitSeconds(), Types.INTEGER);
+            ps.setString(10, TenantContext.getSchool());
             return ps;
         }, keyHolder);
 
@@ -71,7 +78,7 @@ public class QuizRepositoryJdbcTemplate implements QuizRepository {
             throw new IllegalArgumentException("teacherId must be set before updating a quiz.");
         }
 
-        final String sql = "UPDATE quiz SET teacher_id = ?, title = ?, description = ?, number_of_questions = ?, number_of_options = ?, topic = ?, prompt = ?, quiz_json = ? WHERE quiz_id = ?";
+        final String sql = "UPDATE quiz SET teacher_id = ?, title = ?, description = ?, number_of_questions = ?, number_of_options = ?, topic = ?, prompt = ?, quiz_json = ?, time_limit_seconds = ? WHERE quiz_id = ? AND deleted_at IS NULL";
         return jdbcTemplate.update(sql,
                 quiz.getTeacherId(),
                 quiz.getTitle(),
@@ -81,6 +88,7 @@ public class QuizRepositoryJdbcTemplate implements QuizRepository {
                 quiz.getTopic(),
                 quiz.getPrompt(),
                 quiz.getQuizJSON(),
+                quiz.getTimeLimitSeconds(),
                 quiz.getQuizId()) > 0;
 
 
@@ -88,7 +96,8 @@ public class QuizRepositoryJdbcTemplate implements QuizRepository {
 
     @Override
     public boolean deleteById(int id) {
-        final String sql = "DELETE FROM quiz WHERE quiz_id = ?";
+        // Hidden right away, QuizPurger deletes the rows later in small chunks
+        final String sql = "UPDATE quiz SET deleted_at = CURRENT_TIMESTAMP WHERE quiz_id = ? AND deleted_at IS NULL";
         int rowsAffected = jdbcTemplate.update(sql, id);
         return rowsAffected > 0;  // Return true if the quiz was deleted, false otherwise
     }
@@ -1,16 +1,32 @@
 package learn.quizgen.data;
 
+import learn.quizgen.models.GradebookRow;
 import learn.quizgen.models.QuizResult;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface QuizResultRepository {
     List<QuizResult> findAll();
 
+    // includeArchived also reads quiz_result_archive, results of past terms
+    List<QuizResult> findAll(boolean includeArchived);
+
+    // Falls back to the archive for an id that was archived
     QuizResult findById(int id);
 
+    // One row per quiz (quiz id plus one user who took it), most attempted quizzes first
+    List<QuizResult> findMostTaken(int limit);
+
+    // Every result of the teacher's quizzes, handed over one row at a time as they are read: grouped by
+    // quiz in quiz id order, then by result id, current results before archived ones
+    void forEachGradebookRow(String teacherUsername, boolean withAnswers, boolean includeArchived,
+                             Consumer<GradebookRow> consumer);
+
     QuizResult add(QuizResult quiz);
 
+    void addAll(List<QuizResult> quizResults);
+
     boolean update(QuizResult quiz);
 
     boolean deleteById(int id);
@@ -1,15 +1,28 @@
 package learn.quizgen.data;
 
+import learn.quizgen.data.mapper.GradebookRowMapper;
+import learn.quizgen.data.mapper.PackedAnswersCodec;
 import learn.quizgen.data.mapper.QuizResultMapper;
+import learn.quizgen.models.GradebookRow;
 import learn.quizgen.models.QuizResult;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @Repository
 public class QuizResultRepositoryJdbcTemplate implements QuizResultRepository {
 
+    private static final int BATCH_SIZE = 500;
+
     private final JdbcTemplate jdbcTemplate;
 
     public QuizResultRepositoryJdbcTemplate(JdbcTemplate jdbcTemplate) {
@@ -17,29 +30,87 @@ public class QuizResultRepositoryJdbcTemplate implements QuizResultRepository {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<QuizResult> findAll() {
-        final String sql = "SELECT * FROM quick_quiz.quiz_result join quiz on quiz.quiz_id = quiz_result.quiz_id join app_user on quiz_result.user_id = app_user.user_id";
+        return findAll(false);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<QuizResult> findAll(boolean includeArchived) {
+        String sql = resultsFrom("quiz_result") + " WHERE quiz.deleted_at IS NULL";
+        if (includeArchived) {
+            sql += " UNION ALL " + resultsFrom("quiz_result_archive") + " WHERE quiz.deleted_at IS NULL";
+        }
         return jdbcTemplate.query(sql, new QuizResultMapper());
     }
 
     @Override
     public QuizResult findById(int id) {
-        final String sql = "SELECT * FROM quiz_result WHERE quiz_result_id = ?";
-        return jdbcTemplate.queryForObject(sql, new QuizResultMapper(), id);
+        List<QuizResult> quizResults = jdbcTemplate.query(resultsFrom("quiz_result") + " WHERE qr.quiz_result_id = ?",
+                new QuizResultMapper(), id);
+        if (quizResults.isEmpty()) {
+            quizResults = jdbcTemplate.query(resultsFrom("quiz_result_archive") + " WHERE qr.quiz_result_id = ?",
+                    new QuizResultMapper(), id);
+        }
+        return quizResults.isEmpty() ? null : quizResults.get(0);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<QuizResult> findMostTaken(int limit) {
+        final String sql = "SELECT quiz_result.quiz_id, MIN(quiz_result.user_id) AS user_id FROM quiz_result" +
+                " join quiz on quiz.quiz_id = quiz_result.quiz_id WHERE quiz.deleted_at IS NULL" +
+                " GROUP BY quiz_result.quiz_id ORDER BY COUNT(*) DESC, quiz_result.quiz_id LIMIT ?";
+        return jdbcTemplate.query(sql, (resultSet, i) -> new QuizResult(0, resultSet.getInt("user_id"),
+                resultSet.getInt("quiz_id"), 0, 0, 0, null, null, null), limit);
+    }
+
+    // A forward-only result set with fetch size Integer.MIN_VALUE makes MySQL Connector/J stream the rows
+    // instead of loading them all, so memory stays flat however many rows the export has. Each table (hot,
+    // then archive) is its own query with no ORDER BY, so MySQL sends rows as it reads them instead of
+    // sorting first (see gradebookFrom for the order). With answers, the question and option text comes
+    // from one lookup of the teacher's options made beforehand, so the stream only carries option ids
+    // (legacy result rows) or packed attempt_answer blobs.
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachGradebookRow(String teacherUsername, boolean withAnswers, boolean includeArchived,
+                                    Consumer<GradebookRow> consumer) {
+        Map<Integer, GradebookRow> answerText = withAnswers ? findAnswerText(teacherUsername) : Map.of();
+        streamGradebook(gradebookFrom("quiz_result", "result", "attempt_answer", withAnswers),
+                teacherUsername, withAnswers, answerText, consumer);
+        if (includeArchived) {
+            streamGradebook(gradebookFrom("quiz_result_archive", "result_archive", "attempt_answer_archive", withAnswers),
+                    teacherUsername, withAnswers, answerText, consumer);
+        }
     }
 
     @Override
     public QuizResult add(QuizResult quiz) {
-        final String sql = "INSERT INTO quiz_result (user_id, quiz_id, correct_answers, total_questions, percent_correct) VALUES (?, ?, ?, ?, ?)";
+        final String sql = "INSERT INTO quiz_result (user_id, quiz_id, correct_answers, total_questions, percent_correct, attempt) VALUES (?, ?, ?, ?, ?, ?)";
         jdbcTemplate.update(sql,
                 quiz.getUserId(),
                 quiz.getQuizId(),
                 quiz.getCorrectAnswers(),
                 quiz.getTotalQuestions(),
-                quiz.getScore());
+                quiz.getScore(),
+                quiz.getAttempt());
         return quiz;
     }
 
+    @Override
+    public void addAll(List<QuizResult> quizResults) {
+        final String sql = "INSERT INTO quiz_result (user_id, quiz_id, correct_answers, total_questions, percent_correct, attempt) VALUES (?, ?, ?, ?, ?, ?)";
+        jdbcTemplate.batchUpdate(sql, quizResults, BATCH_SIZE, (ps, quiz) -> {
+            ps.setInt(1, quiz.getUserId());
+            ps.setInt(2, quiz.getQuizId());
+            ps.setInt(3, quiz.getCorrectAnswers());
+            ps.setInt(4, quiz.getTotalQuestions());
+            ps.setFloat(5, quiz.getScore());
+            ps.setObject(6, quiz.getAttempt(), Types.INTEGER);
+        });
+    }
+
     @Override
     public boolean update(QuizResult quiz) {
         final String sql = "UPDATE quiz_result SET user_id = ?, quiz_id = ?, correct_answers = ?, total_questions = ?, percent_correct = ? WHERE quiz_id = ?";
@@ -57,4 +128,97 @@ public class QuizResultRepositoryJdbcTemplate implements QuizResultRepository {
         final String sql = "DELETE FROM quiz_result WHERE quiz_result_id = ?";
         return jdbcTemplate.update(sql, id) > 0;
     }
+
+    // The hot and archive tables have the same columns, so every read is the same query on either
+    private static String resultsFrom(String quizResultTable) {
+        return "SELECT qr.quiz_result_id, qr.user_id, qr.quiz_id, qr.correct_answers, qr.total_questions," +
+                " qr.percent_correct, app_user.username, quiz.title, quiz.topic" +
+                " FROM " + quizResultTable + " qr" +
+                " join quiz on quiz.quiz_id = qr.quiz_id" +
+                " join app_user on qr.user_id = app_user.user_id";
+    }
+
+    // STRAIGHT_JOIN keeps the join order written here: the teacher, their quizzes through the teacher_id
+    // index (quiz_id order), then each quiz's results through the quiz_id index (quiz_result_id order).
+    // Rows come out grouped by quiz and in result order without a sort. A result's answers are those of
+    // its own attempt: the attempt_answer row it names, or for a legacy result (no attempt) the result
+    // rows, only when it is the student's one legacy result at the quiz and so their only owner.
+    private static String gradebookFrom(String quizResultTable, String resultTable, String attemptTable,
+                                        boolean withAnswers) {
+        return "SELECT STRAIGHT_JOIN quiz_result.quiz_result_id, quiz_result.quiz_id, quiz.title, quiz.topic, " +
+                "student.username, quiz_result.correct_answers, quiz_result.total_questions, quiz_result.percent_correct" +
+                (withAnswers ? ", result.option_id, attempt.answers" : "") +
+                " FROM app_user teacher_user" +
+                " join teacher on teacher.user_id = teacher_user.user_id" +
+                " join quiz on quiz.teacher_id = teacher.teacher_id" +
+                " join " + quizResultTable + " quiz_result on quiz_result.quiz_id = quiz.quiz_id" +
+                " join app_user student on student.user_id = quiz_result.user_id" +
+                (withAnswers ? " left join " + attemptTable + " attempt on attempt.user_id = quiz_result.user_id" +
+                        " and attempt.quiz_id = quiz_result.quiz_id and attempt.attempt = quiz_result.attempt" +
+                        " left join " + resultTable + " result on quiz_result.attempt IS NULL" +
+                        " and result.user_id = quiz_result.user_id and result.quiz_id = quiz_result.quiz_id" +
+                        " and NOT EXISTS (SELECT 1 FROM " + quizResultTable + " other WHERE other.user_id = quiz_result.user_id" +
+                        " AND other.quiz_id = quiz_result.quiz_id AND other.attempt IS NULL" +
+                        " AND other.quiz_result_id <> quiz_result.quiz_result_id)" : "") +
+                " WHERE teacher_user.username = ? AND quiz.deleted_at IS NULL";
+    }
+
+    private void streamGradebook(String query, String teacherUsername, boolean withAnswers,
+                                 Map<Integer, GradebookRow> answerText, Consumer<GradebookRow> consumer) {
+        GradebookRowMapper mapper = new GradebookRowMapper();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            ps.setString(1, teacherUsername);
+            return ps;
+        }, resultSet -> {
+            GradebookRow row = mapper.mapRow(resultSet, 0);
+            if (!withAnswers) {
+                consumer.accept(row);
+                return;
+            }
+            byte[] packed = resultSet.getBytes("answers");
+            int legacyOptionId = resultSet.getInt("option_id");
+            Collection<Integer> optionIds = packed != null ? PackedAnswersCodec.decode(packed).values()
+                    : resultSet.wasNull() ? List.of() : List.of(legacyOptionId);
+            for (int optionId : optionIds) {
+                // Options deleted since the attempt are left out, as the join used to
+                GradebookRow answer = answerText.get(optionId);
+                if (answer != null) {
+                    consumer.accept(withAnswer(row, answer));
+                }
+            }
+        });
+    }
+
+    // option_id -> the answer columns of a gradebook row, for every option of the teacher's quizzes
+    private Map<Integer, GradebookRow> findAnswerText(String teacherUsername) {
+        final String sql = "SELECT `option`.option_id, question.question_id, question.question_text," +
+                " `option`.option_text, `option`.is_correct FROM `option`" +
+                " join question on question.question_id = `option`.question_id" +
+                " join quiz on quiz.quiz_id = question.quiz_id" +
+                " join teacher on teacher.teacher_id = quiz.teacher_id" +
+                " join app_user teacher_user on teacher_user.user_id = teacher.user_id" +
+                " WHERE teacher_user.username = ? AND quiz.deleted_at IS NULL";
+        Map<Integer, GradebookRow> answers = new HashMap<>();
+        jdbcTemplate.query(sql, resultSet -> {
+            GradebookRow answer = new GradebookRow(0, 0, null, null, null, 0, 0, 0);
+            answer.setQuestionId(resultSet.getInt("question_id"));
+            answer.setQuestionText(resultSet.getString("question_text"));
+            answer.setOptionText(resultSet.getString("option_text"));
+            answer.setCorrect(resultSet.getBoolean("is_correct"));
+            answers.put(resultSet.getInt("option_id"), answer);
+        }, teacherUsername);
+        return answers;
+    }
+
+    private static GradebookRow withAnswer(GradebookRow row, GradebookRow answer) {
+        GradebookRow copy = new GradebookRow(row.getQuizResultId(), row.getQuizId(), row.getTitle(), row.getTopic(),
+                row.getUsername(), row.getCorrectAnswers(), row.getTotalQuestions(), row.getPercentCorrect());
+        copy.setQuestionId(answer.getQuestionId());
+        copy.setQuestionText(answer.getQuestionText());
+        copy.setOptionText(answer.getOptionText());
+        copy.setCorrect(answer.getCorrect());
+        return copy;
+    }
 }
@@ -0,0 +1,14 @@
+package learn.quizgen.data;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ResultArchiveRepository {
+
+    // quiz_result ids submitted before the boundary, oldest first, leaving out a user's quiz that was
+    // also taken after it (their result rows can't be told apart by attempt)
+    List<Integer> findArchivable(Instant before, int limit);
+
+    // Moves the quiz results and their result rows to the archive tables; returns the quiz results moved
+    int archive(List<Integer> quizResultIds);
+}
@@ -0,0 +1,57 @@
+package learn.quizgen.data;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+@Repository
+public class ResultArchiveRepositoryJdbcTemplate implements ResultArchiveRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ResultArchiveRepositoryJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Integer> findArchivable(Instant before, int limit) {
+        final String sql = "SELECT quiz_result_id FROM quiz_result qr WHERE qr.submitted_at < ?" +
+                " AND NOT EXISTS (SELECT 1 FROM quiz_result newer WHERE newer.user_id = qr.user_id" +
+                " AND newer.quiz_id = qr.quiz_id AND newer.submitted_at >= ?)" +
+                " ORDER BY qr.submitted_at LIMIT ?";
+        Timestamp boundary = Timestamp.from(before);
+        return jdbcTemplate.queryForList(sql, Integer.class, boundary, boundary, limit);
+    }
+
+    // Copy, then delete, in one transaction: a result is always in exactly one of the two places
+    @Override
+    @Transactional
+    public int archive(List<Integer> quizResultIds) {
+        if (quizResultIds.isEmpty()) {
+            return 0;
+        }
+        Object[] ids = quizResultIds.toArray();
+        String in = "(" + String.join(", ", Collections.nCopies(ids.length, "?")) + ")";
+        String sameAttempts = "(user_id, quiz_id) IN (SELECT user_id, quiz_id FROM quiz_result WHERE quiz_result_id IN " + in + ")";
+
+        jdbcTemplate.update("INSERT INTO result_archive (result_id, user_id, quiz_id, question_id, option_id)" +
+                " SELECT result_id, user_id, quiz_id, question_id, option_id FROM result WHERE " + sameAttempts, ids);
+        jdbcTemplate.update("INSERT INTO quiz_result_archive (quiz_result_id, user_id, quiz_id, correct_answers," +
+                " total_questions, percent_correct, submitted_at, attempt)" +
+                " SELECT quiz_result_id, user_id, quiz_id, correct_answers, total_questions, percent_correct, submitted_at, attempt" +
+                " FROM quiz_result WHERE quiz_result_id IN " + in, ids);
+        jdbcTemplate.update("INSERT INTO attempt_answer_archive (user_id, quiz_id, attempt, answers, submitted_at)" +
+                " SELECT user_id, quiz_id, attempt, answers, submitted_at FROM attempt_answer WHERE " + sameAttempts, ids);
+        // Dropped to be rebuilt from what is left in attempt_answer on the next query (see AnswerIndexService)
+        jdbcTemplate.update("DELETE FROM answer_index WHERE quiz_id IN (SELECT quiz_id FROM quiz_result" +
+                " WHERE quiz_result_id IN " + in + ")", ids);
+        jdbcTemplate.update("DELETE FROM result WHERE " + sameAttempts, ids);
+        jdbcTemplate.update("DELETE FROM attempt_answer WHERE " + sameAttempts, ids);
+        return jdbcTemplate.update("DELETE FROM quiz_result WHERE quiz_result_id IN " + in, ids);
+    }
+}
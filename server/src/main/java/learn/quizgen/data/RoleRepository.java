@@ -0,0 +1,9 @@
+package learn.quizgen.data;
+
+import java.util.Map;
+
+public interface RoleRepository {
+
+    // Role name to role_id
+    Map<String, Integer> findAll();
+}
@@ -0,0 +1,27 @@
+package learn.quizgen.data;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Repository
+public class RoleRepositoryJdbcTemplate implements RoleRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RoleRepositoryJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Map<String, Integer> findAll() {
+        final String sql = "SELECT role_id, `name` FROM role";
+        Map<String, Integer> roles = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            roles.put(rs.getString("name"), rs.getInt("role_id"));
+        });
+        return roles;
+    }
+}
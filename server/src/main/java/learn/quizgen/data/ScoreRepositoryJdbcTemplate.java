@@ -18,13 +18,14 @@ public class ScoreRepositoryJdbcTemplate implements ScoreRepository {
 
     @Override
     public List<Score> findAll() {
-        final String sql = "SELECT * FROM score";
+        final String sql = "SELECT score.* FROM score join quiz on quiz.quiz_id = score.quiz_id WHERE quiz.deleted_at IS NULL";
         return jdbcTemplate.query(sql, new ScoreMapper());
     }
 
     @Override
     public Score findById(int id) {
-        final String sql = "SELECT * FROM score WHERE score_id = ?";
+        final String sql = "SELECT score.* FROM score join quiz on quiz.quiz_id = score.quiz_id" +
+                " WHERE score.score_id = ? AND quiz.deleted_at IS NULL";
         return jdbcTemplate.queryForObject(sql, new ScoreMapper(), id);
     }
 
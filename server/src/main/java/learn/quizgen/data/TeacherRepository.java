@@ -13,6 +13,8 @@ public interface TeacherRepository {
 
     Teacher add(Teacher teacher);
 
+    void addAll(List<Teacher> teachers);
+
     boolean update(Teacher teacher);
 
     boolean deleteById(int id);
@@ -14,6 +14,8 @@ import java.util.List;
 @Repository
 public class TeacherRepositoryJdbcTemplate implements TeacherRepository {
 
+    private static final int BATCH_SIZE = 500;
+
     private final JdbcTemplate jdbcTemplate;
 
     public TeacherRepositoryJdbcTemplate(JdbcTemplate jdbcTemplate) {
@@ -55,6 +57,12 @@ public class TeacherRepositoryJdbcTemplate implements TeacherRepository {
         return teacher;
     }
 
+    @Override
+    public void addAll(List<Teacher> teachers) {
+        final String sql = "INSERT INTO teacher (user_id) VALUES (?)";
+        jdbcTemplate.batchUpdate(sql, teachers, BATCH_SIZE, (ps, teacher) -> ps.setInt(1, teacher.getUserId()));
+    }
+
     @Override
     public boolean update(Teacher teacher) {
         final String sql = "UPDATE teacher SET user_id = ? WHERE teacher_id = ?";
@@ -0,0 +1,34 @@
+package learn.quizgen.data.mapper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// quiz_attempt.answers as "questionId:optionId,questionId:optionId"
+public final class AnswersCodec {
+
+    private AnswersCodec() {
+    }
+
+    public static String encode(Map<Integer, Integer> answers) {
+        StringBuilder encoded = new StringBuilder();
+        for (Map.Entry<Integer, Integer> answer : answers.entrySet()) {
+            if (encoded.length() > 0) {
+                encoded.append(',');
+            }
+            encoded.append(answer.getKey()).append(':').append(answer.getValue());
+        }
+        return encoded.toString();
+    }
+
+    public static Map<Integer, Integer> decode(String encoded) {
+        Map<Integer, Integer> answers = new LinkedHashMap<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return answers;
+        }
+        for (String answer : encoded.split(",")) {
+            int colon = answer.indexOf(':');
+            answers.put(Integer.parseInt(answer.substring(0, colon)), Integer.parseInt(answer.substring(colon + 1)));
+        }
+        return answers;
+    }
+}
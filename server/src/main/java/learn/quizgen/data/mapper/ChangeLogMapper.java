@@ -0,0 +1,15 @@
+package learn.quizgen.data.mapper;
+
+import learn.quizgen.models.ChangeLogEntry;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class ChangeLogMapper implements RowMapper<ChangeLogEntry> {
+    @Override
+    public ChangeLogEntry mapRow(ResultSet resultSet, int i) throws SQLException {
+        return new ChangeLogEntry(resultSet.getLong("change_id"), resultSet.getString("entity"),
+                resultSet.getInt("entity_id"), resultSet.getString("school"));
+    }
+}
@@ -0,0 +1,19 @@
+package learn.quizgen.data.mapper;
+
+import learn.quizgen.models.GradebookRow;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// The quiz_result columns of a gradebook row; the answer columns are filled in by the repository
+public class GradebookRowMapper implements RowMapper<GradebookRow> {
+
+    @Override
+    public GradebookRow mapRow(ResultSet resultSet, int i) throws SQLException {
+        return new GradebookRow(resultSet.getInt("quiz_result_id"), resultSet.getInt("quiz_id"),
+                resultSet.getString("title"), resultSet.getString("topic"), resultSet.getString("username"),
+                resultSet.getInt("correct_answers"), resultSet.getInt("total_questions"),
+                resultSet.getFloat("percent_correct"));
+    }
+}
@@ -0,0 +1,85 @@
+package learn.quizgen.data.mapper;
+
+import java.io.ByteArrayOutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// attempt_answer.answers: a version byte, then for each answer in question id order the question id
+// as a varint delta from the previous question id, and the option id as a zigzag varint delta from
+// the previous option id. Questions and options written together get consecutive ids, so both deltas
+// fit in a byte and an answer takes 2 bytes: a 40-question attempt is about 80 bytes in one row,
+// where the result table takes 40 rows of 5 ints plus their index entries.
+public final class PackedAnswersCodec {
+
+    static final int VERSION = 1;
+
+    private PackedAnswersCodec() {
+    }
+
+    // Question id to option id
+    public static byte[] encode(Map<Integer, Integer> answers) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1 + answers.size() * 2);
+        out.write(VERSION);
+        int previousQuestion = 0;
+        int previousOption = 0;
+        for (Map.Entry<Integer, Integer> answer : new TreeMap<>(answers).entrySet()) {
+            writeVarint(out, answer.getKey() - previousQuestion);
+            writeVarint(out, zigzag(answer.getValue() - previousOption));
+            previousQuestion = answer.getKey();
+            previousOption = answer.getValue();
+        }
+        return out.toByteArray();
+    }
+
+    // In question id order
+    public static Map<Integer, Integer> decode(byte[] packed) {
+        Map<Integer, Integer> answers = new LinkedHashMap<>();
+        if (packed == null || packed.length == 0) {
+            return answers;
+        }
+        if (packed[0] != VERSION) {
+            throw new IllegalArgumentException("Unknown packed answers version " + packed[0]);
+        }
+        int[] position = {1};
+        int question = 0;
+        int option = 0;
+        while (position[0] < packed.length) {
+            question += readVarint(packed, position);
+            option += unzigzag(readVarint(packed, position));
+            answers.put(question, option);
+        }
+        return answers;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(byte[] packed, int[] position) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (position[0] >= packed.length) {
+                throw new IllegalArgumentException("Truncated packed answers");
+            }
+            byte b = packed[position[0]++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in packed answers");
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
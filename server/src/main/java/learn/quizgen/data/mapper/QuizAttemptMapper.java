@@ -0,0 +1,22 @@
+package learn.quizgen.data.mapper;
+
+import learn.quizgen.models.QuizAttempt;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+public class QuizAttemptMapper implements RowMapper<QuizAttempt> {
+    @Override
+    public QuizAttempt mapRow(ResultSet resultSet, int i) throws SQLException {
+        int timeLimitSeconds = resultSet.getInt("time_limit_seconds");
+        Integer timeLimit = resultSet.wasNull() ? null : timeLimitSeconds;
+        Timestamp submittedAt = resultSet.getTimestamp("submitted_at");
+        return new QuizAttempt(resultSet.getInt("attempt_id"), resultSet.getInt("user_id"),
+                resultSet.getInt("quiz_id"), resultSet.getString("school"),
+                resultSet.getTimestamp("started_at").toInstant(), timeLimit,
+                AnswersCodec.decode(resultSet.getString("answers")),
+                submittedAt == null ? null : submittedAt.toInstant());
+    }
+}
@@ -1,22 +1,32 @@
 package learn.quizgen.data.mapper;
 
 import learn.quizgen.models.Quiz;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.RowMapper;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
 public class QuizMapper implements RowMapper<Quiz> {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizMapper.class);
+
     @Override
     public Quiz mapRow(ResultSet resultSet, int i) throws SQLException {
         String quizJSON = resultSet.getString("quiz_json");
-        System.out.println("quiz_json from database: " + quizJSON); // Log the quiz_json value
 
         Quiz quiz = new Quiz(resultSet.getInt("quiz_id"), resultSet.getInt("teacher_id"), resultSet.getString("last_name"),
                 resultSet.getString("title"), resultSet.getString("description"),
                 resultSet.getInt("number_of_questions"), resultSet.getInt("number_of_options"),
                 resultSet.getString("topic"), resultSet.getString("prompt"), quizJSON);
+        int timeLimitSeconds = resultSet.getInt("time_limit_seconds");
+        quiz.setTimeLimitSeconds(resultSet.wasNull() ? null : timeLimitSeconds);
 
+        // Runs once per row, so only the size is logged and only when debug is on
+        if (log.isDebugEnabled()) {
+            log.debug("Mapped quiz {} with {} chars of quiz_json", quiz.getQuizId(), quizJSON == null ? 0 : quizJSON.length());
+        }
         return quiz;
     }
 }
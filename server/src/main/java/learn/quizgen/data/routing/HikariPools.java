@@ -0,0 +1,28 @@
+package learn.quizgen.data.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Extra pools (replicas, shards) configured like the primary one, reported as hikaricp_*{pool=<name>}
+final class HikariPools {
+
+    private HikariPools() {
+    }
+
+    static HikariDataSource copyOf(HikariDataSource primary, String poolName, String url,
+                                   String username, String password, MeterRegistry meterRegistry) {
+        HikariDataSource pool = new HikariDataSource();
+        primary.copyStateTo(pool);
+        pool.setPoolName(poolName);
+        pool.setJdbcUrl(url);
+        if (username != null) {
+            pool.setUsername(username);
+            pool.setPassword(password);
+        }
+        if (meterRegistry != null && pool.getMetricsTrackerFactory() == null) {
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,73 @@
+package learn.quizgen.data.routing;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Keeps a user's reads on the primary while they are writing and for read-your-writes-seconds
+// afterwards, so a teacher who just saved a quiz (or a student who just submitted one) never reads
+// it back from a replica that hasn't caught up. Runs after Spring Security so the user is known;
+// anonymous requests are never pinned.
+@Component
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    // Past this many recent writers the expired ones are swept out
+    private static final int SWEEP_AT = 10_000;
+
+    private final long pinNanos;
+    private final Map<String, Long> lastWrite = new ConcurrentHashMap<>();
+
+    public ReadYourWritesFilter(ReplicaProperties properties) {
+        this.pinNanos = TimeUnit.SECONDS.toNanos(properties.getReadYourWritesSeconds());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String user = currentUser();
+        boolean write = isWrite(request.getMethod());
+        long now = System.nanoTime();
+
+        Long wroteAt = user == null ? null : lastWrite.get(user);
+        boolean pinned = write || (wroteAt != null && now - wroteAt < pinNanos);
+        ReplicaRoutingDataSource.pinToPrimary(pinned);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.pinToPrimary(false);
+            if (write && user != null) {
+                recordWrite(user, System.nanoTime());
+            }
+        }
+    }
+
+    private void recordWrite(String user, long now) {
+        if (lastWrite.size() >= SWEEP_AT) {
+            lastWrite.values().removeIf(wroteAt -> now - wroteAt >= pinNanos);
+        }
+        lastWrite.put(user, now);
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private static boolean isWrite(String method) {
+        return "POST".equals(method) || "PUT".equals(method) || "DELETE".equals(method) || "PATCH".equals(method);
+    }
+}
@@ -0,0 +1,138 @@
+package learn.quizgen.data.routing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Sends connections for @Transactional(readOnly = true) work to the replicas, round-robin over the
+// healthy ones, and everything else to the primary. checkReplicas() marks a replica unhealthy when it
+// can't be reached, isn't replicating or is more than maxLagSeconds behind; with no healthy replica
+// reads fall back to the primary. Must sit behind a LazyConnectionDataSourceProxy: the transaction
+// manager asks for its connection before the read-only flag is set.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final int maxLagSeconds;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicaDataSources, int maxLagSeconds) {
+        this.maxLagSeconds = maxLagSeconds;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            Replica replica = new Replica("replica-" + i, replicaDataSources.get(i));
+            replicas.add(replica);
+            targets.put(replica.key, replica.dataSource);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    // Read-your-writes: while pinned, this thread's read-only work also goes to the primary
+    public static void pinToPrimary(boolean pinned) {
+        if (pinned) {
+            PINNED_TO_PRIMARY.set(Boolean.TRUE);
+        } else {
+            PINNED_TO_PRIMARY.remove();
+        }
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED_TO_PRIMARY.get() != null;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || PINNED_TO_PRIMARY.get() != null) {
+            return PRIMARY;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica.key;
+            }
+        }
+        return PRIMARY;
+    }
+
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            String reason = null;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                Integer lag = lagSeconds(connection);
+                healthy = lag != null && lag <= maxLagSeconds;
+                if (!healthy) {
+                    reason = lag == null ? "replication is not running" : lag + "s behind the primary";
+                }
+            } catch (SQLException e) {
+                healthy = false;
+                reason = e.getMessage();
+            }
+
+            if (healthy != replica.healthy) {
+                if (healthy) {
+                    log.info("Replica {} is back in rotation", replica.key);
+                } else {
+                    log.warn("Taking replica {} out of rotation: {}", replica.key, reason);
+                }
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    public List<String> healthyReplicas() {
+        List<String> healthy = new ArrayList<>();
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                healthy.add(replica.key);
+            }
+        }
+        return healthy;
+    }
+
+    // Seconds_Behind_Master, null when replication is stopped. A server that isn't a replica at all
+    // (a second local MySQL standing in for one) reports no status and counts as caught up.
+    private static Integer lagSeconds(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SHOW SLAVE STATUS")) {
+            if (!resultSet.next()) {
+                return 0;
+            }
+            int lag = resultSet.getInt("Seconds_Behind_Master");
+            return resultSet.wasNull() ? null : lag;
+        }
+    }
+
+    private static class Replica {
+        private final String key;
+        private final DataSource dataSource;
+        // Optimistic until the first check says otherwise
+        private volatile boolean healthy = true;
+
+        Replica(String key, DataSource dataSource) {
+            this.key = key;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package learn.quizgen.data.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// When datasource.replicas.urls is set, replaces the Hikari pool with a ReplicaRoutingDataSource over
+// it and one pool per replica (same settings as the primary, pool names quick-quiz-replica-N), and
+// health checks the replicas every health-check-millis. Runs before the SQL profiler wraps the
+// DataSource so replica queries are profiled too.
+@Component
+public class ReplicaRoutingPostProcessor implements BeanPostProcessor, Ordered, DisposableBean {
+
+    private final ObjectProvider<ReplicaProperties> properties;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final List<HikariDataSource> replicaPools = new ArrayList<>();
+    private ScheduledExecutorService healthChecks;
+
+    public ReplicaRoutingPostProcessor(ObjectProvider<ReplicaProperties> properties,
+                                       ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof HikariDataSource)) {
+            return bean;
+        }
+        ReplicaProperties settings = properties.getObject();
+        if (settings.getUrls().isEmpty()) {
+            return bean;
+        }
+
+        HikariDataSource primary = (HikariDataSource) bean;
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : settings.getUrls()) {
+            replicas.add(replicaPool(primary, url, settings));
+        }
+        ReplicaRoutingDataSource routing =
+                new ReplicaRoutingDataSource(primary, replicas, settings.getMaxLagSeconds());
+
+        healthChecks = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecks.scheduleWithFixedDelay(routing::checkReplicas, 0,
+                settings.getHealthCheckMillis(), TimeUnit.MILLISECONDS);
+
+        // Connections are only taken once the first statement runs, after the transaction is read-only
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private HikariDataSource replicaPool(HikariDataSource primary, String url, ReplicaProperties settings) {
+        HikariDataSource replica = HikariPools.copyOf(primary, primary.getPoolName() + "-replica-" + replicaPools.size(),
+                url, settings.getUsername(), settings.getPassword(), meterRegistry.getIfAvailable());
+        replica.setReadOnly(true);
+        replicaPools.add(replica);
+        return replica;
+    }
+
+    @Override
+    public void destroy() {
+        if (healthChecks != null) {
+            healthChecks.shutdownNow();
+        }
+        for (HikariDataSource replica : replicaPools) {
+            replica.close();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package learn.quizgen.data.routing;
+
+// The school the current request works for. Set by TenantFilter and JwtRequestFilter, read by
+// TenantRoutingDataSource to pick the school's database. Work outside a request (warm-up,
+// scheduled jobs) runs for the default school.
+public final class TenantContext {
+
+    public static final String DEFAULT_SCHOOL = "default";
+
+    private static final ThreadLocal<String> SCHOOL = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static String getSchool() {
+        String school = SCHOOL.get();
+        return school == null ? DEFAULT_SCHOOL : school;
+    }
+
+    public static void setSchool(String school) {
+        SCHOOL.set(school);
+    }
+
+    public static void clear() {
+        SCHOOL.remove();
+    }
+}
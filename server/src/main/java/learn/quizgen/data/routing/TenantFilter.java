@@ -0,0 +1,45 @@
+package learn.quizgen.data.routing;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// Picks the school for requests that don't carry a token yet (sign in, registration) from the
+// X-School header. Sign in only finds users of that school (app_user.school), so the token's school
+// claim is always the user's own. Once signed in the claim wins, JwtRequestFilter sets it.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class TenantFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-School";
+
+    private final TenantProperties properties;
+
+    public TenantFilter(TenantProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String school = request.getHeader(HEADER);
+        if (school != null && !properties.isKnownSchool(school)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown school");
+            return;
+        }
+
+        TenantContext.setSchool(school);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package learn.quizgen.data.routing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// The shard map, bound from tenant.*:
+//   tenant.shards.<shard>.url (username/password default to the primary's)
+//   tenant.schools.<school>=<shard>
+// The default school lives on spring.datasource.url ("primary"); other schools are unknown until
+// mapped. A shard holds exactly one school: queries don't filter by school, the database is the
+// isolation. Schools can still share a MySQL node by pointing their shards at separate schemas.
+// Moving a school is copying its rows (app_user.school, quiz.school) to the new shard and
+// changing its entry here.
+@Component
+@ConfigurationProperties(prefix = "tenant")
+public class TenantProperties {
+
+    public static final String PRIMARY_SHARD = "primary";
+
+    private Map<String, Shard> shards = new HashMap<>();
+    private Map<String, String> schools = new HashMap<>();
+
+    public String shardFor(String school) {
+        return schools.getOrDefault(school, PRIMARY_SHARD);
+    }
+
+    // One school per shard, for jobs that have to visit every shard's tables
+    public Map<String, String> schoolPerShard() {
+        Map<String, String> result = new LinkedHashMap<>();
+        result.put(PRIMARY_SHARD, TenantContext.DEFAULT_SCHOOL);
+        for (Map.Entry<String, String> school : schools.entrySet()) {
+            result.putIfAbsent(school.getValue(), school.getKey());
+        }
+        return result;
+    }
+
+    // Fails unless every mapped school has a configured shard of its own
+    public void checkOneSchoolPerShard() {
+        Map<String, String> schoolByShard = new HashMap<>();
+        for (Map.Entry<String, String> school : schools.entrySet()) {
+            String shard = school.getValue();
+            if (PRIMARY_SHARD.equals(shard) || !shards.containsKey(shard)) {
+                throw new IllegalStateException(String.format(
+                        "School %s is mapped to shard %s, which is not configured", school.getKey(), shard));
+            }
+            String other = schoolByShard.putIfAbsent(shard, school.getKey());
+            if (other != null) {
+                throw new IllegalStateException(String.format(
+                        "Schools %s and %s are both mapped to shard %s", other, school.getKey(), shard));
+            }
+        }
+    }
+
+    public boolean isKnownSchool(String school) {
+        return TenantContext.DEFAULT_SCHOOL.equals(school) || schools.containsKey(school);
+    }
+
+    public Map<String, Shard> getShards() {
+        return shards;
+    }
+
+    public void setShards(Map<String, Shard> shards) {
+        this.shards = shards;
+    }
+
+    public Map<String, String> getSchools() {
+        return schools;
+    }
+
+    public void setSchools(Map<String, String> schools) {
+        this.schools = schools;
+    }
+
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package learn.quizgen.data.routing;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+// Hands out connections to the current school's shard. Every repository keeps its JdbcTemplate and
+// @Transactional keeps working: the transaction binds to whichever shard the school lives on.
+// A school mapped to a shard that isn't configured fails instead of quietly using the primary.
+public class TenantRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final TenantProperties properties;
+
+    public TenantRoutingDataSource(DataSource primary, Map<String, DataSource> shards, TenantProperties properties) {
+        this.properties = properties;
+        Map<Object, Object> targets = new HashMap<>(shards);
+        targets.put(TenantProperties.PRIMARY_SHARD, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return properties.shardFor(TenantContext.getSchool());
+    }
+}
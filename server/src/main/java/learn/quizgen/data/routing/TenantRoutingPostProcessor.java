@@ -0,0 +1,84 @@
+package learn.quizgen.data.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.BeanInitializationException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// When tenant.shards is set, puts a TenantRoutingDataSource in front of the DataSource: the primary
+// (with its replicas, ReplicaRoutingPostProcessor runs first) plus one pool per shard, configured like
+// the primary and named quick-quiz-<shard>. A school mapped to an unknown or shared shard stops the
+// startup.
+@Component
+public class TenantRoutingPostProcessor implements BeanPostProcessor, Ordered, DisposableBean {
+
+    private final ObjectProvider<TenantProperties> properties;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final List<HikariDataSource> shardPools = new ArrayList<>();
+
+    public TenantRoutingPostProcessor(ObjectProvider<TenantProperties> properties,
+                                      ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource) || bean instanceof TenantRoutingDataSource) {
+            return bean;
+        }
+        TenantProperties settings = properties.getObject();
+        try {
+            settings.checkOneSchoolPerShard();
+        } catch (IllegalStateException e) {
+            throw new BeanInitializationException(e.getMessage());
+        }
+        if (settings.getShards().isEmpty()) {
+            return bean;
+        }
+
+        DataSource primary = (DataSource) bean;
+        HikariDataSource template = unwrapPool(primary);
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        Map<String, DataSource> shards = new HashMap<>();
+        for (Map.Entry<String, TenantProperties.Shard> entry : settings.getShards().entrySet()) {
+            TenantProperties.Shard shard = entry.getValue();
+            HikariDataSource pool = HikariPools.copyOf(template, template.getPoolName() + "-" + entry.getKey(),
+                    shard.getUrl(), shard.getUsername(), shard.getPassword(), registry);
+            shardPools.add(pool);
+            shards.put(entry.getKey(), pool);
+        }
+        return new TenantRoutingDataSource(primary, shards, settings);
+    }
+
+    private static HikariDataSource unwrapPool(DataSource dataSource) {
+        try {
+            return dataSource.unwrap(HikariDataSource.class);
+        } catch (SQLException e) {
+            throw new BeanInitializationException("Tenant shards need a Hikari pool to copy settings from", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (HikariDataSource pool : shardPools) {
+            pool.close();
+        }
+    }
+}
@@ -1,54 +1,134 @@
 package learn.quizgen.domain;
 
-import learn.quizgen.models.Quiz;
-import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import learn.quizgen.models.GeneratedQuestion;
+import learn.quizgen.outbound.ResilientHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
 
+@Service
 public class AIApiService {
-    private final String apiKey = "YOUR_API_KEY";
-    private final String apiUrl = "https://api.openai.com/v1/completions"; // Endpoint for text completion
+
+    private static final Logger log = LoggerFactory.getLogger(AIApiService.class);
+
+    private final String apiKey;
+    private final String apiUrl; // Endpoint for chat completions
+    private final String model;
+    private final int maxTokens;
+    private final ResilientHttpClient httpClient; // Pooled, with deadlines and a circuit breaker
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper; // For JSON parsing
 
-    public AIApiService(RestTemplate restTemplate, ObjectMapper objectMapper) {
-        this.restTemplate = restTemplate;
+    public AIApiService(ResilientHttpClient httpClient, ObjectMapper objectMapper,
+                        @Value("${ai.api.key:}") String apiKey,
+                        @Value("${ai.api.url:https://api.openai.com/v1/chat/completions}") String apiUrl,
+                        @Value("${ai.api.model:gpt-3.5-turbo}") String model,
+                        @Value("${ai.api.max-tokens:4096}") int maxTokens) {
+        this.httpClient = httpClient;
+        this.restTemplate = httpClient.getRestTemplate();
         this.objectMapper = objectMapper;
+        this.apiKey = apiKey;
+        this.apiUrl = apiUrl;
+        this.model = model;
+        this.maxTokens = maxTokens;
     }
 
-    public Quiz generateQuiz(String prompt) {
+    // Waits for the whole completion and returns the quiz JSON the model produced
+    public String generateQuizJson(String prompt) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set("Authorization", "Bearer " + apiKey);
+        headers.setBearerAuth(apiKey);
 
-        // Prepare your request body
-        String requestBody = "{"
-                + "\"model\": \"gpt-3.5-turbo\","
-                + "\"messages\": [{\"role\": \"user\", \"content\": \"" + prompt + "\"}],"
-                + "\"max_tokens\": 150" // Adjust as needed
-                + "}";
-
-        HttpEntity<String> requestEntity = new HttpEntity<>(requestBody, headers);
+        HttpEntity<String> requestEntity = new HttpEntity<>(buildRequestBody(prompt, false), headers);
 
         // Make the API call
-        ResponseEntity<String> response = restTemplate.postForEntity(apiUrl, requestEntity, String.class);
+        ResponseEntity<String> response = httpClient.execute("generate-quiz",
+                () -> restTemplate.postForEntity(apiUrl, requestEntity, String.class));
 
         // Parse the response
         return parseResponse(response.getBody());
     }
 
+    // Streams the completion and hands every question to the consumer as soon as it has been parsed.
+    // Returns the parser so the caller can read the final question count and the raw quiz JSON.
+    public QuizStreamParser streamQuiz(String prompt, Consumer<GeneratedQuestion> onQuestion) {
+        String requestBody = buildRequestBody(prompt, true);
+
+        return httpClient.executeStreaming("generate-quiz-stream", () -> restTemplate.execute(apiUrl, HttpMethod.POST, request -> {
+            request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            request.getHeaders().setAccept(List.of(MediaType.TEXT_EVENT_STREAM));
+            request.getHeaders().setBearerAuth(apiKey);
+            request.getBody().write(requestBody.getBytes(StandardCharsets.UTF_8));
+        }, response -> {
+            QuizStreamParser parser = new QuizStreamParser(objectMapper, onQuestion);
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(response.getBody(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null && !parser.isFinished()) {
+                    String token = parseStreamLine(line);
+                    if (token == null) {
+                        break;
+                    }
+                    parser.feed(token);
+                }
+            }
+            parser.endOfInput();
+            return parser;
+        }));
+    }
+
+    private String buildRequestBody(String prompt, boolean stream) {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("model", model);
+        body.put("max_tokens", maxTokens);
+        body.put("stream", stream);
+        ObjectNode message = body.putArray("messages").addObject();
+        message.put("role", "user");
+        message.put("content", prompt);
+        return body.toString();
+    }
+
+    // Returns the content delta carried by one SSE line, "" for lines without content, null at [DONE]
+    private String parseStreamLine(String line) throws IOException {
+        if (!line.startsWith("data:")) {
+            return "";
+        }
+
+        String data = line.substring(5).trim();
+        if ("[DONE]".equals(data)) {
+            return null;
+        }
+
+        JsonNode content = objectMapper.readTree(data)
+                .path("choices").path(0).path("delta").path("content");
+        return content.isTextual() ? content.asText() : "";
+    }
 
-    private Quiz parseResponse(String jsonResponse) {
+    private String parseResponse(String jsonResponse) {
         try {
-            return objectMapper.readValue(jsonResponse, Quiz.class);
+            return objectMapper.readTree(jsonResponse)
+                    .path("choices").path(0).path("message").path("content")
+                    .asText(null);
         } catch (Exception e) {
-            // Handle parsing exception
-            e.printStackTrace();
-            return null; // Or handle accordingly
+            log.warn("Could not parse the AI API response", e);
+            return null;
         }
     }
 }
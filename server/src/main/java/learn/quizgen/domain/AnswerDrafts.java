@@ -0,0 +1,190 @@
+package learn.quizgen.domain;
+
+import learn.quizgen.data.QuizAttemptRepository;
+import learn.quizgen.data.routing.TenantContext;
+import learn.quizgen.models.QuizAttempt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Unsaved answers of the attempts being taken on this instance. Students send only the answers they
+// changed; they are merged into the attempt's draft in memory and every attempts.autosave-millis
+// the questions changed since the last autosave are merged into quiz_attempt.answers under the row
+// lock, one statement pair however many clicks it took. Only changed questions are written, so a
+// student whose saves reach two instances keeps the answers each of them saved. Drafts also spare the
+// per-click reads: the attempt is loaded once, then owner and deadline are checked against the draft.
+// Submitting takes the draft and saves what is left of it before grading, so a failed grading loses
+// nothing; attempts.grace-seconds must stay above the autosave interval for the auto-submit of an
+// attempt drafted on another instance to see its last answers.
+@Component
+public class AnswerDrafts {
+
+    private static final Logger log = LoggerFactory.getLogger(AnswerDrafts.class);
+
+    private final QuizAttemptRepository quizAttemptRepository;
+    private final long idleNanos;
+    private final Map<String, Draft> drafts = new ConcurrentHashMap<>();
+
+    public AnswerDrafts(QuizAttemptRepository quizAttemptRepository,
+                        @Value("${attempts.draft-idle-minutes:10}") long idleMinutes) {
+        this.quizAttemptRepository = quizAttemptRepository;
+        this.idleNanos = TimeUnit.MINUTES.toNanos(idleMinutes);
+    }
+
+    // The user's open attempt with this instance's unsaved answers folded in, or null if it isn't drafted here
+    public QuizAttempt find(String school, int attemptId, String username) {
+        Draft draft = drafts.get(key(school, attemptId));
+        if (draft == null) {
+            return null;
+        }
+        synchronized (draft) {
+            return draft.removed || !draft.username.equals(username) ? null : copyOf(draft.attempt);
+        }
+    }
+
+    // The attempt must be open and belong to username
+    public void merge(QuizAttempt attempt, String username, Map<Integer, Integer> changes) {
+        while (true) {
+            Draft draft = drafts.computeIfAbsent(key(attempt.getSchool(), attempt.getAttemptId()),
+                    key -> new Draft(copyOf(attempt), username));
+            synchronized (draft) {
+                // Lost a race with flush() or take() removing it, start a new one
+                if (draft.removed) {
+                    continue;
+                }
+                draft.attempt.getAnswers().putAll(changes);
+                draft.unsaved.putAll(changes);
+                draft.touchedAt = System.nanoTime();
+                return;
+            }
+        }
+    }
+
+    public QuizAttempt take(QuizAttempt attempt) {
+        return take(attempt, Map.of());
+    }
+
+    // Before grading: removes the draft, saves its unsaved answers and the last changes, and returns the
+    // attempt with every saved answer. Saved first, outside the grading transaction, so the answers
+    // survive a grading that fails or rolls back. If saving fails the draft is put back.
+    public QuizAttempt take(QuizAttempt attempt, Map<Integer, Integer> changes) {
+        String key = key(attempt.getSchool(), attempt.getAttemptId());
+        Draft draft = drafts.remove(key);
+        Map<Integer, Integer> unsaved = new LinkedHashMap<>();
+        if (draft != null) {
+            synchronized (draft) {
+                draft.removed = true;
+                unsaved.putAll(draft.unsaved);
+            }
+        }
+        unsaved.putAll(changes);
+
+        Map<Integer, Integer> saved;
+        try {
+            saved = quizAttemptRepository.mergeAnswers(attempt.getAttemptId(), unsaved);
+        } catch (DataAccessException e) {
+            if (draft != null) {
+                synchronized (draft) {
+                    draft.removed = false;
+                    draft.unsaved.putAll(changes);
+                    draft.attempt.getAnswers().putAll(changes);
+                }
+                drafts.putIfAbsent(key, draft);
+            }
+            throw e;
+        }
+
+        Map<Integer, Integer> answers = new LinkedHashMap<>(attempt.getAnswers());
+        if (saved != null) {
+            answers.putAll(saved);
+        } else {
+            // Already submitted; grading will refuse it, the answers are only for the caller
+            answers.putAll(unsaved);
+        }
+        attempt.setAnswers(answers);
+        return attempt;
+    }
+
+    @Scheduled(fixedDelayString = "${attempts.autosave-millis:2000}")
+    public void flush() {
+        long now = System.nanoTime();
+        for (Iterator<Draft> iterator = drafts.values().iterator(); iterator.hasNext(); ) {
+            Draft draft = iterator.next();
+            Map<Integer, Integer> changes;
+            synchronized (draft) {
+                if (draft.unsaved.isEmpty()) {
+                    if (now - draft.touchedAt > idleNanos) {
+                        draft.removed = true;
+                        iterator.remove();
+                    }
+                    continue;
+                }
+                changes = new LinkedHashMap<>(draft.unsaved);
+                draft.unsaved.clear();
+            }
+            write(draft, changes);
+        }
+    }
+
+    private void write(Draft draft, Map<Integer, Integer> changes) {
+        TenantContext.setSchool(draft.attempt.getSchool());
+        try {
+            Map<Integer, Integer> saved = quizAttemptRepository.mergeAnswers(draft.attempt.getAttemptId(), changes);
+            synchronized (draft) {
+                if (saved == null) {
+                    // Submitted (or auto-submitted) elsewhere, nothing left to save
+                    draft.removed = true;
+                    drafts.remove(key(draft.attempt.getSchool(), draft.attempt.getAttemptId()), draft);
+                    return;
+                }
+                // Picks up what other instances saved, without undoing clicks made since the changes were copied
+                Map<Integer, Integer> answers = new LinkedHashMap<>(saved);
+                answers.putAll(draft.unsaved);
+                draft.attempt.setAnswers(answers);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not autosave attempt {}, retrying: {}", draft.attempt.getAttemptId(), e.getMessage());
+            synchronized (draft) {
+                // Newer clicks on the same questions win over the failed ones
+                for (Map.Entry<Integer, Integer> change : changes.entrySet()) {
+                    draft.unsaved.putIfAbsent(change.getKey(), change.getValue());
+                }
+            }
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    private static String key(String school, int attemptId) {
+        return school + "/" + attemptId;
+    }
+
+    private static QuizAttempt copyOf(QuizAttempt attempt) {
+        return new QuizAttempt(attempt.getAttemptId(), attempt.getUserId(), attempt.getQuizId(),
+                attempt.getSchool(), attempt.getStartedAt(), attempt.getTimeLimitSeconds(),
+                new LinkedHashMap<>(attempt.getAnswers()), null);
+    }
+
+    private static class Draft {
+        private final QuizAttempt attempt;
+        private final String username;
+        // Changed since the last autosave
+        private final Map<Integer, Integer> unsaved = new LinkedHashMap<>();
+        private boolean removed;
+        private long touchedAt = System.nanoTime();
+
+        Draft(QuizAttempt attempt, String username) {
+            this.attempt = attempt;
+            this.username = username;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package learn.quizgen.domain;
+
+import learn.quizgen.models.QuestionResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Bitmap index over one quiz's answers: for each (question, option) the students whose latest attempt
+// picked it, plus every student who took the quiz. Students are their user ids, which are small dense
+// ints, so each bitmap is a few sorted arrays. "Missed Q3 and Q7" is then students andNot picked(Q3's
+// correct option), and'ed with the same for Q7: microseconds instead of a self-join per question.
+public class AnswerIndex {
+
+    private static final int VERSION = 1;
+
+    private final CompressedBitmap students;
+    // question id -> option id -> students who picked it
+    private final Map<Integer, Map<Integer, CompressedBitmap>> picks;
+
+    public AnswerIndex() {
+        this(new CompressedBitmap(), new TreeMap<>());
+    }
+
+    private AnswerIndex(CompressedBitmap students, Map<Integer, Map<Integer, CompressedBitmap>> picks) {
+        this.students = students;
+        this.picks = picks;
+    }
+
+    // One attempt's answers (all from the same user); replaces that user's previous attempt
+    public void record(int userId, List<QuestionResult> answers) {
+        remove(userId);
+        students.add(userId);
+        for (QuestionResult answer : answers) {
+            picks.computeIfAbsent(answer.getQuestionId(), questionId -> new TreeMap<>())
+                    .computeIfAbsent(answer.getOptionId(), optionId -> new CompressedBitmap())
+                    .add(userId);
+        }
+    }
+
+    public void remove(int userId) {
+        if (!students.contains(userId)) {
+            return;
+        }
+        students.remove(userId);
+        for (Map<Integer, CompressedBitmap> options : picks.values()) {
+            for (CompressedBitmap picked : options.values()) {
+                picked.remove(userId);
+            }
+        }
+    }
+
+    public CompressedBitmap students() {
+        return students;
+    }
+
+    public CompressedBitmap picked(int questionId, int optionId) {
+        CompressedBitmap picked = picks.getOrDefault(questionId, Map.of()).get(optionId);
+        return picked == null ? new CompressedBitmap() : picked;
+    }
+
+    // The answer_index.bitmaps blob: a version byte, the students bitmap, then per question its id and
+    // per option its id and bitmap (see CompressedBitmap.writeTo)
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            students.writeTo(out);
+            out.writeInt(picks.size());
+            for (Map.Entry<Integer, Map<Integer, CompressedBitmap>> question : picks.entrySet()) {
+                out.writeInt(question.getKey());
+                out.writeInt(question.getValue().size());
+                for (Map.Entry<Integer, CompressedBitmap> option : question.getValue().entrySet()) {
+                    out.writeInt(option.getKey());
+                    option.getValue().writeTo(out);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static AnswerIndex fromBytes(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unknown answer index version " + version);
+            }
+            CompressedBitmap students = CompressedBitmap.readFrom(in);
+            Map<Integer, Map<Integer, CompressedBitmap>> picks = new TreeMap<>();
+            int questions = in.readInt();
+            for (int i = 0; i < questions; i++) {
+                Map<Integer, CompressedBitmap> options = new TreeMap<>();
+                picks.put(in.readInt(), options);
+                int count = in.readInt();
+                for (int j = 0; j < count; j++) {
+                    options.put(in.readInt(), CompressedBitmap.readFrom(in));
+                }
+            }
+            return new AnswerIndex(students, picks);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Truncated answer index", e);
+        }
+    }
+}
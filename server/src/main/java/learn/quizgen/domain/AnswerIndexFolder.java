@@ -0,0 +1,70 @@
+package learn.quizgen.domain;
+
+import learn.quizgen.data.AnswerIndexRepository;
+import learn.quizgen.data.routing.TenantContext;
+import learn.quizgen.data.routing.TenantProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+// Folds the attempts submissions queue in answer_index_delta into their quizzes' answer_index, one
+// transaction per quiz and at most answers.index.fold.batch-size quizzes per shard and run. Queries see
+// queued attempts before they are folded, so the interval only bounds how much a query has to apply.
+@Component
+public class AnswerIndexFolder {
+
+    private static final Logger log = LoggerFactory.getLogger(AnswerIndexFolder.class);
+
+    private final AnswerIndexService answerIndexService;
+    private final AnswerIndexRepository answerIndexRepository;
+    private final TenantProperties tenantProperties;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public AnswerIndexFolder(AnswerIndexService answerIndexService, AnswerIndexRepository answerIndexRepository,
+                             TenantProperties tenantProperties,
+                             @Value("${answers.index.fold.enabled:true}") boolean enabled,
+                             @Value("${answers.index.fold.batch-size:200}") int batchSize) {
+        this.answerIndexService = answerIndexService;
+        this.answerIndexRepository = answerIndexRepository;
+        this.tenantProperties = tenantProperties;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${answers.index.fold.interval-millis:5000}")
+    public void fold() {
+        if (!enabled) {
+            return;
+        }
+        for (Map.Entry<String, String> shard : tenantProperties.schoolPerShard().entrySet()) {
+            TenantContext.setSchool(shard.getValue());
+            try {
+                int folded = foldShard();
+                if (folded > 0) {
+                    log.debug("Folded {} attempts into answer indexes on shard {}", folded, shard.getKey());
+                }
+            } catch (DataAccessException e) {
+                log.warn("Could not fold answer index deltas on shard {}, retrying next run: {}",
+                        shard.getKey(), e.getMessage());
+            } finally {
+                TenantContext.clear();
+            }
+        }
+    }
+
+    int foldShard() {
+        int folded = 0;
+        List<Integer> quizIds = answerIndexRepository.findQuizzesWithDeltas(batchSize);
+        for (int quizId : quizIds) {
+            folded += answerIndexService.fold(quizId);
+        }
+        return folded;
+    }
+}
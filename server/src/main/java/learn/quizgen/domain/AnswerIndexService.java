@@ -0,0 +1,176 @@
+package learn.quizgen.domain;
+
+import learn.quizgen.data.AnswerIndexRepository;
+import learn.quizgen.data.AppUserRepository;
+import learn.quizgen.data.QuestionResultRepository;
+import learn.quizgen.data.TeacherRepository;
+import learn.quizgen.models.AnswerSet;
+import learn.quizgen.models.AppUser;
+import learn.quizgen.models.Option;
+import learn.quizgen.models.Question;
+import learn.quizgen.models.QuestionResult;
+import learn.quizgen.models.Quiz;
+import learn.quizgen.models.Teacher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Keeps each quiz's AnswerIndex in answer_index and answers set queries over it. Submissions only queue
+// their attempt in answer_index_delta (see record), so grading never waits on the index row. The
+// background AnswerIndexFolder folds queued attempts into the stored bitmaps under the quiz's
+// answer_index row lock, and queries apply whatever is still queued on top. A quiz whose index isn't
+// built yet (taken before answer_index existed, or dropped by the archiver or the result row packer)
+// is built from attempt_answer on its first query, under the same lock.
+@Service
+public class AnswerIndexService {
+
+    private final AnswerIndexRepository answerIndexRepository;
+    private final QuestionResultRepository questionResultRepository;
+    private final QuizService quizService;
+    private final QuestionService questionService;
+    private final AppUserRepository appUserRepository;
+    private final TeacherRepository teacherRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public AnswerIndexService(AnswerIndexRepository answerIndexRepository,
+                              QuestionResultRepository questionResultRepository,
+                              QuizService quizService, QuestionService questionService,
+                              AppUserRepository appUserRepository, TeacherRepository teacherRepository,
+                              TransactionTemplate transactionTemplate) {
+        this.answerIndexRepository = answerIndexRepository;
+        this.questionResultRepository = questionResultRepository;
+        this.quizService = quizService;
+        this.questionService = questionService;
+        this.appUserRepository = appUserRepository;
+        this.teacherRepository = teacherRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // Runs in the caller's transaction, with the user id -> attempt numbers returned by addAttempts: a
+    // plain insert per attempt, no lock on the index
+    public void record(int quizId, Map<Integer, Integer> attempts) {
+        answerIndexRepository.addDeltas(quizId, attempts);
+    }
+
+    // Folds the quiz's queued attempts into its stored index; returns how many were folded. Only the
+    // deltas read here are deleted, so attempts committed meanwhile wait for the next fold.
+    public int fold(int quizId) {
+        return transactionTemplate.execute(status -> {
+            byte[] bitmaps = answerIndexRepository.lockByQuizId(quizId);
+            Map<Long, List<QuestionResult>> deltas = answerIndexRepository.findDeltas(quizId);
+            if (bitmaps != null) {
+                // Unbuilt, the attempts are read from attempt_answer when it's built instead
+                AnswerIndex index = AnswerIndex.fromBytes(bitmaps);
+                apply(index, deltas);
+                answerIndexRepository.save(quizId, index.toBytes());
+            }
+            answerIndexRepository.deleteDeltas(new ArrayList<>(deltas.keySet()));
+            return deltas.size();
+        });
+    }
+
+    public AnswerIndex find(int quizId) {
+        byte[] bitmaps = answerIndexRepository.findByQuizId(quizId);
+        if (bitmaps != null) {
+            AnswerIndex index = AnswerIndex.fromBytes(bitmaps);
+            apply(index, answerIndexRepository.findDeltas(quizId));
+            return index;
+        }
+        return transactionTemplate.execute(status -> {
+            byte[] locked = answerIndexRepository.lockByQuizId(quizId);
+            if (locked != null) {
+                AnswerIndex index = AnswerIndex.fromBytes(locked);
+                apply(index, answerIndexRepository.findDeltas(quizId));
+                return index;
+            }
+            // The queued deltas and attempt_answer are read from the same snapshot, so the deltas dropped
+            // here are exactly those already in the built index
+            Map<Long, List<QuestionResult>> deltas = answerIndexRepository.findDeltas(quizId);
+            AnswerIndex index = new AnswerIndex();
+            questionResultRepository.forEachLatestAttempt(quizId,
+                    attempt -> index.record(attempt.get(0).getUserId(), attempt));
+            answerIndexRepository.save(quizId, index.toBytes());
+            answerIndexRepository.deleteDeltas(new ArrayList<>(deltas.keySet()));
+            return index;
+        });
+    }
+
+    private static void apply(AnswerIndex index, Map<Long, List<QuestionResult>> deltas) {
+        for (List<QuestionResult> attempt : deltas.values()) {
+            // Empty once the attempt was archived; the archiver drops the index to be rebuilt anyway
+            if (!attempt.isEmpty()) {
+                index.record(attempt.get(0).getUserId(), attempt);
+            }
+        }
+    }
+
+    // Students who missed every question in missed and picked every option in picked (matchAll), or
+    // who missed or picked any of them. Missing includes skipping. With neither, everyone who took it.
+    public Result<AnswerSet> query(int quizId, List<Integer> missed, List<Integer> picked, boolean matchAll,
+                                   String username) {
+        Result<AnswerSet> result = new Result<>();
+        if (!isOwner(quizId, username)) {
+            result.addMessage("Quiz not found.", ResultType.NOT_FOUND);
+            return result;
+        }
+
+        Map<Integer, Question> questions = new HashMap<>();
+        Map<Integer, Integer> questionByOption = new HashMap<>();
+        for (Question question : questionService.getQuestionById(quizId)) {
+            questions.put(question.getQuestionId(), question);
+            for (Option option : question.getOptionList()) {
+                questionByOption.put(option.getOptionId(), question.getQuestionId());
+            }
+        }
+        for (int questionId : missed) {
+            if (!questions.containsKey(questionId)) {
+                result.addMessage("Question " + questionId + " is not in this quiz.", ResultType.INVALID);
+            }
+        }
+        for (int optionId : picked) {
+            if (!questionByOption.containsKey(optionId)) {
+                result.addMessage("Option " + optionId + " is not in this quiz.", ResultType.INVALID);
+            }
+        }
+        if (!result.isSuccess()) {
+            return result;
+        }
+
+        AnswerIndex index = find(quizId);
+        List<CompressedBitmap> sets = new ArrayList<>();
+        for (int questionId : missed) {
+            CompressedBitmap correct = new CompressedBitmap();
+            for (Option option : questions.get(questionId).getOptionList()) {
+                if (option.isCorrect()) {
+                    correct = correct.or(index.picked(questionId, option.getOptionId()));
+                }
+            }
+            sets.add(index.students().andNot(correct));
+        }
+        for (int optionId : picked) {
+            sets.add(index.picked(questionByOption.get(optionId), optionId));
+        }
+
+        CompressedBitmap matched = sets.isEmpty() ? index.students() : sets.get(0);
+        for (int i = 1; i < sets.size(); i++) {
+            matched = matchAll ? matched.and(sets.get(i)) : matched.or(sets.get(i));
+        }
+        result.setPayload(new AnswerSet(quizId, index.students().cardinality(), matched.toArray()));
+        return result;
+    }
+
+    private boolean isOwner(int quizId, String username) {
+        Result<Quiz> quiz = quizService.getQuizById(quizId);
+        Optional<AppUser> user = appUserRepository.findByUsername(username);
+        if (!quiz.isSuccess() || user.isEmpty()) {
+            return false;
+        }
+        Teacher teacher = teacherRepository.findByUserId(user.get().getAppUserId());
+        return teacher != null && teacher.getTeacherId() == quiz.getPayload().getTeacherId();
+    }
+}
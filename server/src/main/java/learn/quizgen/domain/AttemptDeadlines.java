@@ -0,0 +1,168 @@
+package learn.quizgen.domain;
+
+import learn.quizgen.data.QuizAttemptRepository;
+import learn.quizgen.data.routing.TenantContext;
+import learn.quizgen.data.routing.TenantProperties;
+import learn.quizgen.models.QuizAttempt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Auto-submits timed attempts at their deadline (plus attempts.grace-seconds for answers still in
+// flight). Every open deadline is one entry in a TimingWheel ticked every attempts.tick-millis, so
+// thousands of running attempts cost no threads and no per-attempt tasks. The wheel is only memory:
+// on startup it is rebuilt from the open attempts' started_at on every shard, and a sweep every
+// attempts.sweep-millis submits anything past its deadline that no instance got to (started on an
+// instance that has since stopped, or a submit that failed).
+@Component
+public class AttemptDeadlines implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(AttemptDeadlines.class);
+
+    private final QuizAttemptRepository quizAttemptRepository;
+    private final AttemptGrader attemptGrader;
+    private final AnswerDrafts answerDrafts;
+    private final TenantProperties tenantProperties;
+    private final boolean enabled;
+    private final long graceMillis;
+    private final int sweepBatchSize;
+    private final TimingWheel<Pending> wheel;
+    private final Map<String, TimingWheel.Timeout<Pending>> pending = new ConcurrentHashMap<>();
+
+    public AttemptDeadlines(QuizAttemptRepository quizAttemptRepository, AttemptGrader attemptGrader,
+                            AnswerDrafts answerDrafts, TenantProperties tenantProperties,
+                            @Value("${attempts.auto-submit.enabled:true}") boolean enabled,
+                            @Value("${attempts.tick-millis:1000}") long tickMillis,
+                            @Value("${attempts.grace-seconds:5}") int graceSeconds,
+                            @Value("${attempts.sweep-batch-size:500}") int sweepBatchSize) {
+        this.quizAttemptRepository = quizAttemptRepository;
+        this.attemptGrader = attemptGrader;
+        this.answerDrafts = answerDrafts;
+        this.tenantProperties = tenantProperties;
+        this.enabled = enabled;
+        this.graceMillis = graceSeconds * 1000L;
+        this.sweepBatchSize = sweepBatchSize;
+        this.wheel = new TimingWheel<>(tickMillis, System.currentTimeMillis());
+    }
+
+    public long getGraceMillis() {
+        return graceMillis;
+    }
+
+    public void track(QuizAttempt attempt) {
+        if (!enabled || attempt.getDeadline() == null) {
+            return;
+        }
+        Pending value = new Pending(attempt.getSchool(), attempt.getAttemptId());
+        TimingWheel.Timeout<Pending> previous = pending.put(value.key(),
+                wheel.schedule(value, attempt.getDeadline().toEpochMilli() + graceMillis));
+        if (previous != null) {
+            wheel.cancel(previous);
+        }
+    }
+
+    public void untrack(QuizAttempt attempt) {
+        TimingWheel.Timeout<Pending> timeout = pending.remove(new Pending(attempt.getSchool(), attempt.getAttemptId()).key());
+        if (timeout != null) {
+            wheel.cancel(timeout);
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        for (Map.Entry<String, String> shard : tenantProperties.schoolPerShard().entrySet()) {
+            TenantContext.setSchool(shard.getValue());
+            try {
+                List<QuizAttempt> open = quizAttemptRepository.findOpenTimed();
+                open.forEach(this::track);
+                log.info("Tracking {} open timed attempts on shard {}", open.size(), shard.getKey());
+            } catch (DataAccessException e) {
+                log.warn("Could not load open attempts on shard {}, the sweep will submit them: {}",
+                        shard.getKey(), e.getMessage());
+            } finally {
+                TenantContext.clear();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${attempts.tick-millis:1000}")
+    public void tick() {
+        if (!enabled) {
+            return;
+        }
+        for (Pending expired : wheel.advance(System.currentTimeMillis())) {
+            pending.remove(expired.key());
+            TenantContext.setSchool(expired.school);
+            try {
+                QuizAttempt attempt = quizAttemptRepository.findById(expired.attemptId);
+                if (attempt != null && !attempt.isSubmitted()) {
+                    autoSubmit(attempt);
+                }
+            } catch (DataAccessException e) {
+                log.warn("Could not auto-submit attempt {}, the sweep will retry: {}", expired.attemptId, e.getMessage());
+            } finally {
+                TenantContext.clear();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${attempts.sweep-millis:60000}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        Instant before = Instant.now().minusMillis(graceMillis);
+        for (Map.Entry<String, String> shard : tenantProperties.schoolPerShard().entrySet()) {
+            TenantContext.setSchool(shard.getValue());
+            try {
+                for (QuizAttempt attempt : quizAttemptRepository.findExpired(before, sweepBatchSize)) {
+                    TenantContext.setSchool(attempt.getSchool());
+                    untrack(attempt);
+                    autoSubmit(attempt);
+                }
+            } catch (DataAccessException e) {
+                log.warn("Could not sweep expired attempts on shard {}: {}", shard.getKey(), e.getMessage());
+            } finally {
+                TenantContext.clear();
+            }
+        }
+    }
+
+    private void autoSubmit(QuizAttempt attempt) {
+        // Answers clicked on this instance since the last autosave count too
+        Result<?> result = attemptGrader.submit(answerDrafts.take(attempt));
+        if (result.isSuccess()) {
+            log.info("Auto-submitted attempt {} at quiz {} for user {}",
+                    attempt.getAttemptId(), attempt.getQuizId(), attempt.getUserId());
+        } else {
+            log.debug("Attempt {} not auto-submitted: {}", attempt.getAttemptId(), result.getMessages());
+        }
+    }
+
+    private static class Pending {
+        private final String school;
+        private final int attemptId;
+
+        Pending(String school, int attemptId) {
+            this.school = school;
+            this.attemptId = attemptId;
+        }
+
+        String key() {
+            return school + "/" + attemptId;
+        }
+    }
+}
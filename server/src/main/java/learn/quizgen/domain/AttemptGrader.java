@@ -0,0 +1,90 @@
+package learn.quizgen.domain;
+
+import learn.quizgen.data.QuestionResultRepository;
+import learn.quizgen.data.QuizAttemptRepository;
+import learn.quizgen.models.Option;
+import learn.quizgen.models.Question;
+import learn.quizgen.models.QuestionResult;
+import learn.quizgen.models.QuizAttempt;
+import learn.quizgen.models.QuizResult;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Grades an attempt's saved answers and writes them through QuizResultService, for both a student's
+// own submit and the auto-submit at the deadline. Marking the attempt submitted is the first
+// statement of the transaction and only succeeds once, so two instances (or a student racing the
+// deadline) can't grade the same attempt twice.
+@Service
+public class AttemptGrader {
+
+    private final QuizAttemptRepository quizAttemptRepository;
+    private final QuestionResultRepository questionResultRepository;
+    private final AnswerIndexService answerIndexService;
+    private final QuestionService questionService;
+    private final QuizResultService quizResultService;
+    private final TransactionTemplate transactionTemplate;
+
+    public AttemptGrader(QuizAttemptRepository quizAttemptRepository,
+                         QuestionResultRepository questionResultRepository,
+                         AnswerIndexService answerIndexService,
+                         QuestionService questionService, QuizResultService quizResultService,
+                         TransactionTemplate transactionTemplate) {
+        this.quizAttemptRepository = quizAttemptRepository;
+        this.questionResultRepository = questionResultRepository;
+        this.answerIndexService = answerIndexService;
+        this.questionService = questionService;
+        this.quizResultService = quizResultService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // Runs on the attempt's school (TenantContext must be set). An attempt with no answers is closed
+    // without a quiz_result, as QuizResultService doesn't accept one.
+    public Result<QuizResult> submit(QuizAttempt attempt) {
+        List<Question> questions = questionService.getQuestionById(attempt.getQuizId());
+        List<QuestionResult> answers = new ArrayList<>();
+        List<Option> chosen = new ArrayList<>();
+        int correct = 0;
+        for (Question question : questions) {
+            Integer optionId = attempt.getAnswers().get(question.getQuestionId());
+            for (Option option : question.getOptionList()) {
+                if (optionId != null && option.getOptionId() == optionId) {
+                    answers.add(new QuestionResult(0, attempt.getUserId(), attempt.getQuizId(),
+                            question.getQuestionId(), option.getOptionId()));
+                    chosen.add(option);
+                    correct += option.isCorrect() ? 1 : 0;
+                }
+            }
+        }
+        float percent = questions.isEmpty() ? 0 : Math.round(correct * 10000f / questions.size()) / 100f;
+        QuizResult quizResult = new QuizResult(0, attempt.getUserId(), attempt.getQuizId(), correct,
+                questions.size(), percent, null, null, null);
+        quizResult.setOptionList(chosen);
+        quizResult.setQuestionList(questions);
+
+        return transactionTemplate.execute(status -> {
+            Result<QuizResult> result = new Result<>();
+            if (!quizAttemptRepository.markSubmitted(attempt, Instant.now())) {
+                result.addMessage("Attempt was already submitted.", ResultType.INVALID);
+                return result;
+            }
+            attempt.setSubmittedAt(Instant.now());
+            if (answers.isEmpty()) {
+                return result;
+            }
+            Map<Integer, Integer> attempts = questionResultRepository.addAttempts(attempt.getQuizId(), answers);
+            quizResult.setAttempt(attempts.get(attempt.getUserId()));
+            answerIndexService.record(attempt.getQuizId(), attempts);
+            result = quizResultService.add(quizResult);
+            if (!result.isSuccess()) {
+                status.setRollbackOnly();
+                attempt.setSubmittedAt(null);
+            }
+            return result;
+        });
+    }
+}
@@ -0,0 +1,44 @@
+package learn.quizgen.domain;
+
+import learn.quizgen.data.ChangeLogRepository;
+import learn.quizgen.models.ChangeLogEntry;
+import org.springframework.stereotype.Component;
+
+// Every quiz, question and option change goes through here, inside the change's transaction: it
+// evicts this instance's QuizCache and appends to change_log, which ChangeLogPoller tails on every
+// instance (this one included, which also covers a read that refilled the cache before the commit).
+@Component
+public class CacheInvalidator {
+
+    private final ChangeLogRepository changeLogRepository;
+    private final QuizCache quizCache;
+
+    public CacheInvalidator(ChangeLogRepository changeLogRepository, QuizCache quizCache) {
+        this.changeLogRepository = changeLogRepository;
+        this.quizCache = quizCache;
+    }
+
+    public void quizChanged(int quizId) {
+        changeLogRepository.append(ChangeLogEntry.QUIZ, quizId);
+        quizCache.evictQuiz(quizId);
+    }
+
+    public void questionChanged(int questionId) {
+        changeLogRepository.append(ChangeLogEntry.QUESTION, questionId);
+        quizCache.evictAllQuestions();
+    }
+
+    public void optionChanged(int optionId) {
+        changeLogRepository.append(ChangeLogEntry.OPTION, optionId);
+        quizCache.evictAllQuestions();
+    }
+
+    // A change made on another instance; runs for the school the change was made in
+    void apply(ChangeLogEntry entry) {
+        if (ChangeLogEntry.QUIZ.equals(entry.getEntity())) {
+            quizCache.evictQuiz(entry.getEntityId());
+        } else {
+            quizCache.evictAllQuestions();
+        }
+    }
+}
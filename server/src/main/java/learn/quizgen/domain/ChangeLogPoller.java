@@ -0,0 +1,147 @@
+package learn.quizgen.domain;
+
+import learn.quizgen.data.ChangeLogRepository;
+import learn.quizgen.data.routing.TenantContext;
+import learn.quizgen.data.routing.TenantProperties;
+import learn.quizgen.models.ChangeLogEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Tails change_log on every shard and evicts what other instances changed, so their edits show up
+// here within change-log.poll-millis instead of after the cache TTL. Each poll is a primary key
+// range scan past the last id applied. Ids can commit out of order (a later transaction commits
+// first), so a gap holds the cursor until it fills or is gap-timeout-millis old (a rolled back
+// insert leaves a gap that never fills).
+@Component
+@ConditionalOnProperty(name = "change-log.enabled", havingValue = "true", matchIfMissing = true)
+public class ChangeLogPoller {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeLogPoller.class);
+
+    private final ChangeLogRepository changeLogRepository;
+    private final CacheInvalidator cacheInvalidator;
+    private final TenantProperties tenantProperties;
+    private final int batchSize;
+    private final int retentionHours;
+    private final long gapTimeoutNanos;
+    private final LongSupplier nanoClock;
+    private final Map<String, Cursor> cursors = new HashMap<>();
+
+    @Autowired
+    public ChangeLogPoller(ChangeLogRepository changeLogRepository, CacheInvalidator cacheInvalidator,
+                           TenantProperties tenantProperties,
+                           @Value("${change-log.batch-size:500}") int batchSize,
+                           @Value("${change-log.retention-hours:24}") int retentionHours,
+                           @Value("${change-log.gap-timeout-millis:10000}") long gapTimeoutMillis) {
+        this(changeLogRepository, cacheInvalidator, tenantProperties, batchSize, retentionHours,
+                gapTimeoutMillis, System::nanoTime);
+    }
+
+    ChangeLogPoller(ChangeLogRepository changeLogRepository, CacheInvalidator cacheInvalidator,
+                    TenantProperties tenantProperties, int batchSize, int retentionHours,
+                    long gapTimeoutMillis, LongSupplier nanoClock) {
+        this.changeLogRepository = changeLogRepository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.tenantProperties = tenantProperties;
+        this.batchSize = batchSize;
+        this.retentionHours = retentionHours;
+        this.gapTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(gapTimeoutMillis);
+        this.nanoClock = nanoClock;
+    }
+
+    @Scheduled(fixedDelayString = "${change-log.poll-millis:1000}")
+    public void poll() {
+        for (Map.Entry<String, String> shard : tenantProperties.schoolPerShard().entrySet()) {
+            TenantContext.setSchool(shard.getValue());
+            try {
+                poll(shard.getKey());
+            } catch (DataAccessException e) {
+                log.warn("Could not read change_log on shard {}: {}", shard.getKey(), e.getMessage());
+            } finally {
+                TenantContext.clear();
+            }
+        }
+    }
+
+    @Scheduled(cron = "${change-log.prune-cron:0 17 * * * *}")
+    public void prune() {
+        for (Map.Entry<String, String> shard : tenantProperties.schoolPerShard().entrySet()) {
+            TenantContext.setSchool(shard.getValue());
+            try {
+                int deleted = changeLogRepository.deleteOlderThan(retentionHours);
+                log.debug("Pruned {} change_log rows on shard {}", deleted, shard.getKey());
+            } catch (DataAccessException e) {
+                log.warn("Could not prune change_log on shard {}: {}", shard.getKey(), e.getMessage());
+            } finally {
+                TenantContext.clear();
+            }
+        }
+    }
+
+    // The first poll only finds where to start: the cache was empty until now
+    synchronized void poll(String shard) {
+        Cursor cursor = cursors.get(shard);
+        if (cursor == null) {
+            cursors.put(shard, new Cursor(changeLogRepository.findLatestId()));
+            return;
+        }
+
+        List<ChangeLogEntry> entries = changeLogRepository.findAfter(cursor.position, batchSize);
+        for (ChangeLogEntry entry : entries) {
+            if (cursor.ahead.add(entry.getChangeId())) {
+                TenantContext.setSchool(entry.getSchool());
+                cacheInvalidator.apply(entry);
+            }
+        }
+        cursor.advance(nanoClock.getAsLong(), gapTimeoutNanos);
+    }
+
+    synchronized long position(String shard) {
+        Cursor cursor = cursors.get(shard);
+        return cursor == null ? -1 : cursor.position;
+    }
+
+    private static class Cursor {
+        // Every id up to here has been applied
+        private long position;
+        // Applied ids past a gap
+        private final TreeSet<Long> ahead = new TreeSet<>();
+        private long gapSince = -1;
+
+        Cursor(long position) {
+            this.position = position;
+        }
+
+        void advance(long now, long gapTimeoutNanos) {
+            catchUp();
+            if (ahead.isEmpty()) {
+                gapSince = -1;
+            } else if (gapSince < 0) {
+                gapSince = now;
+            } else if (now - gapSince >= gapTimeoutNanos) {
+                position = ahead.pollFirst();
+                catchUp();
+                gapSince = ahead.isEmpty() ? -1 : now;
+            }
+        }
+
+        private void catchUp() {
+            while (ahead.remove(position + 1)) {
+                position++;
+            }
+        }
+    }
+}
@@ -0,0 +1,467 @@
+package learn.quizgen.domain;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+// Roaring-style compressed bitmap of non-negative ints. Values are split on their high 16 bits into
+// containers kept sorted by key; a container holds the low 16 bits either as a sorted char array (up
+// to 4096 values, 2 bytes each) or as a 65536-bit bitset (8 KB, used once an array would be larger).
+// Sets of user ids are small arrays, so and/or/andNot are merges of a few short arrays, and a set of
+// every student in a big school is still only a few bitsets. Not thread safe.
+public class CompressedBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITSET_WORDS = 1 << 10;
+
+    private char[] keys = new char[0];
+    // char[] (array container, exactly as long as its cardinality) or long[BITSET_WORDS]
+    private Object[] containers = new Object[0];
+
+    public static CompressedBitmap of(int... values) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    public void add(int value) {
+        checkValue(value);
+        char key = (char) (value >>> 16);
+        char low = (char) value;
+        int index = Arrays.binarySearch(keys, key);
+        if (index < 0) {
+            insertContainer(-index - 1, key, new char[]{low});
+            return;
+        }
+        Object container = containers[index];
+        if (container instanceof long[]) {
+            long[] words = (long[]) container;
+            words[low >>> 6] |= 1L << low;
+            return;
+        }
+        char[] array = (char[]) container;
+        int position = Arrays.binarySearch(array, low);
+        if (position >= 0) {
+            return;
+        }
+        if (array.length < ARRAY_MAX) {
+            position = -position - 1;
+            char[] grown = new char[array.length + 1];
+            System.arraycopy(array, 0, grown, 0, position);
+            grown[position] = low;
+            System.arraycopy(array, position, grown, position + 1, array.length - position);
+            containers[index] = grown;
+        } else {
+            long[] words = toBitset(array);
+            words[low >>> 6] |= 1L << low;
+            containers[index] = words;
+        }
+    }
+
+    public void remove(int value) {
+        if (value < 0) {
+            return;
+        }
+        int index = Arrays.binarySearch(keys, (char) (value >>> 16));
+        if (index < 0) {
+            return;
+        }
+        char low = (char) value;
+        Object container = containers[index];
+        if (container instanceof long[]) {
+            long[] words = (long[]) container;
+            words[low >>> 6] &= ~(1L << low);
+            setContainer(index, normalize(words));
+            return;
+        }
+        char[] array = (char[]) container;
+        int position = Arrays.binarySearch(array, low);
+        if (position < 0) {
+            return;
+        }
+        char[] shrunk = new char[array.length - 1];
+        System.arraycopy(array, 0, shrunk, 0, position);
+        System.arraycopy(array, position + 1, shrunk, position, shrunk.length - position);
+        setContainer(index, shrunk.length == 0 ? null : shrunk);
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = Arrays.binarySearch(keys, (char) (value >>> 16));
+        if (index < 0) {
+            return false;
+        }
+        char low = (char) value;
+        Object container = containers[index];
+        if (container instanceof long[]) {
+            return (((long[]) container)[low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch((char[]) container, low) >= 0;
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (Object container : containers) {
+            cardinality += cardinality(container);
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    // Ascending
+    public int[] toArray() {
+        int[] values = new int[cardinality()];
+        int next = 0;
+        for (int i = 0; i < keys.length; i++) {
+            int high = keys[i] << 16;
+            Object container = containers[i];
+            if (container instanceof long[]) {
+                long[] words = (long[]) container;
+                for (int word = 0; word < words.length; word++) {
+                    long bits = words[word];
+                    while (bits != 0) {
+                        values[next++] = high | (word << 6) + Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                    }
+                }
+            } else {
+                for (char low : (char[]) container) {
+                    values[next++] = high | low;
+                }
+            }
+        }
+        return values;
+    }
+
+    public CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.append(keys[i], and(containers[i], other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public CompressedBitmap or(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < keys.length || j < other.keys.length) {
+            if (j == other.keys.length || i < keys.length && keys[i] < other.keys[j]) {
+                result.append(keys[i], copy(containers[i]));
+                i++;
+            } else if (i == keys.length || keys[i] > other.keys[j]) {
+                result.append(other.keys[j], copy(other.containers[j]));
+                j++;
+            } else {
+                result.append(keys[i], or(containers[i], other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    // The values of this bitmap that are not in other
+    public CompressedBitmap andNot(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int j = 0;
+        for (int i = 0; i < keys.length; i++) {
+            while (j < other.keys.length && other.keys[j] < keys[i]) {
+                j++;
+            }
+            if (j < other.keys.length && other.keys[j] == keys[i]) {
+                result.append(keys[i], andNot(containers[i], other.containers[j]));
+            } else {
+                result.append(keys[i], copy(containers[i]));
+            }
+        }
+        return result;
+    }
+
+    // Container count, then per container its key, cardinality - 1 and either the sorted low chars
+    // or, past ARRAY_MAX values, the 1024 bitset words
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeShort(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            Object container = containers[i];
+            out.writeChar(keys[i]);
+            out.writeChar(cardinality(container) - 1);
+            if (container instanceof long[]) {
+                for (long word : (long[]) container) {
+                    out.writeLong(word);
+                }
+            } else {
+                for (char low : (char[]) container) {
+                    out.writeChar(low);
+                }
+            }
+        }
+    }
+
+    public static CompressedBitmap readFrom(DataInput in) throws IOException {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        int count = in.readUnsignedShort();
+        bitmap.keys = new char[count];
+        bitmap.containers = new Object[count];
+        for (int i = 0; i < count; i++) {
+            bitmap.keys[i] = in.readChar();
+            int cardinality = in.readChar() + 1;
+            if (cardinality > ARRAY_MAX) {
+                long[] words = new long[BITSET_WORDS];
+                for (int word = 0; word < BITSET_WORDS; word++) {
+                    words[word] = in.readLong();
+                }
+                bitmap.containers[i] = words;
+            } else {
+                char[] array = new char[cardinality];
+                for (int value = 0; value < cardinality; value++) {
+                    array[value] = in.readChar();
+                }
+                bitmap.containers[i] = array;
+            }
+        }
+        return bitmap;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CompressedBitmap)) {
+            return false;
+        }
+        return Arrays.equals(toArray(), ((CompressedBitmap) o).toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    private static void checkValue(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("CompressedBitmap holds non-negative values, not " + value);
+        }
+    }
+
+    // Keys are added in ascending order by the set operations; empty containers are dropped
+    private void append(char key, Object container) {
+        if (container != null) {
+            insertContainer(keys.length, key, container);
+        }
+    }
+
+    private void insertContainer(int index, char key, Object container) {
+        char[] grownKeys = new char[keys.length + 1];
+        Object[] grownContainers = new Object[containers.length + 1];
+        System.arraycopy(keys, 0, grownKeys, 0, index);
+        System.arraycopy(containers, 0, grownContainers, 0, index);
+        grownKeys[index] = key;
+        grownContainers[index] = container;
+        System.arraycopy(keys, index, grownKeys, index + 1, keys.length - index);
+        System.arraycopy(containers, index, grownContainers, index + 1, containers.length - index);
+        keys = grownKeys;
+        containers = grownContainers;
+    }
+
+    // A null container removes the key
+    private void setContainer(int index, Object container) {
+        if (container != null) {
+            containers[index] = container;
+            return;
+        }
+        char[] shrunkKeys = new char[keys.length - 1];
+        Object[] shrunkContainers = new Object[containers.length - 1];
+        System.arraycopy(keys, 0, shrunkKeys, 0, index);
+        System.arraycopy(containers, 0, shrunkContainers, 0, index);
+        System.arraycopy(keys, index + 1, shrunkKeys, index, shrunkKeys.length - index);
+        System.arraycopy(containers, index + 1, shrunkContainers, index, shrunkContainers.length - index);
+        keys = shrunkKeys;
+        containers = shrunkContainers;
+    }
+
+    private static int cardinality(Object container) {
+        if (container instanceof char[]) {
+            return ((char[]) container).length;
+        }
+        int cardinality = 0;
+        for (long word : (long[]) container) {
+            cardinality += Long.bitCount(word);
+        }
+        return cardinality;
+    }
+
+    private static Object copy(Object container) {
+        return container instanceof long[] ? ((long[]) container).clone() : container;
+    }
+
+    private static long[] toBitset(char[] array) {
+        long[] words = new long[BITSET_WORDS];
+        for (char low : array) {
+            words[low >>> 6] |= 1L << low;
+        }
+        return words;
+    }
+
+    // Back to an array container when it's no bigger, null when empty
+    private static Object normalize(long[] words) {
+        int cardinality = cardinality(words);
+        if (cardinality == 0) {
+            return null;
+        }
+        if (cardinality > ARRAY_MAX) {
+            return words;
+        }
+        char[] array = new char[cardinality];
+        int next = 0;
+        for (int word = 0; word < words.length; word++) {
+            long bits = words[word];
+            while (bits != 0) {
+                array[next++] = (char) ((word << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+        return array;
+    }
+
+    private static Object and(Object a, Object b) {
+        if (a instanceof long[] && b instanceof long[]) {
+            long[] left = (long[]) a;
+            long[] right = (long[]) b;
+            long[] words = new long[BITSET_WORDS];
+            for (int word = 0; word < BITSET_WORDS; word++) {
+                words[word] = left[word] & right[word];
+            }
+            return normalize(words);
+        }
+        if (a instanceof long[]) {
+            return filter((char[]) b, (long[]) a, true);
+        }
+        if (b instanceof long[]) {
+            return filter((char[]) a, (long[]) b, true);
+        }
+        char[] left = (char[]) a;
+        char[] right = (char[]) b;
+        char[] both = new char[Math.min(left.length, right.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                both[count++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return count == 0 ? null : Arrays.copyOf(both, count);
+    }
+
+    private static Object or(Object a, Object b) {
+        if (a instanceof long[] || b instanceof long[]) {
+            long[] words = a instanceof long[] ? ((long[]) a).clone() : toBitset((char[]) a);
+            if (b instanceof long[]) {
+                long[] right = (long[]) b;
+                for (int word = 0; word < BITSET_WORDS; word++) {
+                    words[word] |= right[word];
+                }
+            } else {
+                for (char low : (char[]) b) {
+                    words[low >>> 6] |= 1L << low;
+                }
+            }
+            return words;
+        }
+        char[] left = (char[]) a;
+        char[] right = (char[]) b;
+        char[] merged = new char[left.length + right.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length || j < right.length) {
+            if (j == right.length || i < left.length && left[i] < right[j]) {
+                merged[count++] = left[i++];
+            } else if (i == left.length || left[i] > right[j]) {
+                merged[count++] = right[j++];
+            } else {
+                merged[count++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return count > ARRAY_MAX ? toBitset(Arrays.copyOf(merged, count)) : Arrays.copyOf(merged, count);
+    }
+
+    private static Object andNot(Object a, Object b) {
+        if (a instanceof long[]) {
+            long[] words = ((long[]) a).clone();
+            if (b instanceof long[]) {
+                long[] right = (long[]) b;
+                for (int word = 0; word < BITSET_WORDS; word++) {
+                    words[word] &= ~right[word];
+                }
+            } else {
+                for (char low : (char[]) b) {
+                    words[low >>> 6] &= ~(1L << low);
+                }
+            }
+            return normalize(words);
+        }
+        if (b instanceof long[]) {
+            return filter((char[]) a, (long[]) b, false);
+        }
+        char[] left = (char[]) a;
+        char[] right = (char[]) b;
+        char[] remaining = new char[left.length];
+        int count = 0;
+        int j = 0;
+        for (char low : left) {
+            while (j < right.length && right[j] < low) {
+                j++;
+            }
+            if (j == right.length || right[j] != low) {
+                remaining[count++] = low;
+            }
+        }
+        return count == 0 ? null : Arrays.copyOf(remaining, count);
+    }
+
+    // The array's values that are (keep) or are not (!keep) set in the bitset
+    private static Object filter(char[] array, long[] words, boolean keep) {
+        char[] kept = new char[array.length];
+        int count = 0;
+        for (char low : array) {
+            if (((words[low >>> 6] & (1L << low)) != 0) == keep) {
+                kept[count++] = low;
+            }
+        }
+        return count == 0 ? null : Arrays.copyOf(kept, count);
+    }
+}
@@ -0,0 +1,112 @@
+package learn.quizgen.domain;
+
+import learn.quizgen.data.QuizResultRepository;
+import learn.quizgen.models.GradebookRow;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+// Writes a teacher's gradebook as CSV while the rows are still being read, flushing every
+// FLUSH_ROWS rows so the download starts right away and nothing accumulates in memory
+@Service
+public class GradebookExporter {
+
+    private static final int FLUSH_ROWS = 1000;
+
+    private final QuizResultRepository quizResultRepository;
+
+    public GradebookExporter(QuizResultRepository quizResultRepository) {
+        this.quizResultRepository = quizResultRepository;
+    }
+
+    public void writeCsv(String teacherUsername, boolean withAnswers, OutputStream out) throws IOException {
+        writeCsv(teacherUsername, withAnswers, false, out);
+    }
+
+    // includeArchived adds the results of past terms (see ResultArchiver)
+    public void writeCsv(String teacherUsername, boolean withAnswers, boolean includeArchived, OutputStream out)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write(withAnswers
+                ? "quiz_result_id,quiz_id,title,topic,username,correct_answers,total_questions,percent_correct,question_id,question,answer,answer_correct\r\n"
+                : "quiz_result_id,quiz_id,title,topic,username,correct_answers,total_questions,percent_correct\r\n");
+        writer.flush();
+
+        int[] rows = {0};
+        try {
+            quizResultRepository.forEachGradebookRow(teacherUsername, withAnswers, includeArchived, row -> {
+                try {
+                    writeRow(writer, row, withAnswers);
+                    if (++rows[0] % FLUSH_ROWS == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    // The client went away, stop reading rows
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private static void writeRow(Writer writer, GradebookRow row, boolean withAnswers) throws IOException {
+        writer.write(Integer.toString(row.getQuizResultId()));
+        writer.write(',');
+        writer.write(Integer.toString(row.getQuizId()));
+        writer.write(',');
+        writeField(writer, row.getTitle());
+        writer.write(',');
+        writeField(writer, row.getTopic());
+        writer.write(',');
+        writeField(writer, row.getUsername());
+        writer.write(',');
+        writer.write(Integer.toString(row.getCorrectAnswers()));
+        writer.write(',');
+        writer.write(Integer.toString(row.getTotalQuestions()));
+        writer.write(',');
+        writer.write(Float.toString(row.getPercentCorrect()));
+        if (withAnswers) {
+            writer.write(',');
+            writer.write(String.valueOf(row.getQuestionId()));
+            writer.write(',');
+            writeField(writer, row.getQuestionText());
+            writer.write(',');
+            writeField(writer, row.getOptionText());
+            writer.write(',');
+            writer.write(String.valueOf(row.getCorrect()));
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180: quote fields holding a comma, quote or line break, and double the quotes inside.
+    // Text a spreadsheet would run as a formula (=, +, -, @, tab or CR first) gets a leading ' so
+    // it opens as text; titles, usernames and questions are typed in by users.
+    static void writeField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
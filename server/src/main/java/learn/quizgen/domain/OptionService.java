@@ -3,15 +3,18 @@ package learn.quizgen.domain;
 import learn.quizgen.data.OptionRepository;
 import learn.quizgen.models.Option;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Service
 public class OptionService {
     private final OptionRepository optionRepository;
+    private final CacheInvalidator cacheInvalidator;
 
-    public OptionService(OptionRepository optionRepository) {
+    public OptionService(OptionRepository optionRepository, CacheInvalidator cacheInvalidator) {
         this.optionRepository = optionRepository;
+        this.cacheInvalidator = cacheInvalidator;
     }
 
     public List<Option> findAll() {
@@ -22,6 +25,7 @@ public class OptionService {
         return optionRepository.findById(optionId);
     }
 
+    @Transactional
     public Result<Option> add(Option option){
         Result<Option> result = validate(option);
 
@@ -34,11 +38,13 @@ public class OptionService {
         }
 
         option = optionRepository.add(option);
+        cacheInvalidator.optionChanged(option.getOptionId());
         result.setPayload(option);
 
         return result;
     }
 
+    @Transactional
     public Result<Option> update(Option option){
         Result<Option> result = validate(option);
         if (!result.isSuccess()) {
@@ -53,13 +59,20 @@ public class OptionService {
         if (!optionRepository.update(option)){
             String msg = String.format("optionId: %s, not found", option.getOptionId());
             result.addMessage(msg, ResultType.NOT_FOUND);
+        } else {
+            cacheInvalidator.optionChanged(option.getOptionId());
         }
 
         return result;
     }
 
+    @Transactional
     public boolean deleteById(int optionId){
-        return optionRepository.deleteById(optionId);
+        boolean deleted = optionRepository.deleteById(optionId);
+        if (deleted) {
+            cacheInvalidator.optionChanged(optionId);
+        }
+        return deleted;
     }
 
     private Result<Option> validate(Option option) {
@@ -73,10 +86,14 @@ public class OptionService {
             result.addMessage("questionId is required and must be positive", ResultType.INVALID);
         }
 
+        validateText(option, result);
+        return result;
+    }
+
+    // The rules that hold before the option's question exists, so bulk imports can check rows up front
+    void validateText(Option option, Result<?> result) {
         if (option.getOptionText() == null || option.getOptionText().isBlank()){
             result.addMessage("optionText is required", ResultType.INVALID);
         }
-
-        return result;
     }
 }
@@ -0,0 +1,216 @@
+package learn.quizgen.domain;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import learn.quizgen.models.Option;
+import learn.quizgen.models.Question;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Reads an uploaded question bank one question at a time, so a file of any size is parsed in
+// constant memory. Two formats:
+//   csv:  a header line, then question,correct,option1,option2,... where correct is the number of
+//         the correct option (1 for option1)
+//   json: [{"questionText": "...", "optionList": [{"optionText": "...", "correct": true}, ...]}, ...],
+//         the shape /api/questions returns
+// A row that can't be turned into a question comes back with an error instead, the rest of the
+// file is still read.
+public abstract class QuestionBankReader implements Closeable {
+
+    public static QuestionBankReader open(Path file, String format, ObjectMapper objectMapper) throws IOException {
+        if ("csv".equalsIgnoreCase(format)) {
+            return new Csv(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+        }
+        if ("json".equalsIgnoreCase(format)) {
+            return new Json(objectMapper.getFactory().createParser(file.toFile()));
+        }
+        throw new IllegalArgumentException("Unknown format " + format + ", expected csv or json");
+    }
+
+    // Null at the end of the file
+    public abstract Row next() throws IOException;
+
+    public static class Row {
+        private final long number;
+        private final Question question;
+        private final String error;
+
+        Row(long number, Question question, String error) {
+            this.number = number;
+            this.question = question;
+            this.error = error;
+        }
+
+        public long getNumber() {
+            return number;
+        }
+
+        public Question getQuestion() {
+            return question;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    static class Csv extends QuestionBankReader {
+        private final Reader reader;
+        private long number;
+        private boolean headerRead;
+        private int next = -2;
+
+        Csv(Reader reader) {
+            this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (!headerRead) {
+                headerRead = true;
+                if (readRecord() == null) {
+                    return null;
+                }
+            }
+            List<String> record = readRecord();
+            while (record != null && record.size() == 1 && record.get(0).isBlank()) {
+                record = readRecord();
+            }
+            if (record == null) {
+                return null;
+            }
+            number++;
+
+            if (record.size() < 2) {
+                return new Row(number, null, "Expected question,correct,option1,option2,...");
+            }
+            int correct;
+            try {
+                correct = Integer.parseInt(record.get(1).trim());
+            } catch (NumberFormatException e) {
+                return new Row(number, null, "correct must be the number of the correct option, not '" + record.get(1) + "'");
+            }
+            Question question = new Question(0, 0, record.get(0));
+            for (int i = 2; i < record.size(); i++) {
+                // Rows have as many option columns as the longest question, shorter ones leave them empty
+                if (!record.get(i).isEmpty() || i < 4) {
+                    question.getOptionList().add(new Option(0, 0, record.get(i), i - 1 == correct));
+                }
+            }
+            return new Row(number, question, null);
+        }
+
+        // RFC 4180: fields may be quoted, quoted fields may hold commas, doubled quotes and line breaks
+        private List<String> readRecord() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        fields.add(field.toString());
+                        return fields;
+                    } else if (c == '"') {
+                        int following = read();
+                        if (following == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            c = following;
+                            continue;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r' || c == '\n' || c == -1) {
+                    if (c == '\r') {
+                        int following = read();
+                        if (following != '\n') {
+                            next = following;
+                        }
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            if (next != -2) {
+                int c = next;
+                next = -2;
+                return c;
+            }
+            return reader.read();
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    static class Json extends QuestionBankReader {
+        private final JsonParser parser;
+        private long number;
+        private boolean started;
+
+        Json(JsonParser parser) {
+            this.parser = parser;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (!started) {
+                started = true;
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new IOException("Expected a JSON array of questions");
+                }
+            }
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+            number++;
+            // Only this element is held in memory
+            JsonNode node = parser.readValueAsTree();
+            if (node == null || !node.isObject()) {
+                return new Row(number, null, "Expected a question object");
+            }
+
+            Question question = new Question(0, 0, node.path("questionText").asText(null));
+            for (JsonNode option : node.path("optionList")) {
+                boolean correct = option.path("correct").asBoolean(option.path("isCorrect").asBoolean(false));
+                question.getOptionList().add(new Option(0, 0, option.path("optionText").asText(null), correct));
+            }
+            return new Row(number, question, null);
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+}
@@ -2,18 +2,26 @@ package learn.quizgen.domain;
 
 import learn.quizgen.data.QuestionRepository;
 import learn.quizgen.models.Question;
+import learn.quizgen.profiling.events.QuizLoadEvent;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Service
 public class QuestionService {
     private final QuestionRepository questionRepository;
+    private final QuizCache quizCache;
+    private final CacheInvalidator cacheInvalidator;
 
-    public QuestionService(QuestionRepository questionRepository) {
+    public QuestionService(QuestionRepository questionRepository, QuizCache quizCache,
+                           CacheInvalidator cacheInvalidator) {
         this.questionRepository = questionRepository;
+        this.quizCache = quizCache;
+        this.cacheInvalidator = cacheInvalidator;
     }
 
+    @Transactional
     public Result<Question> addQuestion(Question question) {
         Result<Question> result = validate(question);
         if (!result.isSuccess()) {
@@ -21,10 +29,12 @@ public class QuestionService {
         }
 
         question = questionRepository.add(question);
+        cacheInvalidator.quizChanged(question.getQuizId());
         result.setPayload(question);
         return result;
     }
 
+    @Transactional
     public Result<Question> updateQuestion(Question question) {
         Result<Question> result = validate(question);
         if (!result.isSuccess()) {
@@ -33,12 +43,14 @@ public class QuestionService {
 
         if (!questionRepository.update(question)) {
             result.addMessage("Question not found", ResultType.NOT_FOUND);
+        } else {
+            cacheInvalidator.questionChanged(question.getQuestionId());
         }
 
         return result;
     }
 
-    private Result<Question> validate(Question question) {
+    Result<Question> validate(Question question) {
         Result<Question> result = new Result<>();
         if (question == null) {
             result.addMessage("Question cannot be null", ResultType.INVALID);
@@ -51,14 +63,30 @@ public class QuestionService {
     }
 
     public List<Question> getQuestionById(int id) {
-        return questionRepository.findByQuizId(id);
+        QuizLoadEvent event = new QuizLoadEvent();
+        event.begin();
+        List<Question> questions = quizCache.getQuestions(id, questionRepository::findByQuizId);
+        if (event.shouldCommit()) {
+            event.quizId = id;
+            event.questions = questions.size();
+            for (Question question : questions) {
+                event.options += question.getOptionList() == null ? 0 : question.getOptionList().size();
+            }
+            event.commit();
+        }
+        return questions;
     }
 
     public List<Question> getAllQuestions() {
         return questionRepository.findAll();
     }
 
+    @Transactional
     public boolean deleteQuestionById(int id) {
-        return questionRepository.deleteById(id);
+        boolean deleted = questionRepository.deleteById(id);
+        if (deleted) {
+            cacheInvalidator.questionChanged(id);
+        }
+        return deleted;
     }
 }
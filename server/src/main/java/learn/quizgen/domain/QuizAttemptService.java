@@ -0,0 +1,176 @@
+package learn.quizgen.domain;
+
+import learn.quizgen.data.AppUserRepository;
+import learn.quizgen.data.QuizAttemptRepository;
+import learn.quizgen.data.routing.TenantContext;
+import learn.quizgen.models.AppUser;
+import learn.quizgen.models.Option;
+import learn.quizgen.models.Question;
+import learn.quizgen.models.Quiz;
+import learn.quizgen.models.QuizAttempt;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// A student's attempt at a quiz, from start to submit. Answers are sent as they change and kept in
+// AnswerDrafts until the next autosave, so a refresh resumes with every answer. Timed attempts are
+// closed by the server: answers are refused after the deadline (plus the grace period) and
+// AttemptDeadlines submits whatever was saved.
+@Service
+public class QuizAttemptService {
+
+    private final QuizAttemptRepository quizAttemptRepository;
+    private final AppUserRepository appUserRepository;
+    private final QuizService quizService;
+    private final QuestionService questionService;
+    private final AttemptGrader attemptGrader;
+    private final AttemptDeadlines attemptDeadlines;
+    private final AnswerDrafts answerDrafts;
+
+    public QuizAttemptService(QuizAttemptRepository quizAttemptRepository, AppUserRepository appUserRepository,
+                              QuizService quizService, QuestionService questionService,
+                              AttemptGrader attemptGrader, AttemptDeadlines attemptDeadlines,
+                              AnswerDrafts answerDrafts) {
+        this.quizAttemptRepository = quizAttemptRepository;
+        this.appUserRepository = appUserRepository;
+        this.quizService = quizService;
+        this.questionService = questionService;
+        this.attemptGrader = attemptGrader;
+        this.attemptDeadlines = attemptDeadlines;
+        this.answerDrafts = answerDrafts;
+    }
+
+    // Resumes the user's open attempt at the quiz, or starts one (the clock starts now)
+    public Result<QuizAttempt> start(int quizId, String username) {
+        Result<QuizAttempt> result = new Result<>();
+        Optional<AppUser> user = appUserRepository.findByUsername(username);
+        Result<Quiz> quiz = quizService.getQuizById(quizId);
+        if (user.isEmpty() || !quiz.isSuccess()) {
+            result.addMessage("Quiz not found.", ResultType.NOT_FOUND);
+            return result;
+        }
+
+        QuizAttempt open = quizAttemptRepository.findOpen(user.get().getAppUserId(), quizId);
+        if (open != null && !isPastDeadline(open)) {
+            QuizAttempt drafted = answerDrafts.find(open.getSchool(), open.getAttemptId(), username);
+            result.setPayload(drafted == null ? open : drafted);
+            return result;
+        }
+        if (open != null) {
+            // Its deadline passed before anything submitted it
+            grade(answerDrafts.take(open));
+        }
+
+        QuizAttempt attempt = new QuizAttempt(0, user.get().getAppUserId(), quizId, TenantContext.getSchool(),
+                Instant.now(), quiz.getPayload().getTimeLimitSeconds(), new LinkedHashMap<>(), null);
+        attempt = quizAttemptRepository.add(attempt);
+        attemptDeadlines.track(attempt);
+        result.setPayload(attempt);
+        return result;
+    }
+
+    public Result<QuizAttempt> findById(int attemptId, String username) {
+        Result<QuizAttempt> result = new Result<>();
+        QuizAttempt drafted = answerDrafts.find(TenantContext.getSchool(), attemptId, username);
+        if (drafted != null) {
+            result.setPayload(drafted);
+            return result;
+        }
+        QuizAttempt attempt = quizAttemptRepository.findById(attemptId);
+        Optional<AppUser> user = appUserRepository.findByUsername(username);
+        if (attempt == null || user.isEmpty() || attempt.getUserId() != user.get().getAppUserId()) {
+            result.addMessage("Attempt not found.", ResultType.NOT_FOUND);
+        } else {
+            result.setPayload(attempt);
+        }
+        return result;
+    }
+
+    // Only the answers that changed (question id to option id); they are saved with the next autosave
+    public Result<QuizAttempt> saveAnswers(int attemptId, String username, Map<Integer, Integer> changes) {
+        Result<QuizAttempt> result = findOpen(attemptId, username);
+        if (result.isSuccess()) {
+            validateAnswers(result.getPayload(), changes, result);
+        }
+        if (result.isSuccess()) {
+            answerDrafts.merge(result.getPayload(), username, changes);
+        }
+        return result;
+    }
+
+    // Submits the saved answers plus any changes not sent yet
+    public Result<QuizAttempt> submit(int attemptId, String username, Map<Integer, Integer> changes) {
+        Result<QuizAttempt> result = findOpen(attemptId, username);
+        if (result.isSuccess()) {
+            validateAnswers(result.getPayload(), changes, result);
+        }
+        if (!result.isSuccess()) {
+            return result;
+        }
+        QuizAttempt attempt = answerDrafts.take(result.getPayload(), changes);
+        Result<?> submitted = grade(attempt);
+        if (!submitted.isSuccess()) {
+            Result<QuizAttempt> failed = new Result<>();
+            for (String message : submitted.getMessages()) {
+                failed.addMessage(message, submitted.getType());
+            }
+            return failed;
+        }
+        return result;
+    }
+
+    private Result<?> grade(QuizAttempt attempt) {
+        attemptDeadlines.untrack(attempt);
+        return attemptGrader.submit(attempt);
+    }
+
+    private Result<QuizAttempt> findOpen(int attemptId, String username) {
+        Result<QuizAttempt> result = findById(attemptId, username);
+        if (!result.isSuccess()) {
+            return result;
+        }
+        QuizAttempt attempt = result.getPayload();
+        if (attempt.isSubmitted()) {
+            result.addMessage("Attempt was already submitted.", ResultType.INVALID);
+        } else if (isPastDeadline(attempt)) {
+            result.addMessage("Time is up, the answers saved before the deadline are being submitted.", ResultType.INVALID);
+        }
+        return result;
+    }
+
+    private boolean isPastDeadline(QuizAttempt attempt) {
+        return attempt.getDeadline() != null
+                && Instant.now().isAfter(attempt.getDeadline().plusMillis(attemptDeadlines.getGraceMillis()));
+    }
+
+    private void validateAnswers(QuizAttempt attempt, Map<Integer, Integer> answers, Result<QuizAttempt> result) {
+        if (answers == null) {
+            result.addMessage("Answers are required.", ResultType.INVALID);
+            return;
+        }
+        List<Question> questions = questionService.getQuestionById(attempt.getQuizId());
+        for (Map.Entry<Integer, Integer> answer : answers.entrySet()) {
+            if (!isOption(questions, answer.getKey(), answer.getValue())) {
+                result.addMessage("Option " + answer.getValue() + " is not an option of question "
+                        + answer.getKey() + " in this quiz.", ResultType.INVALID);
+            }
+        }
+    }
+
+    private static boolean isOption(List<Question> questions, Integer questionId, Integer optionId) {
+        for (Question question : questions) {
+            if (questionId != null && question.getQuestionId() == questionId) {
+                for (Option option : question.getOptionList()) {
+                    if (optionId != null && option.getOptionId() == optionId) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
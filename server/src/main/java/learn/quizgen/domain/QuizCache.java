@@ -0,0 +1,146 @@
+package learn.quizgen.domain;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import learn.quizgen.data.routing.ReplicaRoutingDataSource;
+import learn.quizgen.data.routing.TenantContext;
+import learn.quizgen.models.Question;
+import learn.quizgen.models.Quiz;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+
+// Per-instance cache of what every student taking an exam reads: the quiz row and its questions
+// with options. Entries expire after quiz.cache.ttl-seconds so edits made through another
+// instance show up; edits through this one evict right away. Least recently used entries go first
+// once quiz.cache.max-entries is reached. Lookups are counted as cache.gets{cache,result=hit|miss}.
+// Ids are only unique within a school's database, so entries are kept per school. Loads read the
+// primary even inside read-only transactions: a lagging replica could return the row from before the
+// edit that evicted it, and the cache would then serve that for the whole TTL.
+@Component
+public class QuizCache {
+
+    private final Region<Quiz> quizzes;
+    private final Region<List<Question>> questions;
+
+    public QuizCache(MeterRegistry meterRegistry,
+                     @Value("${quiz.cache.max-entries:1000}") int maxEntries,
+                     @Value("${quiz.cache.ttl-seconds:60}") long ttlSeconds) {
+        this(meterRegistry, maxEntries, ttlSeconds, System::nanoTime);
+    }
+
+    QuizCache(MeterRegistry meterRegistry, int maxEntries, long ttlSeconds, LongSupplier nanoClock) {
+        long ttlNanos = ttlSeconds * 1_000_000_000L;
+        this.quizzes = new Region<>("quizzes", maxEntries, ttlNanos, nanoClock, meterRegistry);
+        this.questions = new Region<>("questions", maxEntries, ttlNanos, nanoClock, meterRegistry);
+    }
+
+    public Quiz getQuiz(int quizId, IntFunction<Quiz> loader) {
+        return quizzes.get(key(quizId), quizId, loader);
+    }
+
+    public List<Question> getQuestions(int quizId, IntFunction<List<Question>> loader) {
+        return questions.get(key(quizId), quizId, loader);
+    }
+
+    public void evictQuiz(int quizId) {
+        quizzes.evict(key(quizId));
+        questions.evict(key(quizId));
+    }
+
+    // Questions and options only know their own ids, so changing one drops every cached question list
+    public void evictAllQuestions() {
+        questions.clear();
+    }
+
+    private static String key(int quizId) {
+        return TenantContext.getSchool() + "/" + quizId;
+    }
+
+    private static class Region<V> {
+        private final Map<String, Cached<V>> entries;
+        private final long ttlNanos;
+        private final LongSupplier nanoClock;
+        private final Counter hits;
+        private final Counter misses;
+        // Bumped by every eviction, so a load that started before it doesn't put stale data back
+        private long generation;
+
+        Region(String name, int maxEntries, long ttlNanos, LongSupplier nanoClock, MeterRegistry meterRegistry) {
+            this.entries = new LinkedHashMap<String, Cached<V>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Cached<V>> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+            this.ttlNanos = ttlNanos;
+            this.nanoClock = nanoClock;
+            this.hits = meterRegistry.counter("cache.gets", "cache", name, "result", "hit");
+            this.misses = meterRegistry.counter("cache.gets", "cache", name, "result", "miss");
+            Gauge.builder("cache.size", this, Region::size).tag("cache", name).register(meterRegistry);
+        }
+
+        // The loader runs outside the lock; two requests missing together both load, which is cheaper
+        // than making every reader wait on one database call
+        V get(String key, int id, IntFunction<V> loader) {
+            long now = nanoClock.getAsLong();
+            long loadGeneration;
+            synchronized (this) {
+                Cached<V> entry = entries.get(key);
+                if (entry != null && now - entry.loadedAt < ttlNanos) {
+                    hits.increment();
+                    return entry.value;
+                }
+                loadGeneration = generation;
+            }
+
+            misses.increment();
+            V value;
+            boolean pinned = ReplicaRoutingDataSource.isPinnedToPrimary();
+            ReplicaRoutingDataSource.pinToPrimary(true);
+            try {
+                value = loader.apply(id);
+            } finally {
+                ReplicaRoutingDataSource.pinToPrimary(pinned);
+            }
+            if (value != null) {
+                synchronized (this) {
+                    if (generation == loadGeneration) {
+                        entries.put(key, new Cached<>(value, now));
+                    }
+                }
+            }
+            return value;
+        }
+
+        synchronized void evict(String key) {
+            generation++;
+            entries.remove(key);
+        }
+
+        synchronized void clear() {
+            generation++;
+            entries.clear();
+        }
+
+        synchronized double size() {
+            return entries.size();
+        }
+    }
+
+    private static class Cached<V> {
+        private final V value;
+        private final long loadedAt;
+
+        Cached(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package learn.quizgen.domain;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// One bulk import, as GET /api/imports/{jobId} reports it. Written by the import's thread and read by
+// progress requests, hence synchronized.
+public class QuizImportJob {
+
+    public enum Status { QUEUED, RUNNING, DONE, FAILED }
+
+    private final String jobId;
+    private final int quizId;
+    private final String format;
+    private final String username;
+    private final int maxErrors;
+    private final List<RowError> errors = new ArrayList<>();
+    private Status status = Status.QUEUED;
+    private long rowsRead;
+    private long questionsAdded;
+    private long optionsAdded;
+    private long errorCount;
+    private String message;
+    private final Instant createdAt = Instant.now();
+    private Instant finishedAt;
+
+    QuizImportJob(String jobId, int quizId, String format, String username, int maxErrors) {
+        this.jobId = jobId;
+        this.quizId = quizId;
+        this.format = format;
+        this.username = username;
+        this.maxErrors = maxErrors;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public int getQuizId() {
+        return quizId;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public synchronized Status getStatus() {
+        return status;
+    }
+
+    public synchronized long getRowsRead() {
+        return rowsRead;
+    }
+
+    public synchronized long getQuestionsAdded() {
+        return questionsAdded;
+    }
+
+    public synchronized long getOptionsAdded() {
+        return optionsAdded;
+    }
+
+    public synchronized long getErrorCount() {
+        return errorCount;
+    }
+
+    public synchronized String getMessage() {
+        return message;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public synchronized Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    String username() {
+        return username;
+    }
+
+    // The first imports.max-errors errors, the error count keeps counting past them
+    synchronized List<RowError> errors() {
+        return new ArrayList<>(errors);
+    }
+
+    synchronized void running() {
+        status = Status.RUNNING;
+    }
+
+    synchronized void read(long rows) {
+        rowsRead += rows;
+    }
+
+    synchronized void added(int questions, int options) {
+        questionsAdded += questions;
+        optionsAdded += options;
+    }
+
+    synchronized void error(long row, String message) {
+        errorCount++;
+        if (errors.size() < maxErrors) {
+            errors.add(new RowError(row, message));
+        }
+    }
+
+    synchronized void finish(Status status, String message) {
+        this.status = status;
+        this.message = message;
+        this.finishedAt = Instant.now();
+    }
+
+    synchronized boolean finishedBefore(Instant instant) {
+        return finishedAt != null && finishedAt.isBefore(instant);
+    }
+
+    public static class RowError {
+        private final long row;
+        private final String message;
+
+        RowError(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        public long getRow() {
+            return row;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
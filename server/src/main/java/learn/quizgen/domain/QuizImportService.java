@@ -0,0 +1,350 @@
+package learn.quizgen.domain;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import learn.quizgen.data.AppUserRepository;
+import learn.quizgen.data.OptionRepository;
+import learn.quizgen.data.QuestionRepository;
+import learn.quizgen.data.TeacherRepository;
+import learn.quizgen.data.routing.TenantContext;
+import learn.quizgen.models.AppUser;
+import learn.quizgen.models.Option;
+import learn.quizgen.models.Question;
+import learn.quizgen.models.Quiz;
+import learn.quizgen.models.Teacher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Bulk imports of question banks into a quiz. The upload is spooled to a temp file and the request
+// returns right away; an import thread then reads the file imports.chunk-size rows at a time, hands
+// each chunk to the validation pool (several chunks are validated at once while the next ones are
+// read) and writes the valid questions of each chunk, in file order, in one transaction of batched
+// inserts. A bad row is reported in the job's errors and skipped, it doesn't stop the import.
+// Jobs live in this instance's memory until imports.keep-minutes after they finish.
+@Service
+public class QuizImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizImportService.class);
+    private static final int MAX_TEXT_LENGTH = 250;
+
+    private final QuizService quizService;
+    private final QuestionService questionService;
+    private final OptionService optionService;
+    private final QuestionRepository questionRepository;
+    private final OptionRepository optionRepository;
+    private final AppUserRepository appUserRepository;
+    private final TeacherRepository teacherRepository;
+    private final CacheInvalidator cacheInvalidator;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final long maxBytes;
+    private final int chunkSize;
+    private final int maxErrors;
+    private final long keepMillis;
+    private final ExecutorService importExecutor;
+    private final ForkJoinPool validationPool;
+    private final Map<String, QuizImportJob> jobs = new ConcurrentHashMap<>();
+
+    public QuizImportService(QuizService quizService, QuestionService questionService, OptionService optionService,
+                             QuestionRepository questionRepository, OptionRepository optionRepository,
+                             AppUserRepository appUserRepository, TeacherRepository teacherRepository,
+                             CacheInvalidator cacheInvalidator, TransactionTemplate transactionTemplate,
+                             ObjectMapper objectMapper,
+                             @Value("${imports.max-bytes:104857600}") long maxBytes,
+                             @Value("${imports.chunk-size:500}") int chunkSize,
+                             @Value("${imports.max-errors:1000}") int maxErrors,
+                             @Value("${imports.max-concurrent:2}") int maxConcurrent,
+                             @Value("${imports.max-queued:20}") int maxQueued,
+                             @Value("${imports.validation-threads:0}") int validationThreads,
+                             @Value("${imports.keep-minutes:60}") long keepMinutes) {
+        this.quizService = quizService;
+        this.questionService = questionService;
+        this.optionService = optionService;
+        this.questionRepository = questionRepository;
+        this.optionRepository = optionRepository;
+        this.appUserRepository = appUserRepository;
+        this.teacherRepository = teacherRepository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxBytes;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+        this.keepMillis = TimeUnit.MINUTES.toMillis(keepMinutes);
+        // Imports past the running ones wait their turn, past the queue they are turned away
+        this.importExecutor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(maxQueued));
+        this.validationPool = new ForkJoinPool(validationThreads > 0
+                ? validationThreads : Runtime.getRuntime().availableProcessors());
+    }
+
+    // format is csv or json; the body is read to the end before this returns
+    public Result<QuizImportJob> start(int quizId, String format, InputStream body, String username) throws IOException {
+        Result<QuizImportJob> result = new Result<>();
+        if (!"csv".equalsIgnoreCase(format) && !"json".equalsIgnoreCase(format)) {
+            result.addMessage("format must be csv or json", ResultType.INVALID);
+            return result;
+        }
+        if (!isOwner(quizId, username)) {
+            result.addMessage("Quiz not found.", ResultType.NOT_FOUND);
+            return result;
+        }
+
+        Path file = Files.createTempFile("quiz-import-", "." + format.toLowerCase());
+        try {
+            if (!spool(body, file)) {
+                Files.deleteIfExists(file);
+                result.addMessage("The file is larger than " + maxBytes + " bytes.", ResultType.INVALID);
+                return result;
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+
+        QuizImportJob job = new QuizImportJob(UUID.randomUUID().toString(), quizId, format.toLowerCase(),
+                username, maxErrors);
+        String school = TenantContext.getSchool();
+        jobs.put(job.getJobId(), job);
+        try {
+            importExecutor.execute(() -> run(job, file, school));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getJobId());
+            Files.deleteIfExists(file);
+            result.addMessage("Too many imports are running, try again shortly.", ResultType.INVALID);
+            return result;
+        }
+        result.setPayload(job);
+        return result;
+    }
+
+    public Result<QuizImportJob> findById(String jobId, String username) {
+        Result<QuizImportJob> result = new Result<>();
+        QuizImportJob job = jobs.get(jobId);
+        if (job == null || !job.username().equals(username)) {
+            result.addMessage("Import not found.", ResultType.NOT_FOUND);
+        } else {
+            result.setPayload(job);
+        }
+        return result;
+    }
+
+    // row,message per rejected row, in file order
+    public void writeErrors(QuizImportJob job, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("row,message\r\n");
+        for (QuizImportJob.RowError error : job.errors()) {
+            writer.write(Long.toString(error.getRow()));
+            writer.write(',');
+            GradebookExporter.writeField(writer, error.getMessage());
+            writer.write("\r\n");
+        }
+        writer.flush();
+    }
+
+    @Scheduled(fixedDelayString = "${imports.cleanup-millis:60000}")
+    public void removeFinished() {
+        Instant before = Instant.now().minusMillis(keepMillis);
+        jobs.values().removeIf(job -> job.finishedBefore(before));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        importExecutor.shutdownNow();
+        validationPool.shutdownNow();
+    }
+
+    private boolean isOwner(int quizId, String username) {
+        Result<Quiz> quiz = quizService.getQuizById(quizId);
+        Optional<AppUser> user = appUserRepository.findByUsername(username);
+        if (!quiz.isSuccess() || user.isEmpty()) {
+            return false;
+        }
+        Teacher teacher = teacherRepository.findByUserId(user.get().getAppUserId());
+        return teacher != null && teacher.getTeacherId() == quiz.getPayload().getTeacherId();
+    }
+
+    private boolean spool(InputStream body, Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            byte[] buffer = new byte[64 * 1024];
+            long total = 0;
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                total += read;
+                if (total > maxBytes) {
+                    return false;
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+        return true;
+    }
+
+    private void run(QuizImportJob job, Path file, String school) {
+        TenantContext.setSchool(school);
+        job.running();
+        // Enough chunks in flight to keep every validation thread busy while one is written
+        int maxInFlight = validationPool.getParallelism() + 1;
+        Deque<Future<Chunk>> inFlight = new ArrayDeque<>();
+        try (QuestionBankReader reader = QuestionBankReader.open(file, job.getFormat(), objectMapper)) {
+            List<QuestionBankReader.Row> rows = readChunk(reader);
+            while (!rows.isEmpty()) {
+                job.read(rows.size());
+                List<QuestionBankReader.Row> chunk = rows;
+                inFlight.add(validationPool.submit(() -> validate(job.getQuizId(), chunk)));
+                if (inFlight.size() >= maxInFlight) {
+                    write(job, inFlight.poll().get());
+                }
+                rows = readChunk(reader);
+            }
+            while (!inFlight.isEmpty()) {
+                write(job, inFlight.poll().get());
+            }
+            job.finish(QuizImportJob.Status.DONE, null);
+            log.info("Imported {} questions into quiz {}, {} rows rejected",
+                    job.getQuestionsAdded(), job.getQuizId(), job.getErrorCount());
+        } catch (IOException | RuntimeException e) {
+            // A file that can't be read past this point; what was written before stays
+            inFlight.forEach(future -> future.cancel(true));
+            job.finish(QuizImportJob.Status.FAILED, "Stopped after row " + job.getRowsRead() + ": " + e.getMessage());
+            log.warn("Import {} into quiz {} failed: {}", job.getJobId(), job.getQuizId(), e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(QuizImportJob.Status.FAILED, "Stopped after row " + job.getRowsRead() + ": server shutting down");
+        } catch (ExecutionException e) {
+            job.finish(QuizImportJob.Status.FAILED, "Stopped after row " + job.getRowsRead() + ": " + e.getCause());
+            log.warn("Import {} into quiz {} failed", job.getJobId(), job.getQuizId(), e.getCause());
+        } finally {
+            TenantContext.clear();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    private List<QuestionBankReader.Row> readChunk(QuestionBankReader reader) throws IOException {
+        List<QuestionBankReader.Row> rows = new ArrayList<>(chunkSize);
+        QuestionBankReader.Row row;
+        while (rows.size() < chunkSize && (row = reader.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    // Runs on the validation pool, touches nothing shared
+    private Chunk validate(int quizId, List<QuestionBankReader.Row> rows) {
+        Chunk chunk = new Chunk();
+        for (QuestionBankReader.Row row : rows) {
+            if (row.getError() != null) {
+                chunk.errors.add(new QuizImportJob.RowError(row.getNumber(), row.getError()));
+                continue;
+            }
+            Question question = row.getQuestion();
+            question.setQuizId(quizId);
+            Result<Question> result = validate(question);
+            if (result.isSuccess()) {
+                chunk.rows.add(row.getNumber());
+                chunk.questions.add(question);
+            } else {
+                chunk.errors.add(new QuizImportJob.RowError(row.getNumber(), String.join("; ", result.getMessages())));
+            }
+        }
+        return chunk;
+    }
+
+    // QuestionService's and OptionService's rules, plus what a question needs to be answerable
+    private Result<Question> validate(Question question) {
+        Result<Question> result = questionService.validate(question);
+        if (question.getQuestionText() == null || question.getQuestionText().isBlank()) {
+            result.addMessage("questionText is required", ResultType.INVALID);
+        } else if (question.getQuestionText().length() > MAX_TEXT_LENGTH) {
+            result.addMessage("questionText must be at most " + MAX_TEXT_LENGTH + " characters", ResultType.INVALID);
+        }
+        if (question.getOptionList().size() < 2) {
+            result.addMessage("a question needs at least 2 options", ResultType.INVALID);
+        }
+        int correct = 0;
+        for (Option option : question.getOptionList()) {
+            optionService.validateText(option, result);
+            if (option.getOptionText() != null && option.getOptionText().length() > MAX_TEXT_LENGTH) {
+                result.addMessage("optionText must be at most " + MAX_TEXT_LENGTH + " characters", ResultType.INVALID);
+            }
+            correct += option.isCorrect() ? 1 : 0;
+        }
+        if (correct == 0) {
+            result.addMessage("a question needs a correct option", ResultType.INVALID);
+        }
+        return result;
+    }
+
+    private void write(QuizImportJob job, Chunk chunk) {
+        for (QuizImportJob.RowError error : chunk.errors) {
+            job.error(error.getRow(), error.getMessage());
+        }
+        if (chunk.questions.isEmpty()) {
+            return;
+        }
+        List<Option> options = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                questionRepository.addAll(chunk.questions);
+                for (Question question : chunk.questions) {
+                    for (Option option : question.getOptionList()) {
+                        option.setQuestionId(question.getQuestionId());
+                        options.add(option);
+                    }
+                }
+                optionRepository.addAll(options);
+                cacheInvalidator.quizChanged(job.getQuizId());
+            });
+            job.added(chunk.questions.size(), options.size());
+        } catch (DataAccessException e) {
+            // The chunk was rolled back as a whole, the next one may still go through
+            log.warn("Import {} could not save rows {}-{}: {}", job.getJobId(), chunk.rows.get(0),
+                    chunk.rows.get(chunk.rows.size() - 1), e.getMessage());
+            for (Long row : chunk.rows) {
+                job.error(row, "not saved: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+
+    private static class Chunk {
+        private final List<Long> rows = new ArrayList<>();
+        private final List<Question> questions = new ArrayList<>();
+        private final List<QuizImportJob.RowError> errors = new ArrayList<>();
+    }
+}
@@ -0,0 +1,224 @@
+package learn.quizgen.domain;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import learn.quizgen.models.Option;
+import learn.quizgen.models.Question;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+// Reads the AI generated quiz_json with the streaming parser (no tree is built), normalizes it to
+// exactly numberOfOptions options per question and turns it into question/option rows.
+// The rules match the ones AddQuiz.tsx used to apply in the browser.
+@Component
+public class QuizJsonMaterializer {
+
+    private final JsonFactory jsonFactory;
+
+    public QuizJsonMaterializer(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public Result<MaterializedQuiz> materialize(String quizJson, int numberOfQuestions, int numberOfOptions) {
+        Result<MaterializedQuiz> result = new Result<>();
+
+        if (numberOfQuestions <= 0) {
+            result.addMessage("numberOfQuestions must be positive.", ResultType.INVALID);
+        }
+        if (numberOfOptions < 2) {
+            result.addMessage("numberOfOptions must be at least 2.", ResultType.INVALID);
+        }
+        if (quizJson == null || quizJson.isBlank()) {
+            result.addMessage("Quiz JSON content cannot be null or empty.", ResultType.INVALID);
+        }
+        if (!result.isSuccess()) {
+            return result;
+        }
+
+        List<Question> questions = new ArrayList<>(numberOfQuestions);
+        StringWriter normalized = new StringWriter(quizJson.length());
+
+        try (JsonParser parser = jsonFactory.createParser(quizJson);
+             JsonGenerator generator = jsonFactory.createGenerator(normalized)) {
+
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                result.addMessage("Quiz JSON must be an object.", ResultType.INVALID);
+                return result;
+            }
+
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("questions");
+
+            boolean foundQuestions = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+
+                if ("questions".equals(field) && value == JsonToken.START_ARRAY) {
+                    foundQuestions = true;
+                    readQuestions(parser, generator, questions, numberOfQuestions, numberOfOptions, result);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            generator.writeEndArray();
+            generator.writeEndObject();
+
+            if (!foundQuestions) {
+                result.addMessage("Quiz JSON has no 'questions' array.", ResultType.INVALID);
+            }
+        } catch (JsonProcessingException e) {
+            result.addMessage("Quiz JSON could not be parsed: " + e.getOriginalMessage(), ResultType.INVALID);
+        } catch (IOException e) {
+            result.addMessage("Quiz JSON could not be read.", ResultType.INVALID);
+        }
+
+        if (result.isSuccess() && questions.size() < numberOfQuestions) {
+            result.addMessage(String.format("Quiz JSON has %s questions, expected %s.",
+                    questions.size(), numberOfQuestions), ResultType.INVALID);
+        }
+
+        if (result.isSuccess()) {
+            result.setPayload(new MaterializedQuiz(normalized.toString(), questions));
+        }
+        return result;
+    }
+
+    private void readQuestions(JsonParser parser, JsonGenerator generator, List<Question> questions,
+                               int numberOfQuestions, int numberOfOptions, Result<MaterializedQuiz> result)
+            throws IOException {
+
+        // Reused for every question, only the final Option objects are allocated per row
+        List<String> options = new ArrayList<>(numberOfOptions * 2);
+
+        // Position in the array, so messages name the question the author sees even after skipped ones
+        int number = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            number++;
+            if (token != JsonToken.START_OBJECT || questions.size() >= numberOfQuestions) {
+                // Anything past numberOfQuestions, and anything that is not an object, is dropped
+                parser.skipChildren();
+                continue;
+            }
+
+            String questionText = null;
+            String correctAnswer = null;
+            options.clear();
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+
+                if ("question".equals(field) && value == JsonToken.VALUE_STRING) {
+                    questionText = parser.getText().trim();
+                } else if ("correct_answer".equals(field) && value == JsonToken.VALUE_STRING) {
+                    correctAnswer = parser.getText().trim();
+                } else if ("options".equals(field) && value == JsonToken.START_ARRAY) {
+                    while ((value = parser.nextToken()) != JsonToken.END_ARRAY) {
+                        if (value == JsonToken.VALUE_STRING) {
+                            addOption(options, parser.getText().trim());
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            if (questionText == null || questionText.isEmpty()) {
+                result.addMessage(String.format("Question %s has no question text.", number), ResultType.INVALID);
+                continue;
+            }
+            if (correctAnswer == null || correctAnswer.isEmpty()) {
+                result.addMessage(String.format("Question %s has no correct_answer.", number), ResultType.INVALID);
+                continue;
+            }
+
+            normalizeOptions(options, correctAnswer, number, numberOfOptions);
+            questions.add(toQuestion(questionText, options, correctAnswer));
+            writeQuestion(generator, questionText, options, correctAnswer);
+        }
+    }
+
+    private void normalizeOptions(List<String> options, String correctAnswer, int number, int numberOfOptions) {
+        // If correct_answer isn't in the options, force it in
+        if (!options.contains(correctAnswer)) {
+            options.add(0, correctAnswer);
+        }
+
+        // If more than N options, truncate
+        while (options.size() > numberOfOptions) {
+            options.remove(options.size() - 1);
+        }
+
+        // If fewer than N options, pad with dummy distractors
+        while (options.size() < numberOfOptions) {
+            char label = (char) ('A' + options.size());
+            options.add(String.format("Placeholder option %s for question %s", label, number));
+        }
+
+        // Truncating may have dropped the correct answer, force the first option to be correct
+        if (!options.contains(correctAnswer)) {
+            options.set(0, correctAnswer);
+        }
+    }
+
+    // Skips blanks and duplicates while preserving order
+    private void addOption(List<String> options, String option) {
+        if (!option.isEmpty() && !options.contains(option)) {
+            options.add(option);
+        }
+    }
+
+    private Question toQuestion(String questionText, List<String> options, String correctAnswer) {
+        Question question = new Question(0, 0, questionText);
+        List<Option> optionList = new ArrayList<>(options.size());
+        for (String option : options) {
+            optionList.add(new Option(0, 0, option, option.equals(correctAnswer)));
+        }
+        question.setOptionList(optionList);
+        return question;
+    }
+
+    private void writeQuestion(JsonGenerator generator, String questionText, List<String> options,
+                               String correctAnswer) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("question", questionText);
+        generator.writeArrayFieldStart("options");
+        for (String option : options) {
+            generator.writeString(option);
+        }
+        generator.writeEndArray();
+        generator.writeStringField("correct_answer", correctAnswer);
+        generator.writeEndObject();
+    }
+
+    public static class MaterializedQuiz {
+        private final String quizJson;
+        private final List<Question> questions;
+
+        public MaterializedQuiz(String quizJson, List<Question> questions) {
+            this.quizJson = quizJson;
+            this.questions = questions;
+        }
+
+        public String getQuizJson() {
+            return quizJson;
+        }
+
+        public List<Question> getQuestions() {
+            return questions;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package learn.quizgen.domain;
+
+import learn.quizgen.data.QuizPurgeRepository;
+import learn.quizgen.data.routing.TenantContext;
+import learn.quizgen.data.routing.TenantProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+// Deleting a quiz only hides it (quiz.deleted_at); this removes it and everything under it afterwards.
+// Rows go purge.chunk-size at a time, one autocommitted statement per chunk with purge.pause-millis
+// between chunks, so a quiz with a million results is deleted over a few minutes of short statements
+// instead of one cascade holding locks on result and quiz_result. Each shard gets at most
+// purge.max-chunks-per-run chunks per run; what is left continues next run.
+@Component
+public class QuizPurger {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizPurger.class);
+
+    private final QuizPurgeRepository quizPurgeRepository;
+    private final TenantProperties tenantProperties;
+    private final boolean enabled;
+    private final int chunkSize;
+    private final long pauseMillis;
+    private final int maxChunksPerRun;
+
+    public QuizPurger(QuizPurgeRepository quizPurgeRepository, TenantProperties tenantProperties,
+                      @Value("${purge.enabled:true}") boolean enabled,
+                      @Value("${purge.chunk-size:1000}") int chunkSize,
+                      @Value("${purge.pause-millis:50}") long pauseMillis,
+                      @Value("${purge.max-chunks-per-run:600}") int maxChunksPerRun) {
+        this.quizPurgeRepository = quizPurgeRepository;
+        this.tenantProperties = tenantProperties;
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+        this.pauseMillis = pauseMillis;
+        this.maxChunksPerRun = maxChunksPerRun;
+    }
+
+    @Scheduled(fixedDelayString = "${purge.interval-millis:30000}")
+    public void purge() {
+        if (!enabled) {
+            return;
+        }
+        for (Map.Entry<String, String> shard : tenantProperties.schoolPerShard().entrySet()) {
+            TenantContext.setSchool(shard.getValue());
+            try {
+                purgeShard();
+            } catch (DataAccessException e) {
+                log.warn("Could not purge deleted quizzes on shard {}, retrying next run: {}",
+                        shard.getKey(), e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                TenantContext.clear();
+            }
+        }
+    }
+
+    // Returns once the shard has no deleted quizzes left or this run's chunks are used up
+    int purgeShard() throws InterruptedException {
+        int chunks = 0;
+        List<Integer> deleted = quizPurgeRepository.findDeleted(10);
+        while (!deleted.isEmpty()) {
+            for (int quizId : deleted) {
+                long rows = 0;
+                int chunk;
+                while ((chunk = quizPurgeRepository.deleteDependents(quizId, chunkSize)) > 0) {
+                    rows += chunk;
+                    if (++chunks >= maxChunksPerRun) {
+                        log.info("Purged {} rows of deleted quiz {}, continuing next run", rows, quizId);
+                        return chunks;
+                    }
+                    Thread.sleep(pauseMillis);
+                }
+                quizPurgeRepository.deleteQuiz(quizId);
+                log.info("Purged deleted quiz {} ({} rows)", quizId, rows);
+            }
+            deleted = quizPurgeRepository.findDeleted(10);
+        }
+        return chunks;
+    }
+}
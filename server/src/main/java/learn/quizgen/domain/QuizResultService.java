@@ -2,6 +2,7 @@ package learn.quizgen.domain;
 
 import learn.quizgen.data.QuizResultRepository;
 import learn.quizgen.models.QuizResult;
+import learn.quizgen.profiling.events.QuizGradingEvent;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -16,8 +17,13 @@ public class QuizResultService {
     }
 
     public Result<List<QuizResult>> findAll() {
+        return findAll(false);
+    }
+
+    // includeArchived adds the results of past terms (see ResultArchiver)
+    public Result<List<QuizResult>> findAll(boolean includeArchived) {
         Result<List<QuizResult>> result = new Result<>();
-        List<QuizResult> quizResults = quizResultRepository.findAll();
+        List<QuizResult> quizResults = quizResultRepository.findAll(includeArchived);
 
         if (quizResults == null || quizResults.isEmpty()) {
             result.addMessage("No quiz results found.", ResultType.NOT_FOUND);
@@ -42,15 +48,28 @@ public class QuizResultService {
     }
 
     public Result<QuizResult> add(QuizResult quizResult) {
-        Result<QuizResult> result = validateQuizResult(quizResult);
-
-        if (!result.isSuccess()) {
+        QuizGradingEvent event = new QuizGradingEvent();
+        event.begin();
+        try {
+            Result<QuizResult> result = validateQuizResult(quizResult);
+
+            if (!result.isSuccess()) {
+                return result;
+            }
+
+            QuizResult createdQuizResult = quizResultRepository.add(quizResult);
+            result.setPayload(createdQuizResult);
+            event.accepted = true;
             return result;
+        } finally {
+            if (event.shouldCommit()) {
+                event.quizId = quizResult.getQuizId();
+                event.questions = quizResult.getTotalQuestions();
+                event.answers = quizResult.getOptionList() == null ? 0 : quizResult.getOptionList().size();
+                event.correctAnswers = quizResult.getCorrectAnswers();
+                event.commit();
+            }
         }
-
-        QuizResult createdQuizResult = quizResultRepository.add(quizResult);
-        result.setPayload(createdQuizResult);
-        return result;
     }
 
     public Result<QuizResult> update(QuizResult quizResult) {
@@ -1,16 +1,24 @@
 package learn.quizgen.domain;
 
 import learn.quizgen.data.AppUserRepository;
+import learn.quizgen.data.OptionRepository;
+import learn.quizgen.data.QuestionRepository;
 import learn.quizgen.data.QuizRepository;
 import learn.quizgen.models.AppUser;
 import learn.quizgen.data.TeacherRepository;
+import learn.quizgen.models.Option;
+import learn.quizgen.models.Question;
 import learn.quizgen.models.Quiz;
 import learn.quizgen.models.Teacher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 import javax.validation.ValidationException;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -18,16 +26,34 @@ public class QuizService {
     private final QuizRepository quizRepository;
     private final TeacherRepository teacherRepository;
     private final AppUserRepository appUserRepository;
+    private final QuestionRepository questionRepository;
+    private final OptionRepository optionRepository;
+    private final QuizJsonMaterializer materializer;
+    private final QuizCache quizCache;
+    private final CacheInvalidator cacheInvalidator;
 
     public QuizService(
             QuizRepository quizRepository,
             TeacherRepository teacherRepository,
-            AppUserRepository appUserRepository
+            AppUserRepository appUserRepository,
+            QuestionRepository questionRepository,
+            OptionRepository optionRepository,
+            QuizJsonMaterializer materializer,
+            QuizCache quizCache,
+            CacheInvalidator cacheInvalidator
     ) {
         this.quizRepository = quizRepository;
         this.teacherRepository = teacherRepository;
         this.appUserRepository = appUserRepository;
+        this.questionRepository = questionRepository;
+        this.optionRepository = optionRepository;
+        this.materializer = materializer;
+        this.quizCache = quizCache;
+        this.cacheInvalidator = cacheInvalidator;
     }
+
+    // The quiz row and its question/option rows are written together, so quiz_json can't drift from them
+    @Transactional
     public Result<Quiz> addQuiz(Quiz quiz) {
         Result<Quiz> result = new Result<>();
 
@@ -55,9 +81,20 @@ public class QuizService {
             // 🔹 4. Attach teacher_id to quiz before saving
             quiz.setTeacherId(teacher.getTeacherId());
 
-            // 🔹 5. Validate quiz & save
+            // 🔹 5. Validate quiz, normalize quiz_json into rows & save
             validateQuiz(quiz);
+            Result<QuizJsonMaterializer.MaterializedQuiz> materialized = materializer.materialize(
+                    quiz.getQuizJSON(), quiz.getNumberOfQuestions(), quiz.getNumberOfOptions());
+            if (!materialized.isSuccess()) {
+                for (String message : materialized.getMessages()) {
+                    result.addMessage(message, materialized.getType());
+                }
+                return result;
+            }
+
+            quiz.setQuizJSON(materialized.getPayload().getQuizJson());
             quiz = quizRepository.add(quiz);
+            addQuestionsAndOptions(quiz.getQuizId(), materialized.getPayload().getQuestions());
             result.setPayload(quiz);
 
         } catch (ValidationException e) {
@@ -68,7 +105,7 @@ public class QuizService {
     }
 
     public Result<Quiz> getQuizById(int id) {
-        Quiz quiz = quizRepository.findById(id);
+        Quiz quiz = quizCache.getQuiz(id, quizRepository::findById);
         Result<Quiz> result = new Result<>();
         if (quiz == null) {
             result.addMessage("Quiz not found", ResultType.NOT_FOUND);
@@ -82,23 +119,104 @@ public class QuizService {
         return quizRepository.findAll();
     }
 
+    // Like addQuiz, the new quiz_json and its question/option rows are written in one transaction
+    @Transactional
     public Result<Quiz> updateQuiz(Quiz quiz) {
         Result<Quiz> result = new Result<>();
         try {
             validateQuiz(quiz);
+            Result<QuizJsonMaterializer.MaterializedQuiz> materialized = materializer.materialize(
+                    quiz.getQuizJSON(), quiz.getNumberOfQuestions(), quiz.getNumberOfOptions());
+            if (!materialized.isSuccess()) {
+                for (String message : materialized.getMessages()) {
+                    result.addMessage(message, materialized.getType());
+                }
+                return result;
+            }
+
+            quiz.setQuizJSON(materialized.getPayload().getQuizJson());
             if (!quizRepository.update(quiz)) {
                 result.addMessage("Quiz not found", ResultType.NOT_FOUND);
             } else {
+                updateQuestionsAndOptions(quiz.getQuizId(), materialized.getPayload().getQuestions());
+                cacheInvalidator.quizChanged(quiz.getQuizId());
                 result.setPayload(quiz);
             }
         } catch (ValidationException e) {
             result.addMessage(e.getMessage(), ResultType.INVALID);
+        } catch (DataIntegrityViolationException e) {
+            // A dropped question or option still has legacy answers in result
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            result.addMessage("Questions and options that have been answered can't be removed.", ResultType.INVALID);
         }
         return result;
     }
 
+    @Transactional
     public boolean deleteQuizById(int id) {
-        return quizRepository.deleteById(id);
+        boolean deleted = quizRepository.deleteById(id);
+        if (deleted) {
+            cacheInvalidator.quizChanged(id);
+        }
+        return deleted;
+    }
+
+    private void addQuestionsAndOptions(int quizId, List<Question> questions) {
+        for (Question question : questions) {
+            question.setQuizId(quizId);
+        }
+        questionRepository.addAll(questions);
+
+        List<Option> options = new ArrayList<>();
+        for (Question question : questions) {
+            for (Option option : question.getOptionList()) {
+                option.setQuestionId(question.getQuestionId());
+                options.add(option);
+            }
+        }
+        optionRepository.addAll(options);
+    }
+
+    // Rows are matched to the new questions by position and updated in place, so the ids that
+    // attempt_answer and the answer index refer to survive an edit. Extra new ones are added, rows
+    // past the end of the new quiz are deleted.
+    private void updateQuestionsAndOptions(int quizId, List<Question> questions) {
+        List<Question> existing = questionRepository.findByQuizId(quizId);
+        List<Option> addedOptions = new ArrayList<>();
+        for (int i = 0; i < Math.min(existing.size(), questions.size()); i++) {
+            Question question = questions.get(i);
+            Question current = existing.get(i);
+            question.setQuestionId(current.getQuestionId());
+            question.setQuizId(quizId);
+            questionRepository.update(question);
+
+            List<Option> options = question.getOptionList();
+            List<Option> currentOptions = current.getOptionList();
+            for (int j = 0; j < options.size(); j++) {
+                Option option = options.get(j);
+                option.setQuestionId(current.getQuestionId());
+                if (j < currentOptions.size()) {
+                    option.setOptionId(currentOptions.get(j).getOptionId());
+                    optionRepository.update(option);
+                } else {
+                    addedOptions.add(option);
+                }
+            }
+            for (int j = options.size(); j < currentOptions.size(); j++) {
+                optionRepository.deleteById(currentOptions.get(j).getOptionId());
+            }
+        }
+        optionRepository.addAll(addedOptions);
+
+        for (int i = questions.size(); i < existing.size(); i++) {
+            for (Option option : existing.get(i).getOptionList()) {
+                optionRepository.deleteById(option.getOptionId());
+            }
+            questionRepository.deleteById(existing.get(i).getQuestionId());
+        }
+        if (questions.size() > existing.size()) {
+            addQuestionsAndOptions(quizId, questions.subList(existing.size(), questions.size()));
+        }
     }
 
     private void validateQuiz(Quiz quiz) {
@@ -111,5 +229,8 @@ public class QuizService {
         if (quiz.getQuizJSON() == null || quiz.getQuizJSON().isEmpty()) {
             throw new ValidationException("Quiz JSON content cannot be null or empty.");
         }
+        if (quiz.getTimeLimitSeconds() != null && quiz.getTimeLimitSeconds() <= 0) {
+            throw new ValidationException("Time limit must be positive, or left out for an untimed quiz.");
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,146 @@
+package learn.quizgen.domain;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import learn.quizgen.models.GeneratedQuestion;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+// Incremental parser for the {"questions": [ {...}, ... ]} document the AI streams back.
+// Text is fed as it arrives and every question object is handed to the consumer
+// as soon as its closing brace has been read.
+public class QuizStreamParser {
+
+    private static final int QUESTIONS_DEPTH = 2;
+
+    private final ObjectMapper objectMapper;
+    private final Consumer<GeneratedQuestion> onQuestion;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final ByteArrayOutputStream rawJson = new ByteArrayOutputStream();
+
+    private boolean started;
+    private boolean finished;
+    private boolean questionsField;
+    private boolean inQuestions;
+    private int depth;
+    private TokenBuffer current;
+    private int questionCount;
+    private int rootEnd = -1;
+
+    public QuizStreamParser(ObjectMapper objectMapper, Consumer<GeneratedQuestion> onQuestion) throws IOException {
+        this.objectMapper = objectMapper;
+        this.onQuestion = onQuestion;
+        this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    public void feed(String chunk) throws IOException {
+        if (finished || chunk == null || chunk.isEmpty()) {
+            return;
+        }
+
+        // Models sometimes wrap the JSON in a markdown fence, skip anything before the root object
+        if (!started) {
+            int start = chunk.indexOf('{');
+            if (start < 0) {
+                return;
+            }
+            chunk = chunk.substring(start);
+            started = true;
+        }
+
+        byte[] bytes = chunk.getBytes(StandardCharsets.UTF_8);
+        rawJson.write(bytes, 0, bytes.length);
+        feeder.feedInput(bytes, 0, bytes.length);
+        drain();
+    }
+
+    public void endOfInput() throws IOException {
+        if (!finished) {
+            feeder.endOfInput();
+            drain();
+        }
+    }
+
+    public int getQuestionCount() {
+        return questionCount;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    // The root object once it has closed (without the fences or text around it), before that
+    // everything fed since it started
+    public String getRawJson() {
+        byte[] bytes = rawJson.toByteArray();
+        return new String(bytes, 0, rootEnd < 0 ? bytes.length : rootEnd, StandardCharsets.UTF_8);
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while (!finished && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (current != null) {
+                current.copyCurrentEvent(parser);
+                if (token.isStructStart()) {
+                    depth++;
+                } else if (token.isStructEnd()) {
+                    depth--;
+                    if (depth == QUESTIONS_DEPTH) {
+                        emit();
+                    }
+                }
+                continue;
+            }
+
+            switch (token) {
+                case FIELD_NAME:
+                    questionsField = depth == 1 && "questions".equals(parser.getCurrentName());
+                    break;
+                case START_ARRAY:
+                    depth++;
+                    if (depth == QUESTIONS_DEPTH && questionsField) {
+                        inQuestions = true;
+                    }
+                    break;
+                case START_OBJECT:
+                    depth++;
+                    if (inQuestions && depth == QUESTIONS_DEPTH + 1) {
+                        current = new TokenBuffer(parser, null);
+                        current.copyCurrentEvent(parser);
+                    }
+                    break;
+                case END_ARRAY:
+                case END_OBJECT:
+                    depth--;
+                    if (depth < QUESTIONS_DEPTH) {
+                        inQuestions = false;
+                    }
+                    if (depth == 0) {
+                        finished = true;
+                        rootEnd = (int) parser.getCurrentLocation().getByteOffset();
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void emit() throws IOException {
+        try (JsonParser buffered = current.asParser(objectMapper)) {
+            GeneratedQuestion question = objectMapper.readValue(buffered, GeneratedQuestion.class);
+            questionCount++;
+            onQuestion.accept(question);
+        } finally {
+            current = null;
+        }
+    }
+}
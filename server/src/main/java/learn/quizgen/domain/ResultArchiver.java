@@ -0,0 +1,97 @@
+package learn.quizgen.domain;
+
+import learn.quizgen.data.ResultArchiveRepository;
+import learn.quizgen.data.routing.TenantContext;
+import learn.quizgen.data.routing.TenantProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+// Keeps quiz_result and result down to the current term. Nightly, results submitted before the
+// boundary (archive.term-boundary, a date such as 2026-08-01, or else archive.older-than-days ago)
+// move to quiz_result_archive and result_archive, archive.batch-size results per transaction with
+// archive.pause-millis between them. Reads only look at the archive when asked for archived results
+// (or for a quiz result id that is no longer in quiz_result).
+@Component
+public class ResultArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(ResultArchiver.class);
+
+    private final ResultArchiveRepository resultArchiveRepository;
+    private final TenantProperties tenantProperties;
+    private final boolean enabled;
+    private final String termBoundary;
+    private final int olderThanDays;
+    private final int batchSize;
+    private final long pauseMillis;
+
+    public ResultArchiver(ResultArchiveRepository resultArchiveRepository, TenantProperties tenantProperties,
+                          @Value("${archive.enabled:true}") boolean enabled,
+                          @Value("${archive.term-boundary:}") String termBoundary,
+                          @Value("${archive.older-than-days:365}") int olderThanDays,
+                          @Value("${archive.batch-size:500}") int batchSize,
+                          @Value("${archive.pause-millis:100}") long pauseMillis) {
+        this.resultArchiveRepository = resultArchiveRepository;
+        this.tenantProperties = tenantProperties;
+        this.enabled = enabled;
+        this.termBoundary = termBoundary;
+        this.olderThanDays = olderThanDays;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+    }
+
+    public Instant boundary() {
+        if (termBoundary != null && !termBoundary.isBlank()) {
+            return LocalDate.parse(termBoundary.trim()).atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+        return Instant.now().minus(Duration.ofDays(olderThanDays));
+    }
+
+    @Scheduled(cron = "${archive.cron:0 30 2 * * *}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        Instant before = boundary();
+        for (Map.Entry<String, String> shard : tenantProperties.schoolPerShard().entrySet()) {
+            TenantContext.setSchool(shard.getValue());
+            try {
+                long archived = archiveShard(before);
+                if (archived > 0) {
+                    log.info("Archived {} quiz results submitted before {} on shard {}", archived, before, shard.getKey());
+                }
+            } catch (DataAccessException e) {
+                log.warn("Could not archive results on shard {}, retrying next run: {}", shard.getKey(), e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                TenantContext.clear();
+            }
+        }
+    }
+
+    long archiveShard(Instant before) throws InterruptedException {
+        long archived = 0;
+        List<Integer> ids = resultArchiveRepository.findArchivable(before, batchSize);
+        while (!ids.isEmpty()) {
+            archived += resultArchiveRepository.archive(ids);
+            if (ids.size() < batchSize) {
+                break;
+            }
+            Thread.sleep(pauseMillis);
+            ids = resultArchiveRepository.findArchivable(before, batchSize);
+        }
+        return archived;
+    }
+}
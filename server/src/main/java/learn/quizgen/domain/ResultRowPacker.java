@@ -0,0 +1,94 @@
+package learn.quizgen.domain;
+
+import learn.quizgen.data.QuestionResultRepository;
+import learn.quizgen.data.routing.TenantContext;
+import learn.quizgen.data.routing.TenantProperties;
+import learn.quizgen.models.QuizResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Answers are written packed, one attempt_answer row per attempt (see PackedAnswersCodec). This converts
+// the one-row-per-answer result rows written before that, results.pack-batch-size students' quizzes per
+// transaction with results.pack-pause-millis between them. Rows that can't be told apart into attempts
+// stay (see QuestionResultRepository.packResultRows), so each run walks the students' quizzes from a
+// cursor instead of retrying the same ones, and starts over once it reaches the end. Once a shard's
+// result table is empty each run is a single query that finds nothing.
+@Component
+public class ResultRowPacker {
+
+    private static final Logger log = LoggerFactory.getLogger(ResultRowPacker.class);
+
+    private final QuestionResultRepository questionResultRepository;
+    private final TenantProperties tenantProperties;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final int maxBatchesPerRun;
+    // Shard -> last (user id, quiz id) looked at
+    private final Map<String, int[]> cursors = new ConcurrentHashMap<>();
+
+    public ResultRowPacker(QuestionResultRepository questionResultRepository, TenantProperties tenantProperties,
+                           @Value("${results.pack.enabled:true}") boolean enabled,
+                           @Value("${results.pack.batch-size:200}") int batchSize,
+                           @Value("${results.pack.pause-millis:50}") long pauseMillis,
+                           @Value("${results.pack.max-batches-per-run:300}") int maxBatchesPerRun) {
+        this.questionResultRepository = questionResultRepository;
+        this.tenantProperties = tenantProperties;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    @Scheduled(fixedDelayString = "${results.pack.interval-millis:600000}")
+    public void pack() {
+        if (!enabled) {
+            return;
+        }
+        for (Map.Entry<String, String> shard : tenantProperties.schoolPerShard().entrySet()) {
+            TenantContext.setSchool(shard.getValue());
+            try {
+                int packed = packShard(shard.getKey());
+                if (packed > 0) {
+                    log.info("Packed the answers of {} students' quizzes on shard {}", packed, shard.getKey());
+                }
+            } catch (DataAccessException e) {
+                log.warn("Could not pack result rows on shard {}, retrying next run: {}",
+                        shard.getKey(), e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                TenantContext.clear();
+            }
+        }
+    }
+
+    // Returns how many students' quizzes were packed, stopping at the end of the result table or when
+    // this run's batches are used up
+    int packShard(String shard) throws InterruptedException {
+        int packed = 0;
+        int[] cursor = cursors.getOrDefault(shard, new int[]{0, 0});
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<QuizResult> legacy = questionResultRepository.findLegacyAttempts(cursor[0], cursor[1], batchSize);
+            if (legacy.isEmpty()) {
+                cursor = new int[]{0, 0};
+                break;
+            }
+            packed += questionResultRepository.packResultRows(legacy);
+            QuizResult last = legacy.get(legacy.size() - 1);
+            cursor = new int[]{last.getUserId(), last.getQuizId()};
+            Thread.sleep(pauseMillis);
+        }
+        cursors.put(shard, cursor);
+        return packed;
+    }
+}
@@ -0,0 +1,150 @@
+package learn.quizgen.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Hierarchical timing wheel: 4 levels of 64 slots, each slot a doubly linked list. Level 0 slots are
+// one tick wide, level 1 slots 64 ticks, level 2 4096 and level 3 262144 ticks, so scheduling,
+// cancelling and each tick are O(1) however many deadlines are pending. A deadline sits in the
+// lowest level whose 64 slots reach it and moves down a level (cascades) when time reaches its
+// slot; deadlines past the top level wait in its farthest slot and are placed again from there.
+// Not tied to a clock: advance() is given the time and returns what expired up to it.
+public class TimingWheel<T> {
+
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final long tickMillis;
+    private final Timeout<T>[][] slots;
+    // The next tick advance() will process; every pending deadline is at or after it
+    private long tick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, long nowMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.tick = nowMillis / tickMillis;
+        this.slots = new Timeout[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                // Sentinel heads, so linking and unlinking never special-case an empty slot
+                Timeout<T> head = new Timeout<>(null, 0);
+                head.previous = head;
+                head.next = head;
+                slots[level][slot] = head;
+            }
+        }
+    }
+
+    // Never fires early: the deadline is rounded up to a whole tick. Past deadlines fire on the next advance().
+    public synchronized Timeout<T> schedule(T value, long deadlineMillis) {
+        long deadlineTick = deadlineMillis / tickMillis + (deadlineMillis % tickMillis == 0 ? 0 : 1);
+        Timeout<T> timeout = new Timeout<>(value, deadlineTick);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    // False when it had already fired or been cancelled
+    public synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout.next == null) {
+            return false;
+        }
+        unlink(timeout);
+        size--;
+        return true;
+    }
+
+    // Processes every tick up to nowMillis and returns the values whose deadline has passed, earliest first
+    public synchronized List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        long target = nowMillis / tickMillis;
+        while (tick <= target) {
+            if (size == 0) {
+                // Nothing to cascade or expire, skip the idle ticks in one step
+                tick = target + 1;
+                break;
+            }
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((tick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level, (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK));
+                }
+            }
+            Timeout<T> head = slots[0][(int) (tick & SLOT_MASK)];
+            while (head.next != head) {
+                Timeout<T> timeout = head.next;
+                unlink(timeout);
+                size--;
+                expired.add(timeout.value);
+            }
+            tick++;
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void cascade(int level, int slot) {
+        Timeout<T> head = slots[level][slot];
+        Timeout<T> timeout = head.next;
+        // Detach the whole list first: an overflowing deadline can be placed back into this level
+        head.next = head;
+        head.previous = head;
+        while (timeout != head) {
+            Timeout<T> next = timeout.next;
+            place(timeout);
+            timeout = next;
+        }
+    }
+
+    private void place(Timeout<T> timeout) {
+        long deadline = Math.max(timeout.deadlineTick, tick);
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = SLOT_BITS * level;
+            if ((deadline >>> shift) - (tick >>> shift) < SLOTS) {
+                link(slots[level][(int) ((deadline >>> shift) & SLOT_MASK)], timeout);
+                return;
+            }
+        }
+        // Beyond the top level: park in its farthest slot, placed again when that slot comes round
+        int shift = SLOT_BITS * (LEVELS - 1);
+        link(slots[LEVELS - 1][(int) (((tick >>> shift) + SLOT_MASK) & SLOT_MASK)], timeout);
+    }
+
+    private static <T> void link(Timeout<T> head, Timeout<T> timeout) {
+        timeout.previous = head.previous;
+        timeout.next = head;
+        head.previous.next = timeout;
+        head.previous = timeout;
+    }
+
+    private static <T> void unlink(Timeout<T> timeout) {
+        timeout.previous.next = timeout.next;
+        timeout.next.previous = timeout.previous;
+        timeout.previous = null;
+        timeout.next = null;
+    }
+
+    public static final class Timeout<T> {
+        private final T value;
+        private final long deadlineTick;
+        private Timeout<T> previous;
+        private Timeout<T> next;
+
+        private Timeout(T value, long deadlineTick) {
+            this.value = value;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package learn.quizgen.live;
+
+import learn.quizgen.security.JwtConverter;
+import learn.quizgen.security.TenantUser;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+// Browsers can't set an Authorization header on a WebSocket, so the JWT comes as ?token= along
+// with ?code= for the session. Only the teacher who started a session can drive it.
+@Component
+public class LiveHandshakeInterceptor implements HandshakeInterceptor {
+
+    static final String SESSION = "liveSession";
+    static final String USERNAME = "username";
+    static final String SCHOOL = "school";
+    static final String TEACHER = "teacher";
+
+    private final JwtConverter jwtConverter;
+    private final LiveSessionService liveSessionService;
+
+    public LiveHandshakeInterceptor(JwtConverter jwtConverter, LiveSessionService liveSessionService) {
+        this.jwtConverter = jwtConverter;
+        this.liveSessionService = liveSessionService;
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        Map<String, String> params = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().toSingleValueMap();
+        User user = jwtConverter.getUserFromToken("Bearer " + params.get("token"));
+        if (user == null) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+        LiveSession session = liveSessionService.find(params.get("code"));
+        String school = user instanceof TenantUser ? ((TenantUser) user).getSchool() : null;
+        if (session == null || session.isEnded() || (school != null && !school.equals(session.getSchool()))) {
+            response.setStatusCode(HttpStatus.NOT_FOUND);
+            return false;
+        }
+
+        attributes.put(SESSION, session);
+        attributes.put(USERNAME, user.getUsername());
+        attributes.put(SCHOOL, session.getSchool());
+        attributes.put(TEACHER, user.getUsername().equals(session.getTeacher()));
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+}
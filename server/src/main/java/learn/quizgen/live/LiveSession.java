@@ -0,0 +1,184 @@
+package learn.quizgen.live;
+
+import learn.quizgen.models.Option;
+import learn.quizgen.models.Question;
+import learn.quizgen.models.QuestionResult;
+import learn.quizgen.models.QuizResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// One teacher-paced run of a quiz. Answers only touch memory: a LongAdder per option (students
+// answering together don't contend on one counter) and each student's choices. Nothing is written
+// until the session ends, then results() and quizResults() are saved in one batch.
+public class LiveSession {
+
+    private final String code;
+    private final int quizId;
+    private final String teacher;
+    private final String school;
+    private final List<Question> questions;
+    private final LongAdder[][] tallies;
+    private final Map<String, Student> students = new ConcurrentHashMap<>();
+    // Set by every answer or join, cleared when the teacher's screen is sent the new counts
+    private final AtomicBoolean changed = new AtomicBoolean();
+    private volatile int current = -1;
+    private volatile boolean ended;
+
+    public LiveSession(String code, int quizId, String teacher, String school, List<Question> questions) {
+        this.code = code;
+        this.quizId = quizId;
+        this.teacher = teacher;
+        this.school = school;
+        this.questions = questions;
+        this.tallies = new LongAdder[questions.size()][];
+        for (int i = 0; i < questions.size(); i++) {
+            List<Option> options = questions.get(i).getOptionList();
+            tallies[i] = new LongAdder[options == null ? 0 : options.size()];
+            for (int j = 0; j < tallies[i].length; j++) {
+                tallies[i][j] = new LongAdder();
+            }
+        }
+    }
+
+    public void join(String username, int userId) {
+        if (students.putIfAbsent(username, new Student(userId, questions.size())) == null) {
+            changed.set(true);
+        }
+    }
+
+    // Only the current question can be answered; answering again moves the student's vote
+    public boolean answer(String username, int questionIndex, int optionIndex) {
+        Student student = students.get(username);
+        if (student == null || ended || questionIndex != current
+                || optionIndex < 0 || optionIndex >= tallies[questionIndex].length) {
+            return false;
+        }
+        int previous = student.choices.getAndSet(questionIndex, optionIndex + 1);
+        if (previous == optionIndex + 1) {
+            return true;
+        }
+        if (previous > 0) {
+            tallies[questionIndex][previous - 1].decrement();
+        }
+        tallies[questionIndex][optionIndex].increment();
+        changed.set(true);
+        return true;
+    }
+
+    // Moves to the next question, or returns -1 when there is none
+    public synchronized int advance() {
+        if (ended || current + 1 >= questions.size()) {
+            return -1;
+        }
+        current++;
+        changed.set(true);
+        return current;
+    }
+
+    public void end() {
+        ended = true;
+    }
+
+    public long[] tally(int questionIndex) {
+        long[] counts = new long[tallies[questionIndex].length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = tallies[questionIndex][i].sum();
+        }
+        return counts;
+    }
+
+    public boolean takeChanged() {
+        return changed.getAndSet(false);
+    }
+
+    // One result row per answered question
+    public List<QuestionResult> results() {
+        List<QuestionResult> results = new ArrayList<>();
+        for (Student student : students.values()) {
+            for (int i = 0; i < questions.size(); i++) {
+                Option chosen = chosen(student, i);
+                if (chosen != null) {
+                    results.add(new QuestionResult(0, student.userId, quizId,
+                            questions.get(i).getQuestionId(), chosen.getOptionId()));
+                }
+            }
+        }
+        return results;
+    }
+
+    // One graded quiz_result per student who answered anything
+    public List<QuizResult> quizResults() {
+        List<QuizResult> results = new ArrayList<>();
+        for (Student student : students.values()) {
+            int answered = 0;
+            int correct = 0;
+            for (int i = 0; i < questions.size(); i++) {
+                Option chosen = chosen(student, i);
+                if (chosen != null) {
+                    answered++;
+                    correct += chosen.isCorrect() ? 1 : 0;
+                }
+            }
+            if (answered > 0) {
+                float percent = Math.round(correct * 10000f / questions.size()) / 100f;
+                results.add(new QuizResult(0, student.userId, quizId, correct, questions.size(),
+                        percent, null, null, null));
+            }
+        }
+        return results;
+    }
+
+    private Option chosen(Student student, int questionIndex) {
+        int choice = student.choices.get(questionIndex);
+        return choice == 0 ? null : questions.get(questionIndex).getOptionList().get(choice - 1);
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public int getQuizId() {
+        return quizId;
+    }
+
+    public String getTeacher() {
+        return teacher;
+    }
+
+    public String getSchool() {
+        return school;
+    }
+
+    public List<Question> getQuestions() {
+        return questions;
+    }
+
+    public int getCurrent() {
+        return current;
+    }
+
+    public boolean isEnded() {
+        return ended;
+    }
+
+    public int getStudentCount() {
+        return students.size();
+    }
+
+    private static class Student {
+        private final int userId;
+        // Per question: 0 when unanswered, otherwise the chosen option's index + 1
+        private final AtomicIntegerArray choices;
+
+        Student(int userId, int questionCount) {
+            this.userId = userId;
+            this.choices = new AtomicIntegerArray(questionCount);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package learn.quizgen.live;
+
+import learn.quizgen.data.QuestionResultRepository;
+import learn.quizgen.domain.AnswerIndexService;
+import learn.quizgen.data.QuizResultRepository;
+import learn.quizgen.data.routing.TenantContext;
+import learn.quizgen.domain.QuestionService;
+import learn.quizgen.domain.QuizService;
+import learn.quizgen.domain.Result;
+import learn.quizgen.domain.ResultType;
+import learn.quizgen.models.Question;
+import learn.quizgen.models.QuestionResult;
+import learn.quizgen.models.QuizResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.SecureRandom;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class LiveSessionService {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveSessionService.class);
+    // No 0/O or 1/I, codes are read off the classroom screen
+    private static final String CODE_CHARACTERS = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
+    private static final int CODE_LENGTH = 6;
+
+    private final QuizService quizService;
+    private final QuestionService questionService;
+    private final QuestionResultRepository questionResultRepository;
+    private final AnswerIndexService answerIndexService;
+    private final QuizResultRepository quizResultRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxSessions;
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, LiveSession> sessions = new ConcurrentHashMap<>();
+
+    public LiveSessionService(QuizService quizService, QuestionService questionService,
+                              QuestionResultRepository questionResultRepository,
+                              AnswerIndexService answerIndexService,
+                              QuizResultRepository quizResultRepository,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${live.max-sessions:500}") int maxSessions) {
+        this.quizService = quizService;
+        this.questionService = questionService;
+        this.questionResultRepository = questionResultRepository;
+        this.answerIndexService = answerIndexService;
+        this.quizResultRepository = quizResultRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.maxSessions = maxSessions;
+    }
+
+    public Result<LiveSession> start(int quizId, String teacher) {
+        Result<LiveSession> result = new Result<>();
+        if (!quizService.getQuizById(quizId).isSuccess()) {
+            result.addMessage("Quiz not found", ResultType.NOT_FOUND);
+            return result;
+        }
+        List<Question> questions = questionService.getQuestionById(quizId);
+        if (questions.isEmpty()) {
+            result.addMessage("Quiz has no questions", ResultType.INVALID);
+            return result;
+        }
+        if (sessions.size() >= maxSessions) {
+            result.addMessage("Too many live sessions on this server, try again shortly", ResultType.ERROR);
+            return result;
+        }
+
+        LiveSession session;
+        do {
+            session = new LiveSession(newCode(), quizId, teacher, TenantContext.getSchool(), questions);
+        } while (sessions.putIfAbsent(session.getCode(), session) != null);
+        log.info("Live session {} started for quiz {} by {}", session.getCode(), quizId, teacher);
+        result.setPayload(session);
+        return result;
+    }
+
+    public LiveSession find(String code) {
+        return code == null ? null : sessions.get(code.toUpperCase());
+    }
+
+    public Collection<LiveSession> findAll() {
+        return sessions.values();
+    }
+
+    // Saves every answer and grade in one transaction on the session's school, then forgets the
+    // session. If saving fails the session stays (ended) so ending it again retries.
+    public Result<LiveSession> end(LiveSession session) {
+        Result<LiveSession> result = new Result<>();
+        synchronized (session) {
+            if (sessions.get(session.getCode()) != session) {
+                result.addMessage("Live session already ended", ResultType.INVALID);
+                return result;
+            }
+            session.end();
+
+            List<QuestionResult> answers = session.results();
+            List<QuizResult> grades = session.quizResults();
+            String previous = TenantContext.getSchool();
+            TenantContext.setSchool(session.getSchool());
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Map<Integer, Integer> attempts = questionResultRepository.addAttempts(session.getQuizId(), answers);
+                    for (QuizResult grade : grades) {
+                        grade.setAttempt(attempts.get(grade.getUserId()));
+                    }
+                    answerIndexService.record(session.getQuizId(), attempts);
+                    quizResultRepository.addAll(grades);
+                });
+                sessions.remove(session.getCode());
+                log.info("Live session {} ended: {} students graded, {} answers saved",
+                        session.getCode(), grades.size(), answers.size());
+                result.setPayload(session);
+            } catch (RuntimeException e) {
+                log.error("Could not save live session {}", session.getCode(), e);
+                result.addMessage("Could not save the session's results", ResultType.ERROR);
+            } finally {
+                TenantContext.setSchool(previous);
+            }
+        }
+        return result;
+    }
+
+    private String newCode() {
+        StringBuilder code = new StringBuilder(CODE_LENGTH);
+        for (int i = 0; i < CODE_LENGTH; i++) {
+            code.append(CODE_CHARACTERS.charAt(random.nextInt(CODE_CHARACTERS.length())));
+        }
+        return code.toString();
+    }
+}
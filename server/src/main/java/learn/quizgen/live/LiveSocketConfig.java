@@ -0,0 +1,26 @@
+package learn.quizgen.live;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+public class LiveSocketConfig implements WebSocketConfigurer {
+
+    private final LiveSocketHandler liveSocketHandler;
+    private final LiveHandshakeInterceptor liveHandshakeInterceptor;
+
+    public LiveSocketConfig(LiveSocketHandler liveSocketHandler, LiveHandshakeInterceptor liveHandshakeInterceptor) {
+        this.liveSocketHandler = liveSocketHandler;
+        this.liveHandshakeInterceptor = liveHandshakeInterceptor;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(liveSocketHandler, "/ws/live")
+                .addInterceptors(liveHandshakeInterceptor)
+                .setAllowedOrigins("https://quick-quiz-ecru.vercel.app");
+    }
+}
@@ -0,0 +1,290 @@
+package learn.quizgen.live;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import learn.quizgen.data.AppUserRepository;
+import learn.quizgen.data.routing.TenantContext;
+import learn.quizgen.domain.Result;
+import learn.quizgen.models.AppUser;
+import learn.quizgen.models.Option;
+import learn.quizgen.models.Question;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// /ws/live?code=<session>&token=<jwt>. The teacher sends {"type":"next"} and {"type":"end"};
+// students send {"type":"answer","question":<index>,"option":<index>} and get each question as it
+// is reached. Answers only bump counters; every live.tick-millis the teacher's screens get one
+// {"type":"tally"} per session that changed, however many answers came in since.
+// Every socket is wrapped in a ConcurrentWebSocketSessionDecorator, so a slow student is buffered
+// (and dropped past live.send-buffer-bytes) instead of holding up the broadcast to the class.
+@Component
+public class LiveSocketHandler extends TextWebSocketHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveSocketHandler.class);
+    private static final String OUT = "out";
+
+    private final LiveSessionService liveSessionService;
+    private final AppUserRepository appUserRepository;
+    private final ObjectMapper objectMapper;
+    private final int sendTimeLimitMillis;
+    private final int sendBufferBytes;
+    private final long abandonAfterNanos;
+    private final Map<String, Room> rooms = new ConcurrentHashMap<>();
+
+    public LiveSocketHandler(LiveSessionService liveSessionService, AppUserRepository appUserRepository,
+                             ObjectMapper objectMapper,
+                             @Value("${live.send-time-limit-millis:5000}") int sendTimeLimitMillis,
+                             @Value("${live.send-buffer-bytes:65536}") int sendBufferBytes,
+                             @Value("${live.abandon-after-minutes:30}") long abandonAfterMinutes) {
+        this.liveSessionService = liveSessionService;
+        this.appUserRepository = appUserRepository;
+        this.objectMapper = objectMapper;
+        this.sendTimeLimitMillis = sendTimeLimitMillis;
+        this.sendBufferBytes = sendBufferBytes;
+        this.abandonAfterNanos = TimeUnit.MINUTES.toNanos(abandonAfterMinutes);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession socket) throws IOException {
+        LiveSession session = (LiveSession) socket.getAttributes().get(LiveHandshakeInterceptor.SESSION);
+        String username = (String) socket.getAttributes().get(LiveHandshakeInterceptor.USERNAME);
+        WebSocketSession out = new ConcurrentWebSocketSessionDecorator(socket, sendTimeLimitMillis, sendBufferBytes);
+        socket.getAttributes().put(OUT, out);
+        Room room = rooms.computeIfAbsent(session.getCode(), code -> new Room());
+
+        if (isTeacher(socket)) {
+            room.teachers.add(out);
+            if (room.teacherQuestion != null) {
+                send(out, room.teacherQuestion);
+            }
+            sendTally(session, room);
+            return;
+        }
+
+        Optional<AppUser> user = findUser(username, session.getSchool());
+        if (user.isEmpty()) {
+            socket.close(CloseStatus.POLICY_VIOLATION);
+            return;
+        }
+        session.join(username, user.get().getAppUserId());
+        room.students.add(out);
+        if (room.studentQuestion != null) {
+            send(out, room.studentQuestion);
+        }
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession socket, TextMessage message) throws IOException {
+        LiveSession session = (LiveSession) socket.getAttributes().get(LiveHandshakeInterceptor.SESSION);
+        Room room = rooms.get(session.getCode());
+        if (room == null) {
+            return;
+        }
+        JsonNode command = objectMapper.readTree(message.getPayload());
+        String type = command.path("type").asText();
+
+        if (!isTeacher(socket)) {
+            // The hot path: one tally bump, nothing sent back unless it was rejected
+            String username = (String) socket.getAttributes().get(LiveHandshakeInterceptor.USERNAME);
+            if (!"answer".equals(type) || !session.answer(username,
+                    command.path("question").asInt(-1), command.path("option").asInt(-1))) {
+                send(out(socket), error("That answer was not accepted"));
+            }
+            return;
+        }
+
+        if ("next".equals(type)) {
+            next(session, room);
+        } else if ("end".equals(type)) {
+            end(session, room);
+        } else {
+            send(out(socket), error("Unknown command " + type));
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession socket, CloseStatus status) {
+        LiveSession session = (LiveSession) socket.getAttributes().get(LiveHandshakeInterceptor.SESSION);
+        WebSocketSession out = out(socket);
+        Room room = session == null ? null : rooms.get(session.getCode());
+        if (room != null && out != null) {
+            room.students.remove(out);
+            if (room.teachers.remove(out) && room.teachers.isEmpty()) {
+                room.teacherLeftAt = System.nanoTime();
+            }
+        }
+    }
+
+    // Batched tallies for the teachers, and ends sessions whose teacher never came back
+    @Scheduled(fixedDelayString = "${live.tick-millis:250}")
+    public void tick() {
+        long now = System.nanoTime();
+        for (LiveSession session : liveSessionService.findAll()) {
+            // Sessions nobody has connected to yet get a room too, so they are ended if abandoned
+            Room room = rooms.computeIfAbsent(session.getCode(), code -> new Room());
+            if (session.takeChanged()) {
+                sendTally(session, room);
+            }
+            if (room.teachers.isEmpty() && now - room.teacherLeftAt > abandonAfterNanos) {
+                log.info("Ending abandoned live session {}", session.getCode());
+                end(session, room);
+            }
+        }
+    }
+
+    private void next(LiveSession session, Room room) throws IOException {
+        int index = session.advance();
+        if (index < 0) {
+            broadcast(room.teachers, message("type", "last"));
+            return;
+        }
+        Question question = session.getQuestions().get(index);
+        List<String> options = new ArrayList<>();
+        int correct = -1;
+        for (int i = 0; i < question.getOptionList().size(); i++) {
+            Option option = question.getOptionList().get(i);
+            options.add(option.getOptionText());
+            if (option.isCorrect()) {
+                correct = i;
+            }
+        }
+
+        // Serialized once for the whole class; students never see which option is correct
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("type", "question");
+        payload.put("question", index);
+        payload.put("total", session.getQuestions().size());
+        payload.put("text", question.getQuestionText());
+        payload.put("options", options);
+        room.studentQuestion = new TextMessage(objectMapper.writeValueAsString(payload));
+        payload.put("correct", correct);
+        room.teacherQuestion = new TextMessage(objectMapper.writeValueAsString(payload));
+
+        broadcast(room.students, room.studentQuestion);
+        broadcast(room.teachers, room.teacherQuestion);
+    }
+
+    private void end(LiveSession session, Room room) {
+        Result<LiveSession> result = liveSessionService.end(session);
+        if (!result.isSuccess()) {
+            // Ending again retries the save; an abandoned session is retried after another wait
+            room.teacherLeftAt = System.nanoTime();
+            broadcast(room.teachers, error(String.join(", ", result.getMessages())));
+            return;
+        }
+        TextMessage ended = message("type", "ended");
+        broadcast(room.students, ended);
+        broadcast(room.teachers, ended);
+        rooms.remove(session.getCode());
+        closeAll(room.students);
+        closeAll(room.teachers);
+    }
+
+    private void sendTally(LiveSession session, Room room) {
+        int index = session.getCurrent();
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("type", "tally");
+        payload.put("question", index);
+        payload.put("students", session.getStudentCount());
+        if (index >= 0) {
+            long[] counts = session.tally(index);
+            long answered = 0;
+            for (long count : counts) {
+                answered += count;
+            }
+            payload.put("counts", counts);
+            payload.put("answered", answered);
+        }
+        try {
+            broadcast(room.teachers, new TextMessage(objectMapper.writeValueAsString(payload)));
+        } catch (IOException e) {
+            log.warn("Could not send tally for live session {}", session.getCode(), e);
+        }
+    }
+
+    private Optional<AppUser> findUser(String username, String school) {
+        TenantContext.setSchool(school);
+        try {
+            return appUserRepository.findByUsername(username);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    private void broadcast(Set<WebSocketSession> sockets, TextMessage message) {
+        for (WebSocketSession socket : sockets) {
+            send(socket, message);
+        }
+    }
+
+    private void send(WebSocketSession socket, TextMessage message) {
+        try {
+            if (socket.isOpen()) {
+                socket.sendMessage(message);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Over the decorator's time or buffer limit: the socket is closed and cleaned up on close
+            log.debug("Dropped live message to {}: {}", socket.getId(), e.getMessage());
+        }
+    }
+
+    private static void closeAll(Set<WebSocketSession> sockets) {
+        for (WebSocketSession socket : sockets) {
+            try {
+                socket.close(CloseStatus.NORMAL);
+            } catch (IOException e) {
+                log.debug("Could not close live socket {}", socket.getId());
+            }
+        }
+    }
+
+    private TextMessage error(String text) {
+        return message("type", "error", "message", text);
+    }
+
+    private TextMessage message(String... keysAndValues) {
+        Map<String, String> payload = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            payload.put(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        try {
+            return new TextMessage(objectMapper.writeValueAsString(payload));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isTeacher(WebSocketSession socket) {
+        return Boolean.TRUE.equals(socket.getAttributes().get(LiveHandshakeInterceptor.TEACHER));
+    }
+
+    private static WebSocketSession out(WebSocketSession socket) {
+        return (WebSocketSession) socket.getAttributes().get(OUT);
+    }
+
+    private static class Room {
+        private final Set<WebSocketSession> teachers = ConcurrentHashMap.newKeySet();
+        private final Set<WebSocketSession> students = ConcurrentHashMap.newKeySet();
+        private volatile TextMessage studentQuestion;
+        private volatile TextMessage teacherQuestion;
+        private volatile long teacherLeftAt = System.nanoTime();
+    }
+}
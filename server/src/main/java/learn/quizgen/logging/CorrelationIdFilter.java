@@ -0,0 +1,59 @@
+package learn.quizgen.logging;
+
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+// Gives every request an id, puts it in the MDC (so it lands on each JSON log line as requestId)
+// and echoes it as X-Request-Id. A caller's X-Request-Id is reused, then Cloud Run's trace id.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CorrelationIdFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Request-Id";
+    public static final String MDC_KEY = "requestId";
+
+    private static final String TRACE_HEADER = "X-Cloud-Trace-Context";
+    // Only ids that are safe to copy into logs and headers
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String requestId = requestId(request);
+        MDC.put(MDC_KEY, requestId);
+        response.setHeader(HEADER, requestId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    private static String requestId(HttpServletRequest request) {
+        String id = request.getHeader(HEADER);
+        if (id != null && VALID_ID.matcher(id).matches()) {
+            return id;
+        }
+        // "TRACE_ID/SPAN_ID;o=TRACE_TRUE"
+        String trace = request.getHeader(TRACE_HEADER);
+        if (trace != null) {
+            int slash = trace.indexOf('/');
+            String traceId = slash < 0 ? trace : trace.substring(0, slash);
+            if (VALID_ID.matcher(traceId).matches()) {
+                return traceId;
+            }
+        }
+        return UUID.randomUUID().toString();
+    }
+}
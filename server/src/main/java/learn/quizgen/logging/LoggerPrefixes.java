@@ -0,0 +1,31 @@
+package learn.quizgen.logging;
+
+final class LoggerPrefixes {
+
+    private LoggerPrefixes() {
+    }
+
+    static String[] parse(String loggers) {
+        if (loggers == null || loggers.trim().isEmpty()) {
+            return new String[0];
+        }
+        String[] prefixes = loggers.split(",");
+        for (int i = 0; i < prefixes.length; i++) {
+            prefixes[i] = prefixes[i].trim();
+        }
+        return prefixes;
+    }
+
+    // No prefixes means every logger
+    static boolean matches(String[] prefixes, String name) {
+        if (prefixes.length == 0) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
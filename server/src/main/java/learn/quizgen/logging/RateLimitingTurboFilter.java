@@ -0,0 +1,84 @@
+package learn.quizgen.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Caps each logger at eventsPerSecond (with bursts up to burst) so one noisy code path can't flood
+// the log pipeline. ERROR is never dropped. Configured in logback-spring.xml; loggers is a comma
+// separated list of name prefixes, empty for every logger.
+public class RateLimitingTurboFilter extends TurboFilter {
+
+    private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private LongSupplier nanoClock = System::nanoTime;
+    private String[] prefixes = new String[0];
+    private int eventsPerSecond = 20;
+    private int burst = 0;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // isXxxEnabled() checks (no format) and disabled levels stay as cheap as plain logback
+        if (format == null || level.levelInt >= Level.ERROR_INT || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        if (!LoggerPrefixes.matches(prefixes, logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+
+        int capacity = burst > 0 ? burst : eventsPerSecond;
+        Bucket bucket = buckets.computeIfAbsent(logger.getName(), name -> new Bucket(nanoClock.getAsLong(), capacity));
+        if (bucket.tryAcquire(nanoClock.getAsLong(), eventsPerSecond, capacity)) {
+            return FilterReply.NEUTRAL;
+        }
+        dropped.incrementAndGet();
+        return FilterReply.DENY;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public void setLoggers(String loggers) {
+        this.prefixes = LoggerPrefixes.parse(loggers);
+    }
+
+    public void setEventsPerSecond(int eventsPerSecond) {
+        this.eventsPerSecond = eventsPerSecond;
+    }
+
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    void setNanoClock(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    private static class Bucket {
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(long now, int capacity) {
+            this.tokens = capacity;
+            this.refilledAt = now;
+        }
+
+        synchronized boolean tryAcquire(long now, int perSecond, int capacity) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * perSecond / 1e9);
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens--;
+                return true;
+            }
+            return false;
+        }
+    }
+}
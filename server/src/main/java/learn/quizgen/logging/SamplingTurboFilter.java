@@ -0,0 +1,43 @@
+package learn.quizgen.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps 1 in rate DEBUG/INFO events from the hot-path loggers (WARN and above always pass).
+// Inside a request the choice is made per request id, so a sampled request keeps all of its lines
+// instead of a random subset of everyone's.
+public class SamplingTurboFilter extends TurboFilter {
+
+    private final AtomicLong counter = new AtomicLong();
+    private String[] prefixes = new String[0];
+    private int rate = 100;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (format == null || rate <= 1 || level.levelInt >= Level.WARN_INT
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        if (!LoggerPrefixes.matches(prefixes, logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+
+        String requestId = MDC.get(CorrelationIdFilter.MDC_KEY);
+        long draw = requestId != null ? requestId.hashCode() : counter.getAndIncrement();
+        return Math.floorMod(draw, rate) == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public void setLoggers(String loggers) {
+        this.prefixes = LoggerPrefixes.parse(loggers);
+    }
+
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+}
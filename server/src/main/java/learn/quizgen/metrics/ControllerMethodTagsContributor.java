@@ -0,0 +1,34 @@
+package learn.quizgen.metrics;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTagsContributor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+// Adds the controller class and method to http.server.requests, so the latency histogram can be
+// broken down per controller method and not only per URI pattern.
+@Component
+public class ControllerMethodTagsContributor implements WebMvcTagsContributor {
+
+    private static final Tags NO_HANDLER = Tags.of("controller", "none", "handler", "none");
+
+    @Override
+    public Iterable<Tag> getTags(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                 Throwable exception) {
+        if (handler instanceof HandlerMethod) {
+            HandlerMethod handlerMethod = (HandlerMethod) handler;
+            return Tags.of("controller", handlerMethod.getBeanType().getSimpleName(),
+                    "handler", handlerMethod.getMethod().getName());
+        }
+        return NO_HANDLER;
+    }
+
+    @Override
+    public Iterable<Tag> getLongRequestTags(HttpServletRequest request, Object handler) {
+        return Tags.empty();
+    }
+}
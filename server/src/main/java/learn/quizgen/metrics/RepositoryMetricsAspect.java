@@ -0,0 +1,73 @@
+package learn.quizgen.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import learn.quizgen.profiling.events.RepositoryCallEvent;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Times every public method of the JdbcTemplate repositories as repository.calls, tagged with the
+// repository class, the method (operation) and whether it threw. The same calls are recorded as
+// RepositoryCallEvents, with row counts, for JFR recordings.
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    public RepositoryMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * learn.quizgen.data.*RepositoryJdbcTemplate.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        event.begin();
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            Object result = joinPoint.proceed();
+            event.rows = rows(result);
+            return result;
+        } catch (Throwable t) {
+            outcome = "error";
+            event.failed = true;
+            throw t;
+        } finally {
+            if (event.shouldCommit()) {
+                event.repository = joinPoint.getSignature().getDeclaringType().getSimpleName();
+                event.operation = joinPoint.getSignature().getName();
+                event.commit();
+            }
+            Timer.builder("repository.calls")
+                    .description("Time spent in repository methods")
+                    .tag("repository", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("operation", joinPoint.getSignature().getName())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static int rows(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (result instanceof Boolean) {
+            return (Boolean) result ? 1 : 0;
+        }
+        if (result instanceof Integer) {
+            return (Integer) result;
+        }
+        return result == null ? 0 : 1;
+    }
+}
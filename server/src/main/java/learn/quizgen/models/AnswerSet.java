@@ -0,0 +1,49 @@
+package learn.quizgen.models;
+
+// The students of a quiz matching an answer query (see AnswerIndexService.query)
+public class AnswerSet {
+    private int quizId;
+    // Everyone who took the quiz
+    private int students;
+    private int matched;
+    private int[] userIds;
+
+    public AnswerSet(int quizId, int students, int[] userIds) {
+        this.quizId = quizId;
+        this.students = students;
+        this.matched = userIds.length;
+        this.userIds = userIds;
+    }
+
+    public int getQuizId() {
+        return quizId;
+    }
+
+    public void setQuizId(int quizId) {
+        this.quizId = quizId;
+    }
+
+    public int getStudents() {
+        return students;
+    }
+
+    public void setStudents(int students) {
+        this.students = students;
+    }
+
+    public int getMatched() {
+        return matched;
+    }
+
+    public void setMatched(int matched) {
+        this.matched = matched;
+    }
+
+    public int[] getUserIds() {
+        return userIds;
+    }
+
+    public void setUserIds(int[] userIds) {
+        this.userIds = userIds;
+    }
+}
@@ -0,0 +1,51 @@
+package learn.quizgen.models;
+
+public class ChangeLogEntry {
+    public static final String QUIZ = "quiz";
+    public static final String QUESTION = "question";
+    public static final String OPTION = "option";
+
+    private long changeId;
+    private String entity;
+    private int entityId;
+    private String school;
+
+    public ChangeLogEntry(long changeId, String entity, int entityId, String school) {
+        this.changeId = changeId;
+        this.entity = entity;
+        this.entityId = entityId;
+        this.school = school;
+    }
+
+    public long getChangeId() {
+        return changeId;
+    }
+
+    public void setChangeId(long changeId) {
+        this.changeId = changeId;
+    }
+
+    public String getEntity() {
+        return entity;
+    }
+
+    public void setEntity(String entity) {
+        this.entity = entity;
+    }
+
+    public int getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(int entityId) {
+        this.entityId = entityId;
+    }
+
+    public String getSchool() {
+        return school;
+    }
+
+    public void setSchool(String school) {
+        this.school = school;
+    }
+}
@@ -0,0 +1,50 @@
+package learn.quizgen.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One question object as it appears inside the AI generated quiz_json
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class GeneratedQuestion {
+    private String question;
+    private List<String> options = new ArrayList<>();
+
+    @JsonProperty("correct_answer")
+    private String correctAnswer;
+
+    public GeneratedQuestion() {
+    }
+
+    public GeneratedQuestion(String question, List<String> options, String correctAnswer) {
+        this.question = question;
+        this.options = options;
+        this.correctAnswer = correctAnswer;
+    }
+
+    public String getQuestion() {
+        return question;
+    }
+
+    public void setQuestion(String question) {
+        this.question = question;
+    }
+
+    public List<String> getOptions() {
+        return options;
+    }
+
+    public void setOptions(List<String> options) {
+        this.options = options;
+    }
+
+    public String getCorrectAnswer() {
+        return correctAnswer;
+    }
+
+    public void setCorrectAnswer(String correctAnswer) {
+        this.correctAnswer = correctAnswer;
+    }
+}
@@ -0,0 +1,126 @@
+package learn.quizgen.models;
+
+// One quiz_result row of a teacher's gradebook export, or with answers one row per answered question
+public class GradebookRow {
+    private int quizResultId;
+    private int quizId;
+    private String title;
+    private String topic;
+    private String username;
+    private int correctAnswers;
+    private int totalQuestions;
+    private float percentCorrect;
+    // Only set when the export includes answers
+    private Integer questionId;
+    private String questionText;
+    private String optionText;
+    private Boolean correct;
+
+    public GradebookRow(int quizResultId, int quizId, String title, String topic, String username,
+                        int correctAnswers, int totalQuestions, float percentCorrect) {
+        this.quizResultId = quizResultId;
+        this.quizId = quizId;
+        this.title = title;
+        this.topic = topic;
+        this.username = username;
+        this.correctAnswers = correctAnswers;
+        this.totalQuestions = totalQuestions;
+        this.percentCorrect = percentCorrect;
+    }
+
+    public int getQuizResultId() {
+        return quizResultId;
+    }
+
+    public void setQuizResultId(int quizResultId) {
+        this.quizResultId = quizResultId;
+    }
+
+    public int getQuizId() {
+        return quizId;
+    }
+
+    public void setQuizId(int quizId) {
+        this.quizId = quizId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public int getCorrectAnswers() {
+        return correctAnswers;
+    }
+
+    public void setCorrectAnswers(int correctAnswers) {
+        this.correctAnswers = correctAnswers;
+    }
+
+    public int getTotalQuestions() {
+        return totalQuestions;
+    }
+
+    public void setTotalQuestions(int totalQuestions) {
+        this.totalQuestions = totalQuestions;
+    }
+
+    public float getPercentCorrect() {
+        return percentCorrect;
+    }
+
+    public void setPercentCorrect(float percentCorrect) {
+        this.percentCorrect = percentCorrect;
+    }
+
+    public Integer getQuestionId() {
+        return questionId;
+    }
+
+    public void setQuestionId(Integer questionId) {
+        this.questionId = questionId;
+    }
+
+    public String getQuestionText() {
+        return questionText;
+    }
+
+    public void setQuestionText(String questionText) {
+        this.questionText = questionText;
+    }
+
+    public String getOptionText() {
+        return optionText;
+    }
+
+    public void setOptionText(String optionText) {
+        this.optionText = optionText;
+    }
+
+    public Boolean getCorrect() {
+        return correct;
+    }
+
+    public void setCorrect(Boolean correct) {
+        this.correct = correct;
+    }
+}
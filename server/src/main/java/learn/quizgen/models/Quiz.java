@@ -10,6 +10,8 @@ public class Quiz {
     private String topic;
     private String prompt;
     private String quizJSON;
+    // Null for untimed quizzes
+    private Integer timeLimitSeconds;
 
     private String teacherName;
 
@@ -108,4 +110,12 @@ public class Quiz {
     public void setTeacherName(String teacherName) {
         this.teacherName = teacherName;
     }
+
+    public Integer getTimeLimitSeconds() {
+        return timeLimitSeconds;
+    }
+
+    public void setTimeLimitSeconds(Integer timeLimitSeconds) {
+        this.timeLimitSeconds = timeLimitSeconds;
+    }
 }
@@ -0,0 +1,106 @@
+package learn.quizgen.models;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class QuizAttempt {
+    private int attemptId;
+    private int userId;
+    private int quizId;
+    private String school;
+    private Instant startedAt;
+    // Copied from the quiz when the attempt starts, null for untimed quizzes
+    private Integer timeLimitSeconds;
+    // Question id to chosen option id
+    private Map<Integer, Integer> answers = new LinkedHashMap<>();
+    private Instant submittedAt;
+
+    public QuizAttempt() {
+    }
+
+    public QuizAttempt(int attemptId, int userId, int quizId, String school, Instant startedAt,
+                       Integer timeLimitSeconds, Map<Integer, Integer> answers, Instant submittedAt) {
+        this.attemptId = attemptId;
+        this.userId = userId;
+        this.quizId = quizId;
+        this.school = school;
+        this.startedAt = startedAt;
+        this.timeLimitSeconds = timeLimitSeconds;
+        this.answers = answers;
+        this.submittedAt = submittedAt;
+    }
+
+    // Null when the attempt has no time limit
+    public Instant getDeadline() {
+        return timeLimitSeconds == null ? null : startedAt.plusSeconds(timeLimitSeconds);
+    }
+
+    public boolean isSubmitted() {
+        return submittedAt != null;
+    }
+
+    public int getAttemptId() {
+        return attemptId;
+    }
+
+    public void setAttemptId(int attemptId) {
+        this.attemptId = attemptId;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public int getQuizId() {
+        return quizId;
+    }
+
+    public void setQuizId(int quizId) {
+        this.quizId = quizId;
+    }
+
+    public String getSchool() {
+        return school;
+    }
+
+    public void setSchool(String school) {
+        this.school = school;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Integer getTimeLimitSeconds() {
+        return timeLimitSeconds;
+    }
+
+    public void setTimeLimitSeconds(Integer timeLimitSeconds) {
+        this.timeLimitSeconds = timeLimitSeconds;
+    }
+
+    public Map<Integer, Integer> getAnswers() {
+        return answers;
+    }
+
+    public void setAnswers(Map<Integer, Integer> answers) {
+        this.answers = answers;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(Instant submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+}
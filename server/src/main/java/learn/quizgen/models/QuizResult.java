@@ -10,6 +10,8 @@ public class QuizResult {
     private int correctAnswers;
     private int totalQuestions;
     private float score;
+    // The attempt_answer row with this result's answers (see QuestionResultRepository.addAttempts)
+    private Integer attempt;
     private List<Option> optionList = new ArrayList<>();
     private List<Question> questionList = new ArrayList<>();
 
@@ -77,6 +79,14 @@ public class QuizResult {
         this.score = score;
     }
 
+    public Integer getAttempt() {
+        return attempt;
+    }
+
+    public void setAttempt(Integer attempt) {
+        this.attempt = attempt;
+    }
+
     public List<Option> getOptionList() {
         return optionList;
     }
@@ -0,0 +1,64 @@
+package learn.quizgen.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One account of a class roster, as POST /api/admin/roster takes it (the fields of /api/user/register)
+public class RosterEntry {
+    private String firstName;
+    private String lastName;
+    private String username;
+    private String password;
+    private List<String> roles = new ArrayList<>();
+
+    public RosterEntry() {
+    }
+
+    public RosterEntry(String firstName, String lastName, String username, String password, List<String> roles) {
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.username = username;
+        this.password = password;
+        this.roles = roles;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    public void setRoles(List<String> roles) {
+        this.roles = roles == null ? new ArrayList<>() : roles;
+    }
+}
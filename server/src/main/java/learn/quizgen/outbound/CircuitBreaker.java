@@ -0,0 +1,174 @@
+package learn.quizgen.outbound;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Count based circuit breaker. The last windowSize calls are kept in a ring; once at least
+// minimumCalls have been recorded and either the failure rate or the slow call rate reaches its
+// threshold the breaker opens. After openDuration a few trial calls are let through (half open):
+// all of them succeeding closes the breaker again, any failure or slow call re-opens it.
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    public interface StateListener {
+        void onStateChange(State from, State to);
+    }
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int halfOpenCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final LongSupplier clock;
+    private final List<StateListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final byte[] outcomes;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSucceeded;
+
+    public CircuitBreaker(OutboundHttpProperties.CircuitBreaker properties) {
+        this(properties, System::nanoTime);
+    }
+
+    public CircuitBreaker(OutboundHttpProperties.CircuitBreaker properties, LongSupplier clock) {
+        this.windowSize = properties.getWindowSize();
+        this.minimumCalls = Math.min(properties.getMinimumCalls(), windowSize);
+        this.halfOpenCalls = properties.getHalfOpenCalls();
+        this.failureRateThreshold = properties.getFailureRateThreshold();
+        this.slowCallRateThreshold = properties.getSlowCallRateThreshold();
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(properties.getSlowCallMillis());
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(properties.getOpenMillis());
+        this.clock = clock;
+        this.outcomes = new byte[windowSize];
+    }
+
+    public void addListener(StateListener listener) {
+        listeners.add(listener);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openNanos) {
+                return false;
+            }
+            transition(State.HALF_OPEN);
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits >= halfOpenCalls) {
+                return false;
+            }
+            halfOpenPermits++;
+        }
+        return true;
+    }
+
+    // Gives back a permission that never turned into a recorded call (e.g. a cancelled hedge)
+    public synchronized void releasePermission() {
+        if (state == State.HALF_OPEN && halfOpenPermits > 0) {
+            halfOpenPermits--;
+        }
+    }
+
+    public synchronized void onSuccess(long durationNanos) {
+        record(false, durationNanos);
+    }
+
+    public synchronized void onError(long durationNanos) {
+        record(true, durationNanos);
+    }
+
+    private void record(boolean failed, long durationNanos) {
+        if (state == State.OPEN) {
+            // A late result from before the breaker opened
+            return;
+        }
+
+        boolean slow = durationNanos >= slowCallNanos;
+
+        if (state == State.HALF_OPEN) {
+            if (failed || slow) {
+                transition(State.OPEN);
+            } else if (++halfOpenSucceeded >= halfOpenCalls) {
+                transition(State.CLOSED);
+            }
+            return;
+        }
+
+        if (recorded == windowSize) {
+            byte evicted = outcomes[next];
+            if ((evicted & FAILED) != 0) {
+                failures--;
+            }
+            if ((evicted & SLOW) != 0) {
+                slowCalls--;
+            }
+        } else {
+            recorded++;
+        }
+
+        byte outcome = (byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0));
+        outcomes[next] = outcome;
+        next = (next + 1) % windowSize;
+        if (failed) {
+            failures++;
+        }
+        if (slow) {
+            slowCalls++;
+        }
+
+        if (recorded >= minimumCalls) {
+            double failureRate = failures * 100.0 / recorded;
+            double slowCallRate = slowCalls * 100.0 / recorded;
+            if (failureRate >= failureRateThreshold || slowCallRate >= slowCallRateThreshold) {
+                transition(State.OPEN);
+            }
+        }
+    }
+
+    private void transition(State to) {
+        State from = state;
+        state = to;
+
+        if (to == State.OPEN) {
+            openedAt = clock.getAsLong();
+        }
+        if (to == State.HALF_OPEN) {
+            halfOpenPermits = 0;
+            halfOpenSucceeded = 0;
+        }
+        if (to == State.CLOSED) {
+            next = 0;
+            recorded = 0;
+            failures = 0;
+            slowCalls = 0;
+        }
+
+        for (StateListener listener : listeners) {
+            listener.onStateChange(from, to);
+        }
+    }
+}
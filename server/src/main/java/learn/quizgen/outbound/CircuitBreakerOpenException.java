@@ -0,0 +1,8 @@
+package learn.quizgen.outbound;
+
+public class CircuitBreakerOpenException extends OutboundCallException {
+
+    public CircuitBreakerOpenException(String operation) {
+        super(String.format("Circuit breaker is open, %s was not attempted.", operation));
+    }
+}
@@ -0,0 +1,8 @@
+package learn.quizgen.outbound;
+
+public class DeadlineExceededException extends OutboundCallException {
+
+    public DeadlineExceededException(String operation, long deadlineMillis) {
+        super(String.format("%s did not finish within %s ms.", operation, deadlineMillis));
+    }
+}
@@ -0,0 +1,12 @@
+package learn.quizgen.outbound;
+
+public class OutboundCallException extends RuntimeException {
+
+    public OutboundCallException(String message) {
+        super(message);
+    }
+
+    public OutboundCallException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
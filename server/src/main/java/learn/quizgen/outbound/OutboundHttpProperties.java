@@ -0,0 +1,190 @@
+package learn.quizgen.outbound;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+// Settings for calls this server makes to other services (the LLM API), bound from outbound.http.*
+@Component
+@ConfigurationProperties(prefix = "outbound.http")
+public class OutboundHttpProperties {
+
+    private int maxConnections = 50;
+    private int maxConnectionsPerRoute = 20;
+    private int connectTimeoutMillis = 2000;
+    private int readTimeoutMillis = 60000;
+    private int connectionRequestTimeoutMillis = 1000;
+    private int keepAliveMillis = 30000;
+    private int idleEvictMillis = 60000;
+    private int deadlineMillis = 90000;
+    private int maxConcurrentCalls = 32;
+
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private final Hedging hedging = new Hedging();
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    }
+
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    public int getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    public void setReadTimeoutMillis(int readTimeoutMillis) {
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    public int getConnectionRequestTimeoutMillis() {
+        return connectionRequestTimeoutMillis;
+    }
+
+    public void setConnectionRequestTimeoutMillis(int connectionRequestTimeoutMillis) {
+        this.connectionRequestTimeoutMillis = connectionRequestTimeoutMillis;
+    }
+
+    public int getKeepAliveMillis() {
+        return keepAliveMillis;
+    }
+
+    public void setKeepAliveMillis(int keepAliveMillis) {
+        this.keepAliveMillis = keepAliveMillis;
+    }
+
+    public int getIdleEvictMillis() {
+        return idleEvictMillis;
+    }
+
+    public void setIdleEvictMillis(int idleEvictMillis) {
+        this.idleEvictMillis = idleEvictMillis;
+    }
+
+    public int getDeadlineMillis() {
+        return deadlineMillis;
+    }
+
+    public void setDeadlineMillis(int deadlineMillis) {
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public Hedging getHedging() {
+        return hedging;
+    }
+
+    public static class CircuitBreaker {
+        private int windowSize = 20;
+        private int minimumCalls = 10;
+        private int halfOpenCalls = 2;
+        private double failureRateThreshold = 50;
+        private double slowCallRateThreshold = 80;
+        private int slowCallMillis = 30000;
+        private int openMillis = 30000;
+
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        public void setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+
+        public int getHalfOpenCalls() {
+            return halfOpenCalls;
+        }
+
+        public void setHalfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+        }
+
+        public double getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(double failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public double getSlowCallRateThreshold() {
+            return slowCallRateThreshold;
+        }
+
+        public void setSlowCallRateThreshold(double slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+        }
+
+        public int getSlowCallMillis() {
+            return slowCallMillis;
+        }
+
+        public void setSlowCallMillis(int slowCallMillis) {
+            this.slowCallMillis = slowCallMillis;
+        }
+
+        public int getOpenMillis() {
+            return openMillis;
+        }
+
+        public void setOpenMillis(int openMillis) {
+            this.openMillis = openMillis;
+        }
+    }
+
+    public static class Hedging {
+        private boolean enabled = false;
+        private int delayMillis = 20000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getDelayMillis() {
+            return delayMillis;
+        }
+
+        public void setDelayMillis(int delayMillis) {
+            this.delayMillis = delayMillis;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package learn.quizgen.outbound;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Outbound HTTP for slow third party APIs. Calls share a pooled keep-alive connection manager and
+// run on a bounded pool, so a stuck upstream can tie up at most maxConcurrentCalls threads instead
+// of every request worker. Each call gets a deadline, goes through the circuit breaker and can
+// optionally be hedged: if no answer arrives within the hedge delay a second attempt is raced
+// against the first. Breaker state, transitions, outcomes and pool usage are published as metrics.
+@Component
+public class ResilientHttpClient {
+
+    private final OutboundHttpProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final RestTemplate restTemplate;
+    private final CircuitBreaker circuitBreaker;
+    private final ThreadPoolExecutor executor;
+    private final Counter hedges;
+
+    @Autowired
+    public ResilientHttpClient(OutboundHttpProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this(properties, meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    public ResilientHttpClient(OutboundHttpProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+
+        connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(properties.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxConnectionsPerRoute());
+        connectionManager.setValidateAfterInactivity(2000);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(properties.getConnectTimeoutMillis())
+                .setSocketTimeout(properties.getReadTimeoutMillis())
+                .setConnectionRequestTimeout(properties.getConnectionRequestTimeoutMillis())
+                .build();
+
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy(properties.getKeepAliveMillis()))
+                .evictExpiredConnections()
+                .evictIdleConnections(properties.getIdleEvictMillis(), TimeUnit.MILLISECONDS)
+                .disableAutomaticRetries()
+                .build();
+
+        restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(0, properties.getMaxConcurrentCalls(), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "outbound-http-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        circuitBreaker = new CircuitBreaker(properties.getCircuitBreaker());
+        circuitBreaker.addListener((from, to) -> meterRegistry.counter("outbound.circuit.transitions",
+                "from", from.name(), "to", to.name()).increment());
+
+        Gauge.builder("outbound.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("0 = closed, 1 = half open, 2 = open")
+                .register(meterRegistry);
+        Gauge.builder("outbound.http.pool.leased", connectionManager, cm -> cm.getTotalStats().getLeased())
+                .register(meterRegistry);
+        Gauge.builder("outbound.http.pool.available", connectionManager, cm -> cm.getTotalStats().getAvailable())
+                .register(meterRegistry);
+        Gauge.builder("outbound.http.pool.pending", connectionManager, cm -> cm.getTotalStats().getPending())
+                .register(meterRegistry);
+        Gauge.builder("outbound.http.calls.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        hedges = meterRegistry.counter("outbound.http.hedges");
+    }
+
+    // Pooled, timeout configured RestTemplate to use inside execute/executeStreaming
+    public RestTemplate getRestTemplate() {
+        return restTemplate;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public <T> T execute(String operation, Callable<T> call) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = executeWithDeadline(operation, call, start);
+            outcome = "success";
+            return result;
+        } catch (CircuitBreakerOpenException e) {
+            outcome = "rejected";
+            throw e;
+        } catch (DeadlineExceededException e) {
+            outcome = "deadline";
+            throw e;
+        } finally {
+            Timer.builder("outbound.http.calls")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // For long lived streaming responses: goes through the circuit breaker but runs on the calling
+    // thread without an overall deadline, the socket read timeout still bounds every silent gap.
+    public <T> T executeStreaming(String operation, Callable<T> call) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            meterRegistry.counter("outbound.http.calls.streaming", "operation", operation, "outcome", "rejected")
+                    .increment();
+            throw new CircuitBreakerOpenException(operation);
+        }
+
+        try {
+            T result = call.call();
+            // Generation time says nothing about upstream health, so streams never count as slow
+            circuitBreaker.onSuccess(0);
+            meterRegistry.counter("outbound.http.calls.streaming", "operation", operation, "outcome", "success")
+                    .increment();
+            return result;
+        } catch (Exception e) {
+            if (!isUpstreamError(e)) {
+                // e.g. the consumer's browser went away mid-stream
+                circuitBreaker.releasePermission();
+            } else if (isFailure(e)) {
+                circuitBreaker.onError(0);
+            } else {
+                circuitBreaker.onSuccess(0);
+            }
+            meterRegistry.counter("outbound.http.calls.streaming", "operation", operation, "outcome", "error")
+                    .increment();
+            throw propagate(operation, e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        executor.shutdownNow();
+        httpClient.close();
+    }
+
+    private <T> T executeWithDeadline(String operation, Callable<T> call, long start) {
+        long deadlineNanos = start + TimeUnit.MILLISECONDS.toNanos(properties.getDeadlineMillis());
+        long hedgeAtNanos = start + TimeUnit.MILLISECONDS.toNanos(properties.getHedging().getDelayMillis());
+        boolean hedgeAllowed = properties.getHedging().isEnabled();
+
+        CompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        List<Attempt<T>> attempts = new ArrayList<>(2);
+        submit(operation, call, completion, attempts);
+
+        Exception lastError = null;
+        int pending = 1;
+        try {
+            while (pending > 0) {
+                long now = System.nanoTime();
+                if (now >= deadlineNanos) {
+                    for (Attempt<T> attempt : attempts) {
+                        attempt.record(true, now - attempt.startNanos);
+                    }
+                    throw new DeadlineExceededException(operation, properties.getDeadlineMillis());
+                }
+
+                long waitUntil = hedgeAllowed ? Math.min(deadlineNanos, hedgeAtNanos) : deadlineNanos;
+                Future<T> done = completion.poll(Math.max(0, waitUntil - now), TimeUnit.NANOSECONDS);
+
+                if (done == null) {
+                    if (hedgeAllowed && System.nanoTime() >= hedgeAtNanos) {
+                        hedgeAllowed = false;
+                        if (circuitBreaker.tryAcquirePermission()) {
+                            hedges.increment();
+                            submit(operation, call, completion, attempts);
+                            pending++;
+                        }
+                    }
+                    continue;
+                }
+
+                pending--;
+                try {
+                    return done.get();
+                } catch (ExecutionException e) {
+                    lastError = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+            throw propagate(operation, lastError);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OutboundCallException(operation + " was interrupted.", e);
+        } finally {
+            // Losing or abandoned attempts don't get to report an outcome
+            for (Attempt<T> attempt : attempts) {
+                if (attempt.abandon()) {
+                    circuitBreaker.releasePermission();
+                }
+                attempt.future.cancel(true);
+            }
+        }
+    }
+
+    private <T> void submit(String operation, Callable<T> call, CompletionService<T> completion,
+                            List<Attempt<T>> attempts) {
+        if (attempts.isEmpty() && !circuitBreaker.tryAcquirePermission()) {
+            throw new CircuitBreakerOpenException(operation);
+        }
+
+        Attempt<T> attempt = new Attempt<>(call);
+        try {
+            attempt.future = completion.submit(attempt);
+            attempts.add(attempt);
+        } catch (RejectedExecutionException e) {
+            circuitBreaker.releasePermission();
+            meterRegistry.counter("outbound.http.calls.saturated", "operation", operation).increment();
+            if (attempts.isEmpty()) {
+                throw new OutboundCallException("Too many outbound calls in flight, " + operation + " was not attempted.", e);
+            }
+        }
+    }
+
+    private RuntimeException propagate(String operation, Exception e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        return new OutboundCallException(operation + " failed.", e);
+    }
+
+    // Only what the RestTemplate raises says anything about the upstream: I/O errors talking to it
+    // (ResourceAccessException) and its error answers. Other exceptions come from the call's own code.
+    private static boolean isUpstreamError(Exception e) {
+        return e instanceof RestClientException;
+    }
+
+    // 4xx answers are the caller's mistake, not a sign the upstream is unhealthy (except rate limiting)
+    private static boolean isFailure(Exception e) {
+        if (e instanceof HttpClientErrorException) {
+            return ((HttpClientErrorException) e).getStatusCode() == HttpStatus.TOO_MANY_REQUESTS;
+        }
+        return true;
+    }
+
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(long maxKeepAliveMillis) {
+        return (response, context) -> {
+            long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return keepAlive > 0 ? Math.min(keepAlive, maxKeepAliveMillis) : maxKeepAliveMillis;
+        };
+    }
+
+    private class Attempt<T> implements Callable<T> {
+        private final Callable<T> call;
+        private final AtomicBoolean recorded = new AtomicBoolean();
+        private final long startNanos = System.nanoTime();
+        private Future<T> future;
+
+        Attempt(Callable<T> call) {
+            this.call = call;
+        }
+
+        @Override
+        public T call() throws Exception {
+            try {
+                T result = call.call();
+                record(false, System.nanoTime() - startNanos);
+                return result;
+            } catch (Exception e) {
+                if (isUpstreamError(e)) {
+                    record(isFailure(e), System.nanoTime() - startNanos);
+                } else if (abandon()) {
+                    circuitBreaker.releasePermission();
+                }
+                throw e;
+            }
+        }
+
+        void record(boolean failed, long durationNanos) {
+            if (recorded.compareAndSet(false, true)) {
+                if (failed) {
+                    circuitBreaker.onError(durationNanos);
+                } else {
+                    circuitBreaker.onSuccess(durationNanos);
+                }
+            }
+        }
+
+        // True when this attempt had not reported yet, i.e. its permission is still held
+        boolean abandon() {
+            return recorded.compareAndSet(false, true);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package learn.quizgen.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import learn.quizgen.domain.Result;
+import learn.quizgen.domain.ResultType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// Runs one Flight Recorder recording at a time inside this JVM, so a live instance can be profiled
+// without a restart or an attached agent. Dumps go to profiling.jfr.directory and can be opened in
+// JDK Mission Control; the quickquiz.* events (see profiling.events) sit next to GC, JIT and I/O.
+@Service
+public class JfrRecordingService {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path directory;
+    private final Duration maxAge;
+    private final long maxSizeBytes;
+    private Recording recording;
+
+    public JfrRecordingService(@Value("${profiling.jfr.directory:${java.io.tmpdir}/quick-quiz-jfr}") String directory,
+                               @Value("${profiling.jfr.max-age-minutes:30}") long maxAgeMinutes,
+                               @Value("${profiling.jfr.max-size-mb:250}") long maxSizeMb) {
+        this.directory = Paths.get(directory);
+        this.maxAge = Duration.ofMinutes(maxAgeMinutes);
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+    }
+
+    // settings is a JDK configuration name: "default" (about 1% overhead) or "profile" (more detail)
+    public synchronized Result<JfrRecordingStatus> start(String settings) {
+        Result<JfrRecordingStatus> result = new Result<>();
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            result.addMessage("A recording is already running.", ResultType.INVALID);
+            return result;
+        }
+
+        try {
+            Recording started = new Recording(Configuration.getConfiguration(settings));
+            started.setName("quick-quiz-" + LocalDateTime.now().format(FILE_TIMESTAMP));
+            started.setToDisk(true);
+            started.setMaxAge(maxAge);
+            started.setMaxSize(maxSizeBytes);
+            started.start();
+            close();
+            recording = started;
+            result.setPayload(status(null));
+        } catch (IOException | ParseException e) {
+            result.addMessage("Unknown recording settings: " + settings, ResultType.INVALID);
+        }
+        return result;
+    }
+
+    public synchronized Result<JfrRecordingStatus> dump() {
+        Result<JfrRecordingStatus> result = requireRecording();
+        if (result.isSuccess()) {
+            write(result);
+        }
+        return result;
+    }
+
+    public synchronized Result<JfrRecordingStatus> stop() {
+        Result<JfrRecordingStatus> result = requireRecording();
+        if (!result.isSuccess()) {
+            return result;
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        write(result);
+        return result;
+    }
+
+    public synchronized JfrRecordingStatus status() {
+        return status(null);
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private Result<JfrRecordingStatus> requireRecording() {
+        Result<JfrRecordingStatus> result = new Result<>();
+        if (recording == null) {
+            result.addMessage("No recording has been started.", ResultType.NOT_FOUND);
+        }
+        return result;
+    }
+
+    private void write(Result<JfrRecordingStatus> result) {
+        Path file = directory.resolve(recording.getName() + "-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".jfr");
+        try {
+            Files.createDirectories(directory);
+            recording.dump(file);
+            result.setPayload(status(file));
+        } catch (IOException e) {
+            result.addMessage("Could not write the recording: " + e.getMessage(), ResultType.ERROR);
+        }
+    }
+
+    private JfrRecordingStatus status(Path file) {
+        if (recording == null) {
+            return new JfrRecordingStatus(null, RecordingState.CLOSED.name(), null, null, 0);
+        }
+        long size = 0;
+        if (file != null) {
+            try {
+                size = Files.size(file);
+            } catch (IOException ignored) {
+                // The dump is there, its size is only informational
+            }
+        }
+        return new JfrRecordingStatus(recording.getName(), recording.getState().name(),
+                recording.getStartTime() == null ? null : recording.getStartTime().toString(),
+                file == null ? null : file.toAbsolutePath().toString(), size);
+    }
+}
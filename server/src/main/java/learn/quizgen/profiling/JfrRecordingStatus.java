@@ -0,0 +1,38 @@
+package learn.quizgen.profiling;
+
+public class JfrRecordingStatus {
+
+    private final String name;
+    private final String state;
+    private final String startTime;
+    private final String file;
+    private final long fileSizeBytes;
+
+    public JfrRecordingStatus(String name, String state, String startTime, String file, long fileSizeBytes) {
+        this.name = name;
+        this.state = state;
+        this.startTime = startTime;
+        this.file = file;
+        this.fileSizeBytes = fileSizeBytes;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public String getStartTime() {
+        return startTime;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public long getFileSizeBytes() {
+        return fileSizeBytes;
+    }
+}
@@ -0,0 +1,167 @@
+package learn.quizgen.profiling;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+// Hands out connections whose statements report every execution to the current QueryProfile and
+// log the ones slower than sql.profiler.slow-query-millis, with how many values were bound.
+// Statements run outside a request (startup, scheduled jobs) are only checked for slowness.
+public class ProfilingDataSource extends DelegatingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfilingDataSource.class);
+
+    private final SqlProfilerProperties properties;
+
+    public ProfilingDataSource(DataSource target, SqlProfilerProperties properties) {
+        super(target);
+        this.properties = properties;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return profiled(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return profiled(super.getConnection(username, password));
+    }
+
+    private Connection profiled(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    private void executed(String sql, int binds, int batchSize, long elapsedNanos) {
+        QueryProfile profile = QueryProfile.current();
+        if (profile != null) {
+            profile.record(sql, elapsedNanos);
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        if (millis >= properties.getSlowQueryMillis()) {
+            log.warn("Slow query ({} ms, {} binds{}) on {}: {}", millis, binds,
+                    batchSize > 0 ? ", batch of " + batchSize : "",
+                    profile == null ? "no request" : profile.getEndpoint(), QueryProfile.shapeOf(sql));
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "unwrap":
+                    return ((Class<?>) args[0]).isInstance(proxy) ? proxy : target.unwrap((Class<?>) args[0]);
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(proxy) || target.isWrapperFor((Class<?>) args[0]);
+                default:
+                    break;
+            }
+
+            Object result = ProfilingDataSource.invoke(target, method, args);
+            if (result instanceof Statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+                        : result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                return Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(), new Class<?>[]{type},
+                        new StatementHandler((Statement) result, sql, proxy));
+            }
+            return result;
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final String preparedSql;
+        private final Object connection;
+        private String batchSql;
+        private int binds;
+        private int batchSize;
+
+        StatementHandler(Statement target, String preparedSql, Object connection) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getConnection":
+                    // Keep callers on the profiled connection
+                    return connection;
+                case "addBatch":
+                    batchSize++;
+                    if (args != null && batchSql == null) {
+                        batchSql = (String) args[0];
+                    }
+                    return ProfilingDataSource.invoke(target, method, args);
+                case "clearParameters":
+                    binds = 0;
+                    return ProfilingDataSource.invoke(target, method, args);
+                default:
+                    break;
+            }
+
+            if (name.startsWith("set") && method.getDeclaringClass() != Statement.class) {
+                binds++;
+                return ProfilingDataSource.invoke(target, method, args);
+            }
+            if (!name.startsWith("execute")) {
+                return ProfilingDataSource.invoke(target, method, args);
+            }
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0]
+                    : preparedSql != null ? preparedSql : batchSql;
+            boolean batch = name.endsWith("Batch");
+            long start = System.nanoTime();
+            try {
+                return ProfilingDataSource.invoke(target, method, args);
+            } finally {
+                executed(sql == null ? "?" : sql, binds, batch ? batchSize : 0, System.nanoTime() - start);
+                binds = 0;
+                if (batch) {
+                    batchSize = 0;
+                    batchSql = null;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package learn.quizgen.profiling;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+// Wraps the application's DataSource in a ProfilingDataSource once it is configured, so the
+// JdbcTemplate and everything else built on it goes through the profiler.
+@Component
+public class ProfilingDataSourcePostProcessor implements BeanPostProcessor {
+
+    // Resolved lazily: post processors are created before ordinary beans can be injected
+    private final ObjectProvider<SqlProfilerProperties> properties;
+
+    public ProfilingDataSourcePostProcessor(ObjectProvider<SqlProfilerProperties> properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource && !(bean instanceof ProfilingDataSource)) {
+            SqlProfilerProperties settings = properties.getObject();
+            if (settings.isEnabled()) {
+                return new ProfilingDataSource((DataSource) bean, settings);
+            }
+        }
+        return bean;
+    }
+}
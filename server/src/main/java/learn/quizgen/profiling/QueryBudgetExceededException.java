@@ -0,0 +1,8 @@
+package learn.quizgen.profiling;
+
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
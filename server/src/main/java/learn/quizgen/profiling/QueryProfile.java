@@ -0,0 +1,83 @@
+package learn.quizgen.profiling;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// The statements one request ran: how many, how long they took and how often each shape (the SQL
+// with literals and IN lists folded) came up. Bound to the request thread by QueryProfilingFilter.
+public class QueryProfile {
+
+    private static final ThreadLocal<QueryProfile> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+
+    private final Map<String, Integer> shapes = new LinkedHashMap<>();
+    private String endpoint;
+    private int statements;
+    private long nanos;
+
+    public QueryProfile(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public static QueryProfile begin(String endpoint) {
+        QueryProfile profile = new QueryProfile(endpoint);
+        CURRENT.set(profile);
+        return profile;
+    }
+
+    public static QueryProfile current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    public static String shapeOf(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        return PLACEHOLDER_LIST.matcher(shape).replaceAll("?, ...");
+    }
+
+    public void record(String sql, long elapsedNanos) {
+        statements++;
+        nanos += elapsedNanos;
+        shapes.merge(shapeOf(sql), 1, Integer::sum);
+    }
+
+    // Shapes run at least threshold times, most frequent first
+    public Map<String, Integer> repeatedShapes(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        shapes.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .sorted((a, b) -> b.getValue() - a.getValue())
+                .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+        return repeated;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public double getMillis() {
+        return nanos / 1_000_000.0;
+    }
+}
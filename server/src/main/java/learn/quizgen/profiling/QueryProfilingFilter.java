@@ -0,0 +1,133 @@
+package learn.quizgen.profiling;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+
+// Opens a QueryProfile for each request and, when it finishes, warns about statement shapes that
+// repeated (likely N+1 loops) and checks the endpoint's query budget. With sql.profiler.headers
+// the count and total database time go out as X-Query-Count and X-DB-Time (milliseconds). Enforced
+// budgets are checked just before the response commits, so an endpoint over budget fails with an
+// error status instead of a 200 whose body was already sent.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class QueryProfilingFilter extends OncePerRequestFilter {
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String DB_TIME_HEADER = "X-DB-Time";
+
+    private static final Logger log = LoggerFactory.getLogger(QueryProfilingFilter.class);
+
+    private final SqlProfilerProperties properties;
+
+    public QueryProfilingFilter(SqlProfilerProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryProfile profile = QueryProfile.begin(request.getMethod() + " " + request.getRequestURI());
+        boolean wrap = properties.isHeaders() || properties.isEnforceBudgets();
+        BeforeCommitResponse wrapped = new BeforeCommitResponse(response, () -> beforeCommit(request, response, profile));
+        try {
+            chain.doFilter(request, wrap ? wrapped : response);
+            if (wrap && !response.isCommitted()) {
+                wrapped.runBeforeCommit();
+            }
+        } finally {
+            QueryProfile.end();
+        }
+
+        profile.setEndpoint(endpoint(request));
+        report(profile, !properties.isEnforceBudgets());
+    }
+
+    void report(QueryProfile profile) {
+        report(profile, true);
+    }
+
+    // The budget was already checked before the commit when it's enforced
+    private void report(QueryProfile profile, boolean checkBudget) {
+        for (Map.Entry<String, Integer> shape : profile.repeatedShapes(properties.getRepeatThreshold()).entrySet()) {
+            log.warn("Possible N+1 on {}: {} x {}", profile.getEndpoint(), shape.getValue(), shape.getKey());
+        }
+        if (checkBudget) {
+            checkBudget(profile);
+        }
+    }
+
+    private void beforeCommit(HttpServletRequest request, HttpServletResponse response, QueryProfile profile) {
+        if (properties.isHeaders()) {
+            response.setHeader(QUERY_COUNT_HEADER, String.valueOf(profile.getStatements()));
+            response.setHeader(DB_TIME_HEADER, String.format(Locale.ROOT, "%.1f", profile.getMillis()));
+        }
+        if (properties.isEnforceBudgets()) {
+            profile.setEndpoint(endpoint(request));
+            checkBudget(profile);
+        }
+    }
+
+    private void checkBudget(QueryProfile profile) {
+        int budget = properties.budgetFor(profile.getEndpoint());
+        if (budget > 0 && profile.getStatements() > budget) {
+            String message = String.format(Locale.ROOT, "%s ran %d statements (%.1f ms), its query budget is %d",
+                    profile.getEndpoint(), profile.getStatements(), profile.getMillis(), budget);
+            if (properties.isEnforceBudgets()) {
+                throw new QueryBudgetExceededException(message);
+            }
+            log.warn(message);
+        }
+    }
+
+    // "GET /api/questions/{id}" once Spring MVC has matched a handler, the raw URI otherwise
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+
+    // Headers and the budget check have to happen before the body commits the response: on the first
+    // flush or full buffer for responses that stream, after the chain for everything else. A budget
+    // exception thrown from here propagates out of the write, before anything reached the client.
+    private static class BeforeCommitResponse extends OnCommittedResponseWrapper {
+
+        private final Runnable hook;
+        private boolean ran;
+
+        BeforeCommitResponse(HttpServletResponse response, Runnable hook) {
+            super(response);
+            this.hook = hook;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            runBeforeCommit();
+        }
+
+        void runBeforeCommit() {
+            if (ran) {
+                return;
+            }
+            ran = true;
+            hook.run();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package learn.quizgen.profiling;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Settings for the per-request SQL profiler, bound from sql.profiler.*
+@Component
+@ConfigurationProperties(prefix = "sql.profiler")
+public class SqlProfilerProperties {
+
+    private boolean enabled = true;
+    // Adds X-Query-Count and X-DB-Time to every response
+    private boolean headers = false;
+    private long slowQueryMillis = 200;
+    // The same statement shape this many times in one request is logged as a possible N+1
+    private int repeatThreshold = 5;
+    // Statements allowed per request when an endpoint has no budget of its own, 0 for no limit
+    private int defaultBudget = 0;
+    // Keyed by "<METHOD> <pattern>", e.g. sql.profiler.budgets.[GET /api/questions/{id}]=2
+    private final Map<String, Integer> budgets = new LinkedHashMap<>();
+    // Throw instead of logging when a budget is exceeded (turned on for tests)
+    private boolean enforceBudgets = false;
+
+    public int budgetFor(String endpoint) {
+        return budgets.getOrDefault(endpoint, defaultBudget);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isHeaders() {
+        return headers;
+    }
+
+    public void setHeaders(boolean headers) {
+        this.headers = headers;
+    }
+
+    public long getSlowQueryMillis() {
+        return slowQueryMillis;
+    }
+
+    public void setSlowQueryMillis(long slowQueryMillis) {
+        this.slowQueryMillis = slowQueryMillis;
+    }
+
+    public int getRepeatThreshold() {
+        return repeatThreshold;
+    }
+
+    public void setRepeatThreshold(int repeatThreshold) {
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    public int getDefaultBudget() {
+        return defaultBudget;
+    }
+
+    public void setDefaultBudget(int defaultBudget) {
+        this.defaultBudget = defaultBudget;
+    }
+
+    public Map<String, Integer> getBudgets() {
+        return budgets;
+    }
+
+    public boolean isEnforceBudgets() {
+        return enforceBudgets;
+    }
+
+    public void setEnforceBudgets(boolean enforceBudgets) {
+        this.enforceBudgets = enforceBudgets;
+    }
+}
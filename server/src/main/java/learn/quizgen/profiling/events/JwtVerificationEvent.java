@@ -0,0 +1,19 @@
+package learn.quizgen.profiling.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("quickquiz.JwtVerification")
+@Label("JWT Verification")
+@Description("Parsing and checking the bearer token of a request")
+@Category({"Quick Quiz", "Security"})
+public class JwtVerificationEvent extends jdk.jfr.Event {
+
+    @Label("Valid")
+    public boolean valid;
+
+    @Label("Authorities")
+    public int authorities;
+}
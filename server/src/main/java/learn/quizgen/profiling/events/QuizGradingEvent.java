@@ -0,0 +1,28 @@
+package learn.quizgen.profiling.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("quickquiz.QuizGrading")
+@Label("Quiz Grading")
+@Description("Checking and saving a submitted quiz result")
+@Category({"Quick Quiz", "Quizzes"})
+public class QuizGradingEvent extends jdk.jfr.Event {
+
+    @Label("Quiz ID")
+    public int quizId;
+
+    @Label("Questions")
+    public int questions;
+
+    @Label("Answers")
+    public int answers;
+
+    @Label("Correct Answers")
+    public int correctAnswers;
+
+    @Label("Accepted")
+    public boolean accepted;
+}
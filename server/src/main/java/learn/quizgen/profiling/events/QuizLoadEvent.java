@@ -0,0 +1,22 @@
+package learn.quizgen.profiling.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("quickquiz.QuizLoad")
+@Label("Quiz Load")
+@Description("Loading a quiz's questions and options for a student to take")
+@Category({"Quick Quiz", "Quizzes"})
+public class QuizLoadEvent extends jdk.jfr.Event {
+
+    @Label("Quiz ID")
+    public int quizId;
+
+    @Label("Questions")
+    public int questions;
+
+    @Label("Options")
+    public int options;
+}
@@ -0,0 +1,26 @@
+package learn.quizgen.profiling.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("quickquiz.RepositoryCall")
+@Label("Repository Call")
+@Description("A call into one of the JdbcTemplate repositories")
+@Category({"Quick Quiz", "Database"})
+public class RepositoryCallEvent extends jdk.jfr.Event {
+
+    @Label("Repository")
+    public String repository;
+
+    @Label("Operation")
+    public String operation;
+
+    // Rows returned by lookups (0 or 1 for single rows), 1 or 0 for updates that report success
+    @Label("Rows")
+    public int rows;
+
+    @Label("Failed")
+    public boolean failed;
+}
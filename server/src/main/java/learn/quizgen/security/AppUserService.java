@@ -12,10 +12,14 @@ import org.springframework.transaction.annotation.Transactional;
 import javax.validation.ValidationException;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class AppUserService implements UserDetailsService {
 
+    // Admin accounts are seeded in the database, never self-registered
+    private static final Set<String> SELF_REGISTER_ROLES = Set.of("Student", "Teacher");
+
     private final AppUserRepository repository;
     private final PasswordEncoder encoder;
 
@@ -39,6 +43,16 @@ public class AppUserService implements UserDetailsService {
             throw new ValidationException("Username is required");
         }
 
+        if (roles == null || roles.isEmpty()) {
+            throw new ValidationException("A role is required");
+        }
+
+        for (String role : roles) {
+            if (!SELF_REGISTER_ROLES.contains(role)) {
+                throw new ValidationException("Accounts can only be registered as Student or Teacher");
+            }
+        }
+
         password = encoder.encode(password);
 
         AppUser appUser = new AppUser(0, firstName, lastName, username, password, false, roles);
@@ -2,6 +2,12 @@ package learn.quizgen.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import learn.quizgen.data.routing.TenantContext;
+import learn.quizgen.profiling.events.JwtVerificationEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
@@ -16,10 +22,17 @@ import java.util.stream.Collectors;
 @Component
 public class JwtConverter {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtConverter.class);
+
     private Key key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
     private final String ISSUER = "quick-quiz";
     private final int EXPIRATION_MINUTES = 1440;
     private final int EXPIRATION_MILLISECONDS = EXPIRATION_MINUTES * 60 * 1000;
+    private final MeterRegistry meterRegistry;
+
+    public JwtConverter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
 
     public String getTokenFromUser(User user) {
 
@@ -31,6 +44,8 @@ public class JwtConverter {
                 .setIssuer(ISSUER)
                 .setSubject(user.getUsername())
                 .claim("authorities", authorities)
+                // The school signed in to; every later request works on that school's database
+                .claim("school", TenantContext.getSchool())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_MILLISECONDS))
                 .signWith(key)
                 .compact();
@@ -42,6 +57,11 @@ public class JwtConverter {
             return null;
         }
 
+        // Runs on every authenticated request, timed as jwt.validation{outcome=valid|invalid}
+        Timer.Sample sample = Timer.start(meterRegistry);
+        JwtVerificationEvent event = new JwtVerificationEvent();
+        event.begin();
+        String outcome = "invalid";
         try {
             Jws<Claims> jws = Jwts.parserBuilder()
                     .requireIssuer(ISSUER)
@@ -51,14 +71,21 @@ public class JwtConverter {
 
             String username = jws.getBody().getSubject();
             String authStr = (String) jws.getBody().get("authorities");
+            String school = jws.getBody().get("school", String.class);
             List<GrantedAuthority> authorities = Arrays.stream(authStr.split(","))
                     .map(i -> new SimpleGrantedAuthority(i))
                     .collect(Collectors.toList());
 
-            return new User(username, username, authorities);
+            outcome = "valid";
+            event.valid = true;
+            event.authorities = authorities.size();
+            return new TenantUser(username, authorities, school == null ? TenantContext.DEFAULT_SCHOOL : school);
 
         } catch (JwtException e) {
-            System.out.println(e);
+            log.debug("Rejected JWT: {}", e.getMessage());
+        } finally {
+            sample.stop(meterRegistry.timer("jwt.validation", "outcome", outcome));
+            event.commit();
         }
 
         return null;
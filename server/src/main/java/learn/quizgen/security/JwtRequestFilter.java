@@ -1,5 +1,6 @@
 package learn.quizgen.security;
 
+import learn.quizgen.data.routing.TenantContext;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -27,7 +28,9 @@ public class JwtRequestFilter extends BasicAuthenticationFilter {
                                     FilterChain chain) throws IOException, ServletException {
 
         String authorization = request.getHeader("Authorization");
-        if (authorization != null && authorization.startsWith("Bearer ")) {
+        // Already signed in by the scrape token, which isn't a JWT
+        boolean authenticated = SecurityContextHolder.getContext().getAuthentication() != null;
+        if (!authenticated && authorization != null && authorization.startsWith("Bearer ")) {
 
             User user = converter.getUserFromToken(authorization);
             if (user == null) {
@@ -38,6 +41,9 @@ public class JwtRequestFilter extends BasicAuthenticationFilter {
                         user.getUsername(), null, user.getAuthorities());
 
                 SecurityContextHolder.getContext().setAuthentication(token);
+                if (user instanceof TenantUser) {
+                    TenantContext.setSchool(((TenantUser) user).getSchool());
+                }
             }
         }
 
@@ -0,0 +1,32 @@
+package learn.quizgen.security;
+
+import learn.quizgen.data.RoleRepository;
+import learn.quizgen.data.routing.TenantContext;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Role name to role_id for each school, read once: roles are seeded with the schema and never change
+// at runtime. A name that isn't known rereads the table before it is refused.
+@Component
+public class RoleCatalog {
+
+    private final RoleRepository roleRepository;
+    private final Map<String, Map<String, Integer>> rolesPerSchool = new ConcurrentHashMap<>();
+
+    public RoleCatalog(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    public Map<String, Integer> roleIds(Collection<String> required) {
+        String school = TenantContext.getSchool();
+        Map<String, Integer> roles = rolesPerSchool.computeIfAbsent(school, key -> Map.copyOf(roleRepository.findAll()));
+        if (!roles.keySet().containsAll(required)) {
+            roles = Map.copyOf(roleRepository.findAll());
+            rolesPerSchool.put(school, roles);
+        }
+        return roles;
+    }
+}
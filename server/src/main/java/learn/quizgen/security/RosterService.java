@@ -0,0 +1,156 @@
+package learn.quizgen.security;
+
+import learn.quizgen.data.AppUserRepository;
+import learn.quizgen.data.TeacherRepository;
+import learn.quizgen.domain.Result;
+import learn.quizgen.domain.ResultType;
+import learn.quizgen.models.AppUser;
+import learn.quizgen.models.RosterEntry;
+import learn.quizgen.models.Teacher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+// Registers a whole class roster at once. Everything is checked before anything is written, so a
+// roster either loads completely or not at all. BCrypt is the slow part (tens of milliseconds per
+// password by design), so passwords are hashed on a pool of roster.hash-threads, kept below the core
+// count so logins keep a core; the rows then go in as multi-row batches in one transaction, with role
+// ids from RoleCatalog instead of a lookup per role per user.
+@Service
+public class RosterService {
+
+    private final AppUserRepository appUserRepository;
+    private final TeacherRepository teacherRepository;
+    private final RoleCatalog roleCatalog;
+    private final PasswordEncoder encoder;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxUsers;
+    private final ForkJoinPool hashPool;
+
+    public RosterService(AppUserRepository appUserRepository, TeacherRepository teacherRepository,
+                         RoleCatalog roleCatalog, PasswordEncoder encoder, TransactionTemplate transactionTemplate,
+                         @Value("${roster.max-users:5000}") int maxUsers,
+                         @Value("${roster.hash-threads:0}") int hashThreads) {
+        this.appUserRepository = appUserRepository;
+        this.teacherRepository = teacherRepository;
+        this.roleCatalog = roleCatalog;
+        this.encoder = encoder;
+        this.transactionTemplate = transactionTemplate;
+        this.maxUsers = maxUsers;
+        this.hashPool = new ForkJoinPool(hashThreads > 0
+                ? hashThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    // Messages name the row (from 1)
+    public Result<List<AppUser>> register(List<RosterEntry> users) {
+        Result<List<AppUser>> result = new Result<>();
+        if (users == null || users.isEmpty()) {
+            result.addMessage("The roster is empty.", ResultType.INVALID);
+            return result;
+        }
+        if (users.size() > maxUsers) {
+            result.addMessage("A roster can have at most " + maxUsers + " users.", ResultType.INVALID);
+            return result;
+        }
+
+        Set<String> roles = new HashSet<>();
+        users.forEach(user -> roles.addAll(user.getRoles()));
+        Map<String, Integer> roleIds = roleCatalog.roleIds(roles);
+
+        validate(users, roleIds, result);
+        if (!result.isSuccess()) {
+            return result;
+        }
+
+        List<AppUser> hashed;
+        try {
+            hashed = hashPool.submit(() -> users.parallelStream()
+                    .map(user -> new AppUser(0, user.getFirstName(), user.getLastName(), user.getUsername(),
+                            encoder.encode(user.getPassword()), false, user.getRoles()))
+                    .collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing passwords", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not hash passwords", e.getCause());
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                appUserRepository.addAll(hashed, roleIds);
+                List<Teacher> teachers = new ArrayList<>();
+                for (AppUser user : hashed) {
+                    if (user.getRoles().contains("Teacher")) {
+                        teachers.add(new Teacher(0, user.getAppUserId()));
+                    }
+                }
+                teacherRepository.addAll(teachers);
+            });
+        } catch (DuplicateKeyException e) {
+            // Registered by someone else between the check and the insert; the batch rolled back
+            List<String> taken = appUserRepository.findExistingUsernames(
+                    users.stream().map(RosterEntry::getUsername).collect(Collectors.toList()));
+            if (taken.isEmpty()) {
+                result.addMessage("A username in the roster already exists", ResultType.INVALID);
+            }
+            for (String username : taken) {
+                result.addMessage(username + " already exists", ResultType.INVALID);
+            }
+            return result;
+        }
+        result.setPayload(hashed);
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashPool.shutdownNow();
+    }
+
+    private void validate(List<RosterEntry> users, Map<String, Integer> roleIds, Result<?> result) {
+        Set<String> usernames = new HashSet<>();
+        for (int i = 0; i < users.size(); i++) {
+            RosterEntry user = users.get(i);
+            String row = "Row " + (i + 1) + ": ";
+            if (user.getUsername() == null || user.getUsername().isBlank()) {
+                result.addMessage(row + "username is required", ResultType.INVALID);
+            } else if (user.getUsername().length() > 50) {
+                result.addMessage(row + "username must be at most 50 characters", ResultType.INVALID);
+            } else if (!usernames.add(user.getUsername())) {
+                result.addMessage(row + user.getUsername() + " is in the roster twice", ResultType.INVALID);
+            }
+            if (user.getPassword() == null || user.getPassword().isEmpty()) {
+                result.addMessage(row + "password is required", ResultType.INVALID);
+            }
+            if (user.getFirstName() == null || user.getFirstName().isBlank() || user.getFirstName().length() > 25) {
+                result.addMessage(row + "firstName is required and must be at most 25 characters", ResultType.INVALID);
+            }
+            if (user.getLastName() == null || user.getLastName().isBlank() || user.getLastName().length() > 25) {
+                result.addMessage(row + "lastName is required and must be at most 25 characters", ResultType.INVALID);
+            }
+            if (user.getRoles().isEmpty()) {
+                result.addMessage(row + "at least one role is required", ResultType.INVALID);
+            }
+            for (String role : user.getRoles()) {
+                if (!roleIds.containsKey(role)) {
+                    result.addMessage(row + "role " + role + " does not exist", ResultType.INVALID);
+                }
+            }
+        }
+        for (String taken : appUserRepository.findExistingUsernames(usernames)) {
+            result.addMessage(taken + " already exists", ResultType.INVALID);
+        }
+    }
+}
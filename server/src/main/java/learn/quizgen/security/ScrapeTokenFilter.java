@@ -0,0 +1,48 @@
+package learn.quizgen.security;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+// Lets Prometheus scrape /actuator/prometheus with a static bearer token (metrics.scrape-token)
+// instead of a user's JWT, which expires. A matching token signs the request in with the Metrics
+// role and nothing else; without a configured token nobody gets it.
+public class ScrapeTokenFilter extends OncePerRequestFilter {
+
+    public static final String PATH = "/actuator/prometheus";
+
+    private final byte[] expected;
+
+    public ScrapeTokenFilter(String scrapeToken) {
+        this.expected = scrapeToken == null || scrapeToken.isBlank()
+                ? null
+                : ("Bearer " + scrapeToken).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return expected == null || !PATH.equals(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String authorization = request.getHeader("Authorization");
+        if (authorization != null
+                && MessageDigest.isEqual(expected, authorization.getBytes(StandardCharsets.UTF_8))) {
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    "prometheus", null, List.of(new SimpleGrantedAuthority("ROLE_Metrics"))));
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -1,5 +1,6 @@
 package learn.quizgen.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -9,6 +10,7 @@ import org.springframework.security.config.annotation.web.configuration.WebSecur
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -16,9 +18,11 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
     private final JwtConverter converter;
+    private final String scrapeToken;
 
-    public SecurityConfig(JwtConverter converter) {
+    public SecurityConfig(JwtConverter converter, @Value("${metrics.scrape-token:}") String scrapeToken) {
         this.converter = converter;
+        this.scrapeToken = scrapeToken;
     }
 
     @Override
@@ -36,15 +40,36 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                 .antMatchers("/api/user/register").permitAll()
                 .antMatchers("/api/user/**").permitAll()
 
-                // ✅ NEW: AI endpoint – only Teachers can call it
-                .antMatchers(HttpMethod.POST, "/api/ai/generate-quiz").hasRole("Teacher")
-                // (If you ever add more AI endpoints, you can use: .antMatchers("/api/ai/**").hasRole("Teacher"))
+                // Probes are public. The Prometheus scrape takes the scrape token (ScrapeTokenFilter) or an
+                // admin; the other actuator endpoints need a Teacher
+                .antMatchers(HttpMethod.GET, "/actuator/health/**", "/actuator/info").permitAll()
+                .antMatchers(HttpMethod.GET, ScrapeTokenFilter.PATH).hasAnyRole("Metrics", "Admin")
+                .antMatchers("/actuator/**").hasRole("Teacher")
+
+                // Live profiling (JFR recordings) and roster registration are for admins only
+                .antMatchers("/api/admin/**").hasRole("Admin")
+
+                // AI endpoints (generate + streaming generate) – only Teachers can call them
+                .antMatchers(HttpMethod.POST, "/api/ai/**").hasRole("Teacher")
+
+                // Live sessions: teachers start them; the socket checks its own token (?token=)
+                .antMatchers("/api/live-sessions/**").hasRole("Teacher")
+                .antMatchers("/ws/live").permitAll()
 
                 // Quizzes
                 .antMatchers(HttpMethod.GET, "/api/quizzes", "/api/quizzes/*")
                 .hasAnyRole("Teacher", "Student")
                 .antMatchers("/api/quizzes/**").hasRole("Teacher")
 
+                // Gradebook exports
+                .antMatchers("/api/exports/**").hasRole("Teacher")
+
+                // Bulk question imports
+                .antMatchers("/api/imports/**").hasRole("Teacher")
+
+                // Attempts belong to whoever started them
+                .antMatchers("/api/attempts/**").hasAnyRole("Teacher", "Student")
+
                 // Quiz results
                 .antMatchers("/api/quiz-results").hasAnyRole("Teacher", "Student")
 
@@ -56,6 +81,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                 .anyRequest().authenticated()
                 .and()
                 .addFilter(new JwtRequestFilter(authenticationManager(), converter))
+                .addFilterBefore(new ScrapeTokenFilter(scrapeToken), BasicAuthenticationFilter.class)
                 .sessionManagement()
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS);
     }
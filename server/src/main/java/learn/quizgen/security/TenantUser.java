@@ -0,0 +1,21 @@
+package learn.quizgen.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+// A user read back from a token, with the school the token was issued for
+public class TenantUser extends User {
+
+    private final String school;
+
+    public TenantUser(String username, Collection<? extends GrantedAuthority> authorities, String school) {
+        super(username, username, authorities);
+        this.school = school;
+    }
+
+    public String getSchool() {
+        return school;
+    }
+}
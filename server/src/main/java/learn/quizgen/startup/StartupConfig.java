@@ -0,0 +1,22 @@
+package learn.quizgen.startup;
+
+import learn.quizgen.controllers.AuthController;
+import learn.quizgen.controllers.QuestionController;
+import learn.quizgen.controllers.QuizController;
+import learn.quizgen.controllers.QuizResultController;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class StartupConfig {
+
+    // With spring.main.lazy-initialization (the faststart profile) everything waits for its first
+    // use, except what a student needs to log in, load a quiz and submit it: those controllers, and
+    // the services and repositories they pull in, are still built before the instance takes traffic.
+    @Bean
+    public static LazyInitializationExcludeFilter studentPathExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(AuthController.class, QuizController.class,
+                QuestionController.class, QuizResultController.class);
+    }
+}
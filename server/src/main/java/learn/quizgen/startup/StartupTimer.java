@@ -0,0 +1,87 @@
+package learn.quizgen.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Logs how long after JVM start the app was ready. For the image build (startup.training-run) it
+// also sends one request to itself, appends "<label> ready=.. first-request=.." to
+// startup.report-file and exits, which is how the Dockerfile trains the CDS archive and records
+// the cold start times with and without the optimizations.
+@Component
+public class StartupTimer implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimer.class);
+
+    private final boolean trainingRun;
+    private final String label;
+    private final String reportFile;
+
+    public StartupTimer(@Value("${startup.training-run:false}") boolean trainingRun,
+                        @Value("${startup.label:startup}") String label,
+                        @Value("${startup.report-file:}") String reportFile) {
+        this.trainingRun = trainingRun;
+        this.label = label;
+        this.reportFile = reportFile;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        long readyMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        log.info("Ready to serve requests {} ms after JVM start", readyMillis);
+        if (!trainingRun) {
+            return;
+        }
+
+        ApplicationContext context = event.getApplicationContext();
+        int status = -1;
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            status = firstRequest(port);
+        } catch (IOException | ClassCastException e) {
+            log.warn("Startup training request failed", e);
+        }
+        String line = String.format("%s ready=%dms first-request=%dms status=%d", label, readyMillis,
+                ManagementFactory.getRuntimeMXBean().getUptime(), status);
+        log.info(line);
+
+        if (!reportFile.isEmpty()) {
+            try {
+                Files.write(Paths.get(reportFile), (line + System.lineSeparator()).getBytes(StandardCharsets.UTF_8),
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                log.warn("Could not write {}", reportFile, e);
+            }
+        }
+        System.exit(SpringApplication.exit(context));
+    }
+
+    // Goes through Tomcat, the security filter chain and the DispatcherServlet like a real request,
+    // without needing the database
+    private static int firstRequest(int port) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/actuator/info")
+                .openConnection();
+        try {
+            connection.setConnectTimeout(5000);
+            connection.setReadTimeout(30000);
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package learn.quizgen.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import learn.quizgen.data.QuestionRepository;
+import learn.quizgen.data.QuizResultRepository;
+import learn.quizgen.domain.QuestionService;
+import learn.quizgen.domain.QuizResultService;
+import learn.quizgen.domain.QuizService;
+import learn.quizgen.domain.Result;
+import learn.quizgen.models.Option;
+import learn.quizgen.models.Question;
+import learn.quizgen.models.QuizResult;
+import learn.quizgen.security.JwtConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Runs before the instance reports ready: Spring Boot only moves readiness to ACCEPTING_TRAFFIC
+// (/actuator/health/readiness) after every ApplicationRunner has returned. It fills the connection
+// pool to minimumIdle, loads the most taken quizzes into the QuizCache and then loops over the
+// exam path (quiz and question reads with JSON serialization, JWT creation and validation, and
+// grading inside a rolled back transaction) so the JIT has compiled it before real students arrive.
+// Failures only cut the warm-up short, they never stop the instance from starting.
+@Component
+public class WarmUpRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmUpRunner.class);
+
+    private final DataSource dataSource;
+    private final QuizResultRepository quizResultRepository;
+    private final QuestionRepository questionRepository;
+    private final QuizService quizService;
+    private final QuestionService questionService;
+    private final QuizResultService quizResultService;
+    private final JwtConverter jwtConverter;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final int quizzes;
+    private final int iterations;
+    private final int gradingIterations;
+    private final long maxNanos;
+
+    public WarmUpRunner(DataSource dataSource, QuizResultRepository quizResultRepository,
+                        QuestionRepository questionRepository, QuizService quizService,
+                        QuestionService questionService, QuizResultService quizResultService,
+                        JwtConverter jwtConverter, ObjectMapper objectMapper,
+                        TransactionTemplate transactionTemplate, ApplicationEventPublisher eventPublisher,
+                        @Value("${warmup.enabled:true}") boolean enabled,
+                        @Value("${warmup.quizzes:20}") int quizzes,
+                        @Value("${warmup.iterations:2000}") int iterations,
+                        @Value("${warmup.grading-iterations:10}") int gradingIterations,
+                        @Value("${warmup.max-seconds:60}") long maxSeconds) {
+        this.dataSource = dataSource;
+        this.quizResultRepository = quizResultRepository;
+        this.questionRepository = questionRepository;
+        this.quizService = quizService;
+        this.questionService = questionService;
+        this.quizResultService = quizResultService;
+        this.jwtConverter = jwtConverter;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.quizzes = quizzes;
+        this.iterations = iterations;
+        this.gradingIterations = gradingIterations;
+        this.maxNanos = TimeUnit.SECONDS.toNanos(maxSeconds);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+
+        long start = System.nanoTime();
+        long deadline = start + maxNanos;
+        try {
+            int connections = openConnections();
+            List<QuizResult> popular = quizResultRepository.findMostTaken(quizzes);
+            log.info("Warm-up: opened {} connections, preloading {} quizzes", connections, popular.size());
+
+            int reads = 0;
+            int graded = 0;
+            if (!popular.isEmpty()) {
+                for (; reads < iterations && System.nanoTime() < deadline; reads++) {
+                    QuizResult taken = popular.get(reads % popular.size());
+                    readQuiz(taken.getQuizId(), reads % 10 == 0);
+                    validateToken();
+                }
+                for (; graded < gradingIterations && System.nanoTime() < deadline; graded++) {
+                    grade(popular.get(graded % popular.size()));
+                }
+            }
+            log.info("Warm-up finished in {} ms: {} read iterations, {} gradings",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), reads, graded);
+        } catch (Exception e) {
+            log.warn("Warm-up stopped early after {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), e);
+        }
+    }
+
+    // Holding minimumIdle connections at once makes the pool open that many instead of just one
+    private int openConnections() throws SQLException {
+        int minimumIdle = dataSource.isWrapperFor(HikariDataSource.class)
+                ? dataSource.unwrap(HikariDataSource.class).getMinimumIdle() : 1;
+        List<Connection> connections = new ArrayList<>();
+        try {
+            for (int i = 0; i < minimumIdle; i++) {
+                Connection connection = dataSource.getConnection();
+                connections.add(connection);
+                connection.isValid(5);
+            }
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+        return connections.size();
+    }
+
+    // The first read of each quiz fills the cache; every tenth one also goes to the database
+    private void readQuiz(int quizId, boolean fromDatabase) throws IOException {
+        objectMapper.writeValueAsBytes(quizService.getQuizById(quizId).getPayload());
+        objectMapper.writeValueAsBytes(questionService.getQuestionById(quizId));
+        if (fromDatabase) {
+            objectMapper.writeValueAsBytes(questionRepository.findByQuizId(quizId));
+        }
+    }
+
+    private void validateToken() {
+        User user = new User("warmup@quick-quiz", "warmup", List.of(new SimpleGrantedAuthority("ROLE_Student")));
+        jwtConverter.getUserFromToken("Bearer " + jwtConverter.getTokenFromUser(user));
+    }
+
+    // A submission like the one TakeQuiz posts (every answer correct), read from JSON and saved
+    // by QuizResultService in a transaction that is always rolled back
+    private void grade(QuizResult taken) throws IOException {
+        List<Question> questions = questionService.getQuestionById(taken.getQuizId());
+        List<Option> answers = new ArrayList<>();
+        for (Question question : questions) {
+            for (Option option : question.getOptionList()) {
+                if (option.isCorrect()) {
+                    answers.add(option);
+                    break;
+                }
+            }
+        }
+        QuizResult submission = new QuizResult(0, taken.getUserId(), taken.getQuizId(), answers.size(),
+                questions.size(), 100, "warmup", null, null);
+        submission.setOptionList(answers);
+        submission.setQuestionList(questions);
+        QuizResult parsed = objectMapper.readValue(objectMapper.writeValueAsBytes(submission), QuizResult.class);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Result<QuizResult> result = quizResultService.add(parsed);
+            if (!result.isSuccess()) {
+                log.debug("Warm-up grading of quiz {} was rejected: {}", taken.getQuizId(), result.getMessages());
+            }
+            status.setRollbackOnly();
+        });
+    }
+}
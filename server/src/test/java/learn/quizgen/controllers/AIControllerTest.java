@@ -0,0 +1,89 @@
+package learn.quizgen.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import learn.quizgen.domain.AIApiService;
+import learn.quizgen.outbound.OutboundHttpProperties;
+import learn.quizgen.outbound.ResilientHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The AI provider is a local server that fails every completion with a 500
+class AIControllerTest {
+
+    HttpServer upstream;
+    ResilientHttpClient client;
+
+    @BeforeEach
+    void setup() throws IOException {
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        upstream.createContext("/v1/chat/completions", exchange -> {
+            byte[] body = "{\"error\":{\"message\":\"The server had an error\"}}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(500, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        upstream.start();
+
+        OutboundHttpProperties properties = new OutboundHttpProperties();
+        properties.getCircuitBreaker().setMinimumCalls(2);
+        properties.getCircuitBreaker().setFailureRateThreshold(50);
+        client = new ResilientHttpClient(properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void teardown() throws IOException {
+        client.close();
+        upstream.stop(0);
+    }
+
+    @Test
+    void shouldAnswerBadGatewayWhenProviderFails() {
+        ResponseEntity<?> response = controller("http://127.0.0.1:" + upstream.getAddress().getPort())
+                .generateQuiz(Map.of("prompt", "A quiz about rivers"));
+
+        assertEquals(HttpStatus.BAD_GATEWAY, response.getStatusCode());
+        assertEquals(List.of("The AI service failed, try again shortly."), response.getBody());
+    }
+
+    @Test
+    void shouldAnswerBadGatewayWhenProviderIsUnreachable() throws IOException {
+        String url = "http://127.0.0.1:" + upstream.getAddress().getPort();
+        upstream.stop(0);
+
+        ResponseEntity<?> response = controller(url).generateQuiz(Map.of("prompt", "A quiz about rivers"));
+
+        assertEquals(HttpStatus.BAD_GATEWAY, response.getStatusCode());
+    }
+
+    @Test
+    void shouldAnswerServiceUnavailableOnceCircuitOpens() {
+        AIController controller = controller("http://127.0.0.1:" + upstream.getAddress().getPort());
+        controller.generateQuiz(Map.of("prompt", "A quiz about rivers"));
+        controller.generateQuiz(Map.of("prompt", "A quiz about rivers"));
+
+        ResponseEntity<?> response = controller.generateQuiz(Map.of("prompt", "A quiz about rivers"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+    }
+
+    private AIController controller(String baseUrl) {
+        AIApiService service = new AIApiService(client, new ObjectMapper(), "key",
+                baseUrl + "/v1/chat/completions", "model", 100);
+        return new AIController(service, 1);
+    }
+}
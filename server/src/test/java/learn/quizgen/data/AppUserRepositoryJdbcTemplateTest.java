@@ -0,0 +1,84 @@
+package learn.quizgen.data;
+
+import learn.quizgen.models.AppUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class AppUserRepositoryJdbcTemplateTest {
+
+    static final Map<String, Integer> ROLE_IDS = Map.of("Student", 1, "Teacher", 2, "Admin", 3);
+
+    @Autowired
+    AppUserRepositoryJdbcTemplate repository;
+
+    @Autowired
+    KnownGoodState knownGoodState;
+
+    @BeforeEach
+    void setup() {
+        knownGoodState.set();
+    }
+
+    @Test
+    void shouldAddAllWithRoles() {
+        List<AppUser> users = List.of(
+                new AppUser(0, "Ada", "Lovelace", "ada@school.com", "hash", false, List.of("Student")),
+                new AppUser(0, "Grace", "Hopper", "grace@school.com", "hash", false, List.of("Teacher", "Admin")));
+
+        repository.addAll(users, ROLE_IDS);
+
+        assertTrue(users.get(0).getAppUserId() > 2);
+        AppUser grace = repository.findByUsername("grace@school.com").orElseThrow();
+        assertEquals(users.get(1).getAppUserId(), grace.getAppUserId());
+        assertEquals(Set.of("Teacher", "Admin"), new HashSet<>(grace.getRoles()));
+        assertEquals(List.of("Student"), repository.findByUsername("ada@school.com").orElseThrow().getRoles());
+    }
+
+    @Test
+    void shouldSetIdsAcrossBatches() {
+        List<AppUser> users = new ArrayList<>();
+        for (int i = 0; i < 501; i++) {
+            users.add(new AppUser(0, "Student", "Number" + i, "student" + i + "@school.com", "hash", false,
+                    List.of("Student")));
+        }
+
+        repository.addAll(users, ROLE_IDS);
+
+        Set<Integer> ids = new HashSet<>();
+        for (AppUser user : users) {
+            ids.add(user.getAppUserId());
+        }
+        assertEquals(501, ids.size());
+        assertEquals(users.get(500).getAppUserId(),
+                repository.findByUsername("student500@school.com").orElseThrow().getAppUserId());
+    }
+
+    @Test
+    void shouldNotAddTakenUsername() {
+        List<AppUser> users = List.of(
+                new AppUser(0, "Student", "Again", "student@quiztaker.com", "hash", false, List.of("Student")));
+
+        assertThrows(DuplicateKeyException.class, () -> repository.addAll(users, ROLE_IDS));
+    }
+
+    @Test
+    void shouldFindExistingUsernames() {
+        List<String> existing = repository.findExistingUsernames(
+                List.of("teacher@person.com", "nobody@school.com", "student@quiztaker.com"));
+
+        assertEquals(Set.of("teacher@person.com", "student@quiztaker.com"), new HashSet<>(existing));
+        assertTrue(repository.findExistingUsernames(List.of()).isEmpty());
+    }
+}
@@ -0,0 +1,48 @@
+package learn.quizgen.data;
+
+import learn.quizgen.models.ChangeLogEntry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ChangeLogRepositoryJdbcTemplateTest {
+
+    @Autowired
+    ChangeLogRepositoryJdbcTemplate repository;
+
+    @Test
+    void shouldFindAppendedChangesInOrder() {
+        long latest = repository.findLatestId();
+        repository.append(ChangeLogEntry.QUIZ, 1);
+        repository.append(ChangeLogEntry.OPTION, 4);
+
+        List<ChangeLogEntry> changes = repository.findAfter(latest, 10);
+        assertEquals(2, changes.size());
+        assertEquals(ChangeLogEntry.QUIZ, changes.get(0).getEntity());
+        assertEquals(4, changes.get(1).getEntityId());
+        assertEquals("default", changes.get(1).getSchool());
+        assertTrue(changes.get(0).getChangeId() < changes.get(1).getChangeId());
+        assertEquals(changes.get(1).getChangeId(), repository.findLatestId());
+    }
+
+    @Test
+    void shouldLimitBatch() {
+        long latest = repository.findLatestId();
+        repository.append(ChangeLogEntry.QUESTION, 1);
+        repository.append(ChangeLogEntry.QUESTION, 2);
+
+        assertEquals(1, repository.findAfter(latest, 1).size());
+    }
+
+    @Test
+    void shouldKeepRecentChanges() {
+        repository.append(ChangeLogEntry.QUIZ, 1);
+        repository.deleteOlderThan(24);
+        assertTrue(repository.findLatestId() > 0);
+    }
+}
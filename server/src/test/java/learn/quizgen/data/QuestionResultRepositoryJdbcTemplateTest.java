@@ -1,12 +1,15 @@
 package learn.quizgen.data;
 
 import learn.quizgen.models.QuestionResult;
+import learn.quizgen.models.QuizResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.EmptyResultDataAccessException;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -16,6 +19,12 @@ class QuestionResultRepositoryJdbcTemplateTest {
     @Autowired
     QuestionResultRepositoryJdbcTemplate repository;
 
+    @Autowired
+    QuizResultRepositoryJdbcTemplate quizResultRepository;
+
+    @Autowired
+    QuizRepositoryJdbcTemplate quizRepository;
+
     @Autowired
     KnownGoodState knownGoodState;
 
@@ -37,6 +46,13 @@ class QuestionResultRepositoryJdbcTemplateTest {
         assertEquals(3, questionResult.getQuestionId());
     }
 
+    @Test
+    void shouldNotFindResultsOfDeletedQuiz() {
+        assertTrue(quizRepository.deleteById(1));
+        assertTrue(repository.findAll().isEmpty());
+        assertThrows(EmptyResultDataAccessException.class, () -> repository.findById(3));
+    }
+
     @Test
     void shouldAddQuestionResult() {
         QuestionResult questionResult = new QuestionResult(0, 1, 1, 3, 8);
@@ -58,4 +74,45 @@ class QuestionResultRepositoryJdbcTemplateTest {
         assertTrue(repository.deleteById(4));
         assertFalse(repository.deleteById(4));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldFindPackedAttempt() {
+        List<QuestionResult> answers = repository.findLatestAttempt(2, 1);
+        assertEquals(3, answers.size());
+        assertEquals(2, answers.get(1).getOptionId());
+        assertTrue(repository.findAttempt(2, 1, 2).isEmpty());
+    }
+
+    @Test
+    void shouldNumberAddedAttempts() {
+        assertEquals(Map.of(2, 2), repository.addAttempts(1, List.of(new QuestionResult(0, 2, 1, 1, 2), new QuestionResult(0, 2, 1, 2, 4))));
+        List<QuestionResult> second = repository.findAttempt(2, 1, 2);
+        assertEquals(2, second.size());
+        assertEquals(4, second.get(1).getOptionId());
+        assertEquals(2, repository.findLatestAttempt(2, 1).size());
+    }
+
+    @Test
+    void shouldLeaveResultRowsWithoutQuizResultUnpacked() {
+        List<QuizResult> legacy = repository.findLegacyAttempts(0, 0, 10);
+        assertEquals(1, legacy.size());
+        assertEquals(0, repository.packResultRows(legacy));
+        assertEquals(3, repository.findAll().size());
+        assertTrue(repository.findLatestAttempt(1, 1).isEmpty());
+    }
+
+    @Test
+    void shouldPackEachLegacyAttemptSeparately() {
+        // Second attempt: all but question 3 correct
+        repository.addAll(List.of(new QuestionResult(0, 1, 1, 1, 1), new QuestionResult(0, 1, 1, 2, 5),
+                new QuestionResult(0, 1, 1, 3, 8)));
+        quizResultRepository.addAll(List.of(new QuizResult(0, 1, 1, 1, 3, 33.33f, null, null, null),
+                new QuizResult(0, 1, 1, 2, 3, 66.67f, null, null, null)));
+
+        assertEquals(1, repository.packResultRows(repository.findLegacyAttempts(0, 0, 10)));
+        assertTrue(repository.findAll().isEmpty());
+        assertEquals(2, repository.findAttempt(1, 1, 1).get(1).getOptionId());
+        assertEquals(5, repository.findAttempt(1, 1, 2).get(1).getOptionId());
+        assertTrue(repository.findLegacyAttempts(0, 0, 10).isEmpty());
+    }
+}
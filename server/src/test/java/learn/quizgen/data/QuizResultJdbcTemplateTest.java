@@ -16,6 +16,9 @@ class QuizResultJdbcTemplateTest {
     @Autowired
     QuizResultRepositoryJdbcTemplate repository;
 
+    @Autowired
+    QuizRepositoryJdbcTemplate quizRepository;
+
     @Autowired
     KnownGoodState knownGoodState;
 
@@ -37,6 +40,20 @@ class QuizResultJdbcTemplateTest {
         assertEquals(3, quizResult.getTotalQuestions());
     }
 
+    @Test
+    void shouldFindMostTakenQuizzes() {
+        List<QuizResult> quizResults = repository.findMostTaken(10);
+        assertEquals(1, quizResults.size());
+        assertEquals(1, quizResults.get(0).getQuizId());
+        assertEquals(2, quizResults.get(0).getUserId());
+    }
+
+    @Test
+    void shouldNotFindDeletedQuizAsMostTaken() {
+        assertTrue(quizRepository.deleteById(1));
+        assertTrue(repository.findMostTaken(10).isEmpty());
+    }
+
     @Test
     void shouldAddQuizResult() {
         QuizResult quizResult = new QuizResult(0, 2, 1, 3, 3, 100, "username", "title", "topic");
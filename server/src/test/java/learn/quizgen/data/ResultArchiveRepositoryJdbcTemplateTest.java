@@ -0,0 +1,124 @@
+package learn.quizgen.data;
+
+import learn.quizgen.models.QuizResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Known good state: quiz_result 1 is student 2's first attempt at quiz 1 with its packed answers in
+// attempt_answer. setup dates it (and adds a legacy attempt by user 1, whose answers are the result
+// rows) back to 2020 so it falls before the boundary.
+@SpringBootTest
+class ResultArchiveRepositoryJdbcTemplateTest {
+
+    static final Instant BOUNDARY = Instant.parse("2021-08-01T00:00:00Z");
+
+    @Autowired
+    ResultArchiveRepositoryJdbcTemplate repository;
+
+    @Autowired
+    QuizResultRepositoryJdbcTemplate quizResultRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    KnownGoodState knownGoodState;
+
+    @BeforeEach
+    void setup() {
+        knownGoodState.set();
+        jdbcTemplate.update("UPDATE quiz_result SET submitted_at = '2020-10-01 12:00:00' WHERE quiz_result_id = 1");
+        jdbcTemplate.update("UPDATE attempt_answer SET submitted_at = '2020-10-01 12:00:00'");
+        jdbcTemplate.update("INSERT INTO quiz_result (quiz_result_id, user_id, quiz_id, correct_answers," +
+                " total_questions, percent_correct, submitted_at) VALUES (2, 1, 1, 1, 3, 33.33, '2020-09-01 12:00:00')");
+    }
+
+    @Test
+    void shouldFindResultsBeforeBoundaryOldestFirst() {
+        assertEquals(List.of(2, 1), repository.findArchivable(BOUNDARY, 10));
+        assertEquals(List.of(2), repository.findArchivable(BOUNDARY, 1));
+        assertTrue(repository.findArchivable(Instant.parse("2020-01-01T00:00:00Z"), 10).isEmpty());
+    }
+
+    @Test
+    void shouldNotFindQuizTakenAgainAfterBoundary() {
+        jdbcTemplate.update("INSERT INTO quiz_result (user_id, quiz_id, correct_answers, total_questions," +
+                " percent_correct, attempt) VALUES (2, 1, 3, 3, 100, 2)");
+
+        assertEquals(List.of(2), repository.findArchivable(BOUNDARY, 10));
+    }
+
+    @Test
+    void shouldMoveResultsAndTheirAnswers() {
+        assertEquals(2, repository.archive(List.of(1, 2)));
+
+        assertEquals(0, count("quiz_result"));
+        assertEquals(0, count("result"));
+        assertEquals(0, count("attempt_answer"));
+        assertEquals(2, count("quiz_result_archive"));
+        assertEquals(3, count("result_archive"));
+        assertEquals(1, count("attempt_answer_archive"));
+    }
+
+    @Test
+    void shouldMoveNothingWhenAnyStepFails() {
+        // Makes the attempt_answer copy fail after the result and quiz_result copies went in
+        jdbcTemplate.update("INSERT INTO attempt_answer_archive (user_id, quiz_id, attempt, answers, submitted_at)" +
+                " VALUES (2, 1, 1, X'00', '2020-10-01 12:00:00')");
+
+        assertThrows(DuplicateKeyException.class, () -> repository.archive(List.of(1, 2)));
+
+        assertEquals(2, count("quiz_result"));
+        assertEquals(3, count("result"));
+        assertEquals(1, count("attempt_answer"));
+        assertEquals(0, count("quiz_result_archive"));
+        assertEquals(0, count("result_archive"));
+    }
+
+    @Test
+    void shouldReadBackArchivedRowsUnchanged() {
+        byte[] answers = jdbcTemplate.queryForObject("SELECT answers FROM attempt_answer", byte[].class);
+        Timestamp submittedAt = jdbcTemplate.queryForObject(
+                "SELECT submitted_at FROM quiz_result WHERE quiz_result_id = 1", Timestamp.class);
+
+        repository.archive(List.of(1, 2));
+
+        assertEquals("Compressed", jdbcTemplate.queryForObject("SELECT row_format FROM information_schema.tables" +
+                " WHERE table_schema = DATABASE() AND table_name = 'quiz_result_archive'", String.class));
+        assertArrayEquals(answers, jdbcTemplate.queryForObject(
+                "SELECT answers FROM attempt_answer_archive WHERE user_id = 2 AND quiz_id = 1 AND attempt = 1", byte[].class));
+        assertEquals(List.of(1, 2, 1), jdbcTemplate.queryForList(
+                "SELECT option_id FROM result_archive ORDER BY result_id", Integer.class));
+        assertEquals(submittedAt, jdbcTemplate.queryForObject(
+                "SELECT submitted_at FROM quiz_result_archive WHERE quiz_result_id = 1", Timestamp.class));
+    }
+
+    @Test
+    void shouldFindArchivedResultById() {
+        QuizResult hot = quizResultRepository.findById(1);
+
+        repository.archive(List.of(1));
+
+        QuizResult archived = quizResultRepository.findById(1);
+        assertNotNull(archived);
+        assertEquals(hot.getUserId(), archived.getUserId());
+        assertEquals(hot.getCorrectAnswers(), archived.getCorrectAnswers());
+        assertEquals(hot.getScore(), archived.getScore());
+        assertEquals("student@quiztaker.com", archived.getUsername());
+        assertNull(quizResultRepository.findById(99));
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.EmptyResultDataAccessException;
 
 import java.util.List;
 
@@ -16,6 +17,9 @@ class ScoreRepositoryJdbcTemplateTest {
     @Autowired
     ScoreRepositoryJdbcTemplate repository;
 
+    @Autowired
+    QuizRepositoryJdbcTemplate quizRepository;
+
     @Autowired
     KnownGoodState knownGoodState;
 
@@ -37,6 +41,13 @@ class ScoreRepositoryJdbcTemplateTest {
         assertEquals(1, score.getQuizId());
     }
 
+    @Test
+    void shouldNotFindScoresOfDeletedQuiz() {
+        assertTrue(quizRepository.deleteById(1));
+        assertTrue(repository.findAll().isEmpty());
+        assertThrows(EmptyResultDataAccessException.class, () -> repository.findById(1));
+    }
+
     @Test
     void shouldAddScore() {
         Score score = new Score(0, 1, 1, 100);
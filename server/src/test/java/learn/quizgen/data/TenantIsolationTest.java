@@ -0,0 +1,133 @@
+package learn.quizgen.data;
+
+import learn.quizgen.data.routing.TenantContext;
+import learn.quizgen.data.routing.TenantProperties;
+import learn.quizgen.data.routing.TenantRoutingDataSource;
+import learn.quizgen.models.AppUser;
+import learn.quizgen.models.Quiz;
+import learn.quizgen.models.Teacher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two schools on two shards, each a schema next to the test database with the user and quiz tables.
+// The repositories run on a TenantRoutingDataSource over both, like they do with tenant.shards set.
+// The primary (and its known good state) is not touched.
+@SpringBootTest
+class TenantIsolationTest {
+
+    static final List<String> TABLES = List.of("app_user", "role", "user_role", "teacher", "quiz");
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    DataSource primary;
+
+    @Value("${spring.datasource.url}")
+    String url;
+
+    @Value("${spring.datasource.username}")
+    String username;
+
+    @Value("${spring.datasource.password}")
+    String password;
+
+    AppUserRepositoryJdbcTemplate users;
+    TeacherRepositoryJdbcTemplate teachers;
+    QuizRepositoryJdbcTemplate quizzes;
+    JdbcTemplate routed;
+
+    @BeforeEach
+    void setup() {
+        TenantProperties properties = new TenantProperties();
+        properties.getSchools().put("lincoln-high", "north");
+        properties.getSchools().put("roosevelt-high", "south");
+        properties.getShards().put("north", new TenantProperties.Shard());
+        properties.getShards().put("south", new TenantProperties.Shard());
+        properties.checkOneSchoolPerShard();
+
+        routed = new JdbcTemplate(new TenantRoutingDataSource(primary,
+                Map.of("north", shard("north"), "south", shard("south")), properties));
+        users = new AppUserRepositoryJdbcTemplate(routed);
+        teachers = new TeacherRepositoryJdbcTemplate(routed);
+        quizzes = new QuizRepositoryJdbcTemplate(routed);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void shouldNotReadAnotherSchoolsRows() {
+        TenantContext.setSchool("lincoln-high");
+        AppUser ada = users.add(new AppUser(0, "Ada", "Lovelace", "ada@lincoln.edu", "hash", false, List.of("Teacher")));
+        Teacher teacher = teachers.add(new Teacher(0, ada.getAppUserId()));
+        Quiz quiz = quizzes.add(new Quiz(0, teacher.getTeacherId(), "", "Lincoln Quiz", "lincoln only", 1, 2,
+                "topic", "prompt", ""));
+
+        assertTrue(users.findByUsername("ada@lincoln.edu").isPresent());
+        assertEquals("Lincoln Quiz", quizzes.findById(quiz.getQuizId()).getTitle());
+
+        TenantContext.setSchool("roosevelt-high");
+        assertTrue(users.findByUsername("ada@lincoln.edu").isEmpty());
+        assertNull(quizzes.findById(quiz.getQuizId()));
+        assertTrue(quizzes.findAll().isEmpty());
+        assertTrue(teachers.findAll().isEmpty());
+    }
+
+    @Test
+    void shouldKeepSameIdsApart() {
+        TenantContext.setSchool("lincoln-high");
+        Quiz lincoln = addQuiz("lincoln", "Lincoln Quiz");
+        TenantContext.setSchool("roosevelt-high");
+        Quiz roosevelt = addQuiz("roosevelt", "Roosevelt Quiz");
+
+        assertEquals(lincoln.getQuizId(), roosevelt.getQuizId());
+        assertEquals("Roosevelt Quiz", quizzes.findById(roosevelt.getQuizId()).getTitle());
+        TenantContext.setSchool("lincoln-high");
+        assertEquals("Lincoln Quiz", quizzes.findById(lincoln.getQuizId()).getTitle());
+    }
+
+    @Test
+    void shouldNotSignInToAnotherSchool() {
+        // A row left behind on lincoln-high's shard by a half-finished move of roosevelt-high
+        TenantContext.setSchool("lincoln-high");
+        routed.update("INSERT INTO app_user (first_name, last_name, username, password, disabled, school)" +
+                " VALUES ('Grace', 'Hopper', 'grace@roosevelt.edu', 'hash', 0, 'roosevelt-high')");
+
+        assertTrue(users.findByUsername("grace@roosevelt.edu").isEmpty());
+    }
+
+    private Quiz addQuiz(String name, String title) {
+        AppUser user = users.add(new AppUser(0, name, name, name + "@school.edu", "hash", false, List.of("Teacher")));
+        Teacher teacher = teachers.add(new Teacher(0, user.getAppUserId()));
+        return quizzes.add(new Quiz(0, teacher.getTeacherId(), "", title, title, 1, 2, "topic", "prompt", ""));
+    }
+
+    // A fresh schema beside the test database with empty copies of the tables and the seeded roles
+    private DataSource shard(String name) {
+        String schema = jdbcTemplate.queryForObject("SELECT DATABASE()", String.class) + "_" + name;
+        jdbcTemplate.execute("DROP DATABASE IF EXISTS " + schema);
+        jdbcTemplate.execute("CREATE DATABASE " + schema);
+        for (String table : TABLES) {
+            jdbcTemplate.execute(String.format("CREATE TABLE %s.%s LIKE %s", schema, table, table));
+        }
+        jdbcTemplate.execute(String.format("INSERT INTO %s.role SELECT * FROM role", schema));
+
+        return new DriverManagerDataSource(url.replaceFirst("/[^/?]+(\\?|$)", "/" + schema + "$1"),
+                username, password);
+    }
+}
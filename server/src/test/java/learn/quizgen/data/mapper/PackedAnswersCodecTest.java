@@ -0,0 +1,48 @@
+package learn.quizgen.data.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedAnswersCodecTest {
+
+    @Test
+    void shouldRoundTripInQuestionOrder() {
+        Map<Integer, Integer> answers = new LinkedHashMap<>();
+        answers.put(907, 3611);
+        answers.put(12, 40);
+        answers.put(300, 2);
+        Map<Integer, Integer> decoded = PackedAnswersCodec.decode(PackedAnswersCodec.encode(answers));
+        assertEquals(answers, decoded);
+        assertEquals(List.of(12, 300, 907), List.copyOf(decoded.keySet()));
+    }
+
+    @Test
+    void shouldTakeTwoBytesPerAnswerForConsecutiveIds() {
+        Map<Integer, Integer> answers = new LinkedHashMap<>();
+        for (int question = 1001; question <= 1040; question++) {
+            answers.put(question, 4000 + (question - 1001) * 4 + question % 4);
+        }
+        // The first answer's deltas are from 0, so it takes more than two bytes
+        assertTrue(PackedAnswersCodec.encode(answers).length <= 1 + 4 + 39 * 2);
+    }
+
+    @Test
+    void shouldMatchKnownGoodBytes() {
+        byte[] packed = PackedAnswersCodec.encode(Map.of(1, 1, 2, 2, 3, 1));
+        assertArrayEquals(new byte[]{1, 1, 2, 1, 2, 1, 1}, packed);
+    }
+
+    @Test
+    void shouldRejectTruncatedAnswers() {
+        byte[] packed = PackedAnswersCodec.encode(Map.of(1, 300));
+        byte[] truncated = new byte[packed.length - 1];
+        System.arraycopy(packed, 0, truncated, 0, truncated.length);
+        assertThrows(IllegalArgumentException.class, () -> PackedAnswersCodec.decode(truncated));
+        assertThrows(IllegalArgumentException.class, () -> PackedAnswersCodec.decode(new byte[]{2, 1, 1}));
+    }
+}
@@ -0,0 +1,157 @@
+package learn.quizgen.data.routing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    FakeDatabase primary = new FakeDatabase("primary");
+    FakeDatabase replica0 = new FakeDatabase("replica-0");
+    FakeDatabase replica1 = new FakeDatabase("replica-1");
+    ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary.dataSource(),
+            List.of(replica0.dataSource(), replica1.dataSource()), 5);
+
+    @BeforeEach
+    void setup() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReplicaRoutingDataSource.pinToPrimary(false);
+    }
+
+    @Test
+    void shouldRoundRobinReadOnlyWork() throws SQLException {
+        String first = connect();
+        String second = connect();
+
+        assertNotEquals(first, second);
+        assertTrue(first.startsWith("replica-"));
+        assertTrue(second.startsWith("replica-"));
+        assertEquals(first, connect());
+    }
+
+    @Test
+    void shouldSendWritesToPrimary() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        assertEquals("primary", connect());
+    }
+
+    @Test
+    void shouldSkipLaggingAndStoppedReplicas() throws SQLException {
+        replica0.lag = 30;
+        dataSource.checkReplicas();
+        assertEquals(List.of("replica-1"), dataSource.healthyReplicas());
+        assertEquals("replica-1", connect());
+        assertEquals("replica-1", connect());
+
+        replica1.lag = null;
+        replica0.lag = 2;
+        dataSource.checkReplicas();
+        assertEquals(List.of("replica-0"), dataSource.healthyReplicas());
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhenNoReplicaIsHealthy() throws SQLException {
+        replica0.down = true;
+        replica1.lag = 6;
+        dataSource.checkReplicas();
+
+        assertTrue(dataSource.healthyReplicas().isEmpty());
+        assertEquals("primary", connect());
+    }
+
+    @Test
+    void shouldKeepPinnedReadsOnPrimary() throws SQLException {
+        ReplicaRoutingDataSource.pinToPrimary(true);
+        assertEquals("primary", connect());
+
+        ReplicaRoutingDataSource.pinToPrimary(false);
+        assertNotEquals("primary", connect());
+    }
+
+    private String connect() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getCatalog();
+        }
+    }
+
+    // A database that names itself as the connection's catalog and answers SHOW SLAVE STATUS with
+    // lag: -1 for a server that isn't a replica, null when replication is stopped
+    private static class FakeDatabase {
+        private final String name;
+        private Integer lag = -1;
+        private boolean down;
+
+        FakeDatabase(String name) {
+            this.name = name;
+        }
+
+        DataSource dataSource() {
+            return stub(DataSource.class, (method, args) -> {
+                if (method.equals("getConnection")) {
+                    if (down) {
+                        throw new SQLException(name + " is down");
+                    }
+                    return connection();
+                }
+                return null;
+            });
+        }
+
+        private Connection connection() {
+            return stub(Connection.class, (method, args) -> {
+                if (method.equals("getCatalog")) {
+                    return name;
+                }
+                if (method.equals("createStatement")) {
+                    return stub(Statement.class, (statementMethod, statementArgs) ->
+                            statementMethod.equals("executeQuery") ? slaveStatus() : null);
+                }
+                return null;
+            });
+        }
+
+        private ResultSet slaveStatus() {
+            boolean[] read = {false};
+            return stub(ResultSet.class, (method, args) -> {
+                switch (method) {
+                    case "next":
+                        boolean hasRow = !read[0] && (lag == null || lag >= 0);
+                        read[0] = true;
+                        return hasRow;
+                    case "getInt":
+                        return lag == null ? 0 : lag;
+                    case "wasNull":
+                        return lag == null;
+                    default:
+                        return null;
+                }
+            });
+        }
+    }
+
+    interface Answer {
+        Object answer(String method, Object[] args) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Answer answer) {
+        return (T) Proxy.newProxyInstance(ReplicaRoutingDataSourceTest.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> answer.answer(method.getName(), args));
+    }
+}
@@ -0,0 +1,102 @@
+package learn.quizgen.data.routing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TenantRoutingDataSourceTest {
+
+    TenantProperties properties = new TenantProperties();
+    TenantRoutingDataSource dataSource = new TenantRoutingDataSource(database("primary"),
+            Map.of("north", database("north"), "south", database("south")), properties);
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void shouldRouteEachSchoolToItsShard() throws SQLException {
+        properties.getSchools().put("lincoln-high", "north");
+        properties.getSchools().put("roosevelt-high", "south");
+
+        assertEquals("north", connectAs("lincoln-high"));
+        assertEquals("south", connectAs("roosevelt-high"));
+    }
+
+    @Test
+    void shouldUsePrimaryForDefaultAndUnmappedSchools() throws SQLException {
+        assertEquals("primary", connect());
+        assertEquals("primary", connectAs("washington-elementary"));
+    }
+
+    @Test
+    void shouldFollowRebalancedSchool() throws SQLException {
+        properties.getSchools().put("lincoln-high", "north");
+        assertEquals("north", connectAs("lincoln-high"));
+
+        properties.getSchools().put("lincoln-high", "south");
+        assertEquals("south", connectAs("lincoln-high"));
+    }
+
+    @Test
+    void shouldNotFallBackForUnknownShard() {
+        properties.getSchools().put("lincoln-high", "east");
+        assertThrows(IllegalStateException.class, () -> connectAs("lincoln-high"));
+    }
+
+    @Test
+    void shouldOnlyKnowConfiguredSchools() {
+        properties.getSchools().put("lincoln-high", "north");
+
+        assertTrue(properties.isKnownSchool("lincoln-high"));
+        assertTrue(properties.isKnownSchool(TenantContext.DEFAULT_SCHOOL));
+        assertFalse(properties.isKnownSchool("roosevelt-high"));
+    }
+
+    @Test
+    void shouldGiveEachSchoolItsOwnShard() {
+        properties.getShards().put("north", new TenantProperties.Shard());
+        properties.getShards().put("south", new TenantProperties.Shard());
+        properties.getSchools().put("lincoln-high", "north");
+        properties.getSchools().put("roosevelt-high", "south");
+        properties.checkOneSchoolPerShard();
+
+        properties.getSchools().put("grant-middle", "north");
+        assertThrows(IllegalStateException.class, properties::checkOneSchoolPerShard);
+
+        properties.getSchools().put("grant-middle", TenantProperties.PRIMARY_SHARD);
+        assertThrows(IllegalStateException.class, properties::checkOneSchoolPerShard);
+
+        properties.getSchools().put("grant-middle", "east");
+        assertThrows(IllegalStateException.class, properties::checkOneSchoolPerShard);
+    }
+
+    private String connectAs(String school) throws SQLException {
+        TenantContext.setSchool(school);
+        return connect();
+    }
+
+    private String connect() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getCatalog();
+        }
+    }
+
+    // A database whose connections name it as their catalog
+    private static DataSource database(String name) {
+        Connection connection = (Connection) Proxy.newProxyInstance(TenantRoutingDataSourceTest.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> method.getName().equals("getCatalog") ? name : null);
+        return (DataSource) Proxy.newProxyInstance(TenantRoutingDataSourceTest.class.getClassLoader(),
+                new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> method.getName().equals("getConnection") ? connection : null);
+    }
+}
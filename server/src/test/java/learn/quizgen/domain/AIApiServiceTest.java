@@ -0,0 +1,117 @@
+package learn.quizgen.domain;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import learn.quizgen.models.GeneratedQuestion;
+import learn.quizgen.outbound.OutboundHttpProperties;
+import learn.quizgen.outbound.ResilientHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Streams a chat completion from a local server that answers with whatever SSE body the test sets
+class AIApiServiceTest {
+
+    static final String QUIZ = "{\"questions\": [" +
+            "{\"question\": \"Say \\\"hi\\\"\", \"options\": [\"hi\", \"{bye}\"], \"correct_answer\": \"hi\"}, " +
+            "{\"question\": \"Longest river?\", \"options\": [\"Nile\", \"Amazon\"], \"correct_answer\": \"Nile\"}]}";
+
+    ObjectMapper objectMapper = new ObjectMapper();
+    HttpServer upstream;
+    ResilientHttpClient client;
+    AIApiService service;
+    String events;
+    List<GeneratedQuestion> questions = new ArrayList<>();
+
+    @BeforeEach
+    void setup() throws IOException {
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        upstream.createContext("/v1/chat/completions", exchange -> {
+            byte[] body = events.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        upstream.start();
+
+        client = new ResilientHttpClient(new OutboundHttpProperties(), new SimpleMeterRegistry());
+        service = new AIApiService(client, objectMapper, "key",
+                "http://127.0.0.1:" + upstream.getAddress().getPort() + "/v1/chat/completions", "model", 100);
+    }
+
+    @AfterEach
+    void teardown() throws IOException {
+        client.close();
+        upstream.stop(0);
+    }
+
+    @Test
+    void shouldParseQuestionsSplitAcrossEvents() throws IOException {
+        StringBuilder body = new StringBuilder(": keep-alive\n\n")
+                .append("data: {\"choices\": [{\"delta\": {\"role\": \"assistant\"}}]}\n\n")
+                .append(event("```json\n"));
+        for (int i = 0; i < QUIZ.length(); i += 7) {
+            body.append(event(QUIZ.substring(i, Math.min(QUIZ.length(), i + 7))));
+        }
+        events = body.append(event("\n```")).append("data: [DONE]\n\n").toString();
+
+        QuizStreamParser parser = service.streamQuiz("A quiz", questions::add);
+
+        assertEquals(List.of("Say \"hi\"", "Longest river?"), texts());
+        assertEquals(List.of("hi", "{bye}"), questions.get(0).getOptions());
+        assertEquals(2, parser.getQuestionCount());
+        assertEquals(QUIZ, parser.getRawJson());
+    }
+
+    @Test
+    void shouldStopReadingAtDone() throws IOException {
+        // A refusal without any JSON; the line after [DONE] would not even parse as an event
+        events = event("Sorry, I can't write that quiz.") + "data: [DONE]\n\n" + "data: {not json\n\n";
+
+        QuizStreamParser parser = service.streamQuiz("A quiz", questions::add);
+
+        assertTrue(questions.isEmpty());
+        assertEquals(0, parser.getQuestionCount());
+        assertFalse(parser.isFinished());
+    }
+
+    @Test
+    void shouldStopReadingOnceQuizIsComplete() throws IOException {
+        events = event(QUIZ + "\n") + "data: {not json\n\n";
+
+        QuizStreamParser parser = service.streamQuiz("A quiz", questions::add);
+
+        assertEquals(List.of("Say \"hi\"", "Longest river?"), texts());
+        assertTrue(parser.isFinished());
+    }
+
+    @Test
+    void shouldFailTruncatedStream() throws IOException {
+        events = event(QUIZ.substring(0, QUIZ.indexOf("Longest")));
+
+        assertThrows(RuntimeException.class, () -> service.streamQuiz("A quiz", questions::add));
+
+        assertEquals(List.of("Say \"hi\""), texts());
+    }
+
+    private String event(String content) throws IOException {
+        return "data: {\"choices\": [{\"delta\": {\"content\": " + objectMapper.writeValueAsString(content) + "}}]}\n\n";
+    }
+
+    private List<String> texts() {
+        return questions.stream().map(GeneratedQuestion::getQuestion).collect(Collectors.toList());
+    }
+}
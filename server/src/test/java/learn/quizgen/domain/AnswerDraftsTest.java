@@ -0,0 +1,97 @@
+package learn.quizgen.domain;
+
+import learn.quizgen.models.QuizAttempt;
+import learn.quizgen.support.InMemoryQuizAttemptRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnswerDraftsTest {
+
+    InMemoryQuizAttemptRepository attempts = new InMemoryQuizAttemptRepository();
+    AnswerDrafts drafts = new AnswerDrafts(attempts, 10);
+
+    @BeforeEach
+    void setup() {
+        attempts.save(attempt(Map.of()));
+    }
+
+    @Test
+    void shouldWriteManyChangesAsOneUpdate() {
+        QuizAttempt attempt = attempts.save(attempt(Map.of(1, 1)));
+        drafts.merge(attempt, "student", Map.of(2, 4));
+        drafts.merge(attempt, "student", Map.of(2, 5));
+        drafts.merge(attempt, "student", Map.of(3, 9));
+
+        drafts.flush();
+        drafts.flush();
+
+        assertEquals(1, attempts.getAnswerWrites().size());
+        assertEquals(Map.of(2, 5, 3, 9), attempts.getAnswerWrites().get(0));
+        assertEquals(Map.of(1, 1, 2, 5, 3, 9), saved());
+    }
+
+    @Test
+    void shouldKeepAnswersSavedByAnotherInstance() {
+        drafts.merge(attempt(Map.of()), "student", Map.of(1, 1));
+        drafts.flush();
+        // The student's next click reached another instance, which saved it
+        attempts.mergeAnswers(7, Map.of(2, 5));
+
+        drafts.merge(attempt(Map.of()), "student", Map.of(3, 9));
+        drafts.flush();
+
+        assertEquals(Map.of(1, 1, 2, 5, 3, 9), saved());
+        assertEquals(Map.of(1, 1, 2, 5, 3, 9), drafts.find("default", 7, "student").getAnswers());
+    }
+
+    @Test
+    void shouldResumeWithUnsavedAnswers() {
+        drafts.merge(attempt(Map.of(1, 1)), "student", Map.of(2, 5));
+
+        assertEquals(Map.of(1, 1, 2, 5), drafts.find("default", 7, "student").getAnswers());
+        assertNull(drafts.find("default", 7, "someone-else"));
+        assertNull(drafts.find("north", 7, "student"));
+    }
+
+    @Test
+    void shouldHandOverDraftOnSubmit() {
+        drafts.merge(attempt(Map.of()), "student", Map.of(2, 5));
+
+        QuizAttempt submitting = drafts.take(attempt(Map.of(1, 1)), Map.of(3, 9));
+        drafts.flush();
+
+        assertEquals(Map.of(1, 1, 2, 5, 3, 9), submitting.getAnswers());
+        // Saved before grading, so a failed grading doesn't lose them
+        assertEquals(Map.of(2, 5, 3, 9), saved());
+        assertEquals(1, attempts.getAnswerWrites().size());
+        assertNull(drafts.find("default", 7, "student"));
+    }
+
+    @Test
+    void shouldPutDraftBackWhenSavingBeforeGradingFails() {
+        drafts.merge(attempt(Map.of()), "student", Map.of(2, 5));
+        attempts.setFailing(true);
+
+        assertThrows(DataAccessException.class, () -> drafts.take(attempt(Map.of()), Map.of(3, 9)));
+
+        assertEquals(Map.of(2, 5, 3, 9), drafts.find("default", 7, "student").getAnswers());
+        attempts.setFailing(false);
+        drafts.flush();
+        assertEquals(Map.of(2, 5, 3, 9), saved());
+    }
+
+    private static QuizAttempt attempt(Map<Integer, Integer> answers) {
+        return new QuizAttempt(7, 2, 1, "default", Instant.now(), 600, new LinkedHashMap<>(answers), null);
+    }
+
+    private Map<Integer, Integer> saved() {
+        return attempts.findById(7).getAnswers();
+    }
+}
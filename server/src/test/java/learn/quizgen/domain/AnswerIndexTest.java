@@ -0,0 +1,27 @@
+package learn.quizgen.domain;
+
+import learn.quizgen.models.QuestionResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnswerIndexTest {
+
+    @Test
+    void shouldReplacePreviousAttemptAndSurviveBytes() {
+        AnswerIndex index = new AnswerIndex();
+        index.record(4, List.of(new QuestionResult(0, 4, 1, 3, 11), new QuestionResult(0, 4, 1, 7, 27)));
+        index.record(5, List.of(new QuestionResult(0, 5, 1, 3, 12)));
+        index.record(4, List.of(new QuestionResult(0, 4, 1, 3, 12), new QuestionResult(0, 4, 1, 7, 27)));
+
+        AnswerIndex read = AnswerIndex.fromBytes(index.toBytes());
+        assertArrayEquals(new int[]{4, 5}, read.students().toArray());
+        assertTrue(read.picked(3, 11).isEmpty());
+        assertArrayEquals(new int[]{4, 5}, read.picked(3, 12).toArray());
+        // Missed question 7 (correct option 28): answered something else or skipped it
+        assertArrayEquals(new int[]{4, 5}, read.students().andNot(read.picked(7, 28)).toArray());
+        assertArrayEquals(new int[]{5}, read.students().andNot(read.picked(7, 27)).toArray());
+    }
+}
@@ -0,0 +1,154 @@
+package learn.quizgen.domain;
+
+import learn.quizgen.data.routing.TenantProperties;
+import learn.quizgen.models.QuizAttempt;
+import learn.quizgen.models.QuizResult;
+import learn.quizgen.support.InMemoryQuizAttemptRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Ticks are 10 ms and there is no grace period, so an attempt whose time ran out a minute ago is due
+// on the next tick()
+class AttemptDeadlinesTest {
+
+    int sweepCalls;
+    InMemoryQuizAttemptRepository attempts = new InMemoryQuizAttemptRepository() {
+        @Override
+        public List<QuizAttempt> findExpired(Instant before, int limit) {
+            sweepCalls++;
+            return super.findExpired(before, limit);
+        }
+    };
+    List<Integer> submitted = new ArrayList<>();
+    AttemptDeadlines deadlines = deadlines(true);
+
+    @Test
+    void shouldSubmitOnceDeadlinePassed() {
+        deadlines.track(attempts.save(expired(1)));
+
+        deadlines.tick();
+        deadlines.tick();
+
+        assertEquals(List.of(1), submitted);
+    }
+
+    @Test
+    void shouldNotSubmitBeforeDeadline() {
+        deadlines.track(attempts.save(new QuizAttempt(1, 7, 1, "default", Instant.now(), 600, Map.of(), null)));
+
+        deadlines.tick();
+
+        assertTrue(submitted.isEmpty());
+    }
+
+    @Test
+    void shouldNotTrackUntimedAttempt() {
+        deadlines.track(attempts.save(new QuizAttempt(1, 7, 1, "default",
+                Instant.now().minusSeconds(3600), null, Map.of(), null)));
+
+        deadlines.tick();
+
+        assertTrue(submitted.isEmpty());
+    }
+
+    @Test
+    void shouldNotSubmitUntrackedAttempt() {
+        QuizAttempt attempt = attempts.save(expired(1));
+        deadlines.track(attempt);
+
+        deadlines.untrack(attempt);
+        deadlines.tick();
+
+        assertTrue(submitted.isEmpty());
+    }
+
+    @Test
+    void shouldReplaceDeadlineWhenTrackedAgain() {
+        QuizAttempt attempt = attempts.save(expired(1));
+        deadlines.track(attempt);
+
+        attempt.setTimeLimitSeconds(3600);
+        deadlines.track(attempt);
+        deadlines.tick();
+
+        assertTrue(submitted.isEmpty());
+    }
+
+    @Test
+    void shouldSkipAttemptSubmittedMeanwhile() {
+        QuizAttempt attempt = attempts.save(expired(1));
+        deadlines.track(attempt);
+        // The student's own submit, or another instance, got there first
+        attempts.markSubmitted(attempt, Instant.now());
+
+        deadlines.tick();
+
+        assertTrue(submitted.isEmpty());
+    }
+
+    @Test
+    void shouldSweepExpiredAttemptsAndUntrackThem() {
+        deadlines.track(attempts.save(expired(1)));
+        attempts.save(expired(2));
+
+        deadlines.sweep();
+        deadlines.tick();
+
+        assertEquals(List.of(1, 2), submitted);
+        assertEquals(1, sweepCalls);
+    }
+
+    @Test
+    void shouldRebuildDeadlinesOnStartup() {
+        attempts.save(expired(1));
+
+        deadlines.run(null);
+        deadlines.tick();
+
+        assertEquals(List.of(1), submitted);
+    }
+
+    @Test
+    void shouldDoNothingWhenDisabled() {
+        AttemptDeadlines disabled = deadlines(false);
+        attempts.save(expired(1));
+        attempts.save(expired(2));
+
+        disabled.run(null);
+        disabled.track(attempts.save(expired(3)));
+        disabled.tick();
+        disabled.sweep();
+
+        assertTrue(submitted.isEmpty());
+        assertEquals(0, sweepCalls);
+    }
+
+    private AttemptDeadlines deadlines(boolean enabled) {
+        AttemptGrader grader = new AttemptGrader(null, null, null, null, null, null) {
+            @Override
+            public Result<QuizResult> submit(QuizAttempt attempt) {
+                submitted.add(attempt.getAttemptId());
+                attempts.markSubmitted(attempt, Instant.now());
+                return new Result<>();
+            }
+        };
+        AnswerDrafts drafts = new AnswerDrafts(null, 10) {
+            @Override
+            public QuizAttempt take(QuizAttempt attempt) {
+                return attempt;
+            }
+        };
+        return new AttemptDeadlines(attempts, grader, drafts, new TenantProperties(), enabled, 10, 0, 500);
+    }
+
+    // Started 70 seconds ago with a one minute limit
+    private static QuizAttempt expired(int attemptId) {
+        return new QuizAttempt(attemptId, 7, 1, "default", Instant.now().minusSeconds(70), 60, Map.of(), null);
+    }
+}
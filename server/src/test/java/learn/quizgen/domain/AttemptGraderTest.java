@@ -0,0 +1,198 @@
+package learn.quizgen.domain;
+
+import learn.quizgen.data.QuestionResultRepository;
+import learn.quizgen.models.Option;
+import learn.quizgen.models.Question;
+import learn.quizgen.models.QuestionResult;
+import learn.quizgen.models.QuizAttempt;
+import learn.quizgen.models.QuizResult;
+import learn.quizgen.support.CountingTransactionManager;
+import learn.quizgen.support.InMemoryQuizAttemptRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Quiz 1 has two questions: 10 (option 101 correct) and 20 (option 202 correct)
+class AttemptGraderTest {
+
+    InMemoryQuizAttemptRepository attempts = new InMemoryQuizAttemptRepository();
+    FakeAnswers answers = new FakeAnswers();
+    List<Map<Integer, Integer>> indexed = new ArrayList<>();
+    List<QuizResult> results = new ArrayList<>();
+    boolean rejectResults;
+    CountingTransactionManager transactions = new CountingTransactionManager();
+
+    AttemptGrader grader = new AttemptGrader(attempts, answers, new AnswerIndexService(null, null, null, null,
+            null, null, null) {
+        @Override
+        public void record(int quizId, Map<Integer, Integer> attempts) {
+            indexed.add(attempts);
+        }
+    }, new QuestionService(null, null, null) {
+        @Override
+        public List<Question> getQuestionById(int id) {
+            return List.of(question(10, 101, 101, 102), question(20, 202, 201, 202));
+        }
+    }, new QuizResultService(null) {
+        @Override
+        public Result<QuizResult> add(QuizResult quizResult) {
+            Result<QuizResult> result = new Result<>();
+            if (rejectResults) {
+                result.addMessage("Rejected", ResultType.INVALID);
+            } else {
+                results.add(quizResult);
+                result.setPayload(quizResult);
+            }
+            return result;
+        }
+    }, new TransactionTemplate(transactions));
+
+    @Test
+    void shouldGradeSavedAnswers() {
+        Result<QuizResult> result = grader.submit(attempt(Map.of(10, 101, 20, 201)));
+
+        assertTrue(result.isSuccess(), String.valueOf(result.getMessages()));
+        assertEquals(1, result.getPayload().getCorrectAnswers());
+        assertEquals(2, result.getPayload().getTotalQuestions());
+        assertEquals(50f, result.getPayload().getScore());
+        assertEquals(Integer.valueOf(1), result.getPayload().getAttempt());
+        assertEquals(2, answers.added.size());
+        assertEquals(List.of(Map.of(7, 1)), indexed);
+        assertEquals(1, transactions.getCommits());
+    }
+
+    @Test
+    void shouldGradeOnlyOnce() {
+        QuizAttempt attempt = attempt(Map.of(10, 101));
+        assertTrue(grader.submit(attempt).isSuccess());
+
+        // Another instance, or the student racing the deadline, with its own copy of the attempt
+        Result<QuizResult> second = grader.submit(attempt(Map.of(10, 101, 20, 202)));
+
+        assertEquals(ResultType.INVALID, second.getType());
+        assertEquals(List.of("Attempt was already submitted."), second.getMessages());
+        assertEquals(1, results.size());
+        assertEquals(1, answers.added.size());
+        assertEquals(1, indexed.size());
+    }
+
+    @Test
+    void shouldCloseAttemptWithoutAnswers() {
+        QuizAttempt attempt = attempt(Map.of());
+
+        Result<QuizResult> result = grader.submit(attempt);
+
+        assertTrue(result.isSuccess());
+        assertNull(result.getPayload());
+        assertNotNull(attempt.getSubmittedAt());
+        assertTrue(attempts.findById(attempt.getAttemptId()).isSubmitted());
+        assertTrue(results.isEmpty());
+        assertTrue(answers.added.isEmpty());
+    }
+
+    @Test
+    void shouldRollBackWhenResultIsRejected() {
+        rejectResults = true;
+        QuizAttempt attempt = attempt(Map.of(10, 102));
+
+        Result<QuizResult> result = grader.submit(attempt);
+
+        assertFalse(result.isSuccess());
+        assertNull(attempt.getSubmittedAt());
+        assertEquals(1, transactions.getRollbacks());
+        assertEquals(0, transactions.getCommits());
+    }
+
+    // Saved like a started attempt; every call returns its own copy, as separate requests would load it
+    private QuizAttempt attempt(Map<Integer, Integer> answers) {
+        if (attempts.findById(3) == null) {
+            attempts.save(new QuizAttempt(3, 7, 1, "default", Instant.now(), 600, new HashMap<>(), null));
+        }
+        return new QuizAttempt(3, 7, 1, "default", Instant.now(), 600, new HashMap<>(answers), null);
+    }
+
+    private static Question question(int questionId, int correctOptionId, int... optionIds) {
+        Question question = new Question(questionId, 1, "Question " + questionId);
+        List<Option> options = new ArrayList<>();
+        for (int optionId : optionIds) {
+            options.add(new Option(optionId, questionId, "Option " + optionId, optionId == correctOptionId));
+        }
+        question.setOptionList(options);
+        return question;
+    }
+
+    private static class FakeAnswers implements QuestionResultRepository {
+        private final List<QuestionResult> added = new ArrayList<>();
+
+        @Override
+        public Map<Integer, Integer> addAttempts(int quizId, List<QuestionResult> questionResults) {
+            added.addAll(questionResults);
+            Map<Integer, Integer> attempts = new HashMap<>();
+            questionResults.forEach(answer -> attempts.put(answer.getUserId(), 1));
+            return attempts;
+        }
+
+        @Override
+        public List<QuestionResult> findAll() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public QuestionResult findById(int id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public QuestionResult add(QuestionResult questionResult) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void addAll(List<QuestionResult> questionResults) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<QuestionResult> findAttempt(int userId, int quizId, int attempt) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<QuestionResult> findLatestAttempt(int userId, int quizId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void forEachLatestAttempt(int quizId, Consumer<List<QuestionResult>> consumer) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<QuizResult> findLegacyAttempts(int afterUserId, int afterQuizId, int limit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int packResultRows(List<QuizResult> legacyAttempts) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean update(QuestionResult questionResult) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean deleteById(int id) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
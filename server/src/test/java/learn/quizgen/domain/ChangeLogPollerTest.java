@@ -0,0 +1,113 @@
+package learn.quizgen.domain;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import learn.quizgen.data.ChangeLogRepository;
+import learn.quizgen.data.routing.TenantProperties;
+import learn.quizgen.models.ChangeLogEntry;
+import learn.quizgen.models.Quiz;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeLogPollerTest {
+
+    FakeChangeLog changeLog = new FakeChangeLog();
+    QuizCache cache = new QuizCache(new SimpleMeterRegistry(), 100, 60);
+    AtomicLong now = new AtomicLong();
+    ChangeLogPoller poller = new ChangeLogPoller(changeLog, new CacheInvalidator(changeLog, cache),
+            new TenantProperties(), 100, 24, 10_000, now::get);
+    AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void shouldEvictWhatOtherInstancesChanged() {
+        changeLog.commit(1, ChangeLogEntry.QUIZ, 7);
+        poller.poll();
+        assertEquals(1, poller.position("primary"));
+
+        cache.getQuiz(1, this::load);
+        cache.getQuiz(1, this::load);
+        assertEquals(1, loads.get());
+
+        changeLog.commit(2, ChangeLogEntry.QUIZ, 1);
+        poller.poll();
+        cache.getQuiz(1, this::load);
+        assertEquals(2, loads.get());
+        assertEquals(2, poller.position("primary"));
+    }
+
+    @Test
+    void shouldHoldCursorAtGapUntilItFills() {
+        poller.poll();
+
+        changeLog.commit(2, ChangeLogEntry.QUIZ, 2);
+        poller.poll();
+        assertEquals(0, poller.position("primary"));
+
+        changeLog.commit(1, ChangeLogEntry.QUIZ, 1);
+        cache.getQuiz(1, this::load);
+        poller.poll();
+        assertEquals(2, poller.position("primary"));
+        cache.getQuiz(1, this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldSkipGapThatNeverFills() {
+        poller.poll();
+
+        changeLog.commit(2, ChangeLogEntry.OPTION, 5);
+        changeLog.commit(3, ChangeLogEntry.QUESTION, 9);
+        poller.poll();
+        now.addAndGet(5_000_000_000L);
+        poller.poll();
+        assertEquals(0, poller.position("primary"));
+
+        now.addAndGet(6_000_000_000L);
+        poller.poll();
+        assertEquals(3, poller.position("primary"));
+    }
+
+    private Quiz load(int quizId) {
+        loads.incrementAndGet();
+        return new Quiz();
+    }
+
+    // change_log where the test decides which id each commit gets
+    private static class FakeChangeLog implements ChangeLogRepository {
+        private final List<ChangeLogEntry> entries = new ArrayList<>();
+
+        void commit(long changeId, String entity, int entityId) {
+            entries.add(new ChangeLogEntry(changeId, entity, entityId, "default"));
+        }
+
+        @Override
+        public void append(String entity, int entityId) {
+            commit(findLatestId() + 1, entity, entityId);
+        }
+
+        @Override
+        public List<ChangeLogEntry> findAfter(long changeId, int limit) {
+            return entries.stream()
+                    .filter(entry -> entry.getChangeId() > changeId)
+                    .sorted((a, b) -> Long.compare(a.getChangeId(), b.getChangeId()))
+                    .limit(limit)
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public long findLatestId() {
+            return entries.stream().mapToLong(ChangeLogEntry::getChangeId).max().orElse(0);
+        }
+
+        @Override
+        public int deleteOlderThan(int hours) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package learn.quizgen.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedBitmapTest {
+
+    @Test
+    void shouldCombineSets() {
+        CompressedBitmap missedQ3 = CompressedBitmap.of(2, 5, 9, 70000);
+        CompressedBitmap missedQ7 = CompressedBitmap.of(5, 9, 11, 70001);
+
+        assertArrayEquals(new int[]{5, 9}, missedQ3.and(missedQ7).toArray());
+        assertArrayEquals(new int[]{2, 5, 9, 11, 70000, 70001}, missedQ3.or(missedQ7).toArray());
+        assertArrayEquals(new int[]{2, 70000}, missedQ3.andNot(missedQ7).toArray());
+        assertTrue(missedQ3.and(CompressedBitmap.of(3)).isEmpty());
+    }
+
+    // Enough values in one container that it switches to a bitset and back
+    @Test
+    void shouldMatchTreeSetAcrossContainerKinds() throws IOException {
+        Random random = new Random(42);
+        CompressedBitmap a = new CompressedBitmap();
+        CompressedBitmap b = new CompressedBitmap();
+        TreeSet<Integer> expectedA = new TreeSet<>();
+        TreeSet<Integer> expectedB = new TreeSet<>();
+        for (int i = 0; i < 20000; i++) {
+            int value = random.nextInt(150000);
+            a.add(value);
+            expectedA.add(value);
+            value = random.nextInt(10000);
+            b.add(value);
+            expectedB.add(value);
+        }
+        for (int i = 0; i < 15000; i++) {
+            int value = random.nextInt(150000);
+            a.remove(value);
+            expectedA.remove(value);
+        }
+
+        assertEquals(expectedA.size(), a.cardinality());
+        assertArrayEquals(expectedA.stream().mapToInt(Integer::intValue).toArray(), a.toArray());
+
+        TreeSet<Integer> both = new TreeSet<>(expectedA);
+        both.retainAll(expectedB);
+        assertArrayEquals(both.stream().mapToInt(Integer::intValue).toArray(), a.and(b).toArray());
+        TreeSet<Integer> either = new TreeSet<>(expectedA);
+        either.addAll(expectedB);
+        assertArrayEquals(either.stream().mapToInt(Integer::intValue).toArray(), a.or(b).toArray());
+        TreeSet<Integer> onlyB = new TreeSet<>(expectedB);
+        onlyB.removeAll(expectedA);
+        assertArrayEquals(onlyB.stream().mapToInt(Integer::intValue).toArray(), b.andNot(a).toArray());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        a.or(b).writeTo(new DataOutputStream(bytes));
+        CompressedBitmap read = CompressedBitmap.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(a.or(b), read);
+    }
+
+    @Test
+    void shouldRejectNegativeValues() {
+        assertThrows(IllegalArgumentException.class, () -> CompressedBitmap.of(-1));
+        assertFalse(CompressedBitmap.of(1).contains(-1));
+    }
+}
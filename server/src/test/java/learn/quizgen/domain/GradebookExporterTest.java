@@ -0,0 +1,118 @@
+package learn.quizgen.domain;
+
+import learn.quizgen.data.QuizResultRepository;
+import learn.quizgen.models.GradebookRow;
+import learn.quizgen.models.QuizResult;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GradebookExporterTest {
+
+    @Test
+    void shouldWriteOneLinePerResult() throws IOException {
+        GradebookRow row = new GradebookRow(1, 3, "Fractions", "math", "student@quiztaker.com", 2, 3, 66.67f);
+
+        assertEquals("quiz_result_id,quiz_id,title,topic,username,correct_answers,total_questions,percent_correct\r\n" +
+                "1,3,Fractions,math,student@quiztaker.com,2,3,66.67\r\n", export(row, false));
+    }
+
+    @Test
+    void shouldQuoteFieldsThatNeedIt() throws IOException {
+        GradebookRow row = new GradebookRow(1, 3, "Say \"cheese\"", "a, b", "student", 1, 1, 100f);
+        row.setQuestionId(9);
+        row.setQuestionText("Line one\nline two");
+        row.setOptionText("plain");
+        row.setCorrect(true);
+
+        String csv = export(row, true);
+
+        assertTrue(csv.endsWith("1,3,\"Say \"\"cheese\"\"\",\"a, b\",student,1,1,100.0,9,\"Line one\nline two\",plain,true\r\n"));
+    }
+
+    @Test
+    void shouldDefuseFormulas() throws IOException {
+        GradebookRow row = new GradebookRow(1, 3, "=HYPERLINK(\"http://evil\",\"x\")", "+1", "@SUM(A1)", 1, 1, 100f);
+        row.setQuestionId(9);
+        row.setQuestionText("-2+3");
+        row.setOptionText("\tcmd");
+        row.setCorrect(false);
+
+        String csv = export(row, true);
+
+        assertTrue(csv.endsWith("1,3,\"'=HYPERLINK(\"\"http://evil\"\",\"\"x\"\")\",'+1,'@SUM(A1),1,1,100.0,9," +
+                "'-2+3,'\tcmd,false\r\n"));
+    }
+
+    @Test
+    void shouldLeaveFormulaCharactersAfterFirstAlone() throws IOException {
+        GradebookRow row = new GradebookRow(1, 3, "1 + 1 = 2", "a-b", "student@quiztaker.com", 1, 1, 100f);
+
+        assertTrue(export(row, false).endsWith("1,3,1 + 1 = 2,a-b,student@quiztaker.com,1,1,100.0\r\n"));
+    }
+
+    private static String export(GradebookRow row, boolean withAnswers) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new GradebookExporter(new OneRow(row)).writeCsv("teacher", withAnswers, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    static class OneRow implements QuizResultRepository {
+        private final GradebookRow row;
+
+        OneRow(GradebookRow row) {
+            this.row = row;
+        }
+
+        @Override
+        public void forEachGradebookRow(String teacherUsername, boolean withAnswers, boolean includeArchived,
+                                        Consumer<GradebookRow> consumer) {
+            consumer.accept(row);
+        }
+
+        @Override
+        public List<QuizResult> findAll() {
+            return List.of();
+        }
+
+        @Override
+        public List<QuizResult> findAll(boolean includeArchived) {
+            return List.of();
+        }
+
+        @Override
+        public QuizResult findById(int id) {
+            return null;
+        }
+
+        @Override
+        public List<QuizResult> findMostTaken(int limit) {
+            return List.of();
+        }
+
+        @Override
+        public QuizResult add(QuizResult quiz) {
+            return quiz;
+        }
+
+        @Override
+        public void addAll(List<QuizResult> quizResults) {
+        }
+
+        @Override
+        public boolean update(QuizResult quiz) {
+            return false;
+        }
+
+        @Override
+        public boolean deleteById(int id) {
+            return false;
+        }
+    }
+}
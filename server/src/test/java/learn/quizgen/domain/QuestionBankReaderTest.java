@@ -0,0 +1,65 @@
+package learn.quizgen.domain;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import learn.quizgen.models.Question;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuestionBankReaderTest {
+
+    @Test
+    void shouldReadQuotedCsvFields() throws IOException {
+        QuestionBankReader reader = new QuestionBankReader.Csv(new StringReader(
+                "question,correct,option1,option2,option3\r\n" +
+                "\"Which is \"\"prime\"\", a or b?\",2,\"4, maybe\",7,\r\n" +
+                "\"Two\nlines\",1,yes,no,\n"));
+
+        Question first = reader.next().getQuestion();
+        assertEquals("Which is \"prime\", a or b?", first.getQuestionText());
+        assertEquals(2, first.getOptionList().size());
+        assertEquals("4, maybe", first.getOptionList().get(0).getOptionText());
+        assertFalse(first.getOptionList().get(0).isCorrect());
+        assertTrue(first.getOptionList().get(1).isCorrect());
+
+        QuestionBankReader.Row second = reader.next();
+        assertEquals(2, second.getNumber());
+        assertEquals("Two\nlines", second.getQuestion().getQuestionText());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void shouldReportBadCsvRowAndKeepReading() throws IOException {
+        QuestionBankReader reader = new QuestionBankReader.Csv(new StringReader(
+                "question,correct,option1,option2\nBroken,first,a,b\nFine,1,a,b\n"));
+
+        QuestionBankReader.Row bad = reader.next();
+        assertNull(bad.getQuestion());
+        assertNotNull(bad.getError());
+        assertEquals("Fine", reader.next().getQuestion().getQuestionText());
+    }
+
+    @Test
+    void shouldReadJsonArrayOneQuestionAtATime() throws IOException {
+        Path file = Files.createTempFile("questions", ".json");
+        Files.writeString(file, "[{\"questionText\": \"2 + 2?\", \"optionList\": [" +
+                "{\"optionText\": \"4\", \"correct\": true}, {\"optionText\": \"5\"}]}, 7]", StandardCharsets.UTF_8);
+        try (QuestionBankReader reader = QuestionBankReader.open(file, "json", new ObjectMapper())) {
+            Question question = reader.next().getQuestion();
+            assertEquals("2 + 2?", question.getQuestionText());
+            assertTrue(question.getOptionList().get(0).isCorrect());
+            assertFalse(question.getOptionList().get(1).isCorrect());
+
+            assertNotNull(reader.next().getError());
+            assertNull(reader.next());
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package learn.quizgen.domain;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import learn.quizgen.data.routing.ReplicaRoutingDataSource;
+import learn.quizgen.data.routing.TenantContext;
+import learn.quizgen.models.Question;
+import learn.quizgen.models.Quiz;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuizCacheTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    AtomicLong now = new AtomicLong();
+    QuizCache cache = new QuizCache(meterRegistry, 2, 60, now::get);
+    AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void shouldLoadOnceWithinTtl() {
+        cache.getQuestions(1, this::load);
+        cache.getQuestions(1, this::load);
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.counter("cache.gets", "cache", "questions", "result", "hit").count());
+        assertEquals(1.0, meterRegistry.counter("cache.gets", "cache", "questions", "result", "miss").count());
+
+        now.addAndGet(61_000_000_000L);
+        cache.getQuestions(1, this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldEvictQuizAndItsQuestions() {
+        cache.getQuiz(1, id -> new Quiz());
+        cache.getQuestions(1, this::load);
+        cache.evictQuiz(1);
+        cache.getQuestions(1, this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldLoadFromPrimary() {
+        cache.getQuiz(1, id -> {
+            assertTrue(ReplicaRoutingDataSource.isPinnedToPrimary());
+            return new Quiz();
+        });
+        assertFalse(ReplicaRoutingDataSource.isPinnedToPrimary());
+    }
+
+    @Test
+    void shouldKeepSchoolsApart() {
+        try {
+            TenantContext.setSchool("north");
+            cache.getQuestions(1, this::load);
+            TenantContext.setSchool("south");
+            cache.getQuestions(1, this::load);
+            cache.evictQuiz(1);
+            TenantContext.setSchool("north");
+            cache.getQuestions(1, this::load);
+        } finally {
+            TenantContext.clear();
+        }
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldDropLeastRecentlyUsed() {
+        cache.getQuestions(1, this::load);
+        cache.getQuestions(2, this::load);
+        cache.getQuestions(1, this::load);
+        cache.getQuestions(3, this::load);
+        assertEquals(3, loads.get());
+
+        cache.getQuestions(1, this::load);
+        assertEquals(3, loads.get());
+        cache.getQuestions(2, this::load);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void shouldNotCacheMissingQuizzes() {
+        assertNull(cache.getQuiz(99, id -> null));
+        assertNull(cache.getQuiz(99, id -> null));
+        assertEquals(2.0, meterRegistry.counter("cache.gets", "cache", "quizzes", "result", "miss").count());
+    }
+
+    private List<Question> load(int quizId) {
+        loads.incrementAndGet();
+        return List.of(new Question(0, quizId, "Question"));
+    }
+}
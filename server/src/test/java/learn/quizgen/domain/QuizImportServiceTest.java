@@ -0,0 +1,258 @@
+package learn.quizgen.domain;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import learn.quizgen.data.OptionRepository;
+import learn.quizgen.data.QuestionRepository;
+import learn.quizgen.models.AppUser;
+import learn.quizgen.models.Option;
+import learn.quizgen.models.Question;
+import learn.quizgen.models.Quiz;
+import learn.quizgen.models.Teacher;
+import learn.quizgen.support.CountingTransactionManager;
+import learn.quizgen.support.InMemoryAppUserRepository;
+import learn.quizgen.support.InMemoryTeacherRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Imports CSV into quiz 1, owned by "teacher" (teacher 1), two rows per chunk on four validation threads. The fake
+// repositories share one list of saved questions that a rolled back transaction truncates again.
+class QuizImportServiceTest {
+
+    List<String> saved = Collections.synchronizedList(new ArrayList<>());
+    List<List<String>> chunks = Collections.synchronizedList(new ArrayList<>());
+    FakeTransactions transactions = new FakeTransactions();
+    InMemoryAppUserRepository users = new InMemoryAppUserRepository();
+    InMemoryTeacherRepository teachers = new InMemoryTeacherRepository();
+    QuizImportService service = new QuizImportService(new QuizService(null, null, null, null, null, null, null, null) {
+        @Override
+        public Result<Quiz> getQuizById(int id) {
+            Result<Quiz> result = new Result<>();
+            result.setPayload(new Quiz(id, 1, "teacher", "Quiz", "Quiz", 0, 2, "test", "", ""));
+            return result;
+        }
+    }, new QuestionService(null, null, null) {
+        @Override
+        Result<Question> validate(Question question) {
+            // The first chunk is validated last, so writing in file order has to wait for it
+            if (question.getQuestionText().equals("Question 1")) {
+                sleep(300);
+            }
+            return super.validate(question);
+        }
+    }, new OptionService(null, null), new FakeQuestions(), new FakeOptions(), users, teachers,
+            new CacheInvalidator(null, null) {
+                @Override
+                public void quizChanged(int quizId) {
+                }
+            }, new TransactionTemplate(transactions), new ObjectMapper(),
+            1024 * 1024, 2, 100, 1, 5, 4, 60);
+
+    @BeforeEach
+    void setup() {
+        for (String username : List.of("teacher", "someone else")) {
+            AppUser user = users.add(new AppUser(0, "First", "Last", username, "hash", false, List.of("Teacher")));
+            teachers.add(new Teacher(0, user.getAppUserId()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void shouldWriteChunksInFileOrder() throws Exception {
+        StringBuilder csv = new StringBuilder("question,correct,option1,option2\n");
+        for (int i = 1; i <= 7; i++) {
+            csv.append("Question ").append(i).append(",1,yes,no\n");
+        }
+
+        QuizImportJob job = importCsv(csv.toString());
+
+        assertEquals(QuizImportJob.Status.DONE, job.getStatus());
+        assertEquals(List.of(List.of("Question 1", "Question 2"), List.of("Question 3", "Question 4"),
+                List.of("Question 5", "Question 6"), List.of("Question 7")), chunks);
+        assertEquals(7, job.getRowsRead());
+        assertEquals(7, job.getQuestionsAdded());
+        assertEquals(14, job.getOptionsAdded());
+        assertEquals(0, job.getErrorCount());
+    }
+
+    @Test
+    void shouldRollBackOnlyTheFailedChunk() throws Exception {
+        QuizImportJob job = importCsv("question,correct,option1,option2\n" +
+                "Question 1,1,yes,no\nQuestion 2,1,yes,no\n" +
+                "Question 3,1,yes,too long\nQuestion 4,1,yes,no\n" +
+                "Question 5,1,yes,no\n");
+
+        assertEquals(QuizImportJob.Status.DONE, job.getStatus());
+        assertEquals(List.of("Question 1", "Question 2", "Question 5"), saved);
+        assertEquals(1, transactions.getRollbacks());
+        assertEquals(3, job.getQuestionsAdded());
+        assertEquals(List.of(3L, 4L), job.errors().stream().map(QuizImportJob.RowError::getRow)
+                .collect(Collectors.toList()));
+        assertEquals("not saved: Data too long for column 'option_text'", job.errors().get(0).getMessage());
+    }
+
+    @Test
+    void shouldReportRejectedRowsInFileOrder() throws Exception {
+        QuizImportJob job = importCsv("question,correct,option1,option2\n" +
+                "Question 1,1,yes,no\n" +
+                "Broken,first,yes,no\n" +
+                "No answer,3,yes,no\n" +
+                ",1,yes,no\n" +
+                "Question 5,2,yes,no\n");
+
+        assertEquals(QuizImportJob.Status.DONE, job.getStatus());
+        assertEquals(List.of("Question 1", "Question 5"), saved);
+        assertEquals(3, job.getErrorCount());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeErrors(job, out);
+        assertEquals("row,message\r\n" +
+                "2,\"correct must be the number of the correct option, not 'first'\"\r\n" +
+                "3,a question needs a correct option\r\n" +
+                "4,questionText is required\r\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldRejectImportIntoSomeoneElsesQuiz() throws Exception {
+        Result<QuizImportJob> result = service.start(1, "csv",
+                new ByteArrayInputStream("question,correct,option1,option2\n".getBytes(StandardCharsets.UTF_8)),
+                "someone else");
+
+        assertEquals(ResultType.NOT_FOUND, result.getType());
+    }
+
+    private QuizImportJob importCsv(String csv) throws Exception {
+        Result<QuizImportJob> result = service.start(1, "csv",
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), "teacher");
+        assertTrue(result.isSuccess(), String.valueOf(result.getMessages()));
+        QuizImportJob job = result.getPayload();
+        for (int i = 0; i < 500 && (job.getStatus() == QuizImportJob.Status.QUEUED
+                || job.getStatus() == QuizImportJob.Status.RUNNING); i++) {
+            Thread.sleep(20);
+        }
+        return job;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private class FakeQuestions implements QuestionRepository {
+        private int nextId = 1;
+
+        @Override
+        public List<Question> addAll(List<Question> questions) {
+            List<String> texts = new ArrayList<>();
+            for (Question question : questions) {
+                question.setQuestionId(nextId++);
+                texts.add(question.getQuestionText());
+            }
+            chunks.add(texts);
+            saved.addAll(texts);
+            return questions;
+        }
+
+        @Override
+        public List<Question> findAll() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Question> findByQuizId(int id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Question add(Question question) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean update(Question question) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean deleteById(int id) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    // Fails the chunk of any option named "too long", after its questions went in
+    private static class FakeOptions implements OptionRepository {
+        @Override
+        public List<Option> addAll(List<Option> options) {
+            for (Option option : options) {
+                if (option.getOptionText().equals("too long")) {
+                    throw new DataIntegrityViolationException("Data too long for column 'option_text'");
+                }
+            }
+            return options;
+        }
+
+        @Override
+        public List<Option> findAll() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Option findById(int id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Option add(Option option) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean update(Option option) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean deleteById(int id) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    // Chunks are written one at a time on the import thread, so a rollback only has to drop what was
+    // saved since the transaction began
+    private class FakeTransactions extends CountingTransactionManager {
+        private int savedAtBegin;
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            savedAtBegin = saved.size();
+            return super.getTransaction(definition);
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            super.rollback(status);
+            saved.subList(savedAtBegin, saved.size()).clear();
+        }
+    }
+}
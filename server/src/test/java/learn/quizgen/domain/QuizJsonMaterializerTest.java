@@ -0,0 +1,147 @@
+package learn.quizgen.domain;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import learn.quizgen.models.Option;
+import learn.quizgen.models.Question;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuizJsonMaterializerTest {
+
+    QuizJsonMaterializer materializer = new QuizJsonMaterializer(new ObjectMapper());
+
+    @Test
+    void shouldMaterializeQuestionsAndOptions() {
+        String json = "{\"questions\": ["
+                + "{\"question\": \"2 + 2?\", \"options\": [\"3\", \"4\", \"5\"], \"correct_answer\": \"4\"},"
+                + "{\"question\": \"Capital of France?\", \"options\": [\"Paris\", \"Rome\", \"Oslo\"], \"correct_answer\": \"Paris\"}"
+                + "]}";
+
+        Result<QuizJsonMaterializer.MaterializedQuiz> result = materializer.materialize(json, 2, 3);
+
+        assertTrue(result.isSuccess());
+        List<Question> questions = result.getPayload().getQuestions();
+        assertEquals(2, questions.size());
+        assertEquals("2 + 2?", questions.get(0).getQuestionText());
+        assertEquals(3, questions.get(0).getOptionList().size());
+        assertTrue(questions.get(0).getOptionList().get(1).isCorrect());
+        assertFalse(questions.get(0).getOptionList().get(0).isCorrect());
+    }
+
+    @Test
+    void shouldNormalizeOptions() {
+        String json = "{\"questions\": [{\"question\": \"Pick one\", "
+                + "\"options\": [\" a \", \"a\", \"\", 7, \"b\", \"c\", \"d\"], \"correct_answer\": \"z\"}]}";
+
+        Result<QuizJsonMaterializer.MaterializedQuiz> result = materializer.materialize(json, 1, 3);
+
+        assertTrue(result.isSuccess());
+        List<Option> options = result.getPayload().getQuestions().get(0).getOptionList();
+        assertEquals(3, options.size());
+        assertEquals("z", options.get(0).getOptionText());
+        assertTrue(options.get(0).isCorrect());
+        assertEquals("a", options.get(1).getOptionText());
+        assertEquals("b", options.get(2).getOptionText());
+    }
+
+    @Test
+    void shouldPadMissingOptions() {
+        String json = "{\"questions\": [{\"question\": \"Pick one\", \"options\": [\"yes\"], \"correct_answer\": \"yes\"}]}";
+
+        Result<QuizJsonMaterializer.MaterializedQuiz> result = materializer.materialize(json, 1, 3);
+
+        assertTrue(result.isSuccess());
+        List<Option> options = result.getPayload().getQuestions().get(0).getOptionList();
+        assertEquals(3, options.size());
+        assertEquals("Placeholder option C for question 1", options.get(2).getOptionText());
+    }
+
+    @Test
+    void shouldWriteNormalizedJson() {
+        String json = "{\"title\": {\"nested\": [1, 2]}, \"questions\": [{\"question\": \"Q\", "
+                + "\"options\": [\"a\", \"b\", \"c\"], \"correct_answer\": \"a\", \"explanation\": \"dropped\"}]}";
+
+        Result<QuizJsonMaterializer.MaterializedQuiz> result = materializer.materialize(json, 1, 2);
+
+        assertTrue(result.isSuccess());
+        assertEquals("{\"questions\":[{\"question\":\"Q\",\"options\":[\"a\",\"b\"],\"correct_answer\":\"a\"}]}",
+                result.getPayload().getQuizJson());
+    }
+
+    @Test
+    void shouldDropExtraQuestions() {
+        String json = "{\"questions\": ["
+                + "{\"question\": \"Q1\", \"options\": [\"a\", \"b\"], \"correct_answer\": \"a\"},"
+                + "{\"question\": \"Q2\", \"options\": [\"a\", \"b\"], \"correct_answer\": \"b\"}"
+                + "]}";
+
+        Result<QuizJsonMaterializer.MaterializedQuiz> result = materializer.materialize(json, 1, 2);
+
+        assertTrue(result.isSuccess());
+        assertEquals(1, result.getPayload().getQuestions().size());
+    }
+
+    @Test
+    void shouldNotMaterializeTooFewQuestions() {
+        String json = "{\"questions\": [{\"question\": \"Q1\", \"options\": [\"a\", \"b\"], \"correct_answer\": \"a\"}]}";
+
+        Result<QuizJsonMaterializer.MaterializedQuiz> result = materializer.materialize(json, 3, 2);
+
+        assertEquals(ResultType.INVALID, result.getType());
+        assertNull(result.getPayload());
+    }
+
+    @Test
+    void shouldNotMaterializeQuestionWithoutCorrectAnswer() {
+        String json = "{\"questions\": [{\"question\": \"Q1\", \"options\": [\"a\", \"b\"]}]}";
+
+        Result<QuizJsonMaterializer.MaterializedQuiz> result = materializer.materialize(json, 1, 2);
+
+        assertEquals(ResultType.INVALID, result.getType());
+    }
+
+    @Test
+    void shouldNameQuestionsByTheirPositionAfterSkippedOnes() {
+        String json = "{\"questions\": ["
+                + "{\"options\": [\"a\", \"b\"], \"correct_answer\": \"a\"},"
+                + "{\"question\": \"Q2\", \"options\": [\"a\", \"b\"]},"
+                + "{\"question\": \"Q3\", \"options\": [\"a\"], \"correct_answer\": \"a\"},"
+                + "{\"question\": \"\", \"correct_answer\": \"a\"}"
+                + "]}";
+
+        Result<QuizJsonMaterializer.MaterializedQuiz> result = materializer.materialize(json, 3, 2);
+
+        assertEquals(List.of("Question 1 has no question text.", "Question 2 has no correct_answer.",
+                "Question 4 has no question text."), result.getMessages().subList(0, 3));
+
+    }
+
+    @Test
+    void shouldLabelPlaceholdersByQuestionPosition() {
+        String json = "{\"questions\": [\"not a question\", "
+                + "{\"question\": \"Q2\", \"options\": [\"a\"], \"correct_answer\": \"a\"}]}";
+
+        Result<QuizJsonMaterializer.MaterializedQuiz> result = materializer.materialize(json, 1, 2);
+
+        assertTrue(result.isSuccess());
+        assertEquals("Placeholder option B for question 2",
+                result.getPayload().getQuestions().get(0).getOptionList().get(1).getOptionText());
+    }
+
+    @Test
+    void shouldNotMaterializeMalformedJson() {
+        Result<QuizJsonMaterializer.MaterializedQuiz> result = materializer.materialize("{\"questions\": [", 1, 2);
+
+        assertEquals(ResultType.INVALID, result.getType());
+    }
+
+    @Test
+    void shouldNotMaterializeWithoutQuestionsArray() {
+        Result<QuizJsonMaterializer.MaterializedQuiz> result = materializer.materialize("{\"quiz\": []}", 1, 2);
+
+        assertEquals(ResultType.INVALID, result.getType());
+    }
+}
@@ -0,0 +1,71 @@
+package learn.quizgen.domain;
+
+import learn.quizgen.data.QuizPurgeRepository;
+import learn.quizgen.data.routing.TenantProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuizPurgerTest {
+
+    @Test
+    void shouldDeleteDependentsInChunksBeforeTheQuiz() throws InterruptedException {
+        FakePurges repository = new FakePurges();
+        repository.remaining.put(4, 2500);
+        QuizPurger purger = new QuizPurger(repository, new TenantProperties(), true, 1000, 0, 100);
+
+        assertEquals(3, purger.purgeShard());
+
+        assertEquals(List.of(1000, 1000, 500), repository.chunks);
+        assertEquals(List.of(4), repository.purged);
+    }
+
+    @Test
+    void shouldStopAtTheChunkLimitAndResumeNextRun() throws InterruptedException {
+        FakePurges repository = new FakePurges();
+        repository.remaining.put(4, 2500);
+        repository.remaining.put(5, 10);
+        QuizPurger purger = new QuizPurger(repository, new TenantProperties(), true, 1000, 0, 2);
+
+        purger.purgeShard();
+        assertTrue(repository.purged.isEmpty());
+
+        purger.purgeShard();
+        assertEquals(List.of(4), repository.purged);
+
+        purger.purgeShard();
+        assertEquals(List.of(4, 5), repository.purged);
+    }
+
+    private static class FakePurges implements QuizPurgeRepository {
+        private final Map<Integer, Integer> remaining = new LinkedHashMap<>();
+        private final List<Integer> chunks = new ArrayList<>();
+        private final List<Integer> purged = new ArrayList<>();
+
+        @Override
+        public List<Integer> findDeleted(int limit) {
+            return new ArrayList<>(remaining.keySet());
+        }
+
+        @Override
+        public int deleteDependents(int quizId, int limit) {
+            int deleted = Math.min(limit, remaining.get(quizId));
+            remaining.put(quizId, remaining.get(quizId) - deleted);
+            if (deleted > 0) {
+                chunks.add(deleted);
+            }
+            return deleted;
+        }
+
+        @Override
+        public boolean deleteQuiz(int quizId) {
+            purged.add(quizId);
+            return remaining.remove(quizId) != null;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package learn.quizgen.domain;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import learn.quizgen.models.GeneratedQuestion;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuizStreamParserTest {
+
+    static final String QUIZ = "{\"title\": \"Rivers\", \"questions\": [" +
+            "{\"question\": \"Longest river?\", \"options\": [\"Nile\", \"Amazon\"], \"correct_answer\": \"Nile\"}, " +
+            "{\"question\": \"Widest river?\", \"options\": [\"Amazon\", \"Thames\"], \"correct_answer\": \"Amazon\"}]}";
+
+    List<GeneratedQuestion> questions = new ArrayList<>();
+    QuizStreamParser parser;
+
+    QuizStreamParserTest() throws IOException {
+        parser = new QuizStreamParser(new ObjectMapper(), questions::add);
+    }
+
+    @Test
+    void shouldEmitEachQuestionOnceItsObjectCloses() throws IOException {
+        int firstEnd = QUIZ.indexOf("}, {") + 1;
+
+        parser.feed(QUIZ.substring(0, firstEnd - 1));
+        assertTrue(questions.isEmpty());
+
+        parser.feed(QUIZ.substring(firstEnd - 1, firstEnd));
+        assertEquals(List.of("Longest river?"), texts());
+        assertEquals(List.of("Nile", "Amazon"), questions.get(0).getOptions());
+        assertEquals("Nile", questions.get(0).getCorrectAnswer());
+
+        parser.feed(QUIZ.substring(firstEnd));
+        assertEquals(List.of("Longest river?", "Widest river?"), texts());
+        assertTrue(parser.isFinished());
+    }
+
+    @Test
+    void shouldParseOneCharacterChunks() throws IOException {
+        for (char c : QUIZ.toCharArray()) {
+            parser.feed(String.valueOf(c));
+        }
+        parser.endOfInput();
+
+        assertEquals(List.of("Longest river?", "Widest river?"), texts());
+        assertEquals(2, parser.getQuestionCount());
+    }
+
+    @Test
+    void shouldKeepEscapedQuotesAndBracesInsideStrings() throws IOException {
+        String quiz = "{\"questions\": [{\"question\": \"Is \\\"}\\\" a brace? {]\", " +
+                "\"options\": [\"yes }\", \"no [\"], \"correct_answer\": \"yes }\"}]}";
+        int split = quiz.indexOf("\\\"}") + 2;
+
+        parser.feed(quiz.substring(0, split));
+        parser.feed(quiz.substring(split));
+
+        assertEquals(List.of("Is \"}\" a brace? {]"), texts());
+        assertEquals(List.of("yes }", "no ["), questions.get(0).getOptions());
+        assertTrue(parser.isFinished());
+    }
+
+    @Test
+    void shouldOnlyEmitTopLevelQuestions() throws IOException {
+        parser.feed("{\"meta\": {\"questions\": [{\"question\": \"Nested\"}]}, \"questions\": [" +
+                "{\"question\": \"Real\", \"extra\": {\"questions\": [{\"question\": \"Deeper\"}]}}]}");
+
+        assertEquals(List.of("Real"), texts());
+    }
+
+    @Test
+    void shouldKeepQuestionsReadBeforeStreamWasCut() throws IOException {
+        String cut = QUIZ.substring(0, QUIZ.indexOf("Widest"));
+        parser.feed(cut);
+
+        assertThrows(JsonProcessingException.class, () -> parser.endOfInput());
+
+        assertEquals(List.of("Longest river?"), texts());
+        assertEquals(1, parser.getQuestionCount());
+        assertFalse(parser.isFinished());
+        assertEquals(cut, parser.getRawJson());
+    }
+
+    @Test
+    void shouldReturnRawJsonWithoutFences() throws IOException {
+        parser.feed("Here is your quiz:\n```json\n");
+        parser.feed(QUIZ.substring(0, 40));
+        parser.feed(QUIZ.substring(40));
+        parser.feed("\n```");
+        parser.endOfInput();
+
+        assertEquals(QUIZ, parser.getRawJson());
+        assertEquals(2, parser.getQuestionCount());
+        assertTrue(parser.isFinished());
+    }
+
+    @Test
+    void shouldIgnoreTextAfterRootObject() throws IOException {
+        parser.feed(QUIZ + " {\"questions\": [{\"question\": \"Trailing\"}]}");
+        parser.feed("{\"questions\": [{\"question\": \"More\"}]}");
+
+        assertEquals(List.of("Longest river?", "Widest river?"), texts());
+        assertEquals(QUIZ, parser.getRawJson());
+        assertTrue(parser.isFinished());
+    }
+
+    @Test
+    void shouldCutRawJsonAtRootEndWithMultiByteText() throws IOException {
+        String quiz = "{\"questions\": [{\"question\": \"Où est Zürich? 🏔\", \"options\": [\"Schweiz\"]}]}";
+
+        parser.feed("```json\n" + quiz.substring(0, 30));
+        parser.feed(quiz.substring(30) + "\n``` Viel Glück! }");
+
+        assertEquals(quiz, parser.getRawJson());
+        assertEquals(List.of("Où est Zürich? 🏔"), texts());
+    }
+
+    private List<String> texts() {
+        return questions.stream().map(GeneratedQuestion::getQuestion).collect(Collectors.toList());
+    }
+}
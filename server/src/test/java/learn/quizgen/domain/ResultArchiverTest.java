@@ -0,0 +1,89 @@
+package learn.quizgen.domain;
+
+import learn.quizgen.data.ResultArchiveRepository;
+import learn.quizgen.data.routing.TenantProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultArchiverTest {
+
+    static final Instant BOUNDARY = Instant.parse("2026-08-01T00:00:00Z");
+
+    @Test
+    void shouldArchiveInBatchesUntilNoneLeft() throws InterruptedException {
+        FakeArchive repository = new FakeArchive();
+        for (int id = 1; id <= 5; id++) {
+            repository.archivable.put(id, BOUNDARY.minusSeconds(id));
+        }
+        repository.archivable.put(6, BOUNDARY);
+        ResultArchiver archiver = new ResultArchiver(repository, new TenantProperties(), true, "", 365, 2, 0);
+
+        assertEquals(5, archiver.archiveShard(BOUNDARY));
+
+        assertEquals(List.of(List.of(1, 2), List.of(3, 4), List.of(5)), repository.batches);
+        assertEquals(List.of(6), new ArrayList<>(repository.archivable.keySet()));
+    }
+
+    @Test
+    void shouldNotArchiveWhenNothingIsOld() throws InterruptedException {
+        FakeArchive repository = new FakeArchive();
+        repository.archivable.put(1, BOUNDARY.plusSeconds(60));
+        ResultArchiver archiver = new ResultArchiver(repository, new TenantProperties(), true, "", 365, 2, 0);
+
+        assertEquals(0, archiver.archiveShard(BOUNDARY));
+        assertTrue(repository.batches.isEmpty());
+    }
+
+    @Test
+    void shouldSkipRunWhenDisabled() {
+        FakeArchive repository = new FakeArchive();
+        repository.archivable.put(1, Instant.EPOCH);
+        ResultArchiver archiver = new ResultArchiver(repository, new TenantProperties(), false, "", 365, 2, 0);
+
+        archiver.archive();
+
+        assertTrue(repository.batches.isEmpty());
+    }
+
+    @Test
+    void shouldUseTermBoundaryOverAge() {
+        ResultArchiver archiver = new ResultArchiver(new FakeArchive(), new TenantProperties(), true, " 2026-08-01 ",
+                365, 2, 0);
+        assertEquals(BOUNDARY, archiver.boundary());
+
+        ResultArchiver byAge = new ResultArchiver(new FakeArchive(), new TenantProperties(), true, "", 30, 2, 0);
+        Instant expected = Instant.now().minusSeconds(30L * 24 * 60 * 60);
+        assertTrue(Math.abs(byAge.boundary().getEpochSecond() - expected.getEpochSecond()) < 5);
+    }
+
+    // Result id -> submitted at
+    private static class FakeArchive implements ResultArchiveRepository {
+        private final TreeMap<Integer, Instant> archivable = new TreeMap<>();
+        private final List<List<Integer>> batches = new ArrayList<>();
+
+        @Override
+        public List<Integer> findArchivable(Instant before, int limit) {
+            List<Integer> ids = new ArrayList<>();
+            for (Map.Entry<Integer, Instant> result : archivable.entrySet()) {
+                if (ids.size() < limit && result.getValue().isBefore(before)) {
+                    ids.add(result.getKey());
+                }
+            }
+            return ids;
+        }
+
+        @Override
+        public int archive(List<Integer> quizResultIds) {
+            batches.add(quizResultIds);
+            quizResultIds.forEach(archivable::remove);
+            return quizResultIds.size();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package learn.quizgen.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    @Test
+    void shouldFireAtDeadlineAndNotBefore() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 0);
+        wheel.schedule("a", 250);
+
+        assertTrue(wheel.advance(200).isEmpty());
+        assertEquals(List.of("a"), wheel.advance(300));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void shouldFirePastDeadlinesOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 10_000);
+        wheel.schedule("late", 500);
+
+        assertEquals(List.of("late"), wheel.advance(10_000));
+    }
+
+    @Test
+    void shouldNotFireCancelled() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 0);
+        TimingWheel.Timeout<String> timeout = wheel.schedule("a", 1_000);
+        wheel.schedule("b", 1_000);
+
+        assertTrue(wheel.cancel(timeout));
+        assertFalse(wheel.cancel(timeout));
+        assertEquals(List.of("b"), wheel.advance(1_000));
+    }
+
+    @Test
+    void shouldCascadeFarDeadlinesDownTheLevels() {
+        // Deadlines spread over every level and past the top one, each must fire on its own tick
+        TimingWheel<Long> wheel = new TimingWheel<>(1, 37);
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            long deadline = 37 + (long) Math.pow(2, random.nextDouble() * 26);
+            deadlines.add(deadline);
+            wheel.schedule(deadline, deadline);
+        }
+
+        long now = 37;
+        while (wheel.size() > 0) {
+            now += 1 + random.nextInt(50_000);
+            for (long fired : wheel.advance(now)) {
+                assertTrue(fired <= now);
+                assertTrue(deadlines.remove(fired));
+            }
+            for (long pending : deadlines) {
+                assertTrue(pending > now);
+            }
+        }
+        assertTrue(deadlines.isEmpty());
+    }
+}
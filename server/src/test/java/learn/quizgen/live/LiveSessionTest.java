@@ -0,0 +1,122 @@
+package learn.quizgen.live;
+
+import learn.quizgen.models.Option;
+import learn.quizgen.models.Question;
+import learn.quizgen.models.QuestionResult;
+import learn.quizgen.models.QuizResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiveSessionTest {
+
+    LiveSession session = new LiveSession("ABC234", 1, "teacher", "default", List.of(question(1), question(2)));
+
+    @Test
+    void shouldOnlyAcceptCurrentQuestion() {
+        session.join("student", 2);
+        assertFalse(session.answer("student", 0, 0));
+
+        assertEquals(0, session.advance());
+        assertTrue(session.answer("student", 0, 1));
+        assertFalse(session.answer("student", 1, 1));
+        assertFalse(session.answer("student", 0, 3));
+        assertFalse(session.answer("stranger", 0, 1));
+        assertArrayEquals(new long[]{0, 1, 0}, session.tally(0));
+    }
+
+    @Test
+    void shouldMoveVoteWhenAnsweredAgain() {
+        session.join("student", 2);
+        session.advance();
+        session.answer("student", 0, 1);
+        session.answer("student", 0, 2);
+        session.answer("student", 0, 2);
+
+        assertArrayEquals(new long[]{0, 0, 1}, session.tally(0));
+    }
+
+    @Test
+    void shouldReportChangesOnce() {
+        session.join("student", 2);
+        assertTrue(session.takeChanged());
+        assertFalse(session.takeChanged());
+
+        session.advance();
+        session.takeChanged();
+        session.answer("student", 0, 0);
+        assertTrue(session.takeChanged());
+        assertFalse(session.takeChanged());
+    }
+
+    @Test
+    void shouldStopAfterLastQuestion() {
+        assertEquals(0, session.advance());
+        assertEquals(1, session.advance());
+        assertEquals(-1, session.advance());
+    }
+
+    @Test
+    void shouldTallyConcurrentAnswers() throws InterruptedException {
+        LiveSession big = new LiveSession("ABC234", 1, "teacher", "default", List.of(question(1)));
+        for (int i = 0; i < 3000; i++) {
+            big.join("student" + i, i + 1);
+        }
+        big.advance();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 3000; i++) {
+            String student = "student" + i;
+            int option = i % 3;
+            executor.submit(() -> big.answer(student, 0, option));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertArrayEquals(new long[]{1000, 1000, 1000}, big.tally(0));
+    }
+
+    @Test
+    void shouldGradeOnlyStudentsWhoAnswered() {
+        session.join("right", 2);
+        session.join("wrong", 3);
+        session.join("idle", 4);
+        session.advance();
+        session.answer("right", 0, 0);
+        session.answer("wrong", 0, 1);
+        session.advance();
+        session.answer("right", 1, 0);
+
+        List<QuestionResult> answers = session.results();
+        assertEquals(3, answers.size());
+
+        List<QuizResult> grades = session.quizResults();
+        assertEquals(2, grades.size());
+        for (QuizResult grade : grades) {
+            assertEquals(2, grade.getTotalQuestions());
+            if (grade.getUserId() == 2) {
+                assertEquals(2, grade.getCorrectAnswers());
+                assertEquals(100f, grade.getScore());
+            } else {
+                assertEquals(0, grade.getCorrectAnswers());
+            }
+        }
+    }
+
+    // Three options, the first one correct
+    private static Question question(int questionId) {
+        Question question = new Question(questionId, 1, "Question " + questionId);
+        List<Option> options = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            options.add(new Option(questionId * 10 + i, questionId, "Option " + i, i == 0));
+        }
+        question.setOptionList(options);
+        return question;
+    }
+}
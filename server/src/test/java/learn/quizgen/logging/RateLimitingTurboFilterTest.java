@@ -0,0 +1,63 @@
+package learn.quizgen.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitingTurboFilterTest {
+
+    LoggerContext context = new LoggerContext();
+    Logger hot = context.getLogger("learn.quizgen.data.mapper.QuizMapper");
+    Logger other = context.getLogger("learn.quizgen.domain.QuizService");
+    AtomicLong now = new AtomicLong();
+    RateLimitingTurboFilter filter = new RateLimitingTurboFilter();
+
+    @BeforeEach
+    void setup() {
+        context.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+        filter.setNanoClock(now::get);
+        filter.setEventsPerSecond(10);
+        filter.setLoggers("learn.quizgen.data");
+    }
+
+    @Test
+    void shouldDropEventsOverTheRate() {
+        assertEquals(10, passed(hot, Level.INFO, 50));
+        assertEquals(40, filter.getDropped());
+
+        now.addAndGet(500_000_000L);
+        assertEquals(5, passed(hot, Level.INFO, 50));
+    }
+
+    @Test
+    void shouldLimitEachLoggerSeparately() {
+        filter.setLoggers("");
+        assertEquals(10, passed(hot, Level.WARN, 20));
+        assertEquals(10, passed(other, Level.WARN, 20));
+    }
+
+    @Test
+    void shouldNotLimitOtherLoggersErrorsOrDisabledLevels() {
+        assertEquals(50, passed(other, Level.INFO, 50));
+        assertEquals(50, passed(hot, Level.ERROR, 50));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, hot, Level.DEBUG, "disabled", null, null));
+        assertEquals(0, filter.getDropped());
+    }
+
+    private int passed(Logger logger, Level level, int events) {
+        int passed = 0;
+        for (int i = 0; i < events; i++) {
+            if (filter.decide(null, logger, level, "event {}", new Object[]{i}, null) == FilterReply.NEUTRAL) {
+                passed++;
+            }
+        }
+        return passed;
+    }
+}
@@ -0,0 +1,117 @@
+package learn.quizgen.outbound;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    AtomicLong clock = new AtomicLong();
+    CircuitBreaker breaker;
+
+    @BeforeEach
+    void setup() {
+        OutboundHttpProperties.CircuitBreaker properties = new OutboundHttpProperties.CircuitBreaker();
+        properties.setWindowSize(10);
+        properties.setMinimumCalls(4);
+        properties.setHalfOpenCalls(2);
+        properties.setFailureRateThreshold(50);
+        properties.setSlowCallRateThreshold(75);
+        properties.setSlowCallMillis(1000);
+        properties.setOpenMillis(5000);
+        breaker = new CircuitBreaker(properties, clock::get);
+    }
+
+    @Test
+    void shouldStayClosedBelowMinimumCalls() {
+        breaker.onError(0);
+        breaker.onError(0);
+        breaker.onError(0);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void shouldOpenOnFailureRate() {
+        breaker.onSuccess(0);
+        breaker.onSuccess(0);
+        breaker.onError(0);
+        breaker.onError(0);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void shouldOpenOnSlowCallRate() {
+        long slow = TimeUnit.MILLISECONDS.toNanos(1500);
+        breaker.onSuccess(0);
+        breaker.onSuccess(slow);
+        breaker.onSuccess(slow);
+        breaker.onSuccess(slow);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void shouldCloseAfterSuccessfulTrialCalls() {
+        openBreaker();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(5000));
+
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission());
+
+        breaker.onSuccess(0);
+        breaker.onSuccess(0);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void shouldReopenWhenTrialCallFails() {
+        openBreaker();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(5000));
+
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onError(0);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void shouldReturnReleasedTrialPermission() {
+        openBreaker();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(5000));
+
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.releasePermission();
+
+        assertTrue(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void shouldNotifyListeners() {
+        StringBuilder transitions = new StringBuilder();
+        breaker.addListener((from, to) -> transitions.append(from).append("->").append(to).append(";"));
+
+        openBreaker();
+
+        assertEquals("CLOSED->OPEN;", transitions.toString());
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < 4; i++) {
+            breaker.onError(0);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
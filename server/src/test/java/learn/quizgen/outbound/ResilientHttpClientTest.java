@@ -0,0 +1,223 @@
+package learn.quizgen.outbound;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the client against a fake upstream on a local port: /ok answers at once, /fail with a 500,
+// /bad with a 400, /hang not within the test's deadlines, and /first-slow after slowMillis for its
+// first request only. Every endpoint answers with a few lines of text.
+class ResilientHttpClientTest {
+
+    HttpServer upstream;
+    String baseUrl;
+    final long slowMillis = 2000;
+    final AtomicInteger firstSlowCalls = new AtomicInteger();
+
+    OutboundHttpProperties properties;
+    SimpleMeterRegistry meterRegistry;
+    ResilientHttpClient client;
+
+    @BeforeEach
+    void setup() throws IOException {
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        upstream.setExecutor(Executors.newCachedThreadPool());
+        upstream.createContext("/ok", exchange -> answer(exchange, 200));
+        upstream.createContext("/fail", exchange -> answer(exchange, 500));
+        upstream.createContext("/bad", exchange -> answer(exchange, 400));
+        upstream.createContext("/hang", exchange -> {
+            sleep(5000);
+            answer(exchange, 200);
+        });
+        upstream.createContext("/first-slow", exchange -> {
+            if (firstSlowCalls.incrementAndGet() == 1) {
+                sleep(slowMillis);
+            }
+            answer(exchange, 200);
+        });
+        upstream.start();
+        baseUrl = "http://127.0.0.1:" + upstream.getAddress().getPort();
+
+        properties = new OutboundHttpProperties();
+        properties.setReadTimeoutMillis(3000);
+        properties.setDeadlineMillis(1000);
+        properties.getCircuitBreaker().setWindowSize(4);
+        properties.getCircuitBreaker().setMinimumCalls(2);
+        properties.getCircuitBreaker().setHalfOpenCalls(2);
+        properties.getCircuitBreaker().setFailureRateThreshold(50);
+        properties.getCircuitBreaker().setSlowCallMillis(10000);
+        properties.getCircuitBreaker().setOpenMillis(200);
+        meterRegistry = new SimpleMeterRegistry();
+        client = new ResilientHttpClient(properties, meterRegistry);
+    }
+
+    @AfterEach
+    void teardown() throws IOException {
+        client.close();
+        upstream.stop(0);
+    }
+
+    @Test
+    void shouldReturnUpstreamAnswer() {
+        assertEquals("line 1\nline 2\nline 3\n", get("/ok"));
+        assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitBreaker().getState());
+    }
+
+    @Test
+    void shouldOpenOnUpstreamFaults() {
+        assertThrows(HttpServerErrorException.class, () -> get("/fail"));
+        assertThrows(HttpServerErrorException.class, () -> get("/fail"));
+
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitBreaker().getState());
+        assertThrows(CircuitBreakerOpenException.class, () -> get("/ok"));
+    }
+
+    @Test
+    void shouldNotCountClientErrors() {
+        for (int i = 0; i < 4; i++) {
+            assertThrows(RuntimeException.class, () -> get("/bad"));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitBreaker().getState());
+    }
+
+    @Test
+    void shouldNotCountCallersOwnErrors() {
+        for (int i = 0; i < 4; i++) {
+            assertThrows(IllegalStateException.class, () -> client.execute("test", () -> {
+                throw new IllegalStateException("not the upstream");
+            }));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitBreaker().getState());
+    }
+
+    @Test
+    void shouldStopWaitingAtDeadline() {
+        long start = System.nanoTime();
+        assertThrows(DeadlineExceededException.class, () -> get("/hang"));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis < 2500, "waited " + elapsedMillis + " ms");
+        assertEquals(1.0, meterRegistry.get("outbound.http.calls").tag("outcome", "deadline").timer().count(), 0);
+    }
+
+    @Test
+    void shouldReturnHedgeWhenFirstAttemptIsSlow() {
+        properties.getHedging().setEnabled(true);
+        properties.getHedging().setDelayMillis(100);
+        client = new ResilientHttpClient(properties, meterRegistry);
+
+        long start = System.nanoTime();
+        assertEquals("line 1\nline 2\nline 3\n", get("/first-slow"));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis < slowMillis, "waited " + elapsedMillis + " ms");
+        assertEquals(2, firstSlowCalls.get());
+        assertEquals(1.0, meterRegistry.counter("outbound.http.hedges").count(), 0);
+    }
+
+    @Test
+    void shouldReleaseAbandonedAttemptsPermission() throws InterruptedException {
+        properties.getHedging().setEnabled(true);
+        properties.getHedging().setDelayMillis(100);
+        client = new ResilientHttpClient(properties, meterRegistry);
+        tripAndWaitForHalfOpen();
+
+        // Both half open permits go to the attempt and its hedge; the losing attempt gives its back
+        assertEquals("line 1\nline 2\nline 3\n", get("/first-slow"));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, client.getCircuitBreaker().getState());
+
+        assertEquals("line 1\nline 2\nline 3\n", get("/ok"));
+        assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitBreaker().getState());
+    }
+
+    @Test
+    void shouldCountStreamingUpstreamFaults() {
+        assertThrows(HttpServerErrorException.class, () -> stream("/fail"));
+        assertThrows(HttpServerErrorException.class, () -> stream("/fail"));
+
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitBreaker().getState());
+    }
+
+    @Test
+    void shouldNotCountStreamingConsumerFailures() throws InterruptedException {
+        for (int i = 0; i < 4; i++) {
+            assertThrows(UncheckedIOException.class, () -> streamToClosedBrowser("/ok"));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitBreaker().getState());
+
+        // In half open, a disconnected browser gives its trial permit back
+        tripAndWaitForHalfOpen();
+        assertThrows(UncheckedIOException.class, () -> streamToClosedBrowser("/ok"));
+        assertThrows(UncheckedIOException.class, () -> streamToClosedBrowser("/ok"));
+        assertEquals("line 1\nline 2\nline 3\n", stream("/ok"));
+        assertEquals("line 1\nline 2\nline 3\n", stream("/ok"));
+        assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitBreaker().getState());
+    }
+
+    @Test
+    void shouldCountStreamingReadTimeouts() {
+        properties.setReadTimeoutMillis(200);
+        client = new ResilientHttpClient(properties, meterRegistry);
+
+        assertThrows(ResourceAccessException.class, () -> stream("/hang"));
+        assertThrows(ResourceAccessException.class, () -> stream("/hang"));
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitBreaker().getState());
+    }
+
+    private void tripAndWaitForHalfOpen() throws InterruptedException {
+        assertThrows(HttpServerErrorException.class, () -> get("/fail"));
+        assertThrows(HttpServerErrorException.class, () -> get("/fail"));
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitBreaker().getState());
+        Thread.sleep(properties.getCircuitBreaker().getOpenMillis() + 100);
+    }
+
+    private String get(String path) {
+        return client.execute("test", () -> client.getRestTemplate().getForObject(baseUrl + path, String.class));
+    }
+
+    private String stream(String path) {
+        return client.executeStreaming("test-stream", () -> client.getRestTemplate().execute(baseUrl + path,
+                HttpMethod.GET, null, response -> new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8)));
+    }
+
+    // Reads the first line, then fails the way AIController's consumer does when the browser is gone
+    private String streamToClosedBrowser(String path) {
+        return client.executeStreaming("test-stream", () -> client.getRestTemplate().execute(baseUrl + path,
+                HttpMethod.GET, null, response -> {
+                    response.getBody().read();
+                    throw new UncheckedIOException(new IOException("Broken pipe"));
+                }));
+    }
+
+    private static void answer(HttpExchange exchange, int status) throws IOException {
+        byte[] body = "line 1\nline 2\nline 3\n".getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package learn.quizgen.profiling;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProfilingDataSourceTest {
+
+    SqlProfilerProperties properties = new SqlProfilerProperties();
+    ProfilingDataSource dataSource = new ProfilingDataSource(stub(DataSource.class), properties);
+
+    @BeforeEach
+    void setup() {
+        QueryProfile.begin("GET /api/questions/{id}");
+    }
+
+    @AfterEach
+    void tearDown() {
+        QueryProfile.end();
+    }
+
+    @Test
+    void shouldCountEveryExecution() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            PreparedStatement ps = connection.prepareStatement("SELECT * FROM question WHERE quiz_id = ?");
+            ps.setInt(1, 1);
+            ps.executeQuery();
+            Statement statement = connection.createStatement();
+            statement.execute("SELECT 1");
+        }
+
+        assertEquals(2, QueryProfile.current().getStatements());
+    }
+
+    @Test
+    void shouldFindRepeatedShapes() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            for (int id = 1; id <= 6; id++) {
+                PreparedStatement ps = connection.prepareStatement("SELECT * FROM `option` WHERE question_id = ?");
+                ps.setInt(1, id);
+                ps.executeQuery();
+            }
+            Statement statement = connection.createStatement();
+            statement.execute("SELECT * FROM quiz WHERE quiz_id = 1");
+            statement.execute("SELECT * FROM quiz WHERE quiz_id = 2");
+        }
+
+        Map<String, Integer> repeated = QueryProfile.current().repeatedShapes(5);
+        assertEquals(1, repeated.size());
+        assertEquals(6, (int) repeated.get("SELECT * FROM `option` WHERE question_id = ?"));
+        assertEquals(2, (int) QueryProfile.current().repeatedShapes(2).get("SELECT * FROM quiz WHERE quiz_id = ?"));
+    }
+
+    @Test
+    void shouldCountBatchAsOneStatement() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            PreparedStatement ps = connection.prepareStatement("INSERT INTO question (quiz_id, question_text) VALUES (?, ?)");
+            for (int i = 0; i < 3; i++) {
+                ps.setInt(1, 1);
+                ps.setString(2, "Question " + i);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        assertEquals(1, QueryProfile.current().getStatements());
+    }
+
+    @Test
+    void shouldFoldLiteralsAndInLists() {
+        assertEquals("SELECT * FROM quiz WHERE title = ? AND quiz_id IN (?, ...)",
+                QueryProfile.shapeOf("SELECT *   FROM quiz\n WHERE title = 'it''s' AND quiz_id IN (1, 2, 3)"));
+        assertEquals(QueryProfile.shapeOf("DELETE FROM result WHERE quiz_id IN (?, ?)"),
+                QueryProfile.shapeOf("DELETE FROM result WHERE quiz_id IN (?,?,?,?)"));
+    }
+
+    @Test
+    void shouldEnforceBudget() {
+        properties.getBudgets().put("GET /api/questions/{id}", 1);
+        properties.setEnforceBudgets(true);
+        QueryProfile profile = QueryProfile.current();
+        profile.record("SELECT * FROM question WHERE quiz_id = ?", 1000);
+        QueryProfilingFilter filter = new QueryProfilingFilter(properties);
+
+        filter.report(profile);
+        profile.record("SELECT * FROM `option` WHERE question_id = ?", 1000);
+        assertThrows(QueryBudgetExceededException.class, () -> filter.report(profile));
+    }
+
+    // Every JDBC object is a proxy that returns another stub for interface results and defaults otherwise
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type) {
+        return (T) Proxy.newProxyInstance(ProfilingDataSourceTest.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    Class<?> returnType = method.getReturnType();
+                    if (returnType.isInterface()) {
+                        return stub(returnType);
+                    }
+                    if (returnType == boolean.class) {
+                        return false;
+                    }
+                    if (returnType == int.class) {
+                        return 0;
+                    }
+                    if (returnType == long.class) {
+                        return 0L;
+                    }
+                    if (returnType == int[].class) {
+                        return new int[0];
+                    }
+                    return null;
+                });
+    }
+}
@@ -0,0 +1,109 @@
+package learn.quizgen.profiling;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.NestedServletException;
+
+import javax.servlet.Filter;
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Runs the filter in front of a controller that answers GET /api/questions/{id} with a JSON body after
+// running {id} statements. The outer filter records whether the response had committed when the
+// filter chain returned or threw.
+class QueryProfilingFilterTest {
+
+    SqlProfilerProperties properties = new SqlProfilerProperties();
+    List<Boolean> committed = new ArrayList<>();
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        properties.getBudgets().put("GET /api/questions/{id}", 2);
+        properties.setEnforceBudgets(true);
+        properties.setHeaders(true);
+
+        Filter recording = (request, response, chain) -> {
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                committed.add(response.isCommitted());
+            }
+        };
+        mockMvc = MockMvcBuilders.standaloneSetup(new QuestionsController(new ProfilingDataSource(stub(DataSource.class), properties)))
+                .addFilters(recording, new QueryProfilingFilter(properties))
+                .build();
+    }
+
+    @Test
+    void shouldAnswerWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/questions/2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(QueryProfilingFilter.QUERY_COUNT_HEADER, "2"));
+    }
+
+    @Test
+    void shouldFailOverBudgetBeforeCommit() {
+        NestedServletException ex = assertThrows(NestedServletException.class,
+                () -> mockMvc.perform(get("/api/questions/3")));
+
+        assertTrue(ex.getCause() instanceof QueryBudgetExceededException, String.valueOf(ex.getCause()));
+        assertEquals(List.of(false), committed);
+    }
+
+    @Test
+    void shouldOnlyLogWhenNotEnforced() throws Exception {
+        properties.setEnforceBudgets(false);
+
+        mockMvc.perform(get("/api/questions/3"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(QueryProfilingFilter.QUERY_COUNT_HEADER, "3"));
+    }
+
+    @RestController
+    static class QuestionsController {
+
+        private final DataSource dataSource;
+
+        QuestionsController(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        @GetMapping("/api/questions/{id}")
+        Map<String, Object> find(@PathVariable int id) throws SQLException {
+            try (Connection connection = dataSource.getConnection()) {
+                for (int i = 0; i < id; i++) {
+                    connection.createStatement().execute("SELECT * FROM question WHERE quiz_id = " + id);
+                }
+            }
+            return Map.of("quizId", id, "questions", List.of());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type) {
+        return (T) Proxy.newProxyInstance(QueryProfilingFilterTest.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    Class<?> returnType = method.getReturnType();
+                    if (returnType.isInterface()) {
+                        return stub(returnType);
+                    }
+                    return returnType == boolean.class ? false : null;
+                });
+    }
+}
@@ -0,0 +1,46 @@
+package learn.quizgen.security;
+
+import learn.quizgen.models.AppUser;
+import learn.quizgen.support.InMemoryAppUserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import javax.validation.ValidationException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppUserServiceTest {
+
+    InMemoryAppUserRepository repository = new InMemoryAppUserRepository();
+    AppUserService service = new AppUserService(repository, new BCryptPasswordEncoder(4));
+
+    @Test
+    void shouldRegisterStudentsAndTeachers() {
+        AppUser student = service.create("Ada", "Lovelace", "ada", "secret", List.of("Student"));
+        AppUser teacher = service.create("Grace", "Hopper", "grace", "secret", List.of("Teacher"));
+
+        assertTrue(student.getAppUserId() > 0);
+        assertEquals(List.of("Student"), student.getRoles());
+        assertEquals(List.of("Teacher"), teacher.getRoles());
+        assertNotEquals("secret", student.getPassword());
+    }
+
+    @Test
+    void shouldNotRegisterAdmin() {
+        ValidationException ex = assertThrows(ValidationException.class,
+                () -> service.create("Eve", "Mallory", "eve", "secret", List.of("Admin")));
+
+        assertEquals("Accounts can only be registered as Student or Teacher", ex.getMessage());
+        assertThrows(ValidationException.class,
+                () -> service.create("Eve", "Mallory", "eve", "secret", List.of("Student", "Admin")));
+        assertTrue(repository.findByUsername("eve").isEmpty());
+    }
+
+    @Test
+    void shouldRequireRole() {
+        assertThrows(ValidationException.class, () -> service.create("Eve", "Mallory", "eve", "secret", null));
+        assertThrows(ValidationException.class, () -> service.create("Eve", "Mallory", "eve", "secret", List.of()));
+        assertTrue(repository.findAll().isEmpty());
+    }
+}
@@ -0,0 +1,111 @@
+package learn.quizgen.security;
+
+import learn.quizgen.domain.Result;
+import learn.quizgen.domain.ResultType;
+import learn.quizgen.models.AppUser;
+import learn.quizgen.models.RosterEntry;
+import learn.quizgen.support.CountingTransactionManager;
+import learn.quizgen.support.InMemoryAppUserRepository;
+import learn.quizgen.support.InMemoryTeacherRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RosterServiceTest {
+
+    InMemoryAppUserRepository users = new InMemoryAppUserRepository();
+    InMemoryTeacherRepository teachers = new InMemoryTeacherRepository();
+    CountingTransactionManager transactions = new CountingTransactionManager();
+    RosterService service = new RosterService(users, teachers,
+            new RoleCatalog(() -> Map.of("Student", 1, "Teacher", 2)), new PrefixEncoder(),
+            new TransactionTemplate(transactions), 3, 2);
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void shouldRegisterRosterWithTeacherRows() {
+        Result<List<AppUser>> result = service.register(List.of(
+                entry("ada", "Student"), entry("grace", "Teacher")));
+
+        assertTrue(result.isSuccess(), String.valueOf(result.getMessages()));
+        assertEquals(List.of("ada", "grace"), result.getPayload().stream()
+                .map(AppUser::getUsername).collect(Collectors.toList()));
+        assertEquals("hashed:secret", users.findByUsername("ada").orElseThrow().getPassword());
+        assertEquals(1, teachers.findAll().size());
+        assertEquals(users.findByUsername("grace").orElseThrow().getAppUserId(),
+                teachers.findAll().get(0).getUserId());
+        assertEquals(1, transactions.getCommits());
+    }
+
+    @Test
+    void shouldReportEveryInvalidRow() {
+        RosterEntry nameless = entry(" ", "Student");
+        RosterEntry noRoles = entry("linus");
+        RosterEntry unknownRole = entry("ken", "Janitor");
+
+        Result<List<AppUser>> result = service.register(List.of(nameless, noRoles, unknownRole));
+
+        assertEquals(ResultType.INVALID, result.getType());
+        assertEquals(List.of("Row 1: username is required", "Row 2: at least one role is required",
+                "Row 3: role Janitor does not exist"), result.getMessages());
+        assertTrue(users.findAll().isEmpty());
+    }
+
+    @Test
+    void shouldRejectEmptyAndOversizedRosters() {
+        assertEquals(List.of("The roster is empty."), service.register(List.of()).getMessages());
+        assertEquals(List.of("A roster can have at most 3 users."), service.register(List.of(
+                entry("a", "Student"), entry("b", "Student"), entry("c", "Student"), entry("d", "Student")))
+                .getMessages());
+    }
+
+    @Test
+    void shouldRejectDuplicatesInRosterAndTakenUsernames() {
+        users.add(new AppUser(0, "Ada", "Lovelace", "ada", "hash", false, List.of("Student")));
+
+        Result<List<AppUser>> result = service.register(List.of(
+                entry("ada", "Student"), entry("grace", "Student"), entry("grace", "Teacher")));
+
+        assertEquals(List.of("Row 3: grace is in the roster twice", "ada already exists"), result.getMessages());
+        assertEquals(1, users.findAll().size());
+    }
+
+    @Test
+    void shouldReportUsernameRegisteredConcurrently() {
+        users.takeOnNextInsert("grace");
+
+        Result<List<AppUser>> result = service.register(List.of(entry("ada", "Student"), entry("grace", "Teacher")));
+
+        assertEquals(ResultType.INVALID, result.getType());
+        assertEquals(List.of("grace already exists"), result.getMessages());
+        assertNull(result.getPayload());
+        assertEquals(1, transactions.getRollbacks());
+        assertTrue(teachers.findAll().isEmpty());
+    }
+
+    private static RosterEntry entry(String username, String... roles) {
+        return new RosterEntry("First", "Last", username, "secret", List.of(roles));
+    }
+
+    private static class PrefixEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package learn.quizgen.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScrapeTokenFilterTest {
+
+    @AfterEach
+    void clear() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldSignInPrometheusWithTheScrapeToken() throws Exception {
+        Authentication auth = run(new ScrapeTokenFilter("s3cret"), ScrapeTokenFilter.PATH, "Bearer s3cret");
+
+        assertNotNull(auth);
+        assertEquals("prometheus", auth.getPrincipal());
+        assertEquals("ROLE_Metrics", auth.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void shouldNotSignInWithAWrongOrMissingToken() throws Exception {
+        ScrapeTokenFilter filter = new ScrapeTokenFilter("s3cret");
+
+        assertNull(run(filter, ScrapeTokenFilter.PATH, "Bearer guess"));
+        assertNull(run(filter, ScrapeTokenFilter.PATH, null));
+    }
+
+    @Test
+    void shouldOnlyAcceptTheTokenOnTheScrapeEndpoint() throws Exception {
+        assertNull(run(new ScrapeTokenFilter("s3cret"), "/api/quiz", "Bearer s3cret"));
+    }
+
+    @Test
+    void shouldAcceptNothingWithoutAConfiguredToken() throws Exception {
+        assertNull(run(new ScrapeTokenFilter(""), ScrapeTokenFilter.PATH, "Bearer "));
+    }
+
+    private Authentication run(ScrapeTokenFilter filter, String uri, String authorization) throws Exception {
+        SecurityContextHolder.clearContext();
+        Map<String, Object> attributes = new HashMap<>();
+        HttpServletRequest request = (HttpServletRequest) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{HttpServletRequest.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getRequestURI": return uri;
+                        case "getHeader": return "Authorization".equals(args[0]) ? authorization : null;
+                        case "getAttribute": return attributes.get((String) args[0]);
+                        case "setAttribute": attributes.put((String) args[0], args[1]); return null;
+                        case "removeAttribute": attributes.remove((String) args[0]); return null;
+                        case "getDispatcherType": return DispatcherType.REQUEST;
+                        default: return null;
+                    }
+                });
+        HttpServletResponse response = (HttpServletResponse) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{HttpServletResponse.class}, (proxy, method, args) -> null);
+        boolean[] passed = {false};
+        FilterChain chain = (req, res) -> passed[0] = true;
+
+        filter.doFilter(request, response, chain);
+
+        assertTrue(passed[0]);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,41 @@
+package learn.quizgen.support;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+// Counts how transactions ended. A commit of a status marked rollback-only counts as a rollback, as
+// it does in the real managers.
+public class CountingTransactionManager implements PlatformTransactionManager {
+
+    private int commits;
+    private int rollbacks;
+
+    public int getCommits() {
+        return commits;
+    }
+
+    public int getRollbacks() {
+        return rollbacks;
+    }
+
+    @Override
+    public TransactionStatus getTransaction(TransactionDefinition definition) {
+        return new SimpleTransactionStatus();
+    }
+
+    @Override
+    public void commit(TransactionStatus status) {
+        if (status.isRollbackOnly()) {
+            rollback(status);
+        } else {
+            commits++;
+        }
+    }
+
+    @Override
+    public void rollback(TransactionStatus status) {
+        rollbacks++;
+    }
+}
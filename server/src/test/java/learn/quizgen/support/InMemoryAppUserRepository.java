@@ -0,0 +1,76 @@
+package learn.quizgen.support;
+
+import learn.quizgen.data.AppUserRepository;
+import learn.quizgen.models.AppUser;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+// app_user keyed by its unique username. Inserting a taken username throws DuplicateKeyException like
+// the unique key does, and addAll inserts all of its users or none.
+public class InMemoryAppUserRepository implements AppUserRepository {
+
+    private final Map<String, AppUser> rows = new LinkedHashMap<>();
+    private int nextId = 1;
+    private String takenOnNextInsert;
+
+    // Every user, in insert order
+    public List<AppUser> findAll() {
+        return new ArrayList<>(rows.values());
+    }
+
+    // Has another registration take the username between validation and the next insert
+    public void takeOnNextInsert(String username) {
+        takenOnNextInsert = username;
+    }
+
+    @Override
+    public Optional<AppUser> findByUsername(String username) {
+        return Optional.ofNullable(rows.get(username));
+    }
+
+    @Override
+    public AppUser add(AppUser user) {
+        return addAll(List.of(user), Map.of()).get(0);
+    }
+
+    @Override
+    public List<AppUser> addAll(List<AppUser> users, Map<String, Integer> roleIds) {
+        if (takenOnNextInsert != null) {
+            String username = takenOnNextInsert;
+            takenOnNextInsert = null;
+            add(new AppUser(0, "Someone", "Else", username, "hash", false, List.of("Student")));
+        }
+        for (AppUser user : users) {
+            if (rows.containsKey(user.getUsername())) {
+                throw new DuplicateKeyException("Duplicate entry '" + user.getUsername() + "' for key 'username'");
+            }
+        }
+        for (AppUser user : users) {
+            user.setAppUserId(nextId++);
+            rows.put(user.getUsername(), user);
+        }
+        return users;
+    }
+
+    @Override
+    public List<String> findExistingUsernames(Collection<String> usernames) {
+        return usernames.stream().filter(rows::containsKey).collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean update(AppUser user) {
+        return rows.replace(user.getUsername(), user) != null;
+    }
+
+    @Override
+    public boolean deleteById(int id) {
+        return rows.values().removeIf(user -> user.getAppUserId() == id);
+    }
+}
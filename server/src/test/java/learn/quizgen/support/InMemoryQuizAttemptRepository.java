@@ -0,0 +1,114 @@
+package learn.quizgen.support;
+
+import learn.quizgen.data.QuizAttemptRepository;
+import learn.quizgen.models.QuizAttempt;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+// quiz_attempt as a map of rows. Rows are copies, so a caller changing its QuizAttempt changes nothing
+// here until it writes, and the conditional updates behave like their SQL.
+public class InMemoryQuizAttemptRepository implements QuizAttemptRepository {
+
+    private final TreeMap<Integer, QuizAttempt> rows = new TreeMap<>();
+    private final List<Map<Integer, Integer>> answerWrites = new ArrayList<>();
+    private boolean failing;
+
+    // Stores the attempt under its own id, replacing any row with that id
+    public QuizAttempt save(QuizAttempt attempt) {
+        rows.put(attempt.getAttemptId(), copy(attempt));
+        return attempt;
+    }
+
+    // The changes of every mergeAnswers call that wrote something, oldest first
+    public List<Map<Integer, Integer>> getAnswerWrites() {
+        return answerWrites;
+    }
+
+    // Makes every write time out, as if the database were unreachable
+    public void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    @Override
+    public QuizAttempt add(QuizAttempt attempt) {
+        attempt.setAttemptId(rows.isEmpty() ? 1 : rows.lastKey() + 1);
+        return save(attempt);
+    }
+
+    @Override
+    public QuizAttempt findById(int attemptId) {
+        QuizAttempt row = rows.get(attemptId);
+        return row == null ? null : copy(row);
+    }
+
+    @Override
+    public QuizAttempt findOpen(int userId, int quizId) {
+        return rows.values().stream()
+                .filter(row -> row.getUserId() == userId && row.getQuizId() == quizId && !row.isSubmitted())
+                .findFirst()
+                .map(InMemoryQuizAttemptRepository::copy)
+                .orElse(null);
+    }
+
+    @Override
+    public List<QuizAttempt> findOpenTimed() {
+        return rows.values().stream()
+                .filter(row -> row.getDeadline() != null && !row.isSubmitted())
+                .map(InMemoryQuizAttemptRepository::copy)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<QuizAttempt> findExpired(Instant before, int limit) {
+        return rows.values().stream()
+                .filter(row -> row.getDeadline() != null && !row.isSubmitted() && row.getDeadline().isBefore(before))
+                .limit(limit)
+                .map(InMemoryQuizAttemptRepository::copy)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Map<Integer, Integer> mergeAnswers(int attemptId, Map<Integer, Integer> changes) {
+        failIfFailing();
+        QuizAttempt row = rows.get(attemptId);
+        if (row == null || row.isSubmitted()) {
+            return null;
+        }
+        if (!changes.isEmpty()) {
+            answerWrites.add(new LinkedHashMap<>(changes));
+            row.getAnswers().putAll(changes);
+        }
+        return new LinkedHashMap<>(row.getAnswers());
+    }
+
+    @Override
+    public boolean markSubmitted(QuizAttempt attempt, Instant submittedAt) {
+        failIfFailing();
+        QuizAttempt row = rows.get(attempt.getAttemptId());
+        if (row == null || row.isSubmitted()) {
+            return false;
+        }
+        row.setAnswers(new LinkedHashMap<>(attempt.getAnswers()));
+        row.setSubmittedAt(submittedAt);
+        return true;
+    }
+
+    private void failIfFailing() {
+        if (failing) {
+            throw new QueryTimeoutException("timed out");
+        }
+    }
+
+    private static QuizAttempt copy(QuizAttempt attempt) {
+        return new QuizAttempt(attempt.getAttemptId(), attempt.getUserId(), attempt.getQuizId(), attempt.getSchool(),
+                attempt.getStartedAt(), attempt.getTimeLimitSeconds(), new LinkedHashMap<>(attempt.getAnswers()),
+                attempt.getSubmittedAt());
+    }
+}
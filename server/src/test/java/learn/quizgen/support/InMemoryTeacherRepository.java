@@ -0,0 +1,54 @@
+package learn.quizgen.support;
+
+import learn.quizgen.data.TeacherRepository;
+import learn.quizgen.models.Teacher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class InMemoryTeacherRepository implements TeacherRepository {
+
+    private final List<Teacher> rows = new ArrayList<>();
+
+    @Override
+    public List<Teacher> findAll() {
+        return new ArrayList<>(rows);
+    }
+
+    @Override
+    public Teacher findById(int id) {
+        return rows.stream().filter(teacher -> teacher.getTeacherId() == id).findFirst().orElse(null);
+    }
+
+    @Override
+    public Teacher findByUserId(int userId) {
+        return rows.stream().filter(teacher -> teacher.getUserId() == userId).findFirst().orElse(null);
+    }
+
+    @Override
+    public Teacher add(Teacher teacher) {
+        teacher.setTeacherId(rows.size() + 1);
+        rows.add(teacher);
+        return teacher;
+    }
+
+    @Override
+    public void addAll(List<Teacher> teachers) {
+        teachers.forEach(this::add);
+    }
+
+    @Override
+    public boolean update(Teacher teacher) {
+        Teacher existing = findById(teacher.getTeacherId());
+        if (existing == null) {
+            return false;
+        }
+        existing.setUserId(teacher.getUserId());
+        return true;
+    }
+
+    @Override
+    public boolean deleteById(int id) {
+        return rows.removeIf(teacher -> teacher.getTeacherId() == id);
+    }
+}
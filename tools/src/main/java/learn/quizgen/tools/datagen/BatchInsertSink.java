@@ -0,0 +1,87 @@
+package learn.quizgen.tools.datagen;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Buffers rows and sends them as one INSERT ... VALUES (...), (...), ... statement per
+// rowsPerStatement rows, committing every few statements. The full size statement is prepared
+// once and reused, only the tail gets its own.
+public class BatchInsertSink implements RowSink {
+
+    private static final int STATEMENTS_PER_COMMIT = 20;
+
+    private final Connection connection;
+    private final Table table;
+    private final int rowsPerStatement;
+    private final List<Object[]> buffer;
+    private PreparedStatement fullStatement;
+    private int uncommittedStatements;
+    private long rowCount;
+
+    public BatchInsertSink(Connection connection, Table table, int rowsPerStatement) {
+        this.connection = connection;
+        this.table = table;
+        // MySQL allows at most 65535 placeholders per statement
+        this.rowsPerStatement = Math.min(rowsPerStatement, 65_535 / table.getColumns().size());
+        this.buffer = new ArrayList<>(this.rowsPerStatement);
+    }
+
+    @Override
+    public void row(Object... values) throws SQLException {
+        buffer.add(values);
+        rowCount++;
+        if (buffer.size() == rowsPerStatement) {
+            if (fullStatement == null) {
+                fullStatement = connection.prepareStatement(sql(rowsPerStatement));
+            }
+            execute(fullStatement);
+        }
+    }
+
+    @Override
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            if (!buffer.isEmpty()) {
+                try (PreparedStatement tail = connection.prepareStatement(sql(buffer.size()))) {
+                    execute(tail);
+                }
+            }
+            connection.commit();
+        } finally {
+            if (fullStatement != null) {
+                fullStatement.close();
+            }
+        }
+    }
+
+    private void execute(PreparedStatement statement) throws SQLException {
+        int index = 1;
+        for (Object[] row : buffer) {
+            for (Object value : row) {
+                statement.setObject(index++, value);
+            }
+        }
+        statement.executeUpdate();
+        buffer.clear();
+
+        if (++uncommittedStatements == STATEMENTS_PER_COMMIT) {
+            connection.commit();
+            uncommittedStatements = 0;
+        }
+    }
+
+    private String sql(int rows) {
+        String placeholders = "(" + String.join(", ", Collections.nCopies(table.getColumns().size(), "?")) + ")";
+        return "INSERT INTO " + table.getSqlName() + " " + table.columnList() + " VALUES "
+                + String.join(", ", Collections.nCopies(rows, placeholders));
+    }
+}
@@ -0,0 +1,224 @@
+package learn.quizgen.tools.datagen;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class DataGenOptions {
+
+    public enum Mode {
+        // Tab separated files plus a load.sql of LOAD DATA LOCAL INFILE statements
+        FILES,
+        // Multi-row INSERT statements over JDBC
+        INSERT
+    }
+
+    private Mode mode = Mode.INSERT;
+    private int users = 10_000;
+    private double teacherFraction = 0.02;
+    private int quizzes = 500;
+    private long answers = 1_000_000;
+    private double legacyShare = 0.5;
+    private int writers = Runtime.getRuntime().availableProcessors();
+    private int rowsPerStatement = 1000;
+    private long seed = 42;
+    private String jdbcUrl;
+    private String dbUser = System.getenv("QUICK_QUIZ_DB_USERNAME");
+    private String dbPassword = System.getenv("QUICK_QUIZ_DB_PASSWORD");
+    private String userPassword = "P@ssw0rd!";
+    private Path outputDirectory = Paths.get("target", "datagen");
+    private boolean load;
+    private int idBase = 1000;
+
+    public static DataGenOptions parse(String[] args) {
+        DataGenOptions options = new DataGenOptions();
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i];
+            if (name.equals("--help")) {
+                throw new IllegalArgumentException(usage());
+            }
+            if (name.equals("--load")) {
+                options.load = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + name + "\n" + usage());
+            }
+            String value = args[++i];
+
+            switch (name) {
+                case "--preset":
+                    options.preset(value);
+                    break;
+                case "--mode":
+                    options.mode = Mode.valueOf(value.toUpperCase());
+                    break;
+                case "--users":
+                    options.users = Integer.parseInt(value);
+                    break;
+                case "--teacher-fraction":
+                    options.teacherFraction = Double.parseDouble(value);
+                    break;
+                case "--quizzes":
+                    options.quizzes = Integer.parseInt(value);
+                    break;
+                case "--answers":
+                    options.answers = Long.parseLong(value);
+                    break;
+                case "--legacy-share":
+                    options.legacyShare = Double.parseDouble(value);
+                    break;
+                case "--writers":
+                    options.writers = Integer.parseInt(value);
+                    break;
+                case "--rows-per-statement":
+                    options.rowsPerStatement = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    options.seed = Long.parseLong(value);
+                    break;
+                case "--jdbc-url":
+                    options.jdbcUrl = value;
+                    break;
+                case "--db-user":
+                    options.dbUser = value;
+                    break;
+                case "--db-password":
+                    options.dbPassword = value;
+                    break;
+                case "--user-password":
+                    options.userPassword = value;
+                    break;
+                case "--out":
+                    options.outputDirectory = Paths.get(value);
+                    break;
+                case "--id-base":
+                    options.idBase = Integer.parseInt(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + name + "\n" + usage());
+            }
+        }
+
+        int teachers = options.getTeachers();
+        if (teachers < 1 || teachers >= options.users) {
+            throw new IllegalArgumentException("--users and --teacher-fraction must leave at least one teacher and one student.");
+        }
+        if (options.quizzes < 1 || options.answers < 0 || options.writers < 1 || options.rowsPerStatement < 1) {
+            throw new IllegalArgumentException("--quizzes, --writers and --rows-per-statement must be positive.");
+        }
+        if (options.legacyShare < 0 || options.legacyShare > 1) {
+            throw new IllegalArgumentException("--legacy-share must be between 0 and 1.");
+        }
+        if (options.jdbcUrl == null && (options.mode == Mode.INSERT || options.load)) {
+            throw new IllegalArgumentException("--jdbc-url is required for --mode insert and --load.");
+        }
+        return options;
+    }
+
+    public static String usage() {
+        return String.join("\n",
+                "usage: DataGenerator [options]",
+                "  --preset small|medium|prod  10k/500/1M, 100k/5k/10M or 1M/50k/100M users/quizzes/answers",
+                "  --users <n>                 app_user rows (default 10000)",
+                "  --teacher-fraction <f>      share of users that are teachers (default 0.02)",
+                "  --quizzes <n>               quiz rows (default 500)",
+                "  --answers <n>               answered questions over all attempts (default 1000000)",
+                "  --legacy-share <f>          share of attempts stored as result rows rather than packed (default 0.5)",
+                "  --mode insert|files         multi-row INSERTs over JDBC or LOAD DATA files (default insert)",
+                "  --writers <n>               parallel writers / files per table (default: cores)",
+                "  --rows-per-statement <n>    rows per INSERT statement (default 1000)",
+                "  --jdbc-url <url>            e.g. jdbc:mysql://localhost:3306/quick_quiz",
+                "  --db-user / --db-password   default $QUICK_QUIZ_DB_USERNAME / $QUICK_QUIZ_DB_PASSWORD",
+                "  --user-password <pw>        password every generated account logs in with (default P@ssw0rd!)",
+                "  --out <dir>                 where --mode files writes (default target/datagen)",
+                "  --load                      with --mode files, also run the LOAD DATA statements",
+                "  --id-base <n>               first id when no database is given (default 1000)",
+                "  --seed <n>                  random seed, the same seed gives the same data (default 42)");
+    }
+
+    private void preset(String name) {
+        switch (name) {
+            case "small":
+                users = 10_000;
+                quizzes = 500;
+                answers = 1_000_000;
+                break;
+            case "medium":
+                users = 100_000;
+                quizzes = 5_000;
+                answers = 10_000_000;
+                break;
+            case "prod":
+                users = 1_000_000;
+                quizzes = 50_000;
+                answers = 100_000_000;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown preset " + name);
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public int getTeachers() {
+        return (int) Math.max(1, Math.round(users * teacherFraction));
+    }
+
+    public int getQuizzes() {
+        return quizzes;
+    }
+
+    public long getAnswers() {
+        return answers;
+    }
+
+    public double getLegacyShare() {
+        return legacyShare;
+    }
+
+    public int getWriters() {
+        return writers;
+    }
+
+    public int getRowsPerStatement() {
+        return rowsPerStatement;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public String getJdbcUrl() {
+        return jdbcUrl;
+    }
+
+    public String getDbUser() {
+        return dbUser;
+    }
+
+    public String getDbPassword() {
+        return dbPassword;
+    }
+
+    public String getUserPassword() {
+        return userPassword;
+    }
+
+    public Path getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    public boolean isLoad() {
+        return load;
+    }
+
+    public int getIdBase() {
+        return idBase;
+    }
+}
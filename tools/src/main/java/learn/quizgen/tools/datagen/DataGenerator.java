@@ -0,0 +1,253 @@
+package learn.quizgen.tools.datagen;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Fills the quick_quiz schema with a large, skewed, reproducible dataset (see DatasetPlan):
+//
+// java -cp target/quick-quiz-tools.jar learn.quizgen.tools.datagen.DataGenerator \
+//      --preset prod --jdbc-url jdbc:mysql://localhost:3306/quick_quiz --writers 8
+//
+// Every step (users, teachers, quizzes with their questions and options, attempts with their
+// answers) is split into one range per writer. With --mode insert each writer has its own
+// connection and sends multi-row INSERTs; with --mode files each writer produces one LOAD DATA
+// file per table, and --load runs them. Foreign key and unique checks are switched off for the
+// loading sessions, the generator guarantees both itself.
+public class DataGenerator {
+
+    private final DataGenOptions options;
+    private final ExecutorService writers;
+    private final Map<Table, List<Path>> files = new EnumMap<>(Table.class);
+    private final Map<Table, AtomicLong> rowCounts = new EnumMap<>(Table.class);
+
+    public DataGenerator(DataGenOptions options) {
+        this.options = options;
+        this.writers = Executors.newFixedThreadPool(options.getWriters());
+        for (Table table : Table.values()) {
+            files.put(table, new ArrayList<>());
+            rowCounts.put(table, new AtomicLong());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        DataGenOptions options;
+        try {
+            options = DataGenOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        DataGenerator generator = new DataGenerator(options);
+        try {
+            generator.run();
+        } finally {
+            generator.writers.shutdownNow();
+        }
+    }
+
+    public void run() throws Exception {
+        long start = System.nanoTime();
+
+        IdBases bases;
+        if (options.getJdbcUrl() != null) {
+            try (Connection connection = connect()) {
+                bases = IdBases.read(connection);
+            }
+        } else {
+            bases = IdBases.fixed(options.getIdBase());
+        }
+
+        // One hash for every account: BCrypt is deliberately slow and every user shares the password
+        String passwordHash = new BCryptPasswordEncoder().encode(options.getUserPassword());
+        DatasetPlan plan = new DatasetPlan(options, bases, passwordHash);
+
+        System.out.printf("Generating %,d users (%,d teachers), %,d quizzes, %,d questions, %,d options, "
+                        + "%,d attempts (~%,d answers) with %s %s writers%n",
+                plan.getUsers(), plan.getTeachers(), plan.getQuizzes(), plan.getTotalQuestions(),
+                plan.getTotalOptions(), plan.getAttempts(), options.getAnswers(), options.getWriters(),
+                options.getMode().name().toLowerCase());
+        if (options.getMode() == DataGenOptions.Mode.FILES) {
+            Files.createDirectories(options.getOutputDirectory());
+        }
+
+        step("users", plan.getUsers(), (from, to, sinks) ->
+                plan.writeUsers(from, to, sinks.get(Table.APP_USER), sinks.get(Table.USER_ROLE)),
+                Table.APP_USER, Table.USER_ROLE);
+        step("teachers", plan.getTeachers(), (from, to, sinks) ->
+                plan.writeTeachers(from, to, sinks.get(Table.TEACHER)),
+                Table.TEACHER);
+        step("quizzes", plan.getQuizzes(), (from, to, sinks) ->
+                plan.writeQuizzes(from, to, sinks.get(Table.QUIZ), sinks.get(Table.QUESTION), sinks.get(Table.OPTION)),
+                Table.QUIZ, Table.QUESTION, Table.OPTION);
+        step("attempts", plan.getAttempts(), (from, to, sinks) ->
+                plan.writeAttempts(from, to, sinks.get(Table.QUIZ_RESULT), sinks.get(Table.RESULT),
+                        sinks.get(Table.ATTEMPT_ANSWER)),
+                Table.QUIZ_RESULT, Table.RESULT, Table.ATTEMPT_ANSWER);
+
+        if (options.getMode() == DataGenOptions.Mode.FILES) {
+            Path script = writeLoadScript();
+            System.out.println("LOAD DATA script written to " + script.toAbsolutePath());
+            if (options.isLoad()) {
+                load();
+            }
+        }
+
+        System.out.printf("Done in %s s%n", TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+    }
+
+    private void step(String name, long units, RangeWriter writer, Table... tables) throws Exception {
+        long start = System.nanoTime();
+        int partitions = (int) Math.max(1, Math.min(options.getWriters(), units));
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int p = 0; p < partitions; p++) {
+            long from = units * p / partitions;
+            long to = units * (p + 1) / partitions;
+            int partition = p;
+            futures.add(writers.submit(() -> {
+                writePartition(partition, from, to, writer, tables);
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        StringBuilder counts = new StringBuilder();
+        long rows = 0;
+        for (Table table : tables) {
+            long count = rowCounts.get(table).get();
+            rows += count;
+            counts.append(String.format(" %s=%,d", table.getFileName(), count));
+        }
+        System.out.printf("  %-9s%s in %.1f s (%,.0f rows/s)%n", name, counts, seconds, rows / Math.max(seconds, 0.001));
+    }
+
+    private void writePartition(int partition, long from, long to, RangeWriter writer, Table[] tables) throws Exception {
+        Map<Table, RowSink> sinks = new EnumMap<>(Table.class);
+        Connection connection = null;
+        try {
+            if (options.getMode() == DataGenOptions.Mode.INSERT) {
+                connection = loadingConnection();
+                for (Table table : tables) {
+                    sinks.put(table, new BatchInsertSink(connection, table, options.getRowsPerStatement()));
+                }
+            } else {
+                for (Table table : tables) {
+                    Path file = options.getOutputDirectory().resolve(table.getFileName() + "." + partition + ".tsv");
+                    sinks.put(table, new TsvFileSink(file));
+                    synchronized (files) {
+                        files.get(table).add(file);
+                    }
+                }
+            }
+
+            writer.write(from, to, sinks);
+
+            for (Table table : tables) {
+                RowSink sink = sinks.remove(table);
+                sink.close();
+                rowCounts.get(table).addAndGet(sink.getRowCount());
+            }
+        } finally {
+            for (RowSink sink : sinks.values()) {
+                try {
+                    sink.close();
+                } catch (Exception ignored) {
+                    // Already failing, the first error is the one worth reporting
+                }
+            }
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+
+    private Path writeLoadScript() throws IOException {
+        StringBuilder script = new StringBuilder()
+                .append("-- mysql --local-infile=1 quick_quiz < load.sql\n")
+                .append("SET foreign_key_checks = 0;\nSET unique_checks = 0;\n");
+        for (Table table : Table.values()) {
+            files.get(table).sort(Comparator.comparing(Path::toString));
+            for (Path file : files.get(table)) {
+                script.append(loadStatement(table, file)).append(";\n");
+            }
+        }
+        script.append("SET unique_checks = 1;\nSET foreign_key_checks = 1;\n");
+
+        Path path = options.getOutputDirectory().resolve("load.sql");
+        Files.write(path, script.toString().getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+
+    // Tables load one after another (parents first), the files of one table in parallel
+    private void load() throws Exception {
+        System.out.println("Loading files");
+        for (Table table : Table.values()) {
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (Path file : files.get(table)) {
+                futures.add(writers.submit(() -> {
+                    try (Connection connection = loadingConnection(); Statement statement = connection.createStatement()) {
+                        statement.execute(loadStatement(table, file));
+                        connection.commit();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            System.out.printf("  %-12s %,d rows in %.1f s%n", table.getFileName(), rowCounts.get(table).get(),
+                    (System.nanoTime() - start) / 1e9);
+        }
+    }
+
+    private static String loadStatement(Table table, Path file) {
+        return "LOAD DATA LOCAL INFILE '" + file.toAbsolutePath().toString().replace("\\", "/").replace("'", "''")
+                + "' INTO TABLE " + table.getSqlName() + " CHARACTER SET utf8mb4 " + table.loadColumnList();
+    }
+
+    private Connection loadingConnection() throws SQLException {
+        Connection connection = connect();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET foreign_key_checks = 0");
+            statement.execute("SET unique_checks = 0");
+        }
+        connection.setAutoCommit(false);
+        return connection;
+    }
+
+    private Connection connect() throws SQLException {
+        String url = options.getJdbcUrl();
+        if (options.getMode() == DataGenOptions.Mode.FILES && !url.contains("allowLoadLocalInfile")) {
+            url += (url.contains("?") ? "&" : "?") + "allowLoadLocalInfile=true";
+        }
+        return DriverManager.getConnection(url, options.getDbUser(), options.getDbPassword());
+    }
+
+    private interface RangeWriter {
+        void write(long from, long to, Map<Table, RowSink> sinks) throws Exception;
+    }
+}
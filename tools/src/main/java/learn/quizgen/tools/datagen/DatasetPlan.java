@@ -0,0 +1,260 @@
+package learn.quizgen.tools.datagen;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+
+// Decides every row up front from the seed, so any range of users, quizzes or attempts can be
+// generated independently (and in parallel) and the same seed always gives the same dataset.
+// Ids are assigned here rather than read back from the database: questions and options get
+// contiguous id blocks per quiz, which lets an attempt compute the ids of what it answers.
+//
+// Skew: a few teachers write most quizzes, a few quizzes get most attempts and a few students
+// take most of them (all Zipf). Quiz lengths and option counts follow what teachers pick in the
+// UI, and each student has a fixed ability that decides how often they answer correctly.
+public class DatasetPlan {
+
+    private static final String[] FIRST_NAMES = {"Ava", "Liam", "Noah", "Emma", "Mia", "Omar", "Sofia", "Lucas",
+            "Amara", "Mateo", "Yuki", "Priya", "Ethan", "Zara", "Leo", "Nia", "Moataz", "Tyler", "David", "Chloe"};
+    private static final String[] LAST_NAMES = {"Smith", "Garcia", "Nguyen", "Hamdan", "Johnson", "Okafor", "Kim",
+            "Patel", "Rossi", "Muller", "Silva", "Cohen", "Brown", "Ali", "Tanaka", "Lopez", "Ivanova", "Clark"};
+    private static final String[] TOPICS = {"real estate", "ecosystems", "us government", "algebra", "world war ii",
+            "photosynthesis", "fractions", "the solar system", "economics", "grammar", "chemistry basics",
+            "ancient rome", "geometry", "plate tectonics", "poetry", "statistics", "cell biology", "civics"};
+    private static final int[] QUESTION_COUNTS = {5, 10, 15, 20, 25};
+    private static final double[] QUESTION_COUNT_WEIGHTS = {0.15, 0.40, 0.20, 0.15, 0.10};
+    private static final int[] OPTION_COUNTS = {3, 4, 5};
+    private static final double[] OPTION_COUNT_WEIGHTS = {0.20, 0.60, 0.20};
+
+    private static final long QUIZ_STREAM = 1;
+    private static final long ATTEMPT_STREAM = 2;
+    private static final long USER_STREAM = 3;
+
+    private final long seed;
+    private final int users;
+    private final int teachers;
+    private final int quizzes;
+    private final IdBases bases;
+    private final String passwordHash;
+    private final double legacyShare;
+
+    private final int[] questionCount;
+    private final int[] optionCount;
+    private final int[] questionBase;
+    private final int[] optionBase;
+    private final long totalQuestions;
+    private final long totalOptions;
+    private final long attempts;
+
+    private final Zipf authorship;
+    private final Zipf popularity;
+    private final Zipf activity;
+
+    public DatasetPlan(DataGenOptions options, IdBases bases, String passwordHash) {
+        this.seed = options.getSeed();
+        this.users = options.getUsers();
+        this.teachers = options.getTeachers();
+        this.quizzes = options.getQuizzes();
+        this.bases = bases;
+        this.passwordHash = passwordHash;
+        this.legacyShare = options.getLegacyShare();
+
+        authorship = new Zipf(teachers, 1.1);
+        popularity = new Zipf(quizzes, 1.0);
+        activity = new Zipf(users - teachers, 0.8);
+
+        questionCount = new int[quizzes];
+        optionCount = new int[quizzes];
+        questionBase = new int[quizzes];
+        optionBase = new int[quizzes];
+        long questions = 0;
+        long choices = 0;
+        for (int q = 0; q < quizzes; q++) {
+            SplittableRandom random = random(QUIZ_STREAM, q);
+            questionCount[q] = pick(random, QUESTION_COUNTS, QUESTION_COUNT_WEIGHTS);
+            optionCount[q] = pick(random, OPTION_COUNTS, OPTION_COUNT_WEIGHTS);
+            questionBase[q] = Math.toIntExact(bases.getQuestion() + questions);
+            optionBase[q] = Math.toIntExact(bases.getOption() + choices);
+            questions += questionCount[q];
+            choices += (long) questionCount[q] * optionCount[q];
+        }
+        totalQuestions = questions;
+        totalOptions = choices;
+
+        // Popular quizzes dominate, so the answers per attempt follow their lengths
+        double questionsPerAttempt = 0;
+        for (int rank = 0; rank < quizzes; rank++) {
+            questionsPerAttempt += popularity.probability(rank) * questionCount[Zipf.scatter(rank, quizzes)];
+        }
+        attempts = options.getAnswers() == 0 ? 0 : Math.max(1, Math.round(options.getAnswers() / questionsPerAttempt));
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public int getTeachers() {
+        return teachers;
+    }
+
+    public int getQuizzes() {
+        return quizzes;
+    }
+
+    public long getTotalQuestions() {
+        return totalQuestions;
+    }
+
+    public long getTotalOptions() {
+        return totalOptions;
+    }
+
+    public long getAttempts() {
+        return attempts;
+    }
+
+    // Users [0, teachers) are the teachers, the rest are students
+    public void writeUsers(long from, long to, RowSink appUser, RowSink userRole) throws Exception {
+        for (long i = from; i < to; i++) {
+            SplittableRandom random = random(USER_STREAM, i);
+            int userId = userId((int) i);
+            appUser.row(userId, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                    LAST_NAMES[random.nextInt(LAST_NAMES.length)], "user" + userId + "@quickquiz.test",
+                    passwordHash, false);
+            userRole.row(userId, i < teachers ? bases.getTeacherRole() : bases.getStudentRole());
+        }
+    }
+
+    public void writeTeachers(long from, long to, RowSink teacher) throws Exception {
+        for (long t = from; t < to; t++) {
+            teacher.row(teacherId((int) t), userId((int) t));
+        }
+    }
+
+    public void writeQuizzes(long from, long to, RowSink quiz, RowSink question, RowSink option) throws Exception {
+        for (long index = from; index < to; index++) {
+            int q = (int) index;
+            SplittableRandom random = random(QUIZ_STREAM, q);
+            // Skip the two draws the constructor made for the lengths
+            random.nextDouble();
+            random.nextDouble();
+
+            String topic = TOPICS[random.nextInt(TOPICS.length)];
+            int teacher = Zipf.scatter(authorship.sample(random), teachers);
+            int questions = questionCount[q];
+            int options = optionCount[q];
+
+            StringBuilder json = new StringBuilder(questions * options * 48).append("{\"questions\":[");
+            for (int k = 0; k < questions; k++) {
+                String questionText = "Question " + (k + 1) + " about " + topic + ": which statement is correct?";
+                int correct = correctOption(q, k);
+                question.row(questionBase[q] + k + 1, quizId(q), questionText);
+
+                json.append(k == 0 ? "" : ",").append("{\"question\":\"").append(questionText).append("\",\"options\":[");
+                for (int o = 0; o < options; o++) {
+                    String optionText = optionText(topic, k, o);
+                    option.row(optionBase[q] + k * options + o + 1, questionBase[q] + k + 1, optionText, o == correct);
+                    json.append(o == 0 ? "" : ",").append('"').append(optionText).append('"');
+                }
+                json.append("],\"correct_answer\":\"").append(optionText(topic, k, correct)).append("\"}");
+            }
+            json.append("]}");
+
+            quiz.row(quizId(q), teacherId(teacher), "Quiz " + (q + 1), "A " + questions + " question quiz about " + topic + ".",
+                    questions, options, topic, "give me a quiz about " + topic + " with " + questions
+                            + " questions and " + options + " options", json.toString());
+        }
+    }
+
+    // One quiz_result row per attempt and one result row per answered question
+    // A legacyShare of attempts are written the way the grader used to, one result row per answer and a
+    // quiz_result without an attempt number. The rest are one packed attempt_answer row each, numbered by
+    // the attempt's position in the dataset: increasing per student and quiz, but not consecutive.
+    public void writeAttempts(long from, long to, RowSink quizResult, RowSink result, RowSink attemptAnswer)
+            throws Exception {
+        int students = users - teachers;
+        for (long a = from; a < to; a++) {
+            SplittableRandom random = random(ATTEMPT_STREAM, a);
+            boolean legacy = random.nextDouble() < legacyShare;
+            PackedAnswers packed = legacy ? null : new PackedAnswers();
+            int q = Zipf.scatter(popularity.sample(random), quizzes);
+            int student = teachers + Zipf.scatter(activity.sample(random), students);
+            int userId = userId(student);
+            double ability = ability(student);
+            int questions = questionCount[q];
+            int options = optionCount[q];
+
+            int correctAnswers = 0;
+            for (int k = 0; k < questions; k++) {
+                int correct = correctOption(q, k);
+                int chosen = correct;
+                if (random.nextDouble() < ability) {
+                    correctAnswers++;
+                } else {
+                    chosen = (correct + 1 + random.nextInt(options - 1)) % options;
+                }
+                int questionId = questionBase[q] + k + 1;
+                int optionId = optionBase[q] + k * options + chosen + 1;
+                if (legacy) {
+                    result.row(userId, quizId(q), questionId, optionId);
+                } else {
+                    packed.add(questionId, optionId);
+                }
+            }
+
+            Long attempt = legacy ? null : a + 1;
+            if (!legacy) {
+                attemptAnswer.row(userId, quizId(q), attempt, packed.toBytes());
+            }
+            BigDecimal percent = BigDecimal.valueOf(correctAnswers * 100.0 / questions).setScale(2, RoundingMode.HALF_UP);
+            quizResult.row(userId, quizId(q), correctAnswers, questions, percent, attempt);
+        }
+    }
+
+    private int userId(int index) {
+        return bases.getUser() + index + 1;
+    }
+
+    private int teacherId(int index) {
+        return bases.getTeacher() + index + 1;
+    }
+
+    private int quizId(int index) {
+        return bases.getQuiz() + index + 1;
+    }
+
+    private int correctOption(int q, int k) {
+        return (int) Long.remainderUnsigned(mix(seed ^ mix(q) ^ (k * 0x9E3779B97F4A7C15L)), optionCount[q]);
+    }
+
+    // Between 35% and 95% of answers correct, fixed per student
+    private double ability(int student) {
+        return 0.35 + 0.6 * ((mix(seed + student) >>> 11) * 0x1.0p-53);
+    }
+
+    private static String optionText(String topic, int question, int option) {
+        return "Statement " + (char) ('A' + option) + " about " + topic + " for question " + (question + 1);
+    }
+
+    private SplittableRandom random(long stream, long index) {
+        return new SplittableRandom(mix(seed ^ mix(stream * 0x632BE59BD9B4E019L + index)));
+    }
+
+    private static int pick(SplittableRandom random, int[] values, double[] weights) {
+        double draw = random.nextDouble();
+        for (int i = 0; i < values.length - 1; i++) {
+            draw -= weights[i];
+            if (draw < 0) {
+                return values[i];
+            }
+        }
+        return values[values.length - 1];
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
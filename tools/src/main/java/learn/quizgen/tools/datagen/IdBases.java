@@ -0,0 +1,84 @@
+package learn.quizgen.tools.datagen;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// The highest existing id per table, generated rows start right after it. Also resolves the
+// Student and Teacher role ids so user_role rows match the role table.
+public class IdBases {
+
+    private final int user;
+    private final int teacher;
+    private final int quiz;
+    private final int question;
+    private final int option;
+    private final int studentRole;
+    private final int teacherRole;
+
+    private IdBases(int user, int teacher, int quiz, int question, int option, int studentRole, int teacherRole) {
+        this.user = user;
+        this.teacher = teacher;
+        this.quiz = quiz;
+        this.question = question;
+        this.option = option;
+        this.studentRole = studentRole;
+        this.teacherRole = teacherRole;
+    }
+
+    // Without a database (files only): every table starts after the same fixed id, the roles
+    // are the ones the schema scripts insert
+    public static IdBases fixed(int base) {
+        return new IdBases(base, base, base, base, base, 1, 2);
+    }
+
+    public static IdBases read(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT IGNORE INTO role (`name`) VALUES ('Student'), ('Teacher')");
+            return new IdBases(
+                    max(statement, "SELECT COALESCE(MAX(user_id), 0) FROM app_user"),
+                    max(statement, "SELECT COALESCE(MAX(teacher_id), 0) FROM teacher"),
+                    max(statement, "SELECT COALESCE(MAX(quiz_id), 0) FROM quiz"),
+                    max(statement, "SELECT COALESCE(MAX(question_id), 0) FROM question"),
+                    max(statement, "SELECT COALESCE(MAX(option_id), 0) FROM `option`"),
+                    max(statement, "SELECT role_id FROM role WHERE `name` = 'Student'"),
+                    max(statement, "SELECT role_id FROM role WHERE `name` = 'Teacher'"));
+        }
+    }
+
+    private static int max(Statement statement, String sql) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    public int getUser() {
+        return user;
+    }
+
+    public int getTeacher() {
+        return teacher;
+    }
+
+    public int getQuiz() {
+        return quiz;
+    }
+
+    public int getQuestion() {
+        return question;
+    }
+
+    public int getOption() {
+        return option;
+    }
+
+    public int getStudentRole() {
+        return studentRole;
+    }
+
+    public int getTeacherRole() {
+        return teacherRole;
+    }
+}
@@ -0,0 +1,39 @@
+package learn.quizgen.tools.datagen;
+
+import java.io.ByteArrayOutputStream;
+
+// attempt_answer.answers in the server's format (PackedAnswersCodec): a version byte, then per answer
+// in question id order the question id as a varint delta and the option id as a zigzag varint delta.
+public final class PackedAnswers {
+
+    private static final int VERSION = 1;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private int previousQuestion;
+    private int previousOption;
+
+    public PackedAnswers() {
+        out.write(VERSION);
+    }
+
+    // Question ids must come in increasing order
+    public void add(int questionId, int optionId) {
+        writeVarint(questionId - previousQuestion);
+        int delta = optionId - previousOption;
+        writeVarint((delta << 1) ^ (delta >> 31));
+        previousQuestion = questionId;
+        previousOption = optionId;
+    }
+
+    public byte[] toBytes() {
+        return out.toByteArray();
+    }
+
+    private void writeVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
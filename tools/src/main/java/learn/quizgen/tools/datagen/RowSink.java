@@ -0,0 +1,12 @@
+package learn.quizgen.tools.datagen;
+
+// Where one writer sends the rows it generates for one table
+public interface RowSink extends AutoCloseable {
+
+    void row(Object... values) throws Exception;
+
+    long getRowCount();
+
+    @Override
+    void close() throws Exception;
+}
@@ -0,0 +1,53 @@
+package learn.quizgen.tools.datagen;
+
+import java.util.List;
+
+public enum Table {
+    APP_USER("app_user", "user_id", "first_name", "last_name", "username", "password", "disabled"),
+    USER_ROLE("user_role", "user_id", "role_id"),
+    TEACHER("teacher", "teacher_id", "user_id"),
+    QUIZ("quiz", "quiz_id", "teacher_id", "title", "description", "number_of_questions", "number_of_options",
+            "topic", "prompt", "quiz_json"),
+    QUESTION("question", "question_id", "quiz_id", "question_text"),
+    OPTION("`option`", "option_id", "question_id", "option_text", "is_correct"),
+    // Nothing references quiz_result or result ids, so those are left to auto_increment
+    QUIZ_RESULT("quiz_result", "user_id", "quiz_id", "correct_answers", "total_questions", "percent_correct", "attempt"),
+    RESULT("result", "user_id", "quiz_id", "question_id", "option_id"),
+    ATTEMPT_ANSWER("attempt_answer", "user_id", "quiz_id", "attempt", "answers");
+
+    // Binary columns, written to LOAD DATA files as hex (see TsvFileSink)
+    private static final String HEX_COLUMN = "answers";
+
+    private final String sqlName;
+    private final List<String> columns;
+
+    Table(String sqlName, String... columns) {
+        this.sqlName = sqlName;
+        this.columns = List.of(columns);
+    }
+
+    public String getSqlName() {
+        return sqlName;
+    }
+
+    public String getFileName() {
+        return sqlName.replace("`", "");
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public String columnList() {
+        return "(" + String.join(", ", columns) + ")";
+    }
+
+    // Column list plus SET clause of a LOAD DATA statement
+    public String loadColumnList() {
+        if (!columns.contains(HEX_COLUMN)) {
+            return columnList();
+        }
+        return columnList().replace(HEX_COLUMN, "@" + HEX_COLUMN)
+                + " SET " + HEX_COLUMN + " = UNHEX(@" + HEX_COLUMN + ")";
+    }
+}
@@ -0,0 +1,90 @@
+package learn.quizgen.tools.datagen;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Writes rows in the default LOAD DATA format: tab separated fields, newline terminated lines,
+// backslash escapes and \N for NULL. Binary values are written as hex (see Table.loadColumnList).
+public class TsvFileSink implements RowSink {
+
+    private final Path file;
+    private final BufferedWriter writer;
+    private long rowCount;
+
+    public TsvFileSink(Path file) throws IOException {
+        this.file = file;
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void row(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write('\t');
+            }
+            write(values[i]);
+        }
+        writer.write('\n');
+        rowCount++;
+    }
+
+    @Override
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void write(Object value) throws IOException {
+        if (value == null) {
+            writer.write("\\N");
+            return;
+        }
+        if (value instanceof byte[]) {
+            for (byte b : (byte[]) value) {
+                writer.write(Character.forDigit((b >> 4) & 0xF, 16));
+                writer.write(Character.forDigit(b & 0xF, 16));
+            }
+            return;
+        }
+        if (value instanceof Boolean) {
+            writer.write((Boolean) value ? '1' : '0');
+            return;
+        }
+        if (!(value instanceof String)) {
+            writer.write(value.toString());
+            return;
+        }
+
+        String text = (String) value;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                default:
+                    writer.write(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package learn.quizgen.tools.datagen;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Samples ranks 0..n-1 with probability proportional to 1 / (rank + 1)^exponent, so a few ranks
+// get most of the hits (popular quizzes, prolific teachers, very active students).
+public class Zipf {
+
+    private final double[] cumulative;
+
+    public Zipf(int n, double exponent) {
+        cumulative = new double[n];
+        double total = 0;
+        for (int rank = 0; rank < n; rank++) {
+            total += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= total;
+        }
+    }
+
+    public int sample(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, cumulative.length - 1);
+    }
+
+    public double probability(int rank) {
+        return rank == 0 ? cumulative[0] : cumulative[rank] - cumulative[rank - 1];
+    }
+
+    // Spreads ranks over 0..n-1 so the heavy hitters aren't all the lowest ids
+    public static int scatter(int rank, int n) {
+        long step = 1_000_003L;
+        while (gcd(step, n) != 1) {
+            step += 2;
+        }
+        return (int) ((rank * step) % n);
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+}
@@ -0,0 +1,131 @@
+package learn.quizgen.tools.importer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+// Uploads a question bank to POST /api/imports, prints the progress until the server is done and
+// saves the rejected rows. The file is streamed from disk, so its size only matters to the server's
+// imports.max-bytes.
+//
+// java -cp target/quick-quiz-tools.jar learn.quizgen.tools.importer.QuizImport \
+//     --username teacher@quiztaker.com --password ... --quiz-id 3 --file bank.csv
+public class QuizImport {
+
+    private final QuizImportOptions options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    public QuizImport(QuizImportOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        QuizImportOptions options;
+        try {
+            options = QuizImportOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        try {
+            System.exit(new QuizImport(options).run() ? 0 : 1);
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // True when every row was imported
+    public boolean run() throws IOException, InterruptedException {
+        String token = authenticate();
+
+        HttpResponse<String> started = httpClient.send(HttpRequest.newBuilder(
+                        URI.create(options.getBaseUrl() + "/api/imports?quizId=" + options.getQuizId()
+                                + "&format=" + options.getFormat()))
+                        .header("Authorization", "Bearer " + token)
+                        .header("Content-Type", options.getFormat().equals("json") ? "application/json" : "text/csv")
+                        .POST(HttpRequest.BodyPublishers.ofFile(options.getFile()))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (started.statusCode() != 202) {
+            throw new IOException("Import was refused (" + started.statusCode() + "): " + started.body());
+        }
+        String jobId = objectMapper.readTree(started.body()).path("jobId").asText();
+        System.out.println("Uploaded " + options.getFile() + ", import " + jobId);
+
+        JsonNode job;
+        String lastLine = "";
+        while (true) {
+            Thread.sleep((long) (options.getPollSeconds() * 1000));
+            HttpResponse<String> progress = httpClient.send(authorized("/api/imports/" + jobId, token).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (progress.statusCode() != 200) {
+                throw new IOException("Could not read progress (" + progress.statusCode() + "): " + progress.body());
+            }
+            job = objectMapper.readTree(progress.body());
+            String line = String.format("%s: %d rows read, %d questions and %d options added, %d rows rejected",
+                    job.path("status").asText(), job.path("rowsRead").asLong(), job.path("questionsAdded").asLong(),
+                    job.path("optionsAdded").asLong(), job.path("errorCount").asLong());
+            if (!line.equals(lastLine)) {
+                System.out.println(line);
+                lastLine = line;
+            }
+            String status = job.path("status").asText();
+            if (status.equals("DONE") || status.equals("FAILED")) {
+                break;
+            }
+        }
+        if (!job.path("message").isNull() && !job.path("message").isMissingNode()) {
+            System.out.println(job.path("message").asText());
+        }
+
+        long errors = job.path("errorCount").asLong();
+        if (errors > 0) {
+            HttpResponse<Path> report = httpClient.send(
+                    authorized("/api/imports/" + jobId + "/errors", token).GET().build(),
+                    HttpResponse.BodyHandlers.ofFile(options.getErrorsFile()));
+            if (report.statusCode() == 200) {
+                System.out.println("Rejected rows written to " + options.getErrorsFile().toAbsolutePath());
+            } else {
+                Files.deleteIfExists(options.getErrorsFile());
+                System.err.println("Could not download the rejected rows (" + report.statusCode() + ")");
+            }
+        }
+        return errors == 0 && job.path("status").asText().equals("DONE");
+    }
+
+    private String authenticate() throws IOException, InterruptedException {
+        String body = objectMapper.writeValueAsString(Map.of(
+                "username", options.getUsername(), "password", options.getPassword()));
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(
+                        URI.create(options.getBaseUrl() + "/api/user/authenticate"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("Login failed (" + response.statusCode() + ")");
+        }
+        return objectMapper.readTree(response.body()).path("jwt_token").asText();
+    }
+
+    private HttpRequest.Builder authorized(String path, String token) {
+        return HttpRequest.newBuilder(URI.create(options.getBaseUrl() + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token);
+    }
+}
@@ -0,0 +1,122 @@
+package learn.quizgen.tools.importer;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class QuizImportOptions {
+
+    private String baseUrl = "http://localhost:8080";
+    private String username;
+    private String password;
+    private int quizId;
+    private Path file;
+    // csv or json, taken from the file's extension when not given
+    private String format;
+    private Path errorsFile;
+    private double pollSeconds = 2;
+
+    public static QuizImportOptions parse(String[] args) {
+        QuizImportOptions options = new QuizImportOptions();
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i];
+            if (name.equals("--help")) {
+                throw new IllegalArgumentException(usage());
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + name + "\n" + usage());
+            }
+            String value = args[++i];
+
+            switch (name) {
+                case "--base-url":
+                    options.baseUrl = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                    break;
+                case "--username":
+                    options.username = value;
+                    break;
+                case "--password":
+                    options.password = value;
+                    break;
+                case "--quiz-id":
+                    options.quizId = Integer.parseInt(value);
+                    break;
+                case "--file":
+                    options.file = Paths.get(value);
+                    break;
+                case "--format":
+                    options.format = value.toLowerCase();
+                    break;
+                case "--errors":
+                    options.errorsFile = Paths.get(value);
+                    break;
+                case "--poll":
+                    options.pollSeconds = Double.parseDouble(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + name + "\n" + usage());
+            }
+        }
+
+        if (options.username == null || options.password == null) {
+            throw new IllegalArgumentException("--username and --password are required.\n" + usage());
+        }
+        if (options.quizId < 1 || options.file == null) {
+            throw new IllegalArgumentException("--quiz-id and --file are required.\n" + usage());
+        }
+        if (options.format == null) {
+            options.format = options.file.toString().toLowerCase().endsWith(".json") ? "json" : "csv";
+        }
+        if (!options.format.equals("csv") && !options.format.equals("json")) {
+            throw new IllegalArgumentException("--format must be csv or json.");
+        }
+        if (options.errorsFile == null) {
+            options.errorsFile = Paths.get(options.file.getFileName() + ".errors.csv");
+        }
+        return options;
+    }
+
+    public static String usage() {
+        return String.join("\n",
+                "usage: QuizImport --username <teacher> --password <pw> --quiz-id <id> --file <path> [options]",
+                "  --base-url <url>          server to import into (default http://localhost:8080)",
+                "  --username <username>     teacher who owns the quiz",
+                "  --password <pw>           the teacher's password",
+                "  --quiz-id <id>            quiz the questions are added to",
+                "  --file <path>             question bank, CSV or JSON",
+                "  --format <csv|json>       file format (default from the file extension)",
+                "  --errors <path>           where rejected rows are written (default <file>.errors.csv)",
+                "  --poll <s>                seconds between progress checks (default 2)");
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public int getQuizId() {
+        return quizId;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public Path getErrorsFile() {
+        return errorsFile;
+    }
+
+    public double getPollSeconds() {
+        return pollSeconds;
+    }
+}
@@ -0,0 +1,371 @@
+package learn.quizgen.tools.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Replays the moment a whole class starts a quiz against a running server:
+//   1. login burst      - students arrive at a Poisson rate and POST /api/user/authenticate
+//   2. quiz load        - after a short think time each student makes the three GETs TakeQuiz.tsx makes
+//   3. submission burst - when the exam ends every student POSTs /api/quiz-results
+// Arrivals are open model: requests go out at their scheduled time whether or not earlier ones
+// have been answered, the way real students don't wait for each other. Setup (a teacher, a quiz
+// and the student accounts) is created first and reported separately.
+//
+// java -cp target/quick-quiz-tools.jar learn.quizgen.tools.loadtest.ExamSurge --students 500
+public class ExamSurge {
+
+    static final String LOGIN = "POST /api/user/authenticate";
+    static final String GET_QUIZ = "GET /api/quizzes/{id}";
+    static final String GET_QUESTIONS = "GET /api/questions/{id}";
+    static final String GET_USER = "GET /api/user/{username}";
+    static final String SUBMIT = "POST /api/quiz-results";
+    static final String REGISTER = "POST /api/user/register";
+    static final String CREATE_QUIZ = "POST /api/quizzes";
+
+    private static final String TEACHER_USERNAME = "loadtest-teacher@quickquiz.test";
+
+    private final ExamSurgeOptions options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService httpExecutor = Executors.newCachedThreadPool(daemon("loadtest-http"));
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, daemon("loadtest-scheduler"));
+    private final QuickQuizClient client;
+
+    public ExamSurge(ExamSurgeOptions options) {
+        this.options = options;
+        this.client = new QuickQuizClient(options.getBaseUrl(), httpExecutor);
+    }
+
+    public static void main(String[] args) throws Exception {
+        ExamSurgeOptions options;
+        try {
+            options = ExamSurgeOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        ExamSurge surge = new ExamSurge(options);
+        try {
+            Path report = surge.run();
+            System.out.println("Report written to " + report.toAbsolutePath());
+        } finally {
+            surge.shutdown();
+        }
+    }
+
+    public Path run() throws Exception {
+        LatencyRecorder setupRecorder = new LatencyRecorder(System.nanoTime());
+        int quizId = setup(setupRecorder);
+
+        List<Student> students = new ArrayList<>(options.getStudents());
+        for (int i = 0; i < options.getStudents(); i++) {
+            students.add(new Student(studentUsername(i), new Random(options.getSeed() + i)));
+        }
+
+        System.out.printf("Exam surge: %s students, quiz %s, logins over ~%.0fs, submissions from %.0fs over ~%.0fs%n",
+                students.size(), quizId, options.getLoginWindowSeconds(), options.getExamSeconds(),
+                options.getSubmitWindowSeconds());
+
+        // Leave a moment to get every arrival scheduled before the first one is due
+        long startNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500);
+        LatencyRecorder recorder = new LatencyRecorder(startNanos);
+        CountDownLatch finished = new CountDownLatch(students.size());
+        AtomicInteger inFlight = new AtomicInteger();
+
+        Random arrivals = new Random(options.getSeed());
+        double loginGap = options.getLoginWindowSeconds() / students.size();
+        double submitGap = options.getSubmitWindowSeconds() / students.size();
+        double loginAt = 0;
+        double submitAt = options.getExamSeconds();
+        for (Student student : students) {
+            loginAt += exponential(arrivals, loginGap);
+            submitAt += exponential(arrivals, submitGap);
+            schedule(startNanos, loginAt, scheduled -> login(student, quizId, scheduled, recorder, inFlight));
+            schedule(startNanos, submitAt, scheduled -> submit(student, quizId, scheduled, recorder, inFlight, finished));
+        }
+
+        long lastSubmission = startNanos + seconds(submitAt);
+        scheduler.scheduleAtFixedRate(() -> System.out.printf("  t=%4ds  samples=%-6s in flight=%s%n",
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos), recorder.getSamples().size(),
+                inFlight.get()), 10, 10, TimeUnit.SECONDS);
+
+        long timeout = lastSubmission - System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        if (!finished.await(timeout, TimeUnit.NANOSECONDS)) {
+            System.out.printf("Gave up waiting for %s submissions%n", finished.getCount());
+        }
+
+        return new ReportWriter(objectMapper).write(options, quizId, setupRecorder, recorder);
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+        httpExecutor.shutdownNow();
+    }
+
+    // Creates the teacher, the quiz (unless --quiz-id is given) and the student accounts. Accounts
+    // left over from an earlier run are reused, so the harness can be pointed at the same
+    // database again and again.
+    private int setup(LatencyRecorder recorder) throws Exception {
+        System.out.printf("Setup: registering a teacher and %s students at %s%n", options.getStudents(), options.getBaseUrl());
+
+        register(recorder, "Load", "Teacher", TEACHER_USERNAME, "Teacher").join();
+        String teacherToken = authenticate(recorder, "setup", TEACHER_USERNAME).join();
+        if (teacherToken == null) {
+            throw new IllegalStateException("Could not log in as " + TEACHER_USERNAME + ", is the server running?");
+        }
+
+        int quizId = options.getQuizId();
+        if (quizId == 0) {
+            long scheduled = System.nanoTime();
+            HttpResponse<String> response = client.createQuiz(teacherToken, quizBody()).join();
+            recorder.record("setup", CREATE_QUIZ, scheduled, System.nanoTime(), response.statusCode());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Could not create the quiz: " + response.statusCode() + " " + response.body());
+            }
+            quizId = objectMapper.readTree(response.body()).path("quizId").asInt();
+        }
+
+        Semaphore permits = new Semaphore(options.getSetupConcurrency());
+        List<CompletableFuture<?>> registrations = new ArrayList<>();
+        for (int i = 0; i < options.getStudents(); i++) {
+            permits.acquire();
+            registrations.add(register(recorder, "Load", "Student" + i, studentUsername(i), "Student")
+                    .whenComplete((status, error) -> permits.release()));
+        }
+        CompletableFuture.allOf(registrations.toArray(new CompletableFuture<?>[0])).join();
+
+        return quizId;
+    }
+
+    // 201 for a new account, 400 when it already exists from an earlier run; both are fine here
+    private CompletableFuture<Integer> register(LatencyRecorder recorder, String firstName, String lastName,
+                                                String username, String role) {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("firstName", firstName);
+        body.put("lastName", lastName);
+        body.put("username", username);
+        body.put("password", options.getPassword());
+        body.putArray("roles").add(role);
+
+        long scheduled = System.nanoTime();
+        return client.register(body.toString()).handle((response, error) -> {
+            int status = response == null ? LatencyRecorder.NO_RESPONSE : response.statusCode();
+            recorder.record("setup", REGISTER, scheduled, System.nanoTime(), status == 400 ? 201 : status);
+            return status;
+        });
+    }
+
+    private CompletableFuture<String> authenticate(LatencyRecorder recorder, String phase, String username) {
+        return authenticate(recorder, phase, username, System.nanoTime());
+    }
+
+    private CompletableFuture<String> authenticate(LatencyRecorder recorder, String phase, String username, long scheduled) {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("username", username);
+        body.put("password", options.getPassword());
+
+        return client.authenticate(body.toString()).handle((response, error) -> {
+            recorder.record(phase, LOGIN, scheduled, System.nanoTime(), status(response));
+            if (response == null || response.statusCode() != 200) {
+                return null;
+            }
+            return readTree(response.body()).path("jwt_token").asText(null);
+        });
+    }
+
+    private void login(Student student, int quizId, long scheduled, LatencyRecorder recorder, AtomicInteger inFlight) {
+        inFlight.incrementAndGet();
+        authenticate(recorder, "login", student.username, scheduled).whenComplete((token, error) -> {
+            inFlight.decrementAndGet();
+            student.token = token;
+            if (token != null) {
+                double thinkTime = exponential(student.random, options.getThinkTimeSeconds());
+                schedule(System.nanoTime(), thinkTime, loadAt -> loadQuiz(student, quizId, loadAt, recorder, inFlight));
+            }
+        });
+    }
+
+    // The three requests TakeQuiz.tsx fires in parallel when the quiz page opens
+    private void loadQuiz(Student student, int quizId, long scheduled, LatencyRecorder recorder, AtomicInteger inFlight) {
+        inFlight.addAndGet(3);
+        client.getQuiz(student.token, quizId).whenComplete((response, error) -> {
+            inFlight.decrementAndGet();
+            recorder.record("load quiz", GET_QUIZ, scheduled, System.nanoTime(), status(response));
+            if (ok(response)) {
+                student.quiz = readTree(response.body());
+            }
+        });
+        client.getQuestions(student.token, quizId).whenComplete((response, error) -> {
+            inFlight.decrementAndGet();
+            recorder.record("load quiz", GET_QUESTIONS, scheduled, System.nanoTime(), status(response));
+            if (ok(response)) {
+                student.questions = readTree(response.body());
+            }
+        });
+        client.getUser(student.token, student.username).whenComplete((response, error) -> {
+            inFlight.decrementAndGet();
+            recorder.record("load quiz", GET_USER, scheduled, System.nanoTime(), status(response));
+            if (ok(response)) {
+                student.userId = readTree(response.body()).path("appUserId").asInt();
+            }
+        });
+    }
+
+    private void submit(Student student, int quizId, long scheduled, LatencyRecorder recorder,
+                        AtomicInteger inFlight, CountDownLatch finished) {
+        if (student.token == null || student.quiz == null || student.questions == null || student.userId == 0) {
+            // The student never got the quiz on screen, count it against the run instead of hiding it
+            recorder.record("submit", SUBMIT, scheduled, scheduled, LatencyRecorder.SKIPPED);
+            finished.countDown();
+            return;
+        }
+
+        inFlight.incrementAndGet();
+        client.submitQuizResult(student.token, answers(student, quizId)).whenComplete((response, error) -> {
+            inFlight.decrementAndGet();
+            recorder.record("submit", SUBMIT, scheduled, System.nanoTime(), status(response));
+            finished.countDown();
+        });
+    }
+
+    // Same payload TakeQuiz.tsx posts: a random option per question, scored against the options' flags
+    private String answers(Student student, int quizId) {
+        ArrayNode chosen = objectMapper.createArrayNode();
+        int correct = 0;
+        for (JsonNode question : student.questions) {
+            JsonNode options = question.path("optionList");
+            if (options.size() == 0) {
+                continue;
+            }
+            JsonNode option = options.get(student.random.nextInt(options.size()));
+            if (option.path("correct").asBoolean()) {
+                correct++;
+            }
+            ObjectNode answer = chosen.addObject();
+            answer.put("questionId", question.path("questionId").asInt());
+            answer.put("optionText", option.path("optionText").asText());
+        }
+
+        int total = student.quiz.path("numberOfQuestions").asInt(student.questions.size());
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("userId", student.userId);
+        body.put("quizId", quizId);
+        body.put("correctAnswers", correct);
+        body.put("totalQuestions", total);
+        body.put("score", total == 0 ? 0 : correct * 100.0 / total);
+        body.set("optionList", chosen);
+        body.set("questionList", student.questions);
+        body.put("username", student.username);
+        body.put("title", student.quiz.path("title").asText());
+        body.put("topic", student.quiz.path("topic").asText());
+        return body.toString();
+    }
+
+    private String quizBody() {
+        ObjectNode quizJson = objectMapper.createObjectNode();
+        ArrayNode questions = quizJson.putArray("questions");
+        for (int q = 1; q <= options.getNumberOfQuestions(); q++) {
+            ObjectNode question = questions.addObject();
+            question.put("question", "Load test question " + q + ": which statement about ecosystems is true?");
+            ArrayNode choices = question.putArray("options");
+            for (int o = 1; o <= options.getNumberOfOptions(); o++) {
+                choices.add("Statement " + o + " for question " + q);
+            }
+            question.put("correct_answer", "Statement " + (q % options.getNumberOfOptions() + 1) + " for question " + q);
+        }
+
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("title", "Exam Surge");
+        body.put("description", "Created by the exam surge load test.");
+        body.put("numberOfQuestions", options.getNumberOfQuestions());
+        body.put("numberOfOptions", options.getNumberOfOptions());
+        body.put("topic", "load test");
+        body.put("prompt", "load test");
+        body.put("quizJSON", quizJson.toString());
+        return body.toString();
+    }
+
+    private void schedule(long originNanos, double offsetSeconds, ScheduledTask task) {
+        long scheduled = originNanos + seconds(offsetSeconds);
+        scheduler.schedule(() -> {
+            try {
+                task.run(scheduled);
+            } catch (RuntimeException e) {
+                System.err.println("Scheduled request failed: " + e);
+            }
+        }, scheduled - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    private JsonNode readTree(String body) {
+        try {
+            return objectMapper.readTree(body);
+        } catch (Exception e) {
+            return objectMapper.createObjectNode();
+        }
+    }
+
+    private static boolean ok(HttpResponse<String> response) {
+        return response != null && response.statusCode() == 200;
+    }
+
+    private static int status(HttpResponse<String> response) {
+        return response == null ? LatencyRecorder.NO_RESPONSE : response.statusCode();
+    }
+
+    private static double exponential(Random random, double mean) {
+        return -mean * Math.log(1 - random.nextDouble());
+    }
+
+    private static long seconds(double seconds) {
+        return (long) (seconds * 1_000_000_000L);
+    }
+
+    private static String studentUsername(int index) {
+        return "loadtest-student-" + index + "@quickquiz.test";
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private interface ScheduledTask {
+        void run(long scheduledNanos);
+    }
+
+    private static class Student {
+        private final String username;
+        private final Random random;
+        private volatile String token;
+        private volatile int userId;
+        private volatile JsonNode quiz;
+        private volatile JsonNode questions;
+
+        Student(String username, Random random) {
+            this.username = username;
+            this.random = random;
+        }
+    }
+}
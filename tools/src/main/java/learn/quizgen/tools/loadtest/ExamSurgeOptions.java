@@ -0,0 +1,167 @@
+package learn.quizgen.tools.loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+public class ExamSurgeOptions {
+
+    private String baseUrl = "http://localhost:8080";
+    private int students = 500;
+    // Students arrive (log in) over this window at a Poisson rate of students / loginWindow
+    private double loginWindowSeconds = 60;
+    // Mean pause between a successful login and opening the quiz
+    private double thinkTimeSeconds = 5;
+    // Time between the first login and the first submission
+    private double examSeconds = 300;
+    // Submissions arrive over this window at a Poisson rate of students / submitWindow
+    private double submitWindowSeconds = 30;
+    private int quizId = 0;
+    private int numberOfQuestions = 10;
+    private int numberOfOptions = 4;
+    private int setupConcurrency = 16;
+    private long seed = 42;
+    private String password = "LoadTest-Passw0rd!";
+    private Path reportDirectory = Paths.get("target", "loadtest-"
+            + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+
+    public static ExamSurgeOptions parse(String[] args) {
+        ExamSurgeOptions options = new ExamSurgeOptions();
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i];
+            if (name.equals("--help")) {
+                throw new IllegalArgumentException(usage());
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + name + "\n" + usage());
+            }
+            String value = args[++i];
+
+            switch (name) {
+                case "--base-url":
+                    options.baseUrl = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                    break;
+                case "--students":
+                    options.students = Integer.parseInt(value);
+                    break;
+                case "--login-window":
+                    options.loginWindowSeconds = Double.parseDouble(value);
+                    break;
+                case "--think-time":
+                    options.thinkTimeSeconds = Double.parseDouble(value);
+                    break;
+                case "--exam":
+                    options.examSeconds = Double.parseDouble(value);
+                    break;
+                case "--submit-window":
+                    options.submitWindowSeconds = Double.parseDouble(value);
+                    break;
+                case "--quiz-id":
+                    options.quizId = Integer.parseInt(value);
+                    break;
+                case "--questions":
+                    options.numberOfQuestions = Integer.parseInt(value);
+                    break;
+                case "--options":
+                    options.numberOfOptions = Integer.parseInt(value);
+                    break;
+                case "--setup-concurrency":
+                    options.setupConcurrency = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    options.seed = Long.parseLong(value);
+                    break;
+                case "--password":
+                    options.password = value;
+                    break;
+                case "--report":
+                    options.reportDirectory = Paths.get(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + name + "\n" + usage());
+            }
+        }
+
+        if (options.students < 1) {
+            throw new IllegalArgumentException("--students must be at least 1.");
+        }
+        if (options.loginWindowSeconds <= 0 || options.submitWindowSeconds <= 0) {
+            throw new IllegalArgumentException("--login-window and --submit-window must be positive.");
+        }
+        if (options.examSeconds < options.loginWindowSeconds) {
+            throw new IllegalArgumentException("--exam must be at least as long as --login-window.");
+        }
+        return options;
+    }
+
+    public static String usage() {
+        return String.join("\n",
+                "usage: ExamSurge [options]",
+                "  --base-url <url>          server to test (default http://localhost:8080)",
+                "  --students <n>            class size (default 500)",
+                "  --login-window <s>        seconds over which students log in (default 60)",
+                "  --think-time <s>          mean seconds between login and opening the quiz (default 5)",
+                "  --exam <s>                seconds from the first login to the first submission (default 300)",
+                "  --submit-window <s>       seconds over which submissions arrive (default 30)",
+                "  --quiz-id <id>            existing quiz to take, 0 creates one (default 0)",
+                "  --questions <n>           questions in the created quiz (default 10)",
+                "  --options <n>             options per question in the created quiz (default 4)",
+                "  --setup-concurrency <n>   parallel registrations during setup (default 16)",
+                "  --seed <n>                random seed for arrivals and answers (default 42)",
+                "  --password <pw>           password of the load test accounts",
+                "  --report <dir>            where report.json and report.html go (default target/loadtest-<time>)");
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public int getStudents() {
+        return students;
+    }
+
+    public double getLoginWindowSeconds() {
+        return loginWindowSeconds;
+    }
+
+    public double getThinkTimeSeconds() {
+        return thinkTimeSeconds;
+    }
+
+    public double getExamSeconds() {
+        return examSeconds;
+    }
+
+    public double getSubmitWindowSeconds() {
+        return submitWindowSeconds;
+    }
+
+    public int getQuizId() {
+        return quizId;
+    }
+
+    public int getNumberOfQuestions() {
+        return numberOfQuestions;
+    }
+
+    public int getNumberOfOptions() {
+        return numberOfOptions;
+    }
+
+    public int getSetupConcurrency() {
+        return setupConcurrency;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public Path getReportDirectory() {
+        return reportDirectory;
+    }
+}
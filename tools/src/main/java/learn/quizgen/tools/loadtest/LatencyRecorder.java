@@ -0,0 +1,77 @@
+package learn.quizgen.tools.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Collects one sample per request. Latency is measured from the time the request was *scheduled*
+// to go out, not from when it actually went out, so a server (or client) that falls behind shows
+// up in the numbers instead of silently lowering the request rate (coordinated omission).
+public class LatencyRecorder {
+
+    // Status used for requests that never reached the server (connect errors, timeouts)
+    public static final int NO_RESPONSE = 0;
+    // Status used for steps that could not run because an earlier step of the session failed
+    public static final int SKIPPED = -1;
+
+    private final long startNanos;
+    private final Queue<Sample> samples = new ConcurrentLinkedQueue<>();
+
+    public LatencyRecorder(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public void record(String phase, String endpoint, long scheduledNanos, long endNanos, int status) {
+        samples.add(new Sample(phase, endpoint, (scheduledNanos - startNanos) / 1_000_000,
+                Math.max(0, endNanos - scheduledNanos) / 1_000, status));
+    }
+
+    public List<Sample> getSamples() {
+        return new ArrayList<>(samples);
+    }
+
+    public static class Sample {
+        private final String phase;
+        private final String endpoint;
+        private final long offsetMillis;
+        private final long latencyMicros;
+        private final int status;
+
+        Sample(String phase, String endpoint, long offsetMillis, long latencyMicros, int status) {
+            this.phase = phase;
+            this.endpoint = endpoint;
+            this.offsetMillis = offsetMillis;
+            this.latencyMicros = latencyMicros;
+            this.status = status;
+        }
+
+        public String getPhase() {
+            return phase;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public long getOffsetMillis() {
+            return offsetMillis;
+        }
+
+        public long getLatencyMicros() {
+            return latencyMicros;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public boolean isError() {
+            return status < 200 || status >= 400;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package learn.quizgen.tools.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// The REST calls the React client makes while a student takes a quiz, as non-blocking requests so
+// a slow server never holds back the arrival schedule.
+public class QuickQuizClient {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final HttpClient httpClient;
+
+    public QuickQuizClient(String baseUrl, Executor executor) {
+        this.baseUrl = baseUrl;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+    }
+
+    public CompletableFuture<HttpResponse<String>> register(String body) {
+        return send(post("/api/user/register", null, body));
+    }
+
+    public CompletableFuture<HttpResponse<String>> authenticate(String body) {
+        return send(post("/api/user/authenticate", null, body));
+    }
+
+    public CompletableFuture<HttpResponse<String>> getUser(String token, String username) {
+        return send(get("/api/user/" + URLEncoder.encode(username, StandardCharsets.UTF_8), token));
+    }
+
+    public CompletableFuture<HttpResponse<String>> getQuiz(String token, int quizId) {
+        return send(get("/api/quizzes/" + quizId, token));
+    }
+
+    public CompletableFuture<HttpResponse<String>> getQuestions(String token, int quizId) {
+        return send(get("/api/questions/" + quizId, token));
+    }
+
+    public CompletableFuture<HttpResponse<String>> createQuiz(String token, String body) {
+        return send(post("/api/quizzes", token, body));
+    }
+
+    public CompletableFuture<HttpResponse<String>> submitQuizResult(String token, String body) {
+        return send(post("/api/quiz-results", token, body));
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(HttpRequest request) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest get(String path, String token) {
+        return builder(path, token).GET().build();
+    }
+
+    private HttpRequest post(String path, String token, String body) {
+        return builder(path, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest.Builder builder(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+}
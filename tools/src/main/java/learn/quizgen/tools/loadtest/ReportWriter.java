@@ -0,0 +1,257 @@
+package learn.quizgen.tools.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Writes report.json (for comparing runs) and report.html (for reading) with, per endpoint, the
+// request count, error rate, status codes and latency percentiles, plus a per-second timeline.
+public class ReportWriter {
+
+    private static final double[] PERCENTILES = {50, 90, 95, 99, 99.9};
+
+    private final ObjectMapper objectMapper;
+
+    public ReportWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public Path write(ExamSurgeOptions options, int quizId, LatencyRecorder setup, LatencyRecorder surge) throws IOException {
+        List<EndpointStats> setupStats = summarize(setup.getSamples());
+        List<EndpointStats> surgeStats = summarize(surge.getSamples());
+        Map<Long, EndpointStats> timeline = timeline(surge.getSamples());
+
+        Path directory = options.getReportDirectory();
+        Files.createDirectories(directory);
+
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("generatedAt", OffsetDateTime.now().toString());
+        ObjectNode scenario = json.putObject("scenario");
+        scenario.put("baseUrl", options.getBaseUrl());
+        scenario.put("students", options.getStudents());
+        scenario.put("quizId", quizId);
+        scenario.put("loginWindowSeconds", options.getLoginWindowSeconds());
+        scenario.put("thinkTimeSeconds", options.getThinkTimeSeconds());
+        scenario.put("examSeconds", options.getExamSeconds());
+        scenario.put("submitWindowSeconds", options.getSubmitWindowSeconds());
+        scenario.put("seed", options.getSeed());
+        writeStats(json.putArray("endpoints"), surgeStats);
+        writeStats(json.putArray("setup"), setupStats);
+        ArrayNode seconds = json.putArray("timeline");
+        for (Map.Entry<Long, EndpointStats> second : timeline.entrySet()) {
+            ObjectNode node = seconds.addObject();
+            node.put("second", second.getKey());
+            node.put("requests", second.getValue().count());
+            node.put("errors", second.getValue().errors);
+            node.put("p95Millis", second.getValue().percentileMillis(95));
+        }
+        objectMapper.writer().with(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(directory.resolve("report.json").toFile(), json);
+
+        Files.write(directory.resolve("report.html"),
+                html(options, quizId, surgeStats, setupStats, timeline).getBytes(StandardCharsets.UTF_8));
+
+        printSummary(surgeStats);
+        return directory;
+    }
+
+    private List<EndpointStats> summarize(List<LatencyRecorder.Sample> samples) {
+        Map<String, EndpointStats> byEndpoint = new LinkedHashMap<>();
+        for (LatencyRecorder.Sample sample : samples) {
+            byEndpoint.computeIfAbsent(sample.getEndpoint(), endpoint -> new EndpointStats(sample.getPhase(), endpoint))
+                    .add(sample);
+        }
+        List<EndpointStats> stats = new ArrayList<>(byEndpoint.values());
+        stats.sort((a, b) -> Long.compare(a.firstOffsetMillis, b.firstOffsetMillis));
+        return stats;
+    }
+
+    private Map<Long, EndpointStats> timeline(List<LatencyRecorder.Sample> samples) {
+        Map<Long, EndpointStats> seconds = new TreeMap<>();
+        for (LatencyRecorder.Sample sample : samples) {
+            seconds.computeIfAbsent(sample.getOffsetMillis() / 1000, second -> new EndpointStats("", ""))
+                    .add(sample);
+        }
+        return seconds;
+    }
+
+    private void writeStats(ArrayNode array, List<EndpointStats> stats) {
+        for (EndpointStats endpoint : stats) {
+            ObjectNode node = array.addObject();
+            node.put("phase", endpoint.phase);
+            node.put("endpoint", endpoint.endpoint);
+            node.put("requests", endpoint.count());
+            node.put("errors", endpoint.errors);
+            node.put("errorRate", endpoint.errorRate());
+            ObjectNode statuses = node.putObject("statusCodes");
+            endpoint.statuses.forEach((status, count) -> statuses.put(statusName(status), count));
+            ObjectNode latency = node.putObject("latencyMillis");
+            latency.put("mean", endpoint.meanMillis());
+            for (double percentile : PERCENTILES) {
+                latency.put("p" + percentileName(percentile), endpoint.percentileMillis(percentile));
+            }
+            latency.put("max", endpoint.percentileMillis(100));
+        }
+    }
+
+    private String html(ExamSurgeOptions options, int quizId, List<EndpointStats> surge, List<EndpointStats> setup,
+                        Map<Long, EndpointStats> timeline) {
+        StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>Exam surge report</title><style>")
+                .append("body{font-family:sans-serif;margin:2em}table{border-collapse:collapse;margin-bottom:2em}")
+                .append("th,td{border:1px solid #ccc;padding:4px 8px;text-align:right}th:first-child,td:first-child,")
+                .append("th:nth-child(2),td:nth-child(2){text-align:left}.bad{color:#b00;font-weight:bold}")
+                .append(".bar{background:#4a90d9;height:10px;display:inline-block}.err{background:#d9534f}")
+                .append("</style></head><body>");
+        html.append("<h1>Exam surge: ").append(options.getStudents()).append(" students</h1><p>")
+                .append(escape(options.getBaseUrl())).append(", quiz ").append(quizId)
+                .append(", logins over ~").append(options.getLoginWindowSeconds()).append("s, think time ")
+                .append(options.getThinkTimeSeconds()).append("s, submissions from ")
+                .append(options.getExamSeconds()).append("s over ~").append(options.getSubmitWindowSeconds())
+                .append("s, seed ").append(options.getSeed()).append(". Latency is measured from each request's ")
+                .append("scheduled start.</p>");
+
+        html.append("<h2>Exam</h2>");
+        statsTable(html, surge);
+        html.append("<h2>Setup</h2>");
+        statsTable(html, setup);
+
+        html.append("<h2>Timeline</h2><table><tr><th>second</th><th>requests</th><th>errors</th><th>p95 ms</th></tr>");
+        long busiest = timeline.values().stream().mapToLong(EndpointStats::count).max().orElse(1);
+        for (Map.Entry<Long, EndpointStats> second : timeline.entrySet()) {
+            EndpointStats stats = second.getValue();
+            html.append("<tr><td>").append(second.getKey()).append("</td><td><span class=\"bar\" style=\"width:")
+                    .append(stats.count() * 300 / busiest).append("px\"></span> ").append(stats.count())
+                    .append("</td><td>").append(stats.errors == 0 ? "0" : "<span class=\"bad\">" + stats.errors + "</span>")
+                    .append("</td><td>").append(format(stats.percentileMillis(95))).append("</td></tr>");
+        }
+        html.append("</table></body></html>");
+        return html.toString();
+    }
+
+    private void statsTable(StringBuilder html, List<EndpointStats> stats) {
+        html.append("<table><tr><th>phase</th><th>endpoint</th><th>requests</th><th>errors</th><th>error rate</th>")
+                .append("<th>status codes</th><th>mean ms</th>");
+        for (double percentile : PERCENTILES) {
+            html.append("<th>p").append(percentileName(percentile)).append(" ms</th>");
+        }
+        html.append("<th>max ms</th></tr>");
+
+        for (EndpointStats endpoint : stats) {
+            html.append("<tr><td>").append(escape(endpoint.phase)).append("</td><td>").append(escape(endpoint.endpoint))
+                    .append("</td><td>").append(endpoint.count()).append("</td><td>").append(endpoint.errors)
+                    .append("</td><td").append(endpoint.errors > 0 ? " class=\"bad\">" : ">")
+                    .append(String.format("%.2f%%", endpoint.errorRate() * 100)).append("</td><td>");
+            endpoint.statuses.forEach((status, count) -> html.append(statusName(status)).append(": ").append(count).append(' '));
+            html.append("</td><td>").append(format(endpoint.meanMillis())).append("</td>");
+            for (double percentile : PERCENTILES) {
+                html.append("<td>").append(format(endpoint.percentileMillis(percentile))).append("</td>");
+            }
+            html.append("<td>").append(format(endpoint.percentileMillis(100))).append("</td></tr>");
+        }
+        html.append("</table>");
+    }
+
+    private void printSummary(List<EndpointStats> stats) {
+        System.out.printf("%-32s %8s %8s %10s %10s %10s %10s%n", "endpoint", "requests", "errors", "p50 ms", "p95 ms",
+                "p99 ms", "max ms");
+        for (EndpointStats endpoint : stats) {
+            System.out.printf("%-32s %8s %8s %10.1f %10.1f %10.1f %10.1f%n", endpoint.endpoint, endpoint.count(),
+                    endpoint.errors, endpoint.percentileMillis(50), endpoint.percentileMillis(95),
+                    endpoint.percentileMillis(99), endpoint.percentileMillis(100));
+        }
+    }
+
+    private static String statusName(int status) {
+        if (status == LatencyRecorder.NO_RESPONSE) {
+            return "no response";
+        }
+        if (status == LatencyRecorder.SKIPPED) {
+            return "skipped";
+        }
+        return String.valueOf(status);
+    }
+
+    private static String percentileName(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile);
+    }
+
+    private static String format(double millis) {
+        return String.format("%.1f", millis);
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    private static class EndpointStats {
+        private final String phase;
+        private final String endpoint;
+        private final Map<Integer, Integer> statuses = new TreeMap<>();
+        private long[] latencies = new long[64];
+        private int size;
+        private int errors;
+        private long firstOffsetMillis = Long.MAX_VALUE;
+        private boolean sorted;
+
+        EndpointStats(String phase, String endpoint) {
+            this.phase = phase;
+            this.endpoint = endpoint;
+        }
+
+        void add(LatencyRecorder.Sample sample) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = sample.getLatencyMicros();
+            sorted = false;
+            statuses.merge(sample.getStatus(), 1, Integer::sum);
+            if (sample.isError()) {
+                errors++;
+            }
+            firstOffsetMillis = Math.min(firstOffsetMillis, sample.getOffsetMillis());
+        }
+
+        long count() {
+            return size;
+        }
+
+        double errorRate() {
+            return size == 0 ? 0 : (double) errors / size;
+        }
+
+        double meanMillis() {
+            long total = 0;
+            for (int i = 0; i < size; i++) {
+                total += latencies[i];
+            }
+            return size == 0 ? 0 : total / 1000.0 / size;
+        }
+
+        // Nearest rank percentile over every sample, no histogram bucketing
+        double percentileMillis(double percentile) {
+            if (size == 0) {
+                return 0;
+            }
+            if (!sorted) {
+                Arrays.sort(latencies, 0, size);
+                sorted = true;
+            }
+            int rank = (int) Math.ceil(percentile / 100 * size);
+            return latencies[Math.max(0, Math.min(size, rank) - 1)] / 1000.0;
+        }
+    }
+}